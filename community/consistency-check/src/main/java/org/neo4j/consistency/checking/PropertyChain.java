@@ -55,6 +55,7 @@ public class PropertyChain<RECORD extends PrimitiveRecord, REPORT extends Consis
             {
                 engine.report().propertyNotFirstInChain( firstProp );
             }
+            checkInlinedProperties( record, firstProp, engine );
 
             try ( PrimitiveIntSet keys = Primitive.intSet();
                   MandatoryProperties.Check<RECORD,REPORT> mandatory = mandatoryProperties.apply( record ) )
@@ -68,6 +69,41 @@ public class PropertyChain<RECORD extends PrimitiveRecord, REPORT extends Consis
                 }
             }
         }
+        else if ( record.hasInlinedProperties() )
+        {
+            engine.report().inlinedPropertiesDifferFromPropertyChain();
+        }
+    }
+
+    private void checkInlinedProperties( RECORD record, PropertyRecord firstProp, CheckerEngine<RECORD,REPORT> engine )
+    {
+        if ( !record.hasInlinedProperties() )
+        {
+            // The record format decides whether or not a chain fits, so a missing copy is not an inconsistency.
+            return;
+        }
+        if ( !firstProp.inUse() || !Record.NO_NEXT_PROPERTY.is( firstProp.getNextProp() ) ||
+             !sameBlocks( record.getInlinedPropertyBlocks(), record.getNumberOfInlinedPropertyBlocks(),
+                     firstProp.getBlocks(), firstProp.getNumberOfBlocks() ) )
+        {
+            engine.report().inlinedPropertiesDifferFromPropertyChain();
+        }
+    }
+
+    private static boolean sameBlocks( long[] inlined, int numberOfInlined, long[] blocks, int numberOfBlocks )
+    {
+        if ( numberOfInlined != numberOfBlocks )
+        {
+            return false;
+        }
+        for ( int i = 0; i < numberOfBlocks; i++ )
+        {
+            if ( inlined[i] != blocks[i] )
+            {
+                return false;
+            }
+        }
+        return true;
     }
 
     private void checkChainItem( PropertyRecord property, CheckerEngine<RECORD,REPORT> engine,
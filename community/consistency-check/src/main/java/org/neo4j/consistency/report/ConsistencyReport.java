@@ -117,6 +117,9 @@ public interface ConsistencyReport
 
         @Documented( "The property chain does not contain a property that is mandatory for this entity." )
         void missingMandatoryProperty( int key );
+
+        @Documented( "The inlined copy of the property chain in this record does not match the property chain in the property store." )
+        void inlinedPropertiesDifferFromPropertyChain();
     }
 
     interface NeoStoreConsistencyReport extends PrimitiveConsistencyReport
@@ -69,5 +69,16 @@ public class AccessStatsKeepingStoreAccess extends StoreAccess
             accessStats.upRead( id );
             return super.getRecord( id, record, load );
         }
+
+        @Override
+        public int getRecordBatch( long firstId, RECORD[] batch, RecordLoad load )
+        {
+            int count = super.getRecordBatch( firstId, batch, load );
+            for ( int i = 0; i < count; i++ )
+            {
+                accessStats.upRead( firstId + i );
+            }
+            return count;
+        }
     }
 }
@@ -33,9 +33,11 @@ import org.neo4j.kernel.impl.store.DynamicRecordAllocator;
 import org.neo4j.kernel.impl.store.InlineNodeLabels;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PreAllocatedRecords;
+import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
 import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
@@ -144,6 +146,96 @@ public class NodeRecordCheckTest
         verifyNoMoreInteractions( report );
     }
 
+    @Test
+    public void shouldNotReportInlinedPropertiesThatMatchThePropertyChain() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, false, NONE, 11 ) );
+        PropertyRecord property = add( singlePropertyRecord( 11, 1, 2 ) );
+        inline( node, property );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportInlinedPropertiesThatDifferFromThePropertyChain() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, false, NONE, 11 ) );
+        inline( node, singlePropertyRecord( 11, 1, 2 ) );
+        add( singlePropertyRecord( 11, 1, 3 ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).inlinedPropertiesDifferFromPropertyChain();
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportInlinedPropertiesOfNodeWithLongerPropertyChain() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, false, NONE, 11 ) );
+        PropertyRecord first = add( singlePropertyRecord( 11, 1 ) );
+        PropertyRecord second = add( singlePropertyRecord( 12, 2 ) );
+        first.setNextProp( 12 );
+        second.setPrevProp( 11 );
+        inline( node, first );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).inlinedPropertiesDifferFromPropertyChain();
+        verifyNoMoreInteractions( report );
+    }
+
+    @Test
+    public void shouldReportInlinedPropertiesOfNodeWithoutProperties() throws Exception
+    {
+        // given
+        NodeRecord node = inUse( new NodeRecord( 42, false, NONE, NONE ) );
+        inline( node, singlePropertyRecord( 11, 1 ) );
+
+        // when
+        ConsistencyReport.NodeConsistencyReport report = check( node );
+
+        // then
+        verify( report ).inlinedPropertiesDifferFromPropertyChain();
+        verifyNoMoreInteractions( report );
+    }
+
+    private static PropertyRecord singlePropertyRecord( long id, int... keys )
+    {
+        PropertyRecord property = inUse( new PropertyRecord( id ) );
+        property.setPrevProp( Record.NO_PREVIOUS_PROPERTY.intValue() );
+        property.setNextProp( Record.NO_NEXT_PROPERTY.intValue() );
+        for ( int key : keys )
+        {
+            PropertyBlock block = new PropertyBlock();
+            PropertyStore.encodeValue( block, key, key, null, null );
+            for ( long valueBlock : block.getValueBlocks() )
+            {
+                property.addLoadedBlock( valueBlock );
+            }
+        }
+        return property;
+    }
+
+    private static void inline( NodeRecord node, PropertyRecord property )
+    {
+        for ( int i = 0; i < property.getNumberOfBlocks(); i++ )
+        {
+            node.addInlinedPropertyBlock( property.getBlocks()[i] );
+        }
+    }
+
     @Test
     public void shouldReportRelationshipForOtherNodes() throws Exception
     {
@@ -23,6 +23,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 /**
  * A page caching mechanism that allows caching multiple files and accessing their data
@@ -79,4 +82,14 @@ public interface PageCache extends AutoCloseable
 
     /** The max number of cached pages. */
     int maxCachedPages();
+
+    /**
+     * List the paged files that are currently mapped by this page cache.
+     * <p>
+     * The returned paged files are not reference counted, so they can be unmapped at any time by their owners.
+     */
+    List<PagedFile> listExistingMappings();
+
+    /** The counters of each of the files that are currently mapped by this page cache. */
+    List<PagedFileCounters> listPagedFileCounters();
 }
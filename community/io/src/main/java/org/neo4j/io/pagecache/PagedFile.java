@@ -58,13 +58,23 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * Cursors opened with this flag will ask the page cache to asynchronously prefetch the pages that follow the
+     * current page, so that a sequential scan does not have to wait for each page fault in turn. Both read and write
+     * cursors honour the hint, but only pages that already exist in the file are read ahead. The hint is ignored if
+     * the page cache is too busy to take on more read-ahead work.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
-     * Do not load in the page if it is not loaded already. Only useful with
-     * exclusive locking when you want to overwrite the whole page anyway.
+     * Do not load in the page if it is not loaded already.
+     * <p>
+     * If the page is in memory, then the cursor will be pinned to it as usual. Otherwise, {@code next} will still
+     * return {@code true}, but the cursor will not be bound to any page: its
+     * {@link PageCursor#getCurrentPageId() current page id} will be {@link PageCursor#UNBOUND_PAGE_ID}, and the data
+     * read from it is meaningless. This makes it possible to find out which pages are in memory, without disturbing
+     * the contents of the page cache.
      */
-    int PF_NO_FAULT = 1 << 4; // TBD
+    int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
      */
@@ -130,6 +140,11 @@ public interface PagedFile extends AutoCloseable
      */
     int pageSize();
 
+    /**
+     * Get the file that this paged file is a mapping of.
+     */
+    File file();
+
     /**
      * Flush all dirty pages into the file channel, and force the file channel to disk.
      */
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.Page;
+import org.neo4j.io.pagecache.monitoring.CompressedPageTierCounters;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A second tier of the page cache, that keeps compressed copies of evicted pages in native memory, such that faulting
+ * them back in only costs a decompression, rather than a read from the file.
+ * <p>
+ * The tier is exclusive: a page is put in the tier when it is evicted from the page cache, and taken out of the tier
+ * again when it is faulted back in. A page is therefore never both in the page cache and in the tier, and the copy in
+ * the tier is always the same as what is in the file, since pages are flushed before they are evicted.
+ * <p>
+ * Each file has its own table of compressed pages, which is owned by its {@link CompressedPageTierSwapper}. The memory
+ * budget is shared by all files, and when it is used up, the pages that have been in the tier the longest are dropped
+ * to make room. Whoever manages to remove an entry from its table, is the one who frees its memory.
+ */
+public class CompressedPageTier implements CompressedPageTierCounters
+{
+    // Pages that do not compress to at most this many eighths of their size are not worth keeping in the tier.
+    private static final int MAX_COMPRESSED_EIGHTHS = 6;
+    // Entries that are taken out of their tables stay in the eviction queue until we get around to purging them.
+    private static final long PURGE_THRESHOLD = 1024;
+
+    private final long maxMemory;
+    private final ConcurrentLinkedQueue<Entry> evictionQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong usedMemory = new AtomicLong();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong staleQueueEntries = new AtomicLong();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial( Scratch::new );
+
+    /**
+     * @param maxMemory The maximum number of bytes of native memory to use for the compressed pages.
+     */
+    public CompressedPageTier( long maxMemory )
+    {
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Compress the given page, and put it in the given table, if it compresses well and there is room for it.
+     */
+    void store( ConcurrentMap<Long,Entry> table, long filePageId, Page page, int length )
+    {
+        Scratch scratch = this.scratch.get();
+        long buffer = scratch.buffer( PageCompressor.maxCompressedLength( length ) );
+        int compressedLength = PageCompressor.compress( page.address(), length, buffer, scratch.hashTable );
+        if ( compressedLength > length / 8 * MAX_COMPRESSED_EIGHTHS || !reserve( compressedLength ) )
+        {
+            rejections.increment();
+            return;
+        }
+
+        long address = UnsafeUtil.allocateMemory( compressedLength );
+        UnsafeUtil.copyMemory( buffer, address, compressedLength );
+        Entry entry = new Entry( table, filePageId, address, compressedLength );
+        pages.incrementAndGet();
+        Entry previous = table.put( filePageId, entry );
+        if ( previous != null )
+        {
+            release( previous );
+        }
+        evictionQueue.offer( entry );
+        stores.increment();
+        purgeIfNeeded();
+    }
+
+    /**
+     * Take the given page out of the given table, and decompress it into the given page.
+     *
+     * @return {@code true} if the page was in the tier, otherwise {@code false}.
+     */
+    boolean load( ConcurrentMap<Long,Entry> table, long filePageId, Page page, int length )
+    {
+        Entry entry = table.remove( filePageId );
+        if ( entry == null )
+        {
+            misses.increment();
+            return false;
+        }
+        int decompressedLength = PageCompressor.decompress( entry.address, entry.length, page.address(), length );
+        assert decompressedLength == length :
+                "Decompressed " + decompressedLength + " bytes for a page of " + length + " bytes";
+        release( entry );
+        hits.increment();
+        return true;
+    }
+
+    /**
+     * Drop all of the pages in the given table, and free their memory.
+     */
+    void discard( ConcurrentMap<Long,Entry> table )
+    {
+        for ( Entry entry : table.values() )
+        {
+            if ( table.remove( entry.filePageId, entry ) )
+            {
+                release( entry );
+            }
+        }
+    }
+
+    private boolean reserve( int length )
+    {
+        if ( length > maxMemory )
+        {
+            return false;
+        }
+        long used;
+        do
+        {
+            used = usedMemory.get();
+            while ( used + length > maxMemory )
+            {
+                if ( !evictOldest() )
+                {
+                    return false;
+                }
+                used = usedMemory.get();
+            }
+        }
+        while ( !usedMemory.compareAndSet( used, used + length ) );
+        return true;
+    }
+
+    private boolean evictOldest()
+    {
+        Entry entry = evictionQueue.poll();
+        if ( entry == null )
+        {
+            return false;
+        }
+        if ( entry.table.remove( entry.filePageId, entry ) )
+        {
+            free( entry );
+            evictions.increment();
+        }
+        else
+        {
+            staleQueueEntries.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Release an entry that has been removed from its table, but is still in the eviction queue.
+     */
+    private void release( Entry entry )
+    {
+        free( entry );
+        staleQueueEntries.incrementAndGet();
+    }
+
+    private void free( Entry entry )
+    {
+        UnsafeUtil.free( entry.address );
+        usedMemory.addAndGet( -entry.length );
+        pages.decrementAndGet();
+    }
+
+    private void purgeIfNeeded()
+    {
+        long stale = staleQueueEntries.get();
+        if ( stale > PURGE_THRESHOLD && stale > pages.get() && purging.compareAndSet( false, true ) )
+        {
+            try
+            {
+                Iterator<Entry> iterator = evictionQueue.iterator();
+                while ( iterator.hasNext() )
+                {
+                    Entry entry = iterator.next();
+                    if ( entry.table.get( entry.filePageId ) != entry )
+                    {
+                        iterator.remove();
+                        staleQueueEntries.decrementAndGet();
+                    }
+                }
+            }
+            finally
+            {
+                purging.set( false );
+            }
+        }
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long misses()
+    {
+        return misses.sum();
+    }
+
+    @Override
+    public long stores()
+    {
+        return stores.sum();
+    }
+
+    @Override
+    public long rejections()
+    {
+        return rejections.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public long pages()
+    {
+        return pages.get();
+    }
+
+    @Override
+    public long usedMemory()
+    {
+        return usedMemory.get();
+    }
+
+    static final class Entry
+    {
+        private final ConcurrentMap<Long,Entry> table;
+        private final long filePageId;
+        private final long address;
+        private final int length;
+
+        Entry( ConcurrentMap<Long,Entry> table, long filePageId, long address, int length )
+        {
+            this.table = table;
+            this.filePageId = filePageId;
+            this.address = address;
+            this.length = length;
+        }
+    }
+
+    /**
+     * The per-thread memory that pages are compressed into, before we know how much memory to allocate for them.
+     */
+    private static final class Scratch
+    {
+        private final int[] hashTable = new int[PageCompressor.HASH_TABLE_SIZE];
+        private ByteBuffer buffer;
+
+        long buffer( int length )
+        {
+            if ( buffer == null || buffer.capacity() < length )
+            {
+                buffer = ByteBuffer.allocateDirect( length );
+            }
+            return UnsafeUtil.getDirectByteBufferAddress( buffer );
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.io.pagecache.Page;
+import org.neo4j.io.pagecache.PageSwapper;
+
+/**
+ * A PageSwapper that puts the pages it evicts in a {@link CompressedPageTier}, and looks for the pages it faults in,
+ * in that tier, before it reads them from the file through the swapper it wraps.
+ */
+class CompressedPageTierSwapper implements PageSwapper
+{
+    private final PageSwapper delegate;
+    private final CompressedPageTier tier;
+    private final int filePageSize;
+    private final ConcurrentMap<Long,CompressedPageTier.Entry> compressedPages = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    CompressedPageTierSwapper( PageSwapper delegate, CompressedPageTier tier, int filePageSize )
+    {
+        this.delegate = delegate;
+        this.tier = tier;
+        this.filePageSize = filePageSize;
+    }
+
+    @Override
+    public long read( long filePageId, Page page ) throws IOException
+    {
+        if ( tier.load( compressedPages, filePageId, page, filePageSize ) )
+        {
+            return filePageSize;
+        }
+        return delegate.read( filePageId, page );
+    }
+
+    @Override
+    public long read( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
+    {
+        if ( compressedPages.isEmpty() )
+        {
+            return delegate.read( startFilePageId, pages, arrayOffset, length );
+        }
+        long bytesRead = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            bytesRead += read( startFilePageId + i, pages[arrayOffset + i] );
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long filePageId, Page page ) throws IOException
+    {
+        return delegate.write( filePageId, page );
+    }
+
+    @Override
+    public long write( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
+    {
+        return delegate.write( startFilePageId, pages, arrayOffset, length );
+    }
+
+    @Override
+    public void evicted( long filePageId, Page page )
+    {
+        // The page must go into the tier before the eviction callback removes it from the translation table. Until
+        // then, anyone who wants to fault in this file page will find the page we are evicting, and wait for us.
+        if ( !closed )
+        {
+            tier.store( compressedPages, filePageId, page, filePageSize );
+            if ( closed )
+            {
+                // We raced with close(), and might have stored the page after the tier was discarded.
+                tier.discard( compressedPages );
+            }
+        }
+        delegate.evicted( filePageId, page );
+    }
+
+    @Override
+    public File file()
+    {
+        return delegate.file();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        tier.discard( compressedPages );
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        closed = true;
+        tier.discard( compressedPages );
+        delegate.closeAndDelete();
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        tier.discard( compressedPages );
+        delegate.truncate();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressedPageTierSwapper{" + delegate + '}';
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+/**
+ * A PageSwapperFactory that adds a {@link CompressedPageTier} in front of the page swappers of another factory.
+ */
+public class CompressedPageTierSwapperFactory implements PageSwapperFactory
+{
+    private final PageSwapperFactory delegate;
+    private final CompressedPageTier tier;
+
+    public CompressedPageTierSwapperFactory( PageSwapperFactory delegate, CompressedPageTier tier )
+    {
+        this.delegate = delegate;
+        this.tier = tier;
+    }
+
+    @Override
+    public void setFileSystemAbstraction( FileSystemAbstraction fs )
+    {
+        delegate.setFileSystemAbstraction( fs );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist ) throws IOException
+    {
+        PageSwapper swapper = delegate.createPageSwapper( file, filePageSize, onEviction, createIfNotExist );
+        return new CompressedPageTierSwapper( swapper, tier, filePageSize );
+    }
+
+    @Override
+    public void syncDevice() throws IOException
+    {
+        delegate.syncDevice();
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return delegate.implementationName();
+    }
+
+    @Override
+    public int getCachePageSizeHint()
+    {
+        return delegate.getCachePageSizeHint();
+    }
+
+    @Override
+    public boolean isCachePageSizeHintStrict()
+    {
+        return delegate.isCachePageSizeHintStrict();
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return delegate.getRequiredBufferAlignment();
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.util.Arrays;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * Compresses and decompresses bytes using the LZ4 block format, either in native memory, like the contents of pages,
+ * or in byte arrays, like serialized values and log entries.
+ * <p>
+ * This is a straight forward single pass compressor with a small hash table of recently seen 4-byte sequences. It
+ * gives up some compression ratio in favour of speed, since it is used on the eviction path of the page cache. The
+ * hash table is kept by the caller, so it can be reused between calls without allocating.
+ * <p>
+ * Decompression checks every read and write against the bounds of the source and destination, since compressed
+ * bytes may come from disk and be corrupt.
+ */
+public final class PageCompressor
+{
+    public static final int HASH_TABLE_SIZE = 1 << 12;
+
+    private static final long BYTE_ARRAY_BASE_OFFSET = UnsafeUtil.arrayBaseOffset( byte[].class );
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_DISTANCE = (1 << 16) - 1;
+    private static final int RUN_MASK = 0xF;
+    private static final int HASH_SHIFT = 32 - 12;
+    private static final int SKIP_TRIGGER = 6;
+
+    private PageCompressor()
+    {
+    }
+
+    /**
+     * @return the largest number of bytes that {@link #compress} can produce for the given input length.
+     */
+    public static int maxCompressedLength( int length )
+    {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress the given number of bytes at the source address, into the destination address, which must have room for
+     * at least {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the compressed length.
+     */
+    public static int compress( long src, int length, long dst, int[] hashTable )
+    {
+        return compress( null, src, length, null, dst, hashTable );
+    }
+
+    /**
+     * Compress the given number of bytes at the source offset, into the destination at the given offset, which must
+     * have room for at least {@link #maxCompressedLength(int)} bytes.
+     *
+     * @return the compressed length.
+     */
+    public static int compress( byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int[] hashTable )
+    {
+        checkBounds( src, srcOffset, length );
+        checkBounds( dst, dstOffset, maxCompressedLength( length ) );
+        return compress( src, BYTE_ARRAY_BASE_OFFSET + srcOffset, length,
+                dst, BYTE_ARRAY_BASE_OFFSET + dstOffset, hashTable );
+    }
+
+    /**
+     * Decompress the given number of compressed bytes at the source address, into the destination address, which has
+     * room for the given number of bytes.
+     *
+     * @return the decompressed length.
+     * @throws IllegalArgumentException if the compressed bytes are corrupt.
+     */
+    public static int decompress( long src, int compressedLength, long dst, int dstLength )
+    {
+        return decompress( null, src, compressedLength, null, dst, dstLength );
+    }
+
+    /**
+     * Decompress the given number of compressed bytes at the source offset, into the destination at the given offset,
+     * which has room for the given number of bytes.
+     *
+     * @return the decompressed length.
+     * @throws IllegalArgumentException if the compressed bytes are corrupt.
+     */
+    public static int decompress( byte[] src, int srcOffset, int compressedLength,
+            byte[] dst, int dstOffset, int dstLength )
+    {
+        checkBounds( src, srcOffset, compressedLength );
+        checkBounds( dst, dstOffset, dstLength );
+        return decompress( src, BYTE_ARRAY_BASE_OFFSET + srcOffset, compressedLength,
+                dst, BYTE_ARRAY_BASE_OFFSET + dstOffset, dstLength );
+    }
+
+    private static int compress( Object srcBase, long src, int length, Object dstBase, long dst, int[] hashTable )
+    {
+        Arrays.fill( hashTable, -1 );
+        int anchor = 0;
+        int op = 0;
+        if ( length >= MATCH_FIND_LIMIT + 1 )
+        {
+            int matchLimit = length - LAST_LITERALS;
+            int findLimit = length - MATCH_FIND_LIMIT;
+            int ip = 0;
+            int searchCount = 1 << SKIP_TRIGGER;
+            while ( ip < findLimit )
+            {
+                int sequence = getInt( srcBase, src + ip );
+                int hash = (sequence * -1640531535) >>> HASH_SHIFT;
+                int ref = hashTable[hash];
+                hashTable[hash] = ip;
+                if ( ref < 0 || ip - ref > MAX_DISTANCE || getInt( srcBase, src + ref ) != sequence )
+                {
+                    // Step faster through data that does not compress.
+                    ip += searchCount++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searchCount = 1 << SKIP_TRIGGER;
+
+                while ( ip > anchor && ref > 0 &&
+                        getByte( srcBase, src + ip - 1 ) == getByte( srcBase, src + ref - 1 ) )
+                {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH + commonBytes( srcBase, src + ip + MIN_MATCH, src + ref + MIN_MATCH,
+                        matchLimit - ip - MIN_MATCH );
+                op = writeSequence( srcBase, src + anchor, ip - anchor, ip - ref, matchLength, dstBase, dst, op );
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        return writeLastLiterals( srcBase, src + anchor, length - anchor, dstBase, dst, op );
+    }
+
+    private static int decompress( Object srcBase, long src, int compressedLength,
+            Object dstBase, long dst, int dstLength )
+    {
+        int ip = 0;
+        int op = 0;
+        while ( true )
+        {
+            checkCorrupt( ip < compressedLength );
+            int token = getByte( srcBase, src + ip++ ) & 0xFF;
+            int literalLength = token >>> 4;
+            if ( literalLength == RUN_MASK )
+            {
+                int b;
+                do
+                {
+                    checkCorrupt( ip < compressedLength );
+                    b = getByte( srcBase, src + ip++ ) & 0xFF;
+                    literalLength += b;
+                }
+                while ( b == 255 );
+            }
+            checkCorrupt( literalLength <= compressedLength - ip && literalLength <= dstLength - op );
+            UnsafeUtil.copyMemory( srcBase, src + ip, dstBase, dst + op, literalLength );
+            ip += literalLength;
+            op += literalLength;
+            if ( ip == compressedLength )
+            {
+                return op;
+            }
+
+            checkCorrupt( ip + 2 <= compressedLength );
+            int offset = (getByte( srcBase, src + ip ) & 0xFF) | ((getByte( srcBase, src + ip + 1 ) & 0xFF) << 8);
+            ip += 2;
+            int matchLength = token & RUN_MASK;
+            if ( matchLength == RUN_MASK )
+            {
+                int b;
+                do
+                {
+                    checkCorrupt( ip < compressedLength );
+                    b = getByte( srcBase, src + ip++ ) & 0xFF;
+                    matchLength += b;
+                }
+                while ( b == 255 );
+            }
+            matchLength += MIN_MATCH;
+            checkCorrupt( offset > 0 && offset <= op && matchLength <= dstLength - op );
+
+            long from = dst + op - offset;
+            if ( offset >= matchLength )
+            {
+                UnsafeUtil.copyMemory( dstBase, from, dstBase, dst + op, matchLength );
+            }
+            else
+            {
+                // The match overlaps the bytes it produces, which is how runs are encoded.
+                for ( int i = 0; i < matchLength; i++ )
+                {
+                    UnsafeUtil.putByte( dstBase, dst + op + i, UnsafeUtil.getByte( dstBase, from + i ) );
+                }
+            }
+            op += matchLength;
+        }
+    }
+
+    private static void checkBounds( byte[] array, int offset, int length )
+    {
+        if ( offset < 0 || length < 0 || length > array.length - offset )
+        {
+            throw new ArrayIndexOutOfBoundsException( "Range [" + offset + "," + ((long) offset + length) +
+                                                      ") is out of bounds for an array of length " + array.length );
+        }
+    }
+
+    private static void checkCorrupt( boolean withinBounds )
+    {
+        if ( !withinBounds )
+        {
+            throw new IllegalArgumentException( "Compressed bytes are corrupt" );
+        }
+    }
+
+    private static int commonBytes( Object base, long a, long b, int limit )
+    {
+        int count = 0;
+        if ( UnsafeUtil.allowUnalignedMemoryAccess )
+        {
+            while ( count + Long.BYTES <= limit )
+            {
+                long diff = UnsafeUtil.getLong( base, a + count ) ^ UnsafeUtil.getLong( base, b + count );
+                if ( diff != 0 )
+                {
+                    return count + (UnsafeUtil.storeByteOrderIsNative
+                                    ? Long.numberOfLeadingZeros( diff ) : Long.numberOfTrailingZeros( diff )) / 8;
+                }
+                count += Long.BYTES;
+            }
+        }
+        while ( count < limit && getByte( base, a + count ) == getByte( base, b + count ) )
+        {
+            count++;
+        }
+        return count;
+    }
+
+    private static int writeSequence( Object srcBase, long literals, int literalLength, int offset, int matchLength,
+            Object dstBase, long dst, int op )
+    {
+        int tokenPosition = op++;
+        int literalToken = Math.min( literalLength, RUN_MASK );
+        op = writeLength( literalLength - RUN_MASK, literalToken == RUN_MASK, dstBase, dst, op );
+        UnsafeUtil.copyMemory( srcBase, literals, dstBase, dst + op, literalLength );
+        op += literalLength;
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) offset );
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) (offset >>> 8) );
+        int matchToken = Math.min( matchLength - MIN_MATCH, RUN_MASK );
+        op = writeLength( matchLength - MIN_MATCH - RUN_MASK, matchToken == RUN_MASK, dstBase, dst, op );
+        UnsafeUtil.putByte( dstBase, dst + tokenPosition, (byte) ((literalToken << 4) | matchToken) );
+        return op;
+    }
+
+    private static int writeLastLiterals( Object srcBase, long literals, int literalLength,
+            Object dstBase, long dst, int op )
+    {
+        int literalToken = Math.min( literalLength, RUN_MASK );
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) (literalToken << 4) );
+        op = writeLength( literalLength - RUN_MASK, literalToken == RUN_MASK, dstBase, dst, op );
+        UnsafeUtil.copyMemory( srcBase, literals, dstBase, dst + op, literalLength );
+        return op + literalLength;
+    }
+
+    private static int writeLength( int remainder, boolean needed, Object dstBase, long dst, int op )
+    {
+        if ( needed )
+        {
+            while ( remainder >= 255 )
+            {
+                UnsafeUtil.putByte( dstBase, dst + op++, (byte) 255 );
+                remainder -= 255;
+            }
+            UnsafeUtil.putByte( dstBase, dst + op++, (byte) remainder );
+        }
+        return op;
+    }
+
+    private static int getInt( Object base, long offset )
+    {
+        if ( UnsafeUtil.allowUnalignedMemoryAccess )
+        {
+            return UnsafeUtil.getInt( base, offset );
+        }
+        return (getByte( base, offset ) & 0xFF) |
+               (getByte( base, offset + 1 ) & 0xFF) << 8 |
+               (getByte( base, offset + 2 ) & 0xFF) << 16 |
+               (getByte( base, offset + 3 ) & 0xFF) << 24;
+    }
+
+    private static byte getByte( Object base, long offset )
+    {
+        return UnsafeUtil.getByte( base, offset );
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policies that the {@link MuninnPageCache} can be configured with.
+ * <p>
+ * The eviction policy decides how page accesses are accounted for, and which pages the eviction clock arm will pick
+ * as victims.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic clock-sweep, where every pin increments the usage counter of the page, and every pass of the clock
+     * arm decrements it. Pages are evicted when their usage counter reaches zero.
+     * <p>
+     * This policy is cheap, but a single large scan can push the entire working set out of the cache.
+     */
+    CLOCK
+            {
+                @Override
+                EvictionStrategy createStrategy( int maxPages )
+                {
+                    return new ClockEvictionStrategy();
+                }
+            },
+
+    /**
+     * A scan resistant clock-sweep, inspired by 2Q and CLOCK-Pro.
+     * <p>
+     * Pages are only considered hot once they have been referenced in at least two distinct clock periods after the
+     * one they were faulted in. Pages that are touched by a scan therefore stay cold, and are evicted in preference to
+     * hot pages. The hot pages are only aged by the clock arm when they take up more than a certain share of the cache.
+     */
+    SCAN_RESISTANT
+            {
+                @Override
+                EvictionStrategy createStrategy( int maxPages )
+                {
+                    return new ScanResistantEvictionStrategy( maxPages );
+                }
+            };
+
+    abstract EvictionStrategy createStrategy( int maxPages );
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The per page cache instance of an {@link EvictionPolicy}.
+ * <p>
+ * The page access methods are called on the hot path of pinning pages, so implementations should avoid writing to
+ * shared memory as much as possible. The sweep method is called by whichever thread holds a clock arm, which is
+ * usually the background eviction thread, but can also be a page faulting thread doing cooperative eviction.
+ */
+abstract class EvictionStrategy
+{
+    /**
+     * The given page has just been faulted in, and is about to be pinned for the first time.
+     */
+    abstract void pageFaulted( MuninnPage page );
+
+    /**
+     * The given page, that was already in memory, has been pinned.
+     */
+    abstract void pageHit( MuninnPage page );
+
+    /**
+     * The clock arm is passing over the given loaded page.
+     * @return {@code true} if the page should be evicted, otherwise {@code false}.
+     */
+    abstract boolean sweep( MuninnPage page );
+}
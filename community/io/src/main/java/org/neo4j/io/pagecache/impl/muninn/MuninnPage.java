@@ -57,6 +57,10 @@ final class MuninnPage extends SequenceLock implements Page
     // MuninnPageCache.freelist field.
     public Object nextFree;
 
+    // True if the page was faulted in by read-ahead, and has not been pinned by anyone else since.
+    // This is intentionally left benignly racy, since it is only used for statistics.
+    private boolean prefetched;
+
     private PageSwapper swapper;
     private long filePageId = PageCursor.UNBOUND_PAGE_ID;
 
@@ -126,24 +130,54 @@ final class MuninnPage extends SequenceLock implements Page
         return usage == 0;
     }
 
-    private byte getUsageCounter()
+    void markAsPrefetched()
+    {
+        prefetched = true;
+    }
+
+    /**
+     * Clear the prefetched mark, and return {@code true} if the page was marked as prefetched.
+     */
+    boolean clearPrefetched()
+    {
+        if ( prefetched )
+        {
+            prefetched = false;
+            return true;
+        }
+        return false;
+    }
+
+    byte getUsageCounter()
     {
         return UnsafeUtil.getByteVolatile( this, usageStampOffset );
     }
 
+    /**
+     * Overwrite the usage stamp. This is for eviction strategies that interpret the bits of the stamp differently
+     * from {@link #incrementUsage()} and {@link #decrementUsage()}.
+     */
+    void setUsageCounter( byte usage )
+    {
+        UnsafeUtil.putByteVolatile( this, usageStampOffset, usage );
+    }
+
     /**
      * NOTE: This method must be called while holding an exclusive lock on the page.
+     *
+     * @return The number of bytes written, which is zero if the page was not dirty.
      */
-    public void flush( FlushEventOpportunity flushOpportunity ) throws IOException
+    public long flush( FlushEventOpportunity flushOpportunity ) throws IOException
     {
         if ( swapper != null && isDirty() )
         {
             // The page is bound and has stuff to flush
-            doFlush( swapper, filePageId, flushOpportunity );
+            return doFlush( swapper, filePageId, flushOpportunity );
         }
+        return 0;
     }
 
-    private void doFlush(
+    private long doFlush(
             PageSwapper swapper,
             long filePageId,
             FlushEventOpportunity flushOpportunity ) throws IOException
@@ -155,6 +189,7 @@ final class MuninnPage extends SequenceLock implements Page
             markAsClean();
             event.addBytesWritten( bytesWritten );
             event.done();
+            return bytesWritten;
         }
         catch ( IOException e )
         {
@@ -165,8 +200,10 @@ final class MuninnPage extends SequenceLock implements Page
 
     /**
      * NOTE: This method MUST be called while holding the exclusive page lock.
+     *
+     * @return The number of bytes read.
      */
-    public void fault(
+    public long fault(
             PageSwapper swapper,
             long filePageId,
             PageFaultEvent faultEvent ) throws IOException
@@ -193,12 +230,15 @@ final class MuninnPage extends SequenceLock implements Page
         faultEvent.addBytesRead( bytesRead );
         faultEvent.setCachePageId( getCachePageId() );
         this.swapper = swapper; // Page now considered isBoundTo( swapper, filePageId )
+        return bytesRead;
     }
 
     /**
      * NOTE: This method MUST be called while holding the page write lock.
+     *
+     * @return The number of bytes written, if the page had to be flushed before it could be evicted.
      */
-    public void evict( EvictionEvent evictionEvent ) throws IOException
+    public long evict( EvictionEvent evictionEvent ) throws IOException
     {
         long filePageId = this.filePageId;
         evictionEvent.setCachePageId( getCachePageId() );
@@ -206,7 +246,7 @@ final class MuninnPage extends SequenceLock implements Page
         PageSwapper swapper = this.swapper;
         evictionEvent.setSwapper( swapper );
 
-        flush( evictionEvent.flushEventOpportunity() );
+        long bytesWritten = flush( evictionEvent.flushEventOpportunity() );
         this.filePageId = PageCursor.UNBOUND_PAGE_ID;
 
         this.swapper = null;
@@ -216,6 +256,7 @@ final class MuninnPage extends SequenceLock implements Page
             // that page threw an exception.
             swapper.evicted( filePageId, this );
         }
+        return bytesWritten;
     }
 
     public boolean isLoaded()
@@ -244,6 +285,11 @@ final class MuninnPage extends SequenceLock implements Page
         return filePageId;
     }
 
+    PageSwapper getSwapper()
+    {
+        return swapper;
+    }
+
     @Override
     public String toString()
     {
@@ -23,9 +23,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -34,8 +38,10 @@ import java.util.concurrent.locks.LockSupport;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -47,6 +53,7 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.flag;
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
+import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getLong;
 
 /**
  * The Muninn {@link org.neo4j.io.pagecache.PageCache page cache} implementation.
@@ -113,6 +120,20 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The maximum number of read-ahead tasks that we allow to be queued or running at any one time. Read-ahead
+    // requests beyond this limit are declined, and the requesting cursors will simply fault their pages themselves.
+    private static final int maxConcurrentReadAheads = getInteger(
+            MuninnPageCache.class, "maxConcurrentReadAheads", 4 );
+
+    // When the page memory is pre-allocated, it is grabbed from the operating system in slabs of this size, which are
+    // aligned to huge page boundaries.
+    private static final long preallocationSlabSize = getLong(
+            MuninnPageCache.class, "preallocationSlabSize", 1024 * 1024 * 1024 );
+
+    // The number of threads that touch the pre-allocated memory, to make the operating system back it with RAM.
+    private static final int preallocationThreads = getInteger(
+            MuninnPageCache.class, "preallocationThreads", Runtime.getRuntime().availableProcessors() );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -147,7 +168,9 @@ public class MuninnPageCache implements PageCache
     private final int cachePageSize;
     private final int keepFree;
     private final PageCacheTracer tracer;
+    final EvictionStrategy evictionStrategy;
     private final MuninnPage[] pages;
+    private final AtomicInteger readAheadTasks;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we can do branch-free
     // bounds checking of page accesses without fear of segfaulting newly allocated cursors.
     final long victimPage;
@@ -195,6 +218,37 @@ public class MuninnPageCache implements PageCache
             int maxPages,
             int cachePageSize,
             PageCacheTracer tracer )
+    {
+        this( swapperFactory, maxPages, cachePageSize, tracer, EvictionPolicy.CLOCK );
+    }
+
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer tracer,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, maxPages, cachePageSize, tracer, evictionPolicy, false );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param maxPages maximum number of pages
+     * @param cachePageSize page size
+     * @param tracer global page cache tracer
+     * @param evictionPolicy the policy for choosing which pages to evict
+     * @param preallocatePages {@code true} if the memory for all of the pages should be allocated and touched up
+     * front, instead of being allocated on demand as the pages are first faulted into.
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer tracer,
+            EvictionPolicy evictionPolicy,
+            boolean preallocatePages )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -205,12 +259,16 @@ public class MuninnPageCache implements PageCache
         this.cachePageSize = cachePageSize;
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.tracer = tracer;
+        this.evictionStrategy = evictionPolicy.createStrategy( maxPages );
         this.pages = new MuninnPage[maxPages];
+        this.readAheadTasks = new AtomicInteger();
         this.printExceptionsOnClose = true;
 
         long alignment = swapperFactory.getRequiredBufferAlignment();
         long expectedMaxMemory = ((long) maxPages) * cachePageSize; // cast to long prevents overflow
-        MemoryManager memoryManager = new MemoryManager( expectedMaxMemory, alignment );
+        MemoryManager memoryManager = preallocatePages
+                                      ? new MemoryManager( expectedMaxMemory, alignment, preallocationSlabSize )
+                                      : new MemoryManager( expectedMaxMemory, alignment );
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize );
         Object pageList = null;
         int pageIndex = maxPages;
@@ -239,9 +297,61 @@ public class MuninnPageCache implements PageCache
                 pageList = page;
             }
         }
+        if ( preallocatePages )
+        {
+            preallocateAndTouchPages();
+        }
         UnsafeUtil.putObjectVolatile( this, freelistOffset, pageList );
     }
 
+    private void preallocateAndTouchPages()
+    {
+        // Handing out the page buffers is cheap, since they are only slices of the slabs. However, the operating system
+        // does not back the memory with RAM until it is first written to, so we touch it all now, rather than paying
+        // for it with the first page fault to each page. This is the slow part, so we spread it over many threads.
+        for ( MuninnPage page : pages )
+        {
+            page.initBuffer();
+        }
+        int threadCount = Math.max( 1, Math.min( preallocationThreads, pages.length ) );
+        int pagesPerThread = (pages.length + threadCount - 1) / threadCount;
+        CompletableFuture<?>[] touches = new CompletableFuture<?>[threadCount];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            int fromPage = i * pagesPerThread;
+            int toPage = Math.min( fromPage + pagesPerThread, pages.length );
+            touches[i] = CompletableFuture.runAsync( () -> touchPages( fromPage, toPage ), backgroundThreadExecutor );
+        }
+        try
+        {
+            // We cannot return before all the pages are touched, since the touching would otherwise race with page
+            // faults. This waits for all of them, even if some fail, and then throws the failure.
+            CompletableFuture.allOf( touches ).join();
+        }
+        catch ( CompletionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException( "Failed to touch the memory of the page cache", cause );
+        }
+    }
+
+    private void touchPages( int fromPage, int toPage )
+    {
+        long osPageSize = UnsafeUtil.pageSize();
+        for ( int i = fromPage; i < toPage; i++ )
+        {
+            long address = pages[i].address();
+            for ( long offset = 0; offset < cachePageSize; offset += osPageSize )
+            {
+                UnsafeUtil.putByte( address + offset, (byte) 0 );
+            }
+        }
+    }
+
     private static void verifyHacks()
     {
         // Make sure that we have access to theUnsafe.
@@ -596,6 +706,32 @@ public class MuninnPageCache implements PageCache
         return pages.length;
     }
 
+    @Override
+    public List<PagedFile> listExistingMappings()
+    {
+        List<PagedFile> list = new ArrayList<>();
+        FileMapping fileMapping = mappedFiles;
+        while ( fileMapping != null )
+        {
+            list.add( fileMapping.pagedFile );
+            fileMapping = fileMapping.next;
+        }
+        return list;
+    }
+
+    @Override
+    public List<PagedFileCounters> listPagedFileCounters()
+    {
+        List<PagedFileCounters> list = new ArrayList<>();
+        FileMapping fileMapping = mappedFiles;
+        while ( fileMapping != null )
+        {
+            list.add( fileMapping.pagedFile.counters );
+            fileMapping = fileMapping.next;
+        }
+        return list;
+    }
+
     int getPageCacheId()
     {
         return pageCacheId;
@@ -684,7 +820,7 @@ public class MuninnPageCache implements PageCache
                         "The PageCache has been shut down" );
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && evictionStrategy.sweep( page ) )
             {
                 if ( page.tryExclusiveLock() )
                 {
@@ -708,6 +844,36 @@ public class MuninnPageCache implements PageCache
         return page;
     }
 
+    boolean readAhead( MuninnPagedFile pagedFile, long startPageId, long endPageId )
+    {
+        int tasks;
+        do
+        {
+            tasks = readAheadTasks.get();
+            if ( tasks >= maxConcurrentReadAheads || closed )
+            {
+                return false;
+            }
+        }
+        while ( !readAheadTasks.compareAndSet( tasks, tasks + 1 ) );
+
+        try
+        {
+            backgroundThreadExecutor.execute( new ReadAheadTask( this, pagedFile, startPageId, endPageId ) );
+            return true;
+        }
+        catch ( RejectedExecutionException e )
+        {
+            readAheadFinished();
+            return false;
+        }
+    }
+
+    void readAheadFinished()
+    {
+        readAheadTasks.decrementAndGet();
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -758,8 +924,8 @@ public class MuninnPageCache implements PageCache
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
+     * Scan through all the pages, one by one, and let the eviction strategy age them.
+     * If the strategy picks a page for eviction, we try-write-locking it, and if we get that lock,
      * we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
@@ -829,7 +995,7 @@ public class MuninnPageCache implements PageCache
                 return 0;
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && evictionStrategy.sweep( page ) )
             {
                 if ( page.tryExclusiveLock() )
                 {
@@ -893,7 +1059,18 @@ public class MuninnPageCache implements PageCache
         //noinspection TryWithIdenticalCatches - this warning is a false positive; bug in Intellij inspection
         try
         {
-            page.evict( evictionEvent );
+            boolean prefetched = page.clearPrefetched();
+            PageSwapper swapper = page.getSwapper();
+            long startNanos = System.nanoTime();
+            long bytesWritten = page.evict( evictionEvent );
+            if ( bytesWritten > 0 )
+            {
+                countEvictionFlush( swapper, bytesWritten, System.nanoTime() - startNanos );
+            }
+            if ( prefetched )
+            {
+                tracer.prefetchWasted();
+            }
             clearEvictorException();
             return true;
         }
@@ -916,6 +1093,21 @@ public class MuninnPageCache implements PageCache
         return false;
     }
 
+    private void countEvictionFlush( PageSwapper swapper, long bytesWritten, long elapsedNanos )
+    {
+        // Dirty evictions are rare and expensive enough, that we can afford to look up the file they belong to.
+        FileMapping fileMapping = mappedFiles;
+        while ( fileMapping != null )
+        {
+            if ( fileMapping.pagedFile.swapper == swapper )
+            {
+                fileMapping.pagedFile.counters.flushed( bytesWritten, elapsedNanos );
+                return;
+            }
+            fileMapping = fileMapping.next;
+        }
+    }
+
     private void clearEvictorException()
     {
         if ( evictorException != null )
@@ -27,12 +27,14 @@ import org.neo4j.concurrent.BinaryLatch;
 import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.flag;
+import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -44,6 +46,9 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // The number of pages that cursors with the PF_READ_AHEAD hint will try to keep faulted in ahead of themselves.
+    private static final int readAheadPages = getInteger( MuninnPageCursor.class, "readAheadPages", 32 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -54,12 +59,16 @@ abstract class MuninnPageCursor extends PageCursor
     protected MuninnPagedFile pagedFile;
     protected PageSwapper swapper;
     protected PageCacheTracer tracer;
+    protected EvictionStrategy evictionStrategy;
     protected MuninnPage page;
     protected PinEvent pinEvent;
     protected long pageId;
     protected int pf_flags;
     protected long currentPageId;
     protected long nextPageId;
+    protected long readAheadHorizon;
+    // Pins that found their page in memory are counted here, and reported to the file counters when we close.
+    private long pageHits;
     protected MuninnPageCursor linkedCursor;
     private long pointer;
     private int pageSize;
@@ -81,6 +90,7 @@ abstract class MuninnPageCursor extends PageCursor
     {
         this.swapper = pagedFile.swapper;
         this.tracer = pagedFile.tracer;
+        this.evictionStrategy = pagedFile.pageCache.evictionStrategy;
     }
 
     final void initialiseFlags( MuninnPagedFile pagedFile, long pageId, int pf_flags )
@@ -96,6 +106,7 @@ abstract class MuninnPageCursor extends PageCursor
     {
         nextPageId = pageId;
         currentPageId = UNBOUND_PAGE_ID;
+        readAheadHorizon = 0;
     }
 
     public final void reset( MuninnPage page )
@@ -128,6 +139,7 @@ abstract class MuninnPageCursor extends PageCursor
         do
         {
             cursor.unpinCurrentPage();
+            cursor.reportPageHits();
             cursor.releaseCursor();
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
@@ -136,6 +148,15 @@ abstract class MuninnPageCursor extends PageCursor
         while ( (cursor = cursor.getAndClearLinkedCursor()) != null );
     }
 
+    private void reportPageHits()
+    {
+        if ( pageHits > 0 && pagedFile != null )
+        {
+            pagedFile.counters.pagesHit( pageHits );
+        }
+        pageHits = 0;
+    }
+
     private MuninnPageCursor getAndClearLinkedCursor()
     {
         MuninnPageCursor cursor = linkedCursor;
@@ -199,6 +220,10 @@ abstract class MuninnPageCursor extends PageCursor
 
     /**
      * Pin the desired file page to this cursor, page faulting it into memory if it isn't there already.
+     * <p>
+     * If the cursor was opened with {@link PagedFile#PF_NO_FAULT}, and the page is not in memory, then the cursor is
+     * left unbound instead. The caller can tell the two cases apart by checking if {@link #page} is {@code null}.
+     * Such cursors also leave the eviction statistics, hit counters and prefetch markers of resident pages untouched.
      * @param filePageId The file page id we want to pin this cursor to.
      * @param writeLock 'true' if we will be taking a write lock on the page as part of the pin.
      * @throws IOException if anything goes wrong with the pin, most likely during a page fault.
@@ -238,6 +263,17 @@ abstract class MuninnPageCursor extends PageCursor
                 if ( locked & page.isBoundTo( swapper, filePageId ) )
                 {
                     pinCursorToPage( page, filePageId, swapper );
+                    if ( (pf_flags & PagedFile.PF_NO_FAULT) == 0 )
+                    {
+                        // Cursors that cannot fault, like the page cache profiler, only observe what is resident,
+                        // so they must not make pages look recently used or count as hits.
+                        evictionStrategy.pageHit( page );
+                        pageHits++;
+                        if ( page.clearPrefetched() )
+                        {
+                            tracer.prefetchHit();
+                        }
+                    }
                     return;
                 }
                 if ( locked )
@@ -246,13 +282,69 @@ abstract class MuninnPageCursor extends PageCursor
                 }
                 item = null;
             }
+            else if ( item == null && (pf_flags & PagedFile.PF_NO_FAULT) != 0 )
+            {
+                pinEvent.done();
+                clearPageState();
+                return;
+            }
             else
             {
                 item = uncommonPin( item, filePageId, chunkOffset, chunk );
             }
         }
         while ( item == null );
-        pinCursorToPage( (MuninnPage) item, filePageId, swapper );
+        MuninnPage page = (MuninnPage) item;
+        pinCursorToPage( page, filePageId, swapper );
+        if ( (pf_flags & PagedFile.PF_NO_FAULT) == 0 )
+        {
+            evictionStrategy.pageFaulted( page );
+        }
+    }
+
+    /**
+     * Pin the desired file page to this cursor again, because the page it was pinned to was evicted while the cursor
+     * was reading from it. This is not a new access to the page, so it is not counted as a page hit.
+     */
+    protected final void repin( long filePageId, boolean writeLock ) throws IOException
+    {
+        long hits = pageHits;
+        pin( filePageId, writeLock );
+        pageHits = hits;
+    }
+
+    /**
+     * The readAheadHorizon is the first file page id that we have not yet asked to have prefetched. We ask for more
+     * pages once we get within half a read-ahead window of the horizon. If we have moved far backwards, then the
+     * horizon is no longer meaningful, and we start over from the current page.
+     * <p>
+     * Scans often read a file through a series of short-lived cursors, so a cursor also picks up the horizon that
+     * was last requested for the file, if it lies within its read-ahead window. Otherwise every new cursor would ask
+     * for the same pages all over again.
+     */
+    protected final void readAhead( long lastPageId )
+    {
+        long filePageId = currentPageId;
+        long horizon = readAheadHorizon;
+        long fileHorizon = pagedFile.readAheadHorizon();
+        if ( fileHorizon > horizon && fileHorizon <= filePageId + readAheadPages )
+        {
+            horizon = fileHorizon;
+        }
+        if ( filePageId + readAheadPages < horizon )
+        {
+            horizon = 0;
+        }
+        if ( filePageId + readAheadPages / 2 >= horizon )
+        {
+            long startPageId = Math.max( filePageId + 1, horizon );
+            long endPageId = Math.min( filePageId + 1 + readAheadPages, lastPageId + 1 );
+            if ( startPageId < endPageId && pagedFile.readAhead( startPageId, endPageId ) )
+            {
+                horizon = endPageId;
+            }
+        }
+        readAheadHorizon = horizon;
     }
 
     private Object[][] expandTranslationTableCapacity( int chunkId )
@@ -284,6 +376,10 @@ abstract class MuninnPageCursor extends PageCursor
         {
             // We managed to inject our latch, so we now own the right to perform the page fault. We also
             // have a duty to eventually release and remove the latch, no matter what happens now.
+            if ( (pf_flags & PagedFile.PF_READ_AHEAD) != 0 )
+            {
+                tracer.prefetchMiss();
+            }
             item = pageFault( filePageId, swapper, chunkOffset, chunk, latch );
         }
         return item;
@@ -333,7 +429,8 @@ abstract class MuninnPageCursor extends PageCursor
             // the file channel.
             assertPagedFileStillMappedAndGetIdOfLastPage();
             page.initBuffer();
-            page.fault( swapper, filePageId, faultEvent );
+            long bytesRead = page.fault( swapper, filePageId, faultEvent );
+            pagedFile.counters.pageFaulted( bytesRead );
         }
         catch ( Throwable throwable )
         {
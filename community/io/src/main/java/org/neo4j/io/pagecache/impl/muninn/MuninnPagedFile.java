@@ -40,6 +40,8 @@ import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
+import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
+
 final class MuninnPagedFile implements PagedFile, Flushable
 {
     private static final int translationTableChunkSizePower = Integer.getInteger(
@@ -49,6 +51,9 @@ final class MuninnPagedFile implements PagedFile, Flushable
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( MuninnPage[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( MuninnPage[].class );
 
+    // The upper bound, in bytes, on the size of the gathering writes that we issue when flushing adjacent dirty pages.
+    private static final int maxFlushIOSize = getInteger( MuninnPagedFile.class, "maxFlushIOSize", 1024 * 1024 );
+
     private static final long headerStateOffset =
             UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "headerState" );
     private static final int headerStateRefCountShift = 48;
@@ -59,6 +64,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
     final MuninnPageCache pageCache;
     final int filePageSize;
     final PageCacheTracer tracer;
+    final MuninnPagedFileCounters counters;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -67,10 +73,14 @@ final class MuninnPagedFile implements PagedFile, Flushable
     final PageSwapper swapper;
     private final CursorPool cursorPool;
     private final boolean exclusiveMapping;
+    private final int maxFlushVectorPages;
 
     // Guarded by the monitor lock on MuninnPageCache (map and unmap)
     private boolean deleteOnClose;
 
+    // The end of the page range that was last requested to be read ahead. Racy updates are fine, as it is only a hint.
+    private volatile long readAheadHorizon;
+
     /**
      * The header state includes both the reference count of the PagedFile – 15 bits – and the ID of the last page in
      * the file – 48 bits, plus an empty file marker bit. Because our pages are usually 2^13 bytes, this means that we
@@ -102,7 +112,9 @@ final class MuninnPagedFile implements PagedFile, Flushable
         this.filePageSize = filePageSize;
         this.cursorPool = new CursorPool( this );
         this.tracer = tracer;
+        this.counters = new MuninnPagedFileCounters( file );
         this.exclusiveMapping = exclusiveMapping;
+        this.maxFlushVectorPages = Math.max( 1, maxFlushIOSize / filePageSize );
 
         // The translation table is an array of arrays of references to either null, MuninnPage objects, or Latch
         // objects. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -175,7 +187,8 @@ final class MuninnPagedFile implements PagedFile, Flushable
         return filePageSize;
     }
 
-    File file()
+    @Override
+    public File file()
     {
         return swapper.file();
     }
@@ -242,7 +255,10 @@ final class MuninnPagedFile implements PagedFile, Flushable
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
-        MuninnPage[] pages = new MuninnPage[translationTableChunkSize];
+        // Runs of adjacent dirty pages are collected into an IO vector, and written out with a single gathering write.
+        // The runs are allowed to span translation table chunks, but are capped by the max flush IO size.
+        MuninnPage[] pages = new MuninnPage[maxFlushVectorPages];
+        int pagesGrabbed = 0;
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         Object[][] tt = this.translationTable;
@@ -251,7 +267,6 @@ final class MuninnPagedFile implements PagedFile, Flushable
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
-            int pagesGrabbed = 0;
             chunkLoop:for ( int i = 0; i < chunk.length; i++ )
             {
                 filePageId++;
@@ -282,6 +297,12 @@ final class MuninnPagedFile implements PagedFile, Flushable
                             // So we add it to our IO vector.
                             pages[pagesGrabbed] = page;
                             pagesGrabbed++;
+                            if ( pagesGrabbed == pages.length )
+                            {
+                                vectoredFlush( pages, pagesGrabbed, flushOpportunity, forClosing );
+                                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                                pagesGrabbed = 0;
+                            }
                             continue chunkLoop;
                         }
                         else if ( forClosing )
@@ -302,11 +323,11 @@ final class MuninnPagedFile implements PagedFile, Flushable
                     pagesGrabbed = 0;
                 }
             }
-            if ( pagesGrabbed > 0 )
-            {
-                vectoredFlush( pages, pagesGrabbed, flushOpportunity, forClosing );
-                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
-            }
+        }
+        if ( pagesGrabbed > 0 )
+        {
+            vectoredFlush( pages, pagesGrabbed, flushOpportunity, forClosing );
+            limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
         }
 
         swapper.force();
@@ -332,7 +353,9 @@ final class MuninnPagedFile implements PagedFile, Flushable
             }
 
             flush = flushOpportunity.beginFlush( startFilePageId, firstPage.getCachePageId(), swapper );
+            long startNanos = System.nanoTime();
             long bytesWritten = swapper.write( startFilePageId, pages, 0, pagesGrabbed );
+            counters.flushed( bytesWritten, System.nanoTime() - startNanos );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
@@ -504,6 +527,45 @@ final class MuninnPagedFile implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Ask the page cache to asynchronously fault in the file pages from {@code startPageId}, inclusive, to
+     * {@code endPageId}, exclusive.
+     * @return {@code true} if the read-ahead was scheduled, or {@code false} if the page cache declined it.
+     */
+    boolean readAhead( long startPageId, long endPageId )
+    {
+        if ( pageCache.readAhead( this, startPageId, endPageId ) )
+        {
+            readAheadHorizon = endPageId;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the end of the page range that was last successfully requested to be read ahead in this file.
+     */
+    long readAheadHorizon()
+    {
+        return readAheadHorizon;
+    }
+
+    /**
+     * Check, without taking any locks, if the given file page is currently present in the translation table.
+     * The answer may be out of date by the time this method returns.
+     */
+    boolean isResident( long filePageId )
+    {
+        int chunkId = computeChunkId( filePageId );
+        Object[][] tt = translationTable;
+        if ( tt.length <= chunkId )
+        {
+            return false;
+        }
+        Object element = UnsafeUtil.getObjectVolatile( tt[chunkId], computeChunkOffset( filePageId ) );
+        return element instanceof MuninnPage;
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -516,6 +578,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
         Object[] chunk = translationTable[chunkId];
         Object element = UnsafeUtil.getAndSetObject( chunk, chunkOffset, null );
         assert element instanceof MuninnPage: "Expected to evict a MuninnPage but found " + element;
+        counters.pageEvicted();
         return (MuninnPage) element;
     }
 
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+
+/**
+ * The counters of a single MuninnPagedFile.
+ *
+ * The counters that are updated on the page fault and pin paths are striped, so many threads can update them without
+ * contending on the same cache line. Page cursors additionally accumulate their hits locally, and only report them
+ * here when they are closed.
+ */
+final class MuninnPagedFileCounters implements PagedFileCounters
+{
+    private final File file;
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicLongArray flushLatencyHistogram = new AtomicLongArray( FLUSH_LATENCY_BUCKETS );
+
+    MuninnPagedFileCounters( File file )
+    {
+        this.file = file;
+    }
+
+    void pageFaulted( long bytes )
+    {
+        faults.increment();
+        bytesRead.add( bytes );
+    }
+
+    void pagesHit( long count )
+    {
+        hits.add( count );
+    }
+
+    void pageEvicted()
+    {
+        evictions.increment();
+    }
+
+    void flushed( long bytes, long elapsedNanos )
+    {
+        bytesWritten.add( bytes );
+        flushLatencyHistogram.incrementAndGet( latencyBucket( elapsedNanos ) );
+    }
+
+    static int latencyBucket( long elapsedNanos )
+    {
+        long micros = TimeUnit.NANOSECONDS.toMicros( elapsedNanos );
+        int bucket = micros <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros( micros );
+        return Math.min( bucket, FLUSH_LATENCY_BUCKETS - 1 );
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+
+    @Override
+    public long bytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long bytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long flushes()
+    {
+        long flushes = 0;
+        for ( int i = 0; i < FLUSH_LATENCY_BUCKETS; i++ )
+        {
+            flushes += flushLatencyHistogram.get( i );
+        }
+        return flushes;
+    }
+
+    @Override
+    public long[] flushLatencyHistogram()
+    {
+        long[] histogram = new long[FLUSH_LATENCY_BUCKETS];
+        for ( int i = 0; i < FLUSH_LATENCY_BUCKETS; i++ )
+        {
+            histogram[i] = flushLatencyHistogram.get( i );
+        }
+        return histogram;
+    }
+}
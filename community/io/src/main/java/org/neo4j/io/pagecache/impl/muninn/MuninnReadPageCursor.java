@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PagedFile;
 
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
@@ -58,8 +59,18 @@ final class MuninnReadPageCursor extends MuninnPageCursor
             return false;
         }
         pin( nextPageId, false );
+        if ( page == null )
+        {
+            // PF_NO_FAULT, and the page was not in memory.
+            nextPageId++;
+            return true;
+        }
         currentPageId = nextPageId;
         nextPageId++;
+        if ( (pf_flags & PagedFile.PF_READ_AHEAD) != 0 )
+        {
+            readAhead( lastPageId );
+        }
         return true;
     }
 
@@ -79,7 +90,6 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( MuninnPage page, long filePageId, PageSwapper swapper )
     {
         reset( page );
-        page.incrementUsage();
     }
 
     @Override
@@ -97,21 +107,39 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     @Override
     public boolean shouldRetry() throws IOException
     {
-        MuninnPage p = page;
-        boolean needsRetry = p != null && !p.validateReadLock( lockStamp );
-        needsRetry |= linkedCursor != null && linkedCursor.shouldRetry();
+        boolean needsRetry = needsRetry();
         if ( needsRetry )
         {
+            // The flags of the whole chain of linked cursors are cleared before any of them pins its page again, so
+            // that a cursor that fails to do so can report it.
+            checkAndClearBoundsFlag();
+            clearCursorException();
             startRetry();
         }
         return needsRetry;
     }
 
+    private boolean needsRetry()
+    {
+        MuninnPage p = page;
+        boolean needsRetry = p != null && !p.validateReadLock( lockStamp );
+        needsRetry |= linkedCursor != null && ((MuninnReadPageCursor) linkedCursor).needsRetry();
+        return needsRetry;
+    }
+
     private void startRetry() throws IOException
     {
+        if ( linkedCursor != null && ((MuninnReadPageCursor) linkedCursor).needsRetry() )
+        {
+            ((MuninnReadPageCursor) linkedCursor).startRetry();
+        }
         setOffset( 0 );
-        checkAndClearBoundsFlag();
-        clearCursorException();
+        if ( page == null )
+        {
+            // This cursor is not bound to a page, so there is nothing for it to retry. This happens when a PF_NO_FAULT
+            // cursor is linked to a cursor that needs a retry, and its own page was not in memory.
+            return;
+        }
         lockStamp = page.tryOptimisticReadLock();
         // The page might have been evicted while we held the optimistic
         // read lock, so we need to check with page.pin that this is still
@@ -130,8 +158,17 @@ final class MuninnReadPageCursor extends MuninnPageCursor
             // is closed; we don't want unpinCurrentPage() to try unlocking
             // this page.
             page = null;
+            long filePageId = currentPageId;
             // Then try pin again.
-            pin( currentPageId, false );
+            repin( filePageId, false );
+            if ( page == null )
+            {
+                // PF_NO_FAULT, and the page is no longer in memory. The cursor is now unbound, and whatever the
+                // caller reads from it comes from the victim page, so we make sure that it does not go unnoticed.
+                raiseOutOfBounds();
+                setCursorException( "Page " + filePageId + " was evicted while it was being read, and the " +
+                                    "cursor cannot fault it back in, because it was opened with PF_NO_FAULT" );
+            }
         }
     }
 
@@ -70,7 +70,14 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             }
         }
         pin( nextPageId, true );
-        currentPageId = nextPageId;
+        if ( page != null )
+        {
+            currentPageId = nextPageId;
+            if ( (pf_flags & PagedFile.PF_READ_AHEAD) != 0 )
+            {
+                readAhead( lastPageId );
+            }
+        }
         nextPageId++;
         return true;
     }
@@ -99,7 +106,6 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        page.incrementUsage();
     }
 
     @Override
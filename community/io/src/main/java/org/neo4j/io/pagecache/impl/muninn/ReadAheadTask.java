@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * This Runnable faults in a range of file pages ahead of a sequentially scanning cursor.
+ *
+ * Read-ahead is only a hint, so any failure is silently ignored. The scanning cursor will take the page fault itself
+ * if the page is not there when it gets to it, and it will then observe the exception, if any.
+ *
+ * @see org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD
+ */
+final class ReadAheadTask extends BackgroundTask
+{
+    private final MuninnPagedFile pagedFile;
+    private final long startPageId;
+    private final long endPageId;
+
+    ReadAheadTask( MuninnPageCache pageCache, MuninnPagedFile pagedFile, long startPageId, long endPageId )
+    {
+        super( pageCache );
+        this.pagedFile = pagedFile;
+        this.startPageId = startPageId;
+        this.endPageId = endPageId;
+    }
+
+    @Override
+    protected void run( MuninnPageCache pageCache )
+    {
+        int pagesPrefetched = 0;
+        try ( MuninnPageCursor cursor = (MuninnPageCursor) pagedFile.io( startPageId, PF_SHARED_READ_LOCK ) )
+        {
+            for ( long filePageId = startPageId; filePageId < endPageId; filePageId++ )
+            {
+                if ( pagedFile.isResident( filePageId ) )
+                {
+                    continue;
+                }
+                if ( !cursor.next( filePageId ) )
+                {
+                    break;
+                }
+                MuninnPage page = cursor.page;
+                if ( page != null )
+                {
+                    page.markAsPrefetched();
+                    pagesPrefetched++;
+                }
+            }
+        }
+        catch ( IOException | RuntimeException ignore )
+        {
+            // The file might have been unmapped, or the page cache closed, while we were working.
+        }
+        finally
+        {
+            if ( pagesPrefetched > 0 )
+            {
+                pagedFile.tracer.pagesPrefetched( pagedFile.swapper, pagesPrefetched );
+            }
+            pageCache.readAheadFinished();
+        }
+    }
+}
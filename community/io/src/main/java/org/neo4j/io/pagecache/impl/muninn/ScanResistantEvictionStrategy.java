@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
+
+/**
+ * The usage stamp of the pages is interpreted as follows:
+ * <pre>
+ *     0bxxFRCCCC
+ * </pre>
+ * <ul>
+ *     <li>{@code F} – the page was faulted in during the current clock period.</li>
+ *     <li>{@code R} – the page has been referenced during the current clock period.</li>
+ *     <li>{@code C} – the number of clock periods in which the page has been referenced, up to a maximum.</li>
+ * </ul>
+ * A clock period is the time between two passes of the clock arm over a page. The references that happen in the
+ * period where the page is faulted in are considered correlated, and do not count. This is what keeps scans from
+ * promoting their pages, even if the scan touches the same page many times. Pages that are not referenced again after
+ * they have been faulted in are evicted on the first pass of the clock arm. Pages with a count of at least
+ * {@link #HOT_THRESHOLD} are hot, and are not aged by the clock arm unless the hot pages observed during the last
+ * cache-sized stretch of sweeps exceeded the configured share of the cache. Hot pages are also aged when a cache-sized
+ * stretch of sweeps found nothing to evict, so a cache that is full of hot pages degrades into a plain clock-sweep,
+ * instead of failing page faults with a {@link CacheLiveLockException}.
+ *
+ * @see EvictionPolicy#SCAN_RESISTANT
+ */
+final class ScanResistantEvictionStrategy extends EvictionStrategy
+{
+    // The percentage of the cache that hot pages may occupy before the clock arm starts aging them.
+    private static final int hotPagesPercent = getInteger(
+            ScanResistantEvictionStrategy.class, "hotPagesPercent", 75 );
+
+    private static final byte FAULTED = 0x20;
+    private static final byte REFERENCED = 0x10;
+    private static final byte COUNT_MASK = 0x0F;
+    private static final int MAX_COUNT = 4;
+    private static final int HOT_THRESHOLD = 2;
+
+    private final int sweepsPerPeriod;
+    // The number of sweeps, and the number of hot pages observed by those sweeps, since the hot share of the cache
+    // was last estimated. These are updated by whichever thread holds a clock arm, so the background eviction thread
+    // and the cooperatively evicting threads can race on them. This is benign, since they are only estimates.
+    private int sweeps;
+    private int hotPagesObserved;
+    private boolean ageHotPages;
+    // The number of sweeps since one last found a page that could be evicted.
+    private int sweepsWithoutEviction;
+
+    ScanResistantEvictionStrategy( int maxPages )
+    {
+        this.sweepsPerPeriod = maxPages;
+    }
+
+    @Override
+    void pageFaulted( MuninnPage page )
+    {
+        page.setUsageCounter( FAULTED );
+    }
+
+    @Override
+    void pageHit( MuninnPage page )
+    {
+        byte usage = page.getUsageCounter();
+        if ( (usage & REFERENCED) == 0 ) // avoid cache sloshing by not doing a write if the bit is already raised
+        {
+            page.setUsageCounter( (byte) (usage | REFERENCED) );
+        }
+    }
+
+    @Override
+    boolean sweep( MuninnPage page )
+    {
+        estimateHotShare();
+        boolean evictable = sweepPage( page );
+        sweepsWithoutEviction = evictable ? 0 : sweepsWithoutEviction + 1;
+        return evictable;
+    }
+
+    private boolean sweepPage( MuninnPage page )
+    {
+        byte usage = page.getUsageCounter();
+        int count = usage & COUNT_MASK;
+        boolean referenced = (usage & REFERENCED) != 0;
+        if ( (usage & FAULTED) != 0 )
+        {
+            // The clock period in which the page was faulted in is over. References from that period do not count,
+            // but they do give the page a chance to be referenced again in the next period.
+            page.setUsageCounter( (byte) count );
+            return !referenced;
+        }
+        if ( referenced )
+        {
+            page.setUsageCounter( (byte) Math.min( count + 1, MAX_COUNT ) );
+        }
+        if ( count >= HOT_THRESHOLD )
+        {
+            hotPagesObserved++;
+            if ( !ageHotPages && sweepsWithoutEviction < sweepsPerPeriod )
+            {
+                return false;
+            }
+        }
+        if ( referenced )
+        {
+            return false;
+        }
+        if ( count == 0 )
+        {
+            return true;
+        }
+        page.setUsageCounter( (byte) (count - 1) );
+        return false;
+    }
+
+    /**
+     * Once the clock arms have swept as many pages as there are in the cache, we decide if the hot pages have grown
+     * beyond their share of the cache, and thus need to be aged.
+     */
+    private void estimateHotShare()
+    {
+        if ( ++sweeps >= sweepsPerPeriod )
+        {
+            ageHotPages = hotPagesObserved * 100L > sweeps * (long) hotPagesPercent;
+            sweeps = 0;
+            hotPagesObserved = 0;
+        }
+    }
+}
@@ -47,8 +47,12 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
  * The exclusive lock will also invalidate the optimistic read locks. The exclusive lock is try-lock only, and will
  * never block. If a write or flush lock is currently held, the attempt to take the exclusive lock will fail, and
  * the exclusive lock will likewise prevent write and flush locks from being taken.
+ * <p>
+ * Optimistic read locks never write to the lock state. To keep readers from suffering cache misses caused by writes
+ * to unrelated objects that happen to be next to the lock on the heap, the lock state is preceded by
+ * {@link SequenceLockPadding padding}.
  */
-public class SequenceLock
+public class SequenceLock extends SequenceLockPadding
 {
     /*
      * Bits for counting concurrent write-locks. We use 17 bits because our pages are most likely 8192 bytes, and
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * Padding that is laid out in front of the {@link SequenceLock} state.
+ * <p>
+ * The JVM places the fields of a super class before the fields of its sub classes, so these fields make sure that the
+ * lock word of a {@link MuninnPage}, and the page fields that follow it, do not share a cache line with the fields of
+ * whatever object was allocated just before it. Without this, pages that are next to each other on the heap would
+ * invalidate each others cache lines whenever one of them is locked, evicted or has its usage counter updated, and the
+ * optimistic readers of a hot page would pay for the lock traffic on its neighbours.
+ */
+@SuppressWarnings( "unused" )
+abstract class SequenceLockPadding
+{
+    // Fills the gap after the object header, so newer JVMs don't pack the small fields of sub classes in there.
+    private int p0;
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
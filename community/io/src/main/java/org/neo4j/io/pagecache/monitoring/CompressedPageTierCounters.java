@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+/**
+ * The CompressedPageTierCounters exposes the state of the compressed second tier of the page cache, that keeps
+ * compressed copies of evicted pages, so they can be faulted back in without doing any IO.
+ */
+public interface CompressedPageTierCounters
+{
+    /**
+     * The counters of a page cache that has no compressed tier, where all of the counters are always zero.
+     */
+    CompressedPageTierCounters NULL = new CompressedPageTierCounters()
+    {
+        @Override
+        public long hits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long misses()
+        {
+            return 0;
+        }
+
+        @Override
+        public long stores()
+        {
+            return 0;
+        }
+
+        @Override
+        public long rejections()
+        {
+            return 0;
+        }
+
+        @Override
+        public long evictions()
+        {
+            return 0;
+        }
+
+        @Override
+        public long pages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long usedMemory()
+        {
+            return 0;
+        }
+    };
+
+    /**
+     * @return The number of page faults that were served by decompressing a page from the compressed tier, thus far.
+     */
+    long hits();
+
+    /**
+     * @return The number of page faults that did not find their page in the compressed tier, and had to read it from
+     * the file, thus far.
+     */
+    long misses();
+
+    /**
+     * @return The number of evicted pages that were compressed and put in the compressed tier, thus far.
+     */
+    long stores();
+
+    /**
+     * @return The number of evicted pages that did not compress well enough to be put in the compressed tier, thus far.
+     */
+    long rejections();
+
+    /**
+     * @return The number of pages that were dropped from the compressed tier to make room for other pages, thus far.
+     */
+    long evictions();
+
+    /**
+     * @return The number of pages currently in the compressed tier.
+     */
+    long pages();
+
+    /**
+     * @return The number of bytes of native memory currently used by the compressed pages.
+     */
+    long usedMemory();
+}
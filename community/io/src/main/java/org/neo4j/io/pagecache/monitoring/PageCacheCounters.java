@@ -74,4 +74,24 @@ public interface PageCacheCounters
      * @return The number of page evictions that have thrown exceptions thus far.
      */
     long evictionExceptions();
+
+    /**
+     * @return The number of pages that have been faulted in by read-ahead thus far.
+     */
+    long prefetches();
+
+    /**
+     * @return The number of pins that found their page already faulted in by read-ahead thus far.
+     */
+    long prefetchHits();
+
+    /**
+     * @return The number of page faults that read-ahead cursors had to take themselves thus far.
+     */
+    long prefetchMisses();
+
+    /**
+     * @return The number of pages faulted in by read-ahead that were evicted without being used thus far.
+     */
+    long prefetchesWasted();
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.io.File;
+
+/**
+ * The PagedFileCounters exposes the internal counters of a single file that is mapped into the page cache.
+ * Unlike the {@link PageCacheCounters}, these are collected by the page cache itself, and are therefore always
+ * available, regardless of which PageCacheTracer is in use.
+ */
+public interface PagedFileCounters
+{
+    /**
+     * The number of buckets in the {@link #flushLatencyHistogram() flush latency histogram}.
+     */
+    int FLUSH_LATENCY_BUCKETS = 24;
+
+    /**
+     * @return The file that these counters are for.
+     */
+    File file();
+
+    /**
+     * @return The number of page faults on this file observed thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of pins on this file that found the page already in memory, thus far.
+     */
+    long hits();
+
+    /**
+     * @return The number of pages from this file that have been evicted thus far.
+     */
+    long evictions();
+
+    /**
+     * @return The sum total of bytes read from this file through page faults thus far.
+     */
+    long bytesRead();
+
+    /**
+     * @return The sum total of bytes written to this file through flushes thus far.
+     */
+    long bytesWritten();
+
+    /**
+     * @return The number of write IOs issued to this file thus far, either by flushing or by evicting dirty pages.
+     * A single flush can write out many adjacent pages at once.
+     */
+    long flushes();
+
+    /**
+     * Get a snapshot of the distribution of the latencies of the {@link #flushes() flushes} to this file.
+     * <p>
+     * The histogram has {@link #FLUSH_LATENCY_BUCKETS} buckets. The first bucket counts the flushes that completed
+     * in less than a microsecond, and bucket {@code i} counts the flushes that took at least 2<sup>i-1</sup>, but
+     * less than 2<sup>i</sup> microseconds. The last bucket counts all the flushes that took longer than that.
+     *
+     * @return A new array with the number of flushes in each latency bucket.
+     */
+    long[] flushLatencyHistogram();
+}
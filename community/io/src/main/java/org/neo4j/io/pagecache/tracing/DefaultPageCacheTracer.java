@@ -92,6 +92,10 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final AtomicLong filesMapped = new AtomicLong();
     protected final AtomicLong filesUnmapped = new AtomicLong();
     protected final AtomicLong evictionExceptions = new AtomicLong();
+    protected final AtomicLong prefetches = new AtomicLong();
+    protected final AtomicLong prefetchHits = new AtomicLong();
+    protected final AtomicLong prefetchMisses = new AtomicLong();
+    protected final AtomicLong prefetchesWasted = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -325,6 +329,30 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return majorFlushEvent;
     }
 
+    @Override
+    public void pagesPrefetched( PageSwapper swapper, int pageCount )
+    {
+        prefetches.getAndAdd( pageCount );
+    }
+
+    @Override
+    public void prefetchHit()
+    {
+        prefetchHits.getAndIncrement();
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+        prefetchMisses.getAndIncrement();
+    }
+
+    @Override
+    public void prefetchWasted()
+    {
+        prefetchesWasted.getAndIncrement();
+    }
+
     @Override
     public long faults()
     {
@@ -384,4 +412,28 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         return evictionExceptions.get();
     }
+
+    @Override
+    public long prefetches()
+    {
+        return prefetches.get();
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return prefetchHits.get();
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return prefetchMisses.get();
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return prefetchesWasted.get();
+    }
 }
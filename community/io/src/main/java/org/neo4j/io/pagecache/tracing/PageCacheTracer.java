@@ -130,6 +130,50 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long prefetches()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public long prefetchesWasted()
+        {
+            return 0;
+        }
+
+        @Override
+        public void pagesPrefetched( PageSwapper swapper, int pageCount )
+        {
+        }
+
+        @Override
+        public void prefetchHit()
+        {
+        }
+
+        @Override
+        public void prefetchMiss()
+        {
+        }
+
+        @Override
+        public void prefetchWasted()
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -170,4 +214,24 @@ public interface PageCacheTracer extends PageCacheCounters
      * The PageCache wants to flush all its bound pages.
      */
     MajorFlushEvent beginCacheFlush();
+
+    /**
+     * A read-ahead run has faulted in the given number of pages from the file of the given swapper.
+     */
+    void pagesPrefetched( PageSwapper swapper, int pageCount );
+
+    /**
+     * A page that had been faulted in by read-ahead has been pinned for the first time.
+     */
+    void prefetchHit();
+
+    /**
+     * A cursor with the read-ahead hint had to fault in a page itself, because read-ahead did not get to it in time.
+     */
+    void prefetchMiss();
+
+    /**
+     * A page that had been faulted in by read-ahead was evicted before anyone pinned it.
+     */
+    void prefetchWasted();
 }
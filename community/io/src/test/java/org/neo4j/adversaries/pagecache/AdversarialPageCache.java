@@ -26,12 +26,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Objects;
 
 import org.neo4j.adversaries.Adversary;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 /**
  * A {@linkplain PageCache page cache} that wraps another page cache and an {@linkplain Adversary adversary} to provide
@@ -99,4 +101,16 @@ public class AdversarialPageCache implements PageCache
     {
         return delegate.maxCachedPages();
     }
+
+    @Override
+    public List<PagedFile> listExistingMappings()
+    {
+        return delegate.listExistingMappings();
+    }
+
+    @Override
+    public List<PagedFileCounters> listPagedFileCounters()
+    {
+        return delegate.listPagedFileCounters();
+    }
 }
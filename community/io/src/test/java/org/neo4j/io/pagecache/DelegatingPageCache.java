@@ -22,6 +22,9 @@ package org.neo4j.io.pagecache;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.OpenOption;
+import java.util.List;
+
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 
 public class DelegatingPageCache implements PageCache
 {
@@ -52,6 +55,16 @@ public class DelegatingPageCache implements PageCache
         return delegate.maxCachedPages();
     }
 
+    public List<PagedFile> listExistingMappings()
+    {
+        return delegate.listExistingMappings();
+    }
+
+    public List<PagedFileCounters> listPagedFileCounters()
+    {
+        return delegate.listPagedFileCounters();
+    }
+
     public void flushAndForce( IOLimiter limiter ) throws IOException
     {
         delegate.flushAndForce( limiter );
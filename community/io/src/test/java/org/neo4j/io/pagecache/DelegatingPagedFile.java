@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.pagecache;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
@@ -52,6 +53,11 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.pageSize();
     }
 
+    public File file()
+    {
+        return delegate.file();
+    }
+
     public void close() throws IOException
     {
         delegate.close();
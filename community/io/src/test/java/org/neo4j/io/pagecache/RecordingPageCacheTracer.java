@@ -234,6 +234,50 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long prefetches()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return 0;
+    }
+
+    @Override
+    public void pagesPrefetched( PageSwapper swapper, int pageCount )
+    {
+    }
+
+    @Override
+    public void prefetchHit()
+    {
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+    }
+
+    @Override
+    public void prefetchWasted()
+    {
+    }
+
     public <T extends Event> T observe( Class<T> type ) throws InterruptedException
     {
         return type.cast( record.take() );
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class CompressedPageTierTest
+{
+    private static final int pageSize = 8192;
+    private static final int maxPages = 20;
+    private static final int filePages = 100;
+
+    private final EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+    private final File file = new File( "a" );
+
+    @After
+    public void tearDown()
+    {
+        fs.shutdown();
+    }
+
+    @Test
+    public void compressorMustRoundTripPageContents() throws Exception
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        ByteBuffer source = ByteBuffer.allocateDirect( pageSize );
+        ByteBuffer compressed = ByteBuffer.allocateDirect( PageCompressor.maxCompressedLength( pageSize ) );
+        ByteBuffer decompressed = ByteBuffer.allocateDirect( pageSize );
+        int[] hashTable = new int[PageCompressor.HASH_TABLE_SIZE];
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            int length = rng.nextInt( pageSize + 1 );
+            // Mix runs, repeated patterns and noise, so every kind of sequence gets encoded.
+            int alphabet = 1 + rng.nextInt( 256 );
+            for ( int j = 0; j < length; j++ )
+            {
+                byte b = rng.nextInt( 4 ) == 0 ? (byte) rng.nextInt( alphabet ) : (byte) (j % 7);
+                source.put( j, b );
+            }
+            int compressedLength = PageCompressor.compress(
+                    address( source ), length, address( compressed ), hashTable );
+            assertThat( compressedLength, lessThanOrEqualTo( PageCompressor.maxCompressedLength( length ) ) );
+            int decompressedLength = PageCompressor.decompress(
+                    address( compressed ), compressedLength, address( decompressed ), pageSize );
+            assertThat( decompressedLength, is( length ) );
+            for ( int j = 0; j < length; j++ )
+            {
+                assertThat( decompressed.get( j ), is( source.get( j ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void evictedPagesMustBeFaultedBackInFromCompressedTier() throws Exception
+    {
+        CompressedPageTier tier = new CompressedPageTier( filePages * pageSize );
+        try ( MuninnPageCache pageCache = createPageCache( tier );
+              PagedFile pagedFile = pageCache.map( file, pageSize, CREATE ) )
+        {
+            writePages( pagedFile );
+            assertThat( tier.stores(), greaterThan( 0L ) );
+
+            verifyPages( pagedFile );
+            assertThat( tier.hits(), greaterThan( 0L ) );
+            assertThat( tier.usedMemory(), lessThanOrEqualTo( (long) filePages * pageSize ) );
+        }
+        assertThat( tier.pages(), is( 0L ) );
+        assertThat( tier.usedMemory(), is( 0L ) );
+    }
+
+    @Test
+    public void compressedTierMustStayWithinItsMemoryBudget() throws Exception
+    {
+        // The pages compress to about a hundred bytes each, so this only fits a handful of them.
+        long maxMemory = 1024;
+        CompressedPageTier tier = new CompressedPageTier( maxMemory );
+        try ( MuninnPageCache pageCache = createPageCache( tier );
+              PagedFile pagedFile = pageCache.map( file, pageSize, CREATE ) )
+        {
+            writePages( pagedFile );
+            verifyPages( pagedFile );
+            assertThat( tier.usedMemory(), lessThanOrEqualTo( maxMemory ) );
+            assertThat( tier.evictions(), greaterThan( 0L ) );
+        }
+        assertThat( tier.usedMemory(), is( 0L ) );
+    }
+
+    @Test
+    public void pagesThatDoNotCompressMustNotBeKept() throws Exception
+    {
+        CompressedPageTier tier = new CompressedPageTier( filePages * pageSize );
+        try ( MuninnPageCache pageCache = createPageCache( tier );
+              PagedFile pagedFile = pageCache.map( file, pageSize, CREATE ) )
+        {
+            ThreadLocalRandom rng = ThreadLocalRandom.current();
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < filePages; i++ )
+                {
+                    cursor.next();
+                    for ( int j = 0; j < pageSize; j += 8 )
+                    {
+                        cursor.putLong( rng.nextLong() );
+                    }
+                }
+            }
+            assertThat( tier.rejections(), greaterThan( 0L ) );
+            assertThat( tier.stores(), is( 0L ) );
+        }
+    }
+
+    private MuninnPageCache createPageCache( CompressedPageTier tier )
+    {
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        return new MuninnPageCache( new CompressedPageTierSwapperFactory( swapperFactory, tier ),
+                maxPages, pageSize, PageCacheTracer.NULL );
+    }
+
+    private void writePages( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < filePages; i++ )
+            {
+                cursor.next();
+                for ( int j = 0; j < pageSize; j += 8 )
+                {
+                    cursor.putLong( i * 1000 + (j % 64) );
+                }
+            }
+        }
+    }
+
+    private void verifyPages( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( int i = 0; i < filePages; i++ )
+            {
+                cursor.next();
+                for ( int j = 0; j < pageSize; j += 8 )
+                {
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong( j );
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertThat( value, is( (long) (i * 1000 + (j % 64)) ) );
+                }
+            }
+        }
+    }
+
+    private static long address( ByteBuffer buffer )
+    {
+        return UnsafeUtil.getDirectByteBufferAddress( buffer );
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PageCompressorTest
+{
+    private final Random random = new Random( 1234 );
+    private final int[] hashTable = new int[PageCompressor.HASH_TABLE_SIZE];
+
+    @Test
+    public void shouldRoundTripByteArraysAtOffsets() throws Exception
+    {
+        for ( int i = 0; i < 1000; i++ )
+        {
+            // GIVEN
+            byte[] value = compressible( random.nextInt( 10_000 ) );
+            int srcOffset = random.nextInt( 10 );
+            int dstOffset = random.nextInt( 10 );
+            byte[] src = new byte[srcOffset + value.length];
+            System.arraycopy( value, 0, src, srcOffset, value.length );
+            byte[] compressed = new byte[dstOffset + PageCompressor.maxCompressedLength( value.length )];
+
+            // WHEN
+            int compressedLength = PageCompressor.compress( src, srcOffset, value.length, compressed, dstOffset,
+                    hashTable );
+            byte[] decompressed = new byte[value.length];
+            int decompressedLength = PageCompressor.decompress( compressed, dstOffset, compressedLength,
+                    decompressed, 0, decompressed.length );
+
+            // THEN
+            assertEquals( value.length, decompressedLength );
+            assertArrayEquals( value, decompressed );
+        }
+    }
+
+    @Test
+    public void shouldCompressRepetitiveBytes() throws Exception
+    {
+        // GIVEN
+        byte[] value = new byte[10_000];
+        Arrays.fill( value, (byte) 7 );
+        byte[] compressed = new byte[PageCompressor.maxCompressedLength( value.length )];
+
+        // WHEN
+        int compressedLength = PageCompressor.compress( value, 0, value.length, compressed, 0, hashTable );
+
+        // THEN
+        assertTrue( compressedLength < value.length / 100 );
+    }
+
+    @Test
+    public void shouldDetectCorruptBytesInsteadOfReadingOrWritingOutOfBounds() throws Exception
+    {
+        // GIVEN
+        byte[] value = compressible( 1_000 );
+        byte[] compressed = new byte[PageCompressor.maxCompressedLength( value.length )];
+        int compressedLength = PageCompressor.compress( value, 0, value.length, compressed, 0, hashTable );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            byte[] corrupt = Arrays.copyOf( compressed, compressedLength );
+            corrupt[random.nextInt( compressedLength )] = (byte) random.nextInt();
+            int truncatedLength = random.nextBoolean() ? compressedLength : random.nextInt( compressedLength );
+            byte[] decompressed = new byte[value.length];
+
+            // WHEN
+            try
+            {
+                PageCompressor.decompress( corrupt, 0, truncatedLength, decompressed, 0, decompressed.length );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // THEN good, as long as nothing out of bounds was touched
+            }
+        }
+    }
+
+    @Test
+    public void shouldRejectDestinationTooSmallForCompressedBytes() throws Exception
+    {
+        byte[] value = compressible( 100 );
+        try
+        {
+            PageCompressor.compress( value, 0, value.length, new byte[value.length], 0, hashTable );
+            fail( "Should have failed" );
+        }
+        catch ( ArrayIndexOutOfBoundsException e )
+        {
+            // good
+        }
+    }
+
+    private byte[] compressible( int length )
+    {
+        byte[] bytes = new byte[length];
+        int alphabet = 1 + random.nextInt( 256 );
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes[i] = random.nextInt( 4 ) == 0 ? (byte) random.nextInt( alphabet ) : (byte) (i % 7);
+        }
+        return bytes;
+    }
+}
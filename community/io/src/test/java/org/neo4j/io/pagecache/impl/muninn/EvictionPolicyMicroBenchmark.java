@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+
+import static java.lang.System.nanoTime;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Compares the hit ratio of point look-ups into a working set that fits in the cache, while a large sequential scan
+ * is running concurrently with the look-ups, for each of the {@link EvictionPolicy eviction policies}.
+ */
+public class EvictionPolicyMicroBenchmark
+{
+    private static final int pageSize = 8192;
+
+    public static void main( String... args ) throws Exception
+    {
+        int cachePages = Integer.getInteger( "cachePages", 500 );
+        int hotPages = Integer.getInteger( "hotPages", cachePages / 2 );
+        int scanPages = Integer.getInteger( "scanPages", cachePages * 10 );
+        int lookupsPerScannedPage = Integer.getInteger( "lookupsPerScannedPage", 1 );
+        int iterations = Integer.getInteger( "iterations", 5 );
+
+        for ( EvictionPolicy policy : EvictionPolicy.values() )
+        {
+            System.out.printf( "=== %s - %s cache pages, %s hot pages, %s scanned pages ===%n",
+                    policy, cachePages, hotPages, scanPages );
+            for ( int i = 0; i < iterations; i++ )
+            {
+                execute( policy, cachePages, hotPages, scanPages, lookupsPerScannedPage );
+            }
+        }
+    }
+
+    private static void execute( EvictionPolicy policy, int cachePages, int hotPages, int scanPages,
+                                 int lookupsPerScannedPage ) throws IOException
+    {
+        File directory = Files.createTempDirectory( "eviction-policy" ).toFile();
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( new DefaultFileSystemAbstraction() );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, cachePages, pageSize, tracer, policy );
+        try ( PagedFile hotFile = pageCache.map( new File( directory, "hot" ), pageSize, CREATE );
+              PagedFile scanFile = pageCache.map( new File( directory, "scan" ), pageSize, CREATE ) )
+        {
+            fill( hotFile, hotPages );
+            fill( scanFile, scanPages );
+
+            // Warm up the working set, so it has a chance to be recognised as hot.
+            ThreadLocalRandom rng = ThreadLocalRandom.current();
+            for ( int i = 0; i < hotPages * 8; i++ )
+            {
+                lookup( hotFile, rng.nextInt( hotPages ) );
+            }
+
+            long lookups = 0;
+            long lookupFaults = 0;
+            long time = nanoTime();
+            try ( PageCursor scanCursor = scanFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                while ( scanCursor.next() )
+                {
+                    readPage( scanCursor );
+                    for ( int i = 0; i < lookupsPerScannedPage; i++ )
+                    {
+                        long faults = tracer.faults();
+                        lookup( hotFile, rng.nextInt( hotPages ) );
+                        lookupFaults += tracer.faults() - faults;
+                        lookups++;
+                    }
+                }
+            }
+            time = nanoTime() - time;
+            System.out.printf( "look-up hit ratio=%.2f%%; look-up faults=%d; total faults=%d; time=%.3fms%n",
+                    100.0 * (lookups - lookupFaults) / lookups, lookupFaults, tracer.faults(), time / 1_000_000.0 );
+        }
+        finally
+        {
+            pageCache.close();
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static void fill( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                cursor.next();
+                cursor.putLong( i );
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    private static void lookup( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_GROW ) )
+        {
+            if ( cursor.next() )
+            {
+                readPage( cursor );
+            }
+        }
+    }
+
+    private static long readPage( PageCursor cursor ) throws IOException
+    {
+        long value;
+        do
+        {
+            value = cursor.getLong( 0 );
+        }
+        while ( cursor.shouldRetry() );
+        return value;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Measures how read throughput on a single hot page scales with the number of reader threads.
+ * <p>
+ * Optionally, a number of writer threads can be hammering the pages that neighbour the hot page, to show how well the
+ * readers are isolated from the lock traffic on other pages.
+ */
+public class HotPageReadMicroBenchmark
+{
+    private static final int pageSize = 8192;
+    private static final long hotPageId = 8;
+
+    public static void main( String... args ) throws Exception
+    {
+        int maxThreads = Integer.getInteger( "maxThreads", 64 );
+        int neighbourWriters = Integer.getInteger( "neighbourWriters", 0 );
+        long durationMillis = Long.getLong( "durationMillis", 2000 );
+        int iterations = Integer.getInteger( "iterations", 3 );
+
+        File directory = Files.createTempDirectory( "hot-page" ).toFile();
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( new DefaultFileSystemAbstraction() );
+        MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, 1000, pageSize, PageCacheTracer.NULL );
+        try ( PagedFile pagedFile = pageCache.map( new File( directory, "hot" ), pageSize, CREATE ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i <= hotPageId * 2; i++ )
+                {
+                    cursor.next();
+                    cursor.putLong( i );
+                }
+            }
+
+            System.out.printf( "=== %s neighbour writers ===%n", neighbourWriters );
+            for ( int threads = 1; threads <= maxThreads; threads *= 2 )
+            {
+                for ( int i = 0; i < iterations; i++ )
+                {
+                    long reads = execute( pagedFile, threads, neighbourWriters, durationMillis );
+                    System.out.printf( "threads=%d; reads/s=%,d; reads/s per thread=%,d%n",
+                            threads, reads * 1000 / durationMillis, reads * 1000 / durationMillis / threads );
+                }
+            }
+        }
+        finally
+        {
+            pageCache.close();
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static long execute( PagedFile pagedFile, int readers, int writers, long durationMillis )
+            throws InterruptedException
+    {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong totalReads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] threads = new Thread[readers + writers];
+        for ( int i = 0; i < readers; i++ )
+        {
+            threads[i] = new Thread( () -> totalReads.addAndGet( read( pagedFile, start, stop ) ) );
+        }
+        for ( int i = 0; i < writers; i++ )
+        {
+            // Alternate between the pages just before and just after the hot page.
+            long pageId = hotPageId + (i % 2 == 0 ? 1 : -1);
+            threads[readers + i] = new Thread( () -> write( pagedFile, pageId, start, stop ) );
+        }
+        for ( Thread thread : threads )
+        {
+            thread.start();
+        }
+        start.countDown();
+        Thread.sleep( durationMillis );
+        stop.set( true );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        return totalReads.get();
+    }
+
+    private static long read( PagedFile pagedFile, CountDownLatch start, AtomicBoolean stop )
+    {
+        long reads = 0;
+        long sum = 0;
+        try
+        {
+            start.await();
+            while ( !stop.get() )
+            {
+                try ( PageCursor cursor = pagedFile.io( hotPageId, PF_SHARED_READ_LOCK ) )
+                {
+                    if ( cursor.next() )
+                    {
+                        do
+                        {
+                            sum += cursor.getLong( 0 );
+                        }
+                        while ( cursor.shouldRetry() );
+                    }
+                }
+                reads++;
+            }
+        }
+        catch ( IOException | InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+        if ( sum == 42 )
+        {
+            System.out.print( "" ); // keep the reads from being optimised away
+        }
+        return reads;
+    }
+
+    private static void write( PagedFile pagedFile, long pageId, CountDownLatch start, AtomicBoolean stop )
+    {
+        try
+        {
+            start.await();
+            long value = 0;
+            while ( !stop.get() )
+            {
+                try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK ) )
+                {
+                    if ( cursor.next() )
+                    {
+                        cursor.putLong( 0, value++ );
+                    }
+                }
+            }
+        }
+        catch ( IOException | InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+}
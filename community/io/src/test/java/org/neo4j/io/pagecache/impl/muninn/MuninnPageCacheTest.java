@@ -24,17 +24,23 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.stream.LongStream;
 
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.RecordingPageCacheTracer;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -47,7 +53,9 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Evict;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Fault;
@@ -285,6 +293,356 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void readAheadCursorMustPrefetchFollowingPages() throws Exception
+    {
+        int pageCount = 10;
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * pageCount, recordSize );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            assertTrue( cursor.next() );
+            verifyRecordsMatchExpected( cursor );
+            while ( tracer.prefetches() < pageCount - 1 )
+            {
+                Thread.sleep( 1 );
+            }
+            while ( cursor.next() )
+            {
+                verifyRecordsMatchExpected( cursor );
+            }
+        }
+
+        assertThat( tracer.prefetches(), is( pageCount - 1L ) );
+        assertThat( tracer.prefetchHits(), is( pageCount - 1L ) );
+        assertThat( tracer.prefetchMisses(), is( 1L ) );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void readAheadWriteCursorMustPrefetchFollowingPages() throws Exception
+    {
+        int pageCount = 10;
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * pageCount, recordSize );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK | PF_NO_GROW | PF_READ_AHEAD ) )
+        {
+            assertTrue( cursor.next() );
+            while ( tracer.prefetches() < pageCount - 1 )
+            {
+                Thread.sleep( 1 );
+            }
+            while ( cursor.next() )
+            {
+                verifyRecordsMatchExpected( cursor );
+            }
+        }
+
+        assertThat( tracer.prefetches(), is( pageCount - 1L ) );
+        assertThat( tracer.prefetchHits(), is( pageCount - 1L ) );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void flushMustCoalesceAdjacentDirtyPagesIntoSingleWrites() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            // Dirty pages 0 to 3 and 5 to 7, but leave page 4 alone, so we get two runs of adjacent dirty pages.
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( long pageId : new long[]{0, 1, 2, 3, 5, 6, 7} )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    cursor.putByte( (byte) 1 );
+                }
+            }
+            long flushesBefore = tracer.flushes();
+            long bytesWrittenBefore = tracer.bytesWritten();
+
+            pagedFile.flushAndForce();
+
+            assertThat( tracer.flushes() - flushesBefore, is( 2L ) );
+            assertThat( tracer.bytesWritten() - bytesWrittenBefore, is( 7L * filePageSize ) );
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void mustCountPageFaultsHitsAndFlushesPerFile() throws Exception
+    {
+        File fileA = file( "a" );
+        File fileB = file( "b" );
+        generateFileWithRecords( fileA, recordsPerFilePage * 4, recordSize );
+        generateFileWithRecords( fileB, recordsPerFilePage * 4, recordSize );
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFileA = pageCache.map( fileA, filePageSize );
+              PagedFile pagedFileB = pageCache.map( fileB, filePageSize ) )
+        {
+            for ( int i = 0; i < 2; i++ )
+            {
+                try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putByte( (byte) 1 );
+            }
+            pagedFileB.flushAndForce();
+
+            PagedFileCounters countersA = countersOf( pageCache, fileA );
+            assertThat( countersA.faults(), is( 4L ) );
+            assertThat( countersA.hits(), is( 4L ) );
+            assertThat( countersA.bytesRead(), is( 4L * filePageSize ) );
+            assertThat( countersA.flushes(), is( 0L ) );
+
+            PagedFileCounters countersB = countersOf( pageCache, fileB );
+            assertThat( countersB.faults(), is( 1L ) );
+            assertThat( countersB.hits(), is( 0L ) );
+            assertThat( countersB.flushes(), is( 1L ) );
+            assertThat( countersB.bytesWritten(), is( (long) filePageSize ) );
+            assertThat( LongStream.of( countersB.flushLatencyHistogram() ).sum(), is( 1L ) );
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void noFaultCursorMustOnlyBindToPagesThatAreInMemory() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 4, recordSize );
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 2, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            long[] boundPageIds = new long[4];
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                for ( int i = 0; i < boundPageIds.length; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    boundPageIds[i] = cursor.getCurrentPageId();
+                }
+                assertFalse( cursor.next() );
+            }
+            long unbound = PageCursor.UNBOUND_PAGE_ID;
+            assertThat( boundPageIds, is( new long[]{unbound, unbound, 2, unbound} ) );
+            assertThat( countersOf( pageCache, file ).faults(), is( 1L ) );
+            assertThat( countersOf( pageCache, file ).hits(), is( 0L ) );
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void noFaultCursorMustReportPageEvictedWhileItWasReading() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 2, recordSize );
+        MuninnPageCache pageCache = createPageCache( fs, 2, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            faultInAndEvictAllPages( pageCache, pagedFile );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                // given
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( 0L ) );
+                cursor.getLong();
+
+                // when
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+                // then
+                assertTrue( cursor.shouldRetry() );
+                cursor.getLong();
+                assertFalse( cursor.shouldRetry() );
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+                try
+                {
+                    cursor.checkAndClearCursorException();
+                    fail( "Should have reported that the page was evicted" );
+                }
+                catch ( CursorException e )
+                {
+                    // then good
+                }
+            }
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void unboundNoFaultCursorMustRetryWithItsLinkedCursor() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 2, recordSize );
+        MuninnPageCache pageCache = createPageCache( fs, 2, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            faultInAndEvictAllPages( pageCache, pagedFile );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                // given
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+                PageCursor linkedCursor = cursor.openLinkedCursor( 0 );
+                assertTrue( linkedCursor.next() );
+                assertThat( linkedCursor.getCurrentPageId(), is( 0L ) );
+
+                // when
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+                // then
+                assertTrue( cursor.shouldRetry() );
+                linkedCursor.getLong();
+                assertFalse( cursor.shouldRetry() );
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+            }
+        }
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void pinningPageAgainOnRetryMustNotCountAsPageHit() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 2, recordSize );
+        MuninnPageCache pageCache = createPageCache( fs, 2, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            faultInAndEvictAllPages( pageCache, pagedFile );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                // given
+                assertTrue( cursor.next() );
+                cursor.getLong();
+
+                // when the page is evicted, and faulted in again by someone else, into another cache page, before
+                // we retry
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+                try ( PageCursor other = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( other.next() );
+                    assertTrue( other.next( 0 ) );
+                }
+                assertTrue( cursor.shouldRetry() );
+                cursor.getLong();
+                assertFalse( cursor.shouldRetry() );
+            }
+
+            // then
+            assertThat( countersOf( pageCache, file ).faults(), is( 5L ) );
+            assertThat( countersOf( pageCache, file ).hits(), is( 0L ) );
+        }
+    }
+
+    /**
+     * Eviction only runs once the pages on the initial freelist have been used up, so tests that evict pages
+     * themselves first go through every page of the page cache.
+     */
+    private void faultInAndEvictAllPages( MuninnPageCache pageCache, PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            while ( cursor.next() )
+            {
+                // Fault in the page
+            }
+        }
+        pageCache.evictPages( pageCache.maxCachedPages(), 0, EvictionRunEvent.NULL );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void listExistingMappingsMustReturnMappedFiles() throws Exception
+    {
+        File fileA = file( "a" );
+        File fileB = file( "b" );
+        ensureExists( fileB );
+        MuninnPageCache pageCache = createPageCache( fs, maxPages, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFileA = pageCache.map( fileA, filePageSize );
+              PagedFile pagedFileB = pageCache.map( fileB, filePageSize ) )
+        {
+            List<PagedFile> mappings = pageCache.listExistingMappings();
+            assertThat( mappings.size(), is( 2 ) );
+            assertTrue( mappings.contains( pagedFileA ) );
+            assertTrue( mappings.contains( pagedFileB ) );
+            assertThat( pagedFileA.file(), is( fileA ) );
+        }
+        assertTrue( pageCache.listExistingMappings().isEmpty() );
+    }
+
+    private PagedFileCounters countersOf( MuninnPageCache pageCache, File file )
+    {
+        for ( PagedFileCounters counters : pageCache.listPagedFileCounters() )
+        {
+            if ( counters.file().equals( file ) )
+            {
+                return counters;
+            }
+        }
+        throw new AssertionError( "No counters for " + file );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void preallocatedPageCacheMustReadAndWritePages() throws Exception
+    {
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * maxPages * 2, recordSize );
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, maxPages, pageCachePageSize, PageCacheTracer.NULL, EvictionPolicy.CLOCK, true );
+
+        try ( PagedFile pagedFile = pageCache.map( file, filePageSize ) )
+        {
+            // Go through twice as many pages as we can cache, to also get the pre-allocated pages recycled.
+            int pagesRead = 0;
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                while ( cursor.next() )
+                {
+                    verifyRecordsMatchExpected( cursor );
+                    pagesRead++;
+                }
+            }
+            assertThat( pagesRead, is( maxPages * 2 ) );
+        }
+        finally
+        {
+            pageCache.close();
+        }
+    }
+
     @Test( expected = IllegalStateException.class, timeout = SEMI_LONG_TIMEOUT_MILLIS )
     public void mustThrowIfMappingFileWouldOverflowReferenceCount() throws Exception
     {
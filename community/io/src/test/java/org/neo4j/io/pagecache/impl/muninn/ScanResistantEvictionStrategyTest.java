@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Test;
+
+import org.neo4j.unsafe.impl.internal.dragons.MemoryManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScanResistantEvictionStrategyTest
+{
+    private static final int cachePageSize = 8192;
+
+    private final MemoryManager memoryManager = new MemoryManager( cachePageSize, 1 );
+    private final ScanResistantEvictionStrategy strategy = new ScanResistantEvictionStrategy( 4 );
+
+    @Test
+    public void pageOnlyReferencedInTheFaultingPeriodMustBeEvictedOnSecondSweep() throws Exception
+    {
+        MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+        strategy.pageFaulted( page );
+        for ( int i = 0; i < 100; i++ )
+        {
+            strategy.pageHit( page );
+        }
+        assertFalse( strategy.sweep( page ) );
+        assertTrue( strategy.sweep( page ) );
+    }
+
+    @Test
+    public void pageNotReferencedAfterBeingFaultedInMustBeEvictedOnFirstSweep() throws Exception
+    {
+        MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+        strategy.pageFaulted( page );
+        assertTrue( strategy.sweep( page ) );
+    }
+
+    @Test
+    public void pageReferencedAfterTheFaultingPeriodMustSurviveUnreferencedSweep() throws Exception
+    {
+        MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+        strategy.pageFaulted( page );
+        strategy.pageHit( page );
+        assertFalse( strategy.sweep( page ) );
+        strategy.pageHit( page );
+        assertFalse( strategy.sweep( page ) );
+        assertFalse( strategy.sweep( page ) );
+    }
+
+    @Test
+    public void pageReferencedInOnlyOnePeriodAfterTheFaultingPeriodMustNotBeHot() throws Exception
+    {
+        MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+        strategy.pageFaulted( page );
+        strategy.pageHit( page );
+        assertFalse( strategy.sweep( page ) );
+        strategy.pageHit( page );
+        assertFalse( strategy.sweep( page ) );
+        assertFalse( strategy.sweep( page ) );
+        assertTrue( strategy.sweep( page ) );
+    }
+
+    @Test
+    public void cacheFullOfHotPagesMustEvictOnceTheHotPagesHaveBeenAged() throws Exception
+    {
+        MuninnPage[] pages = new MuninnPage[4];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = hotPage();
+        }
+
+        // One pass to find that nothing can be evicted, and then enough passes to age a page from the maximum count.
+        boolean evicted = false;
+        for ( int i = 0; i < 6 && !evicted; i++ )
+        {
+            for ( MuninnPage page : pages )
+            {
+                evicted |= strategy.sweep( page );
+            }
+        }
+        assertTrue( evicted );
+    }
+
+    @Test
+    public void hotPagesMustNotBeAgedWhileTheyFitInTheHotShareOfTheCache() throws Exception
+    {
+        MuninnPage hotPage = hotPage();
+        MuninnPage[] coldPages = new MuninnPage[3];
+        for ( int i = 0; i < coldPages.length; i++ )
+        {
+            coldPages[i] = new MuninnPage( cachePageSize, memoryManager );
+        }
+
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertFalse( strategy.sweep( hotPage ) );
+            for ( MuninnPage coldPage : coldPages )
+            {
+                strategy.sweep( coldPage );
+            }
+        }
+    }
+
+    @Test
+    public void hotPagesMustBeAgedWhenTheyExceedTheHotShareOfTheCache() throws Exception
+    {
+        MuninnPage[] pages = new MuninnPage[4];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = hotPage();
+        }
+
+        boolean evicted = false;
+        for ( int i = 0; i < 100 && !evicted; i++ )
+        {
+            for ( MuninnPage page : pages )
+            {
+                evicted |= strategy.sweep( page );
+            }
+        }
+        assertTrue( evicted );
+    }
+
+    private MuninnPage hotPage()
+    {
+        MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+        strategy.pageFaulted( page );
+        strategy.pageHit( page );
+        strategy.sweep( page );
+        for ( int i = 0; i < 3; i++ )
+        {
+            strategy.pageHit( page );
+            strategy.sweep( page );
+        }
+        return page;
+    }
+}
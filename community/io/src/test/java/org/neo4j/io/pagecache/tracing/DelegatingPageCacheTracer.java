@@ -116,4 +116,44 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
     {
         return delegate.evictions();
     }
+
+    public long prefetches()
+    {
+        return delegate.prefetches();
+    }
+
+    public long prefetchHits()
+    {
+        return delegate.prefetchHits();
+    }
+
+    public long prefetchMisses()
+    {
+        return delegate.prefetchMisses();
+    }
+
+    public long prefetchesWasted()
+    {
+        return delegate.prefetchesWasted();
+    }
+
+    public void pagesPrefetched( PageSwapper swapper, int pageCount )
+    {
+        delegate.pagesPrefetched( swapper, pageCount );
+    }
+
+    public void prefetchHit()
+    {
+        delegate.prefetchHit();
+    }
+
+    public void prefetchMiss()
+    {
+        delegate.prefetchMiss();
+    }
+
+    public void prefetchWasted()
+    {
+        delegate.prefetchWasted();
+    }
 }
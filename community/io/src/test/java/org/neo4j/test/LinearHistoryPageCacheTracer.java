@@ -624,6 +624,50 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long prefetches()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public long prefetchesWasted()
+    {
+        return 0;
+    }
+
+    @Override
+    public void pagesPrefetched( PageSwapper swapper, int pageCount )
+    {
+    }
+
+    @Override
+    public void prefetchHit()
+    {
+    }
+
+    @Override
+    public void prefetchMiss()
+    {
+    }
+
+    @Override
+    public void prefetchWasted()
+    {
+    }
+
     private class HistoryPrinter implements Consumer<HEvent>
     {
         private final List<HEvent> concurrentIntervals;
@@ -25,6 +25,7 @@ import java.util.List;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.HostnamePort;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
 import org.neo4j.kernel.configuration.Group;
@@ -105,8 +106,9 @@ public abstract class GraphDatabaseSettings
             "allows an upgrade to be performed.")
     public static final Setting<Boolean> allow_store_upgrade = setting("dbms.allow_format_migration", BOOLEAN, FALSE );
 
-    @Description( "Database record format. Enterprise edition only. Valid values: `standard`, `high_limit`. " +
-                  "Default value:  `standard`." )
+    @Description( "Database record format. Valid values: `standard`, `compact`, and `high_limit` which is " +
+                  "Enterprise edition only. The `compact` format keeps small property chains inlined in the node and " +
+                  "relationship records. Default value:  `standard`." )
     public static final Setting<String> record_format = setting( "dbms.record_format", Settings.STRING, "" );
 
     // Cypher settings
@@ -270,6 +272,21 @@ public abstract class GraphDatabaseSettings
                   "Set this to -1 to disable the IOPS limit.")
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "1000" );
 
+    @Description( "Number of threads writing node, relationship and property records during recovery. Records are " +
+                  "partitioned by the node or relationship they belong to, so that the changes to each of them are " +
+                  "applied in transaction order. `1` means that recovery applies one transaction at a time, on a " +
+                  "single thread." )
+    @Internal
+    public static final Setting<Integer> recovery_apply_partitions =
+            setting( "unsupported.dbms.recovery.apply_partitions", INTEGER, "1", min( 1 ) );
+
+    @Description( "Commit transactions in a pipeline where the transaction log is forced by one dedicated thread and " +
+                  "committed transactions are applied to the store in batches by another, so that committing threads " +
+                  "only serialize their transactions to the log themselves." )
+    @Internal
+    public static final Setting<Boolean> pipelined_commit =
+            setting( "unsupported.dbms.transaction.pipelined_commit", BOOLEAN, FALSE );
+
     // Auto Indexing
     @Description("Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting.")
@@ -339,11 +356,42 @@ public abstract class GraphDatabaseSettings
                   "`0` means that no rotation will automatically occur based on file size. " )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "dbms.tx_log.rotation.size", BYTES, "250M", min( 1024*1024L /*1Mb*/ ) );
 
+    @Description( "Size of the off-heap buffer that committing transactions serialize their commands into " +
+                  "concurrently, before appending them to the transaction log. Transactions that don't fit are " +
+                  "serialized on the heap. `0` means that commands are serialized directly into the transaction " +
+                  "log, by one transaction at a time." )
+    @Internal
+    public static final Setting<Long> log_serialization_buffer_size =
+            setting( "unsupported.dbms.tx_log.serialization_buffer_size", BYTES, "0", min( 0L ) );
+
+    @Description( "Write the commands of each transaction to the transaction log as one compressed entry, when that " +
+                  "makes them smaller. Transaction logs with compressed entries cannot be read by versions of " +
+                  "Neo4j before 3.1." )
+    @Internal
+    public static final Setting<Boolean> compress_log_commands =
+            setting( "unsupported.dbms.tx_log.compress_commands", BOOLEAN, FALSE );
+
+    @Description( "Number of rotated transaction log files to keep memory mapped for reading, when no longer read " +
+                  "from. Readers of the transaction log, like slaves pulling updates and backups, read rotated " +
+                  "log files from memory mappings shared between them. `0` means that log files are never mapped. " +
+                  "Only applies to databases on the default file system." )
+    @Internal
+    public static final Setting<Integer> mapped_log_files =
+            setting( "unsupported.dbms.tx_log.mapped_files", INTEGER, "0", min( 0 ) );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     @Internal
     public static final Setting<Boolean> rebuild_idgenerators_fast = setting("unsupported.dbms.id_generator_fast_rebuild_enabled", BOOLEAN, TRUE );
 
+    @Description("Number of node, relationship and property ids to reserve at a time for each of a number of " +
+            "stripes that threads allocate ids from, so that concurrent transactions don't contend on allocating " +
+            "ids. Ids that are reserved but not used are freed on shutdown. `0` means that ids are allocated one " +
+            "at a time.")
+    @Internal
+    public static final Setting<Integer> id_generator_striped_batch_size =
+            setting( "unsupported.dbms.id_generator_striped_batch_size", INTEGER, "0", min( 0 ) );
+
     // Store memory settings
     @Description("Target size for pages of mapped memory. If set to 0, then a reasonable default is chosen, " +
                  "depending on the storage device used.")
@@ -400,6 +448,41 @@ public abstract class GraphDatabaseSettings
         return "2g";
     }
 
+    @Description( "The eviction policy of the page cache. The default CLOCK policy is cheap, but large scans can evict " +
+                  "the working set of other queries. The SCAN_RESISTANT policy keeps pages that are only touched by " +
+                  "scans from pushing frequently used pages out of the cache." )
+    @Internal
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy = setting(
+            "unsupported.dbms.memory.pagecache.eviction_policy", options( EvictionPolicy.class ),
+            EvictionPolicy.CLOCK.name() );
+
+    @Description( "Allocate all of the page cache memory when the database starts, and touch it so the operating " +
+                  "system backs it with physical memory right away. This makes startup slower, but avoids the cost " +
+                  "of allocating the memory on the first access to each page, and lets the operating system use " +
+                  "transparent huge pages for the page cache memory." )
+    @Internal
+    public static final Setting<Boolean> pagecache_preallocate =
+            setting( "unsupported.dbms.memory.pagecache.preallocate", BOOLEAN, FALSE );
+
+    @Description( "The amount of native memory to use for keeping compressed copies of the pages that are evicted " +
+                  "from the page cache, so they can be faulted back in without reading them from the store files. " +
+                  "Pages that do not compress well are not kept. The default of zero disables this." )
+    @Internal
+    public static final Setting<Long> pagecache_compressed_tier_size =
+            setting( "unsupported.dbms.memory.pagecache.compressed_tier.size", BYTES, "0" );
+
+    @Description( "Periodically record which store file pages are in the page cache, and load those pages back into " +
+                  "the page cache in the background when the database starts, so it does not start with a cold " +
+                  "cache after a restart." )
+    @Internal
+    public static final Setting<Boolean> pagecache_warmup_enabled =
+            setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, FALSE );
+
+    @Description( "How often the page cache warmup profile is updated." )
+    @Internal
+    public static final Setting<Long> pagecache_warmup_profiling_interval =
+            setting( "unsupported.dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
+
     @Description( "Specify which page swapper to use for doing paged IO. " +
                   "This is only used when integrating with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper =
@@ -437,6 +520,16 @@ public abstract class GraphDatabaseSettings
     public static final Setting<Integer> label_block_size = setting("unsupported.dbms.block_size.labels", INTEGER,
             "0", min( 0 ) );
 
+    @Description( "Strings and arrays that are stored in the dynamic string and array stores, and that are at least " +
+                  "this many bytes long, are compressed when they are written, if that makes them smaller. " +
+                  "Compressed values can be read regardless of this setting. The default of zero disables this. " +
+                  "Only applies to stores in a record format that supports compressed values, like the compact " +
+                  "format, since older versions of Neo4j cannot read them. For stores in other formats, values are " +
+                  "not compressed, and a warning is logged when the store is opened." )
+    @Internal
+    public static final Setting<Integer> dynamic_property_compression_threshold = setting(
+            "unsupported.dbms.dynamic_property_compression_threshold", INTEGER, "0", min( 0 ) );
+
     @Description("An identifier that uniquely identifies this graph database instance within this JVM. " +
             "Defaults to an auto-generated number depending on how many instance are started in this JVM.")
     @Internal
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel;
 
+import org.apache.commons.lang3.SystemUtils;
+
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
@@ -27,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
@@ -37,6 +40,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Clock;
 import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
@@ -81,6 +85,7 @@ import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ReentrantLockService;
 import org.neo4j.kernel.impl.logging.LogService;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
 import org.neo4j.kernel.impl.store.MetaDataStore;
@@ -100,6 +105,7 @@ import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.LogFile;
 import org.neo4j.kernel.impl.transaction.log.LogFileInformation;
+import org.neo4j.kernel.impl.transaction.log.LogFileMappings;
 import org.neo4j.kernel.impl.transaction.log.LogFileRecoverer;
 import org.neo4j.kernel.impl.transaction.log.LogHeaderCache;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -485,6 +491,14 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
             dependencies.satisfyDependency( logEntryReader );
             dependencies.satisfyDependency( storageEngine );
             satisfyDependencies( kernelModule );
+
+            if ( config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+            {
+                // Added last, so it stops first, while the store files are still mapped.
+                life.add( new PageCacheWarmer( fs, pageCache, scheduler, storeDir,
+                        config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ),
+                        logProvider.getLog( PageCacheWarmer.class ) ) );
+            }
         }
         catch ( Throwable e )
         {
@@ -607,10 +621,18 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
         final PhysicalLogFiles logFiles = new PhysicalLogFiles( storeDir, PhysicalLogFile.DEFAULT_NAME,
                 fileSystemAbstraction );
 
+        int mappedLogFiles = config.get( GraphDatabaseSettings.mapped_log_files );
+        // Log files are mapped straight from disk, so only if they are on disk, and not on Windows,
+        // where mapped files cannot be pruned
+        LogFileMappings logFileMappings =
+                mappedLogFiles > 0 && fileSystemAbstraction instanceof DefaultFileSystemAbstraction &&
+                !SystemUtils.IS_OS_WINDOWS
+                ? new LogFileMappings( logFiles, logVersionRepository, mappedLogFiles )
+                : null;
         final PhysicalLogFile logFile = life.add( new PhysicalLogFile( fileSystemAbstraction, logFiles,
                 config.get( GraphDatabaseSettings.logical_log_rotation_threshold ),
                 transactionIdStore::getLastCommittedTransactionId, logVersionRepository, physicalLogMonitor,
-                logHeaderCache ) );
+                logHeaderCache, logFileMappings ) );
 
         final PhysicalLogFileInformation.LogVersionToTimestamp
                 logInformation = new PhysicalLogFileInformation.LogVersionToTimestamp()
@@ -642,6 +664,15 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
                 : GraphDatabaseSettings.keep_logical_logs );
 
         LogPruneStrategy logPruneStrategy = fromConfigValue( fs, logFileInformation, logFiles, pruningConf );
+        if ( logFileMappings != null )
+        {
+            LogPruneStrategy pruneStrategy = logPruneStrategy;
+            logPruneStrategy = upToLogVersion ->
+            {
+                pruneStrategy.prune( upToLogVersion );
+                logFileMappings.dropPrunedVersions();
+            };
+        }
 
         final LogPruning logPruning = new LogPruningImpl( logPruneStrategy, logProvider );
 
@@ -650,7 +681,9 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
 
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
                 logFile, logRotation, transactionMetadataCache, transactionIdStore, legacyIndexTransactionOrdering,
-                databaseHealth ) );
+                databaseHealth, config.get( GraphDatabaseSettings.pipelined_commit ),
+                config.get( GraphDatabaseSettings.log_serialization_buffer_size ),
+                config.get( GraphDatabaseSettings.compress_log_commands ) ) );
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFile, transactionMetadataCache, logEntryReader );
 
@@ -751,6 +784,16 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
                 checkPointFinder );
         Recovery recovery = new Recovery( spi, recoveryMonitor );
 
+        final AtomicLong recoveryStartTime = new AtomicLong();
+        life.add( new LifecycleAdapter()
+        {
+            @Override
+            public void init() throws Throwable
+            {
+                recoveryStartTime.set( Clock.SYSTEM_CLOCK.currentTimeMillis() );
+            }
+        } );
+
         life.add( recovery );
 
         life.add( new LifecycleAdapter()
@@ -758,7 +801,10 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
             @Override
             public void init() throws Throwable
             {
-                startupStatistics.setNumberOfRecoveredTransactions( recoveredCount.get() );
+                int recovered = recoveredCount.get();
+                startupStatistics.setNumberOfRecoveredTransactions( recovered );
+                startupStatistics.setRecoveryTimeMillis(
+                        recovered > 0 ? Clock.SYSTEM_CLOCK.currentTimeMillis() - recoveryStartTime.get() : 0 );
                 recoveredCount.set( 0 );
             }
         } );
@@ -774,6 +820,10 @@ public class NeoStoreDataSource implements Lifecycle, IndexProviders
     {
         TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine,
                 config );
+        if ( transactionCommitProcess instanceof Lifecycle )
+        {
+            life.add( (Lifecycle) transactionCommitProcess );
+        }
 
         /*
          * This is used by legacy indexes and constraint indexes whenever a transaction is to be spawned
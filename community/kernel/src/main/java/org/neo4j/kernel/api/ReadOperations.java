@@ -20,6 +20,7 @@
 package org.neo4j.kernel.api;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -178,6 +179,26 @@ public interface ReadOperations
      */
     PrimitiveLongIterator relationshipsGetAll();
 
+    /**
+     * Splits an iteration over all nodes in the database into partitions that can be iterated in parallel, by
+     * different threads. The transaction must not change while the partitions are being iterated.
+     *
+     * @param numberOfPartitions number of partitions to split the iteration into.
+     * @return iterators that together return all nodes in the database, each node from exactly one of them. Each
+     * iterator must only be used by one thread at a time.
+     */
+    List<PrimitiveLongIterator> nodesGetAllPartitioned( int numberOfPartitions );
+
+    /**
+     * Splits an iteration over all relationships in the database into partitions that can be iterated in parallel,
+     * like {@link #nodesGetAllPartitioned(int)}.
+     *
+     * @param numberOfPartitions number of partitions to split the iteration into.
+     * @return iterators that together return all relationships in the database, each relationship from exactly one
+     * of them. Each iterator must only be used by one thread at a time.
+     */
+    List<PrimitiveLongIterator> relationshipsGetAllPartitioned( int numberOfPartitions );
+
     RelationshipIterator nodeGetRelationships( long nodeId,
             Direction direction,
             int... relTypes ) throws EntityNotFoundException;
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Predicate;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
@@ -408,6 +409,18 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         return entityReadOperations.relationshipsGetAll( state );
     }
 
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        return entityReadOperations.nodesGetAllPartitioned( state, numberOfPartitions );
+    }
+
+    @Override
+    public List<PrimitiveLongIterator> relationshipsGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        return entityReadOperations.relationshipsGetAllPartitioned( state, numberOfPartitions );
+    }
+
     @Override
     public <EXCEPTION extends Exception> void relationshipVisit( KernelStatement statement,
             long relId, RelationshipVisitor<EXCEPTION> visitor )
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.List;
+
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
@@ -286,6 +288,20 @@ public class GuardingStatementOperations implements
         return entityReadDelegate.relationshipsGetAll( state );
     }
 
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        guard.check();
+        return entityReadDelegate.nodesGetAllPartitioned( state, numberOfPartitions );
+    }
+
+    @Override
+    public List<PrimitiveLongIterator> relationshipsGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        guard.check();
+        return entityReadDelegate.relationshipsGetAllPartitioned( state, numberOfPartitions );
+    }
+
     @Override
     public <EXCEPTION extends Exception> void relationshipVisit( KernelStatement statement, long relId,
             RelationshipVisitor<EXCEPTION> visitor )
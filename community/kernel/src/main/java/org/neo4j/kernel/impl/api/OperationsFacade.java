@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -179,6 +180,20 @@ public class OperationsFacade implements ReadOperations, DataWriteOperations, Sc
         return dataRead().relationshipsGetAll( statement );
     }
 
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( int numberOfPartitions )
+    {
+        statement.assertOpen();
+        return dataRead().nodesGetAllPartitioned( statement, numberOfPartitions );
+    }
+
+    @Override
+    public List<PrimitiveLongIterator> relationshipsGetAllPartitioned( int numberOfPartitions )
+    {
+        statement.assertOpen();
+        return dataRead().relationshipsGetAllPartitioned( statement, numberOfPartitions );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetForLabel( int labelId )
     {
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+
+/**
+ * A {@link TransactionRepresentationCommitProcess} where transactions are applied to the store in batches, by a
+ * dedicated thread.
+ * <p>
+ * Committing threads serialize their transactions to the log themselves, after which the log is forced by the
+ * {@link BatchingTransactionAppender}, preferably by its dedicated force thread. The transactions are then queued for
+ * the applying thread, which takes all transactions queued so far and applies them as one batch. While one batch
+ * is being applied the next one is serialized and forced, and the cost of applying a batch, like handing index and
+ * label scan updates over to their work syncs, is shared by all transactions in it.
+ * <p>
+ * Transactions that {@link CommandsToApply#requiresApplicationOrdering() require application ordering} are applied
+ * by the committing thread, since a batch could otherwise end up waiting for a transaction queued behind it. So are
+ * transactions committed while this commit process is not started.
+ */
+public class PipelinedTransactionCommitProcess extends TransactionRepresentationCommitProcess implements Lifecycle
+{
+    private static final int MAX_APPLICATIONS_PER_BATCH = 1_000;
+
+    private final StorageEngine storageEngine;
+    private final BlockingQueue<Application> queue = new LinkedBlockingQueue<>();
+    private final ReadWriteLock applierLock = new ReentrantReadWriteLock();
+    private Thread applier; // guarded by applierLock
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine )
+    {
+        super( appender, storageEngine );
+        this.storageEngine = storageEngine;
+    }
+
+    @Override
+    public void init()
+    {
+    }
+
+    @Override
+    public void start()
+    {
+        Lock lock = applierLock.writeLock();
+        lock.lock();
+        try
+        {
+            applier = new Thread( this::applyUntilStopped, "Transaction applier" );
+            applier.setDaemon( true );
+            applier.start();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException
+    {
+        Thread thread;
+        Lock lock = applierLock.writeLock();
+        lock.lock();
+        try
+        {
+            // Nothing is queued after this, so all queued transactions get applied before the thread stops
+            thread = applier;
+            applier = null;
+            queue.add( Application.STOP );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        if ( thread != null )
+        {
+            thread.join();
+        }
+    }
+
+    @Override
+    public void shutdown()
+    {
+    }
+
+    @Override
+    protected void applyToStore( TransactionToApply batch, CommitEvent commitEvent,
+            TransactionApplicationMode mode ) throws TransactionFailureException
+    {
+        Application application = new Application( batch, mode );
+        boolean queued = false;
+        Lock lock = applierLock.readLock();
+        lock.lock();
+        try
+        {
+            if ( applier != null && !requiresApplicationOrdering( batch ) )
+            {
+                queued = queue.add( application );
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        if ( !queued )
+        {
+            super.applyToStore( batch, commitEvent, mode );
+            return;
+        }
+
+        try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+        {
+            application.awaitApplied();
+        }
+        catch ( Throwable cause )
+        {
+            throw new TransactionFailureException( TransactionCommitFailed, cause,
+                    "Could not apply the transaction to the store after written to log" );
+        }
+    }
+
+    private static boolean requiresApplicationOrdering( TransactionToApply batch )
+    {
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            if ( tx.requiresApplicationOrdering() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applyUntilStopped()
+    {
+        List<Application> applications = new ArrayList<>();
+        boolean stopped = false;
+        while ( !stopped )
+        {
+            try
+            {
+                applications.add( queue.take() );
+            }
+            catch ( InterruptedException e )
+            {
+                // Only the STOP application stops this thread, since there may be transactions queued
+                continue;
+            }
+            queue.drainTo( applications, MAX_APPLICATIONS_PER_BATCH - 1 );
+
+            // Apply consecutive applications of the same mode as one batch
+            int from = 0;
+            for ( int i = 0; i <= applications.size(); i++ )
+            {
+                Application application = i < applications.size() ? applications.get( i ) : null;
+                if ( from < i && (application == null || application == Application.STOP ||
+                        application.mode != applications.get( from ).mode) )
+                {
+                    apply( applications.subList( from, i ) );
+                    from = i;
+                }
+                if ( application == Application.STOP )
+                {
+                    stopped = true;
+                    from = i + 1;
+                }
+            }
+            applications.clear();
+        }
+    }
+
+    private void apply( List<Application> applications )
+    {
+        for ( int i = 1; i < applications.size(); i++ )
+        {
+            applications.get( i - 1 ).last.next( applications.get( i ).first );
+        }
+
+        Throwable failure = null;
+        try
+        {
+            storageEngine.apply( applications.get( 0 ).first, applications.get( 0 ).mode );
+        }
+        catch ( Throwable e )
+        {
+            failure = e;
+        }
+        finally
+        {
+            // Each committing thread closes its own transactions, so unlink them again before letting it continue
+            for ( Application application : applications )
+            {
+                application.last.next( null );
+                application.applied( failure );
+            }
+        }
+    }
+
+    /**
+     * The transactions of one call to {@link #commit(TransactionToApply, CommitEvent, TransactionApplicationMode)},
+     * waiting to be applied.
+     */
+    private static class Application
+    {
+        static final Application STOP = new Application( null, null );
+
+        private final TransactionToApply first;
+        private final TransactionToApply last;
+        private final TransactionApplicationMode mode;
+        private final CountDownLatch done = new CountDownLatch( 1 );
+        private volatile Throwable failure;
+
+        Application( TransactionToApply batch, TransactionApplicationMode mode )
+        {
+            TransactionToApply last = batch;
+            while ( last != null && last.next() != null )
+            {
+                last = last.next();
+            }
+            this.first = batch;
+            this.last = last;
+            this.mode = mode;
+        }
+
+        void applied( Throwable failure )
+        {
+            this.failure = failure;
+            done.countDown();
+        }
+
+        void awaitApplied() throws Throwable
+        {
+            // The transactions are applied whether we wait or not, and they must not be closed before they are,
+            // so keep waiting even if interrupted
+            boolean interrupted = false;
+            while ( true )
+            {
+                try
+                {
+                    done.await();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+        }
+    }
+}
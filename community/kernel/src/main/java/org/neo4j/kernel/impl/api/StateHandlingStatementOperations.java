@@ -19,7 +19,9 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 
@@ -93,6 +95,7 @@ import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
+import org.neo4j.storageengine.api.txstate.ReadableRelationshipDiffSets;
 
 import static org.neo4j.collection.primitive.PrimitiveLongCollections.single;
 import static org.neo4j.helpers.collection.Iterators.iterator;
@@ -380,6 +383,45 @@ public class StateHandlingStatementOperations implements
         return state.hasTxStateWithChanges() ? state.txState().augmentRelationshipsGetAll( iterator ) : iterator;
     }
 
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        List<PrimitiveLongIterator> partitions = storeLayer.nodesGetAllPartitioned( numberOfPartitions );
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return partitions;
+        }
+
+        // Nodes added in this transaction are returned from the first partition only
+        ReadableDiffSets<Long> nodes = state.txState().addedAndRemovedNodes();
+        List<PrimitiveLongIterator> augmented = new ArrayList<>( partitions.size() );
+        for ( PrimitiveLongIterator partition : partitions )
+        {
+            augmented.add( augmented.isEmpty() ? nodes.augment( partition ) : nodes.augmentWithRemovals( partition ) );
+        }
+        return augmented;
+    }
+
+    @Override
+    public List<PrimitiveLongIterator> relationshipsGetAllPartitioned( KernelStatement state, int numberOfPartitions )
+    {
+        List<RelationshipIterator> partitions = storeLayer.relationshipsGetAllPartitioned( numberOfPartitions );
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return new ArrayList<>( partitions );
+        }
+
+        // Relationships added in this transaction are returned from the first partition only
+        ReadableRelationshipDiffSets<Long> relationships = state.txState().addedAndRemovedRelationships();
+        List<PrimitiveLongIterator> augmented = new ArrayList<>( partitions.size() );
+        for ( RelationshipIterator partition : partitions )
+        {
+            augmented.add( augmented.isEmpty() ? relationships.augment( partition )
+                                               : relationships.augmentWithRemovals( partition ) );
+        }
+        return augmented;
+    }
+
     @Override
     public boolean nodeAddLabel( KernelStatement state, long nodeId, int labelId ) throws EntityNotFoundException
     {
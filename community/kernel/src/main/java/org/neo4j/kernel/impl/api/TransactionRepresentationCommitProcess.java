@@ -70,8 +70,8 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
         }
     }
 
-    private void applyToStore( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
-            throws TransactionFailureException
+    protected void applyToStore( TransactionToApply batch, CommitEvent commitEvent,
+            TransactionApplicationMode mode ) throws TransactionFailureException
     {
         try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
         {
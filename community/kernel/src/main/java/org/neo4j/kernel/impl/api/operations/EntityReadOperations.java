@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api.operations;
 
+import java.util.List;
+
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
@@ -132,6 +134,10 @@ public interface EntityReadOperations
 
     PrimitiveLongIterator relationshipsGetAll( KernelStatement state );
 
+    List<PrimitiveLongIterator> nodesGetAllPartitioned( KernelStatement state, int numberOfPartitions );
+
+    List<PrimitiveLongIterator> relationshipsGetAllPartitioned( KernelStatement state, int numberOfPartitions );
+
     <EXCEPTION extends Exception> void relationshipVisit( KernelStatement statement, long relId,
             RelationshipVisitor<EXCEPTION> visitor ) throws EntityNotFoundException, EXCEPTION;
 
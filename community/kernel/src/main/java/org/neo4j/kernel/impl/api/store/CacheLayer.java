@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.api.store;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -350,6 +351,18 @@ public class CacheLayer implements StoreReadLayer
         return diskLayer.relationshipsGetAll();
     }
 
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( int numberOfPartitions )
+    {
+        return diskLayer.nodesGetAllPartitioned( numberOfPartitions );
+    }
+
+    @Override
+    public List<RelationshipIterator> relationshipsGetAllPartitioned( int numberOfPartitions )
+    {
+        return diskLayer.relationshipsGetAllPartitioned( numberOfPartitions );
+    }
+
     @Override
     public long reserveNode()
     {
@@ -19,7 +19,10 @@
  */
 package org.neo4j.kernel.impl.api.store;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -61,7 +64,6 @@ import org.neo4j.kernel.impl.store.record.IndexRule;
 import org.neo4j.kernel.impl.store.record.NodePropertyConstraintRule;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PropertyConstraintRule;
-import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.store.record.RelationshipPropertyConstraintRule;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.state.PropertyLoader;
@@ -76,7 +78,6 @@ import org.neo4j.storageengine.api.schema.IndexSchemaRule;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 
-import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.FORCE;
 import static org.neo4j.register.Registers.newDoubleLongRegister;
 
@@ -97,6 +98,17 @@ public class DiskLayer implements StoreReadLayer
     private static final Function<RelationshipPropertyConstraintRule,RelationshipPropertyConstraint> REL_RULE_TO_CONSTRAINT =
             RelationshipPropertyConstraintRule::toConstraint;
 
+    /**
+     * Number of records that scans of all nodes or relationships read at a time.
+     */
+    private static final int SCAN_BATCH_SIZE = 64;
+
+    /**
+     * Number of records that each partition of a partitioned scan claims at a time. Large enough for partitions
+     * not to contend on claiming, and to mostly read whole pages, yet small enough to even out the work between them.
+     */
+    private static final int PARTITIONED_SCAN_CHUNK_SIZE = SCAN_BATCH_SIZE * 16;
+
     // These token holders should perhaps move to the cache layer.. not really any reason to have them here?
     private final PropertyKeyTokenHolder propertyKeyTokenHolder;
     private final LabelTokenHolder labelTokenHolder;
@@ -437,44 +449,31 @@ public class DiskLayer implements StoreReadLayer
     @Override
     public PrimitiveLongIterator nodesGetAll()
     {
-        return new PrimitiveLongBaseIterator()
+        return nodesGetAll( new AtomicLong(), SCAN_BATCH_SIZE );
+    }
+
+    @Override
+    public List<PrimitiveLongIterator> nodesGetAllPartitioned( int numberOfPartitions )
+    {
+        AtomicLong nextChunkId = new AtomicLong();
+        List<PrimitiveLongIterator> partitions = new ArrayList<>( numberOfPartitions );
+        for ( int i = 0; i < numberOfPartitions; i++ )
         {
-            private long highId = nodeStore.getHighestPossibleIdInUse();
-            private long currentId;
-            private final NodeRecord record = new NodeRecord( -1 ); // reused
+            partitions.add( nodesGetAll( nextChunkId, PARTITIONED_SCAN_CHUNK_SIZE ) );
+        }
+        return partitions;
+    }
 
+    private PrimitiveLongIterator nodesGetAll( AtomicLong nextChunkId, int chunkSize )
+    {
+        StoreRecordScan<NodeRecord> scan = new StoreRecordScan<>( nodeStore, SCAN_BATCH_SIZE, nextChunkId, chunkSize );
+        return new PrimitiveLongBaseIterator()
+        {
             @Override
             protected boolean fetchNext()
             {
-                while ( true )
-                {   // This outer loop is for checking if highId has changed since we started.
-                    while ( currentId <= highId )
-                    {
-                        try
-                        {
-                            nodeStore.getRecord( currentId, record, RecordLoad.CHECK );
-                            if ( record.inUse() )
-                            {
-                                return next( record.getId() );
-                            }
-                        }
-                        finally
-                        {
-                            currentId++;
-                        }
-                    }
-
-                    long newHighId = nodeStore.getHighestPossibleIdInUse();
-                    if ( newHighId > highId )
-                    {
-                        highId = newHighId;
-                    }
-                    else
-                    {
-                        break;
-                    }
-                }
-                return false;
+                NodeRecord record = scan.next();
+                return record != null && next( record.getId() );
             }
         };
     }
@@ -482,51 +481,41 @@ public class DiskLayer implements StoreReadLayer
     @Override
     public RelationshipIterator relationshipsGetAll()
     {
+        return relationshipsGetAll( new AtomicLong(), SCAN_BATCH_SIZE );
+    }
+
+    @Override
+    public List<RelationshipIterator> relationshipsGetAllPartitioned( int numberOfPartitions )
+    {
+        AtomicLong nextChunkId = new AtomicLong();
+        List<RelationshipIterator> partitions = new ArrayList<>( numberOfPartitions );
+        for ( int i = 0; i < numberOfPartitions; i++ )
+        {
+            partitions.add( relationshipsGetAll( nextChunkId, PARTITIONED_SCAN_CHUNK_SIZE ) );
+        }
+        return partitions;
+    }
+
+    private RelationshipIterator relationshipsGetAll( AtomicLong nextChunkId, int chunkSize )
+    {
+        StoreRecordScan<RelationshipRecord> scan =
+                new StoreRecordScan<>( relationshipStore, SCAN_BATCH_SIZE, nextChunkId, chunkSize );
         return new RelationshipIterator.BaseIterator()
         {
-            private long highId = relationshipStore.getHighestPossibleIdInUse();
-            private long currentId;
-            private final RelationshipRecord reusableRecord = new RelationshipRecord( -1 ); // reused
+            private RelationshipRecord current;
 
             @Override
             protected boolean fetchNext()
             {
-                while ( true )
-                {   // This outer loop is for checking if highId has changed since we started.
-                    while ( currentId <= highId )
-                    {
-                        try
-                        {
-                            if ( relationshipStore.getRecord( currentId, reusableRecord, CHECK ).inUse() )
-                            {
-                                return next( reusableRecord.getId() );
-                            }
-                        }
-                        finally
-                        {
-                            currentId++;
-                        }
-                    }
-
-                    long newHighId = relationshipStore.getHighestPossibleIdInUse();
-                    if ( newHighId > highId )
-                    {
-                        highId = newHighId;
-                    }
-                    else
-                    {
-                        break;
-                    }
-                }
-                return false;
+                current = scan.next();
+                return current != null && next( current.getId() );
             }
 
             @Override
             public <EXCEPTION extends Exception> boolean relationshipVisit( long relationshipId,
                     RelationshipVisitor<EXCEPTION> visitor ) throws EXCEPTION
             {
-                visitor.visit( relationshipId, reusableRecord.getType(),
-                        reusableRecord.getFirstNode(), reusableRecord.getSecondNode() );
+                visitor.visit( relationshipId, current.getType(), current.getFirstNode(), current.getSecondNode() );
                 return false;
             }
         };
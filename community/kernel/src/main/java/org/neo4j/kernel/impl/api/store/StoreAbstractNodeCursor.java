@@ -170,6 +170,7 @@ public abstract class StoreAbstractNodeCursor extends NodeItemHelper implements
                     // to the primitive equivalent of null the property cursor will just look empty from the
                     // outside and the releasing of the lock will be done as usual.
                     nodeRecord.setNextProp( Record.NO_NEXT_PROPERTY.intValue() );
+                    nodeRecord.clearInlinedProperties();
                 }
                 success = true;
             }
@@ -187,13 +188,13 @@ public abstract class StoreAbstractNodeCursor extends NodeItemHelper implements
     @Override
     public Cursor<PropertyItem> properties()
     {
-        return allPropertyCursor.get().init( nodeRecord.getNextProp(), shortLivedReadLock() );
+        return allPropertyCursor.get().init( nodeRecord, shortLivedReadLock() );
     }
 
     @Override
     public Cursor<PropertyItem> property( int propertyKeyId )
     {
-        return singlePropertyCursor.get().init( nodeRecord.getNextProp(), propertyKeyId, shortLivedReadLock() );
+        return singlePropertyCursor.get().init( nodeRecord, propertyKeyId, shortLivedReadLock() );
     }
 
     @Override
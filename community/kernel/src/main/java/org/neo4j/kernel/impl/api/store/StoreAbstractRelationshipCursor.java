@@ -126,6 +126,7 @@ public abstract class StoreAbstractRelationshipCursor extends EntityItemHelper
                     // to the primitive equivalent of null the property cursor will just look empty from the
                     // outside and the releasing of the lock will be done as usual.
                     relationshipRecord.setNextProp( Record.NO_NEXT_PROPERTY.intValue() );
+                    relationshipRecord.clearInlinedProperties();
                 }
                 success = true;
             }
@@ -143,12 +144,12 @@ public abstract class StoreAbstractRelationshipCursor extends EntityItemHelper
     @Override
     public Cursor<PropertyItem> properties()
     {
-        return allPropertyCursor.get().init( relationshipRecord.getNextProp(), shortLivedReadLock() );
+        return allPropertyCursor.get().init( relationshipRecord, shortLivedReadLock() );
     }
 
     @Override
     public Cursor<PropertyItem> property( int propertyKeyId )
     {
-        return singlePropertyCursor.get().init( relationshipRecord.getNextProp(), propertyKeyId, shortLivedReadLock() );
+        return singlePropertyCursor.get().init( relationshipRecord, propertyKeyId, shortLivedReadLock() );
     }
 }
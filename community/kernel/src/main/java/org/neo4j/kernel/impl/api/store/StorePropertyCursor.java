@@ -23,8 +23,10 @@ import java.util.function.Consumer;
 
 import org.neo4j.cursor.Cursor;
 import org.neo4j.kernel.impl.locking.Lock;
+import org.neo4j.kernel.impl.store.PropertyType;
 import org.neo4j.kernel.impl.store.RecordCursor;
 import org.neo4j.kernel.impl.store.RecordCursors;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.storageengine.api.PropertyItem;
@@ -39,6 +41,7 @@ public class StorePropertyCursor implements Cursor<PropertyItem>, PropertyItem
     private final Consumer<StorePropertyCursor> instanceCache;
     private final StorePropertyPayloadCursor payload;
     private final RecordCursor<PropertyRecord> recordCursor;
+    private final long[] inlinedBlocks = new long[PropertyType.getPayloadSizeLongs()];
 
     private Lock lock;
 
@@ -57,6 +60,22 @@ public class StorePropertyCursor implements Cursor<PropertyItem>, PropertyItem
         return this;
     }
 
+    public StorePropertyCursor init( PrimitiveRecord owner, Lock readLock )
+    {
+        if ( !owner.hasInlinedProperties() )
+        {
+            return init( owner.getNextProp(), readLock );
+        }
+
+        // The whole property chain is inlined in the owner, so the property store does not need to be visited
+        recordCursor.placeAt( Record.NO_NEXT_PROPERTY.intValue(), FORCE );
+        int numberOfBlocks = owner.getNumberOfInlinedPropertyBlocks();
+        System.arraycopy( owner.getInlinedPropertyBlocks(), 0, inlinedBlocks, 0, numberOfBlocks );
+        payload.init( inlinedBlocks, numberOfBlocks );
+        lock = readLock;
+        return this;
+    }
+
     @Override
     public boolean next()
     {
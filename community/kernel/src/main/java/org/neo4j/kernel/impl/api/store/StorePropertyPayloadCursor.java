@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.api.store;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
+import org.neo4j.kernel.impl.store.DynamicValueCompression;
 import org.neo4j.kernel.impl.store.LongerShortString;
 import org.neo4j.kernel.impl.store.PropertyType;
 import org.neo4j.kernel.impl.store.RecordCursor;
@@ -197,6 +198,10 @@ class StorePropertyPayloadCursor
         assertOfType( STRING );
         readFromStore( stringRecordCursor );
         buffer.flip();
+        if ( DynamicValueCompression.isCompressed( buffer.array(), 0, buffer.limit() ) )
+        {
+            return UTF8.decode( DynamicValueCompression.decompress( buffer.array(), 0, buffer.limit() ) );
+        }
         return UTF8.decode( buffer.array(), 0, buffer.limit() );
     }
 
@@ -313,6 +318,12 @@ class StorePropertyPayloadCursor
             throw new IllegalStateException( "Given buffer is empty" );
         }
 
+        if ( DynamicValueCompression.isCompressed( buffer.array(), 0, buffer.limit() ) )
+        {
+            return readArrayFromBuffer(
+                    ByteBuffer.wrap( DynamicValueCompression.decompress( buffer.array(), 0, buffer.limit() ) ) );
+        }
+
         byte typeId = buffer.get();
         buffer.order( ByteOrder.BIG_ENDIAN );
         try
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.store;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Scans the records of a store, handing out those that are in use, reading them a batch at a time.
+ * <p>
+ * The ids to read are claimed a chunk at a time from an id counter. A partitioned scan shares one counter between
+ * all its partitions, each with its own scan, so every record is read by exactly one of the partitions, and a
+ * partition that is quicker than the others simply claims more chunks.
+ * <p>
+ * A scan reads up to the high id of the store as it is at each batch, so it picks up records created since it
+ * started, and it ends as soon as it reads a batch that is cut short by the high id.
+ *
+ * @param <RECORD> type of records in the scanned store.
+ */
+class StoreRecordScan<RECORD extends AbstractBaseRecord>
+{
+    private final RecordStore<RECORD> store;
+    private final RECORD[] batch; // reused
+    private final AtomicLong nextChunkId;
+    private final int chunkSize;
+    private long nextId;
+    private long chunkEndId;
+    private int index;
+    private int count;
+    private boolean lastBatch;
+
+    /**
+     * @param store store to scan.
+     * @param batchSize number of records to read at a time.
+     * @param nextChunkId counter to claim chunks of ids from, starting at zero.
+     * @param chunkSize number of ids to claim at a time, a multiple of the {@code batchSize}.
+     */
+    StoreRecordScan( RecordStore<RECORD> store, int batchSize, AtomicLong nextChunkId, int chunkSize )
+    {
+        assert chunkSize % batchSize == 0 : "Chunk size " + chunkSize + " not a multiple of batch size " + batchSize;
+        this.store = store;
+        this.batch = store.newRecordBatch( batchSize );
+        this.nextChunkId = nextChunkId;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return the next record in use, or {@code null} if the scan has ended. The returned record is overwritten
+     * by later calls.
+     */
+    RECORD next()
+    {
+        while ( true )
+        {
+            while ( index < count )
+            {
+                RECORD record = batch[index++];
+                if ( record.inUse() )
+                {
+                    return record;
+                }
+            }
+            if ( lastBatch )
+            {
+                return null;
+            }
+
+            if ( nextId == chunkEndId )
+            {
+                nextId = nextChunkId.getAndAdd( chunkSize );
+                chunkEndId = nextId + chunkSize;
+            }
+            count = store.getRecordBatch( nextId, batch, CHECK );
+            // A short batch means we're at the high id. Reading on from there could run into the next chunk.
+            lastBatch = count < batch.length;
+            index = 0;
+            nextId += count;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.util.function.Consumer;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.impl.locking.Lock;
 import org.neo4j.kernel.impl.store.RecordCursors;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 
 /**
  * Cursor for a specific property on a node or relationship.
@@ -44,6 +45,13 @@ public class StoreSinglePropertyCursor extends StorePropertyCursor
         return this;
     }
 
+    public StoreSinglePropertyCursor init( PrimitiveRecord owner, int propertyKeyId, Lock lock )
+    {
+        super.init( owner, lock );
+        this.propertyKeyId = propertyKeyId;
+        return this;
+    }
+
     @Override
     public boolean next()
     {
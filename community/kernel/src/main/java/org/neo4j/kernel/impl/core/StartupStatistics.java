@@ -22,4 +22,8 @@ package org.neo4j.kernel.impl.core;
 public interface StartupStatistics
 {
     int numberOfRecoveredTransactions();
+
+    long recoveryTimeMillis();
+
+    long pageCachePreallocationTimeMillis();
 }
@@ -22,15 +22,39 @@ package org.neo4j.kernel.impl.core;
 public class StartupStatisticsProvider implements StartupStatistics
 {
     private int numberOfRecoveredTransactions;
+    private long recoveryTimeMillis;
+    private long pageCachePreallocationTimeMillis;
 
     public void setNumberOfRecoveredTransactions( int count )
     {
         this.numberOfRecoveredTransactions = count;
     }
 
+    public void setRecoveryTimeMillis( long recoveryTimeMillis )
+    {
+        this.recoveryTimeMillis = recoveryTimeMillis;
+    }
+
+    public void setPageCachePreallocationTimeMillis( long pageCachePreallocationTimeMillis )
+    {
+        this.pageCachePreallocationTimeMillis = pageCachePreallocationTimeMillis;
+    }
+
     @Override
     public int numberOfRecoveredTransactions()
     {
         return numberOfRecoveredTransactions;
     }
+
+    @Override
+    public long recoveryTimeMillis()
+    {
+        return recoveryTimeMillis;
+    }
+
+    @Override
+    public long pageCachePreallocationTimeMillis()
+    {
+        return pageCachePreallocationTimeMillis;
+    }
 }
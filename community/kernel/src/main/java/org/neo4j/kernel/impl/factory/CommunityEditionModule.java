@@ -50,6 +50,7 @@ import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdReuseEligibility;
+import org.neo4j.kernel.impl.store.id.StripedIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.configuration.CommunityIdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
@@ -85,7 +86,8 @@ public class CommunityEditionModule extends EditionModule
         lockManager = dependencies.satisfyDependency( createLockManager( config, logging ) );
 
         idTypeConfigurationProvider = createIdTypeConfigurationProvider( config );
-        idGeneratorFactory = dependencies.satisfyDependency( createIdGeneratorFactory( fileSystem, idTypeConfigurationProvider ) );
+        idGeneratorFactory = dependencies.satisfyDependency( stripedIfConfigured(
+                createIdGeneratorFactory( fileSystem, idTypeConfigurationProvider ), config ) );
 
         propertyKeyTokenHolder = life.add( dependencies.satisfyDependency( new DelegatingPropertyKeyTokenHolder(
                 createPropertyKeyCreator( config, dataSourceManager, idGeneratorFactory ) ) ) );
@@ -187,6 +189,12 @@ public class CommunityEditionModule extends EditionModule
         return new DefaultIdGeneratorFactory( fs, idTypeConfigurationProvider );
     }
 
+    private static IdGeneratorFactory stripedIfConfigured( IdGeneratorFactory idGeneratorFactory, Config config )
+    {
+        int batchSize = config.get( GraphDatabaseSettings.id_generator_striped_batch_size );
+        return batchSize > 0 ? new StripedIdGeneratorFactory( idGeneratorFactory, batchSize ) : idGeneratorFactory;
+    }
+
     public static Locks createLockManager( Config config, LogService logging )
     {
         String key = config.get( GraphDatabaseFacadeFactory.Configuration.lock_manager );
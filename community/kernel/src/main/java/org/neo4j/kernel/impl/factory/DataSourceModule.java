@@ -146,7 +146,7 @@ public class DataSourceModule
         // Factories for things that needs to be created later
         PageCache pageCache = platformModule.pageCache;
 
-        StartupStatisticsProvider startupStatistics = deps.satisfyDependency( new StartupStatisticsProvider() );
+        StartupStatisticsProvider startupStatistics = platformModule.startupStatistics;
 
         SchemaWriteGuard schemaWriteGuard = deps.satisfyDependency( editionModule.schemaWriteGuard );
 
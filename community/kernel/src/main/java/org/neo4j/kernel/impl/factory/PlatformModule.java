@@ -39,6 +39,7 @@ import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.extension.KernelExtensions;
 import org.neo4j.kernel.extension.UnsatisfiedDependencyStrategies;
+import org.neo4j.kernel.impl.core.StartupStatisticsProvider;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.logging.StoreLogService;
 import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
@@ -106,6 +107,8 @@ public class PlatformModule
 
     public final TransactionStats transactionMonitor;
 
+    public final StartupStatisticsProvider startupStatistics;
+
     public PlatformModule( File providedStoreDir, Map<String, String> params, DatabaseInfo databaseInfo,
             GraphDatabaseFacadeFactory.Dependencies externalDependencies, GraphDatabaseFacade graphDatabaseFacade )
     {
@@ -162,6 +165,7 @@ public class PlatformModule
         dependencies.satisfyDependency( tracers.transactionTracer );
         dependencies.satisfyDependency( tracers.checkPointTracer );
 
+        startupStatistics = dependencies.satisfyDependency( new StartupStatisticsProvider() );
         pageCache = dependencies.satisfyDependency( createPageCache( fileSystem, config, logging, tracers ) );
         life.add( new PageCacheLifecycle( pageCache ) );
 
@@ -257,6 +261,8 @@ public class PlatformModule
         ConfiguringPageCacheFactory pageCacheFactory = new ConfiguringPageCacheFactory(
                 fileSystem, config, tracers.pageCacheTracer, pageCacheLog );
         PageCache pageCache = pageCacheFactory.getOrCreatePageCache();
+        dependencies.satisfyDependency( pageCacheFactory.getCompressedPageTierCounters() );
+        startupStatistics.setPageCachePreallocationTimeMillis( pageCacheFactory.getPreallocationTimeMillis() );
 
         if ( config.get( GraphDatabaseSettings.dump_configuration ) )
         {
@@ -19,34 +19,57 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.kernel.impl.util.OsBeanUtil;
 import org.neo4j.helpers.Service;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressedPageTier;
+import org.neo4j.io.pagecache.impl.CompressedPageTierSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.monitoring.CompressedPageTierCounters;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.logging.Log;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_compressed_tier_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_policy;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_preallocate;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 
 public class ConfiguringPageCacheFactory
 {
     private final PageSwapperFactory swapperFactory;
+    private final CompressedPageTierCounters compressedPageTierCounters;
     private final Config config;
     private final PageCacheTracer tracer;
     private final Log log;
     private PageCache pageCache;
+    private long preallocationTimeMillis;
 
     public ConfiguringPageCacheFactory(
             FileSystemAbstraction fs, Config config, PageCacheTracer tracer, Log log )
     {
-        this.swapperFactory = createAndConfigureSwapperFactory( fs, config, log );
+        PageSwapperFactory swapperFactory = createAndConfigureSwapperFactory( fs, config, log );
+        long compressedTierSize = config.get( pagecache_compressed_tier_size );
+        if ( compressedTierSize > 0 )
+        {
+            CompressedPageTier compressedPageTier = new CompressedPageTier( compressedTierSize );
+            swapperFactory = new CompressedPageTierSwapperFactory( swapperFactory, compressedPageTier );
+            this.compressedPageTierCounters = compressedPageTier;
+            log.info( "Configured " + pagecache_compressed_tier_size.name() + ": " + compressedTierSize );
+        }
+        else
+        {
+            this.compressedPageTierCounters = CompressedPageTierCounters.NULL;
+        }
+        this.swapperFactory = swapperFactory;
         this.config = config;
         this.tracer = tracer;
         this.log = log;
@@ -93,11 +116,40 @@ public class ConfiguringPageCacheFactory
     {
         int cachePageSize = calculatePageSize( config, swapperFactory );
         int maxPages = calculateMaxPages( config, cachePageSize );
-        return new MuninnPageCache(
+        boolean preallocate = config.get( pagecache_preallocate );
+        long startNanos = System.nanoTime();
+        MuninnPageCache pageCache = new MuninnPageCache(
                 swapperFactory,
                 maxPages,
                 cachePageSize,
-                tracer );
+                tracer,
+                config.get( pagecache_eviction_policy ),
+                preallocate );
+        if ( preallocate )
+        {
+            preallocationTimeMillis = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos );
+            log.info( "Pre-allocated %s MiB of page cache memory in %s ms.",
+                    ByteUnit.Byte.toMebiBytes( ((long) maxPages) * cachePageSize ), preallocationTimeMillis );
+        }
+        return pageCache;
+    }
+
+    /**
+     * @return the counters of the compressed page tier, or {@link CompressedPageTierCounters#NULL} if the page cache
+     * is not configured with a compressed tier.
+     */
+    public CompressedPageTierCounters getCompressedPageTierCounters()
+    {
+        return compressedPageTierCounters;
+    }
+
+    /**
+     * @return the time it took to pre-allocate the memory of the page cache, or {@code 0} if the page cache has not
+     * been created yet, or is not configured to pre-allocate its memory.
+     */
+    public long getPreallocationTimeMillis()
+    {
+        return preallocationTimeMillis;
     }
 
     public int calculateMaxPages( Config config, int cachePageSize )
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.kernel.impl.util.JobScheduler.Groups.pageCacheWarmup;
+
+/**
+ * Keeps the page cache warm across restarts.
+ * <p>
+ * While the database is running, the warmer periodically records which pages of the store files are in memory, in a
+ * {@value #SUFFIX_CACHEPROF} profile file next to each store file. The profile is a gzipped bitmap with one bit per
+ * file page. When the database starts up again, the pages in the profiles are loaded back into the page cache by
+ * background jobs, one per file and in file order, so the cache gets warm without waiting for the workload to fault the
+ * pages in one by one.
+ * <p>
+ * Profiling uses {@link PagedFile#PF_NO_FAULT} cursors, so it neither loads nor evicts any pages, and does not count
+ * as an access to the pages that are in memory.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_TMP = ".tmp";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File storeDir;
+    private final long profileIntervalMillis;
+    private final Log log;
+
+    private volatile boolean stopped;
+    private volatile JobScheduler.JobHandle reheatHandle;
+    private volatile JobScheduler.JobHandle profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File storeDir,
+            long profileIntervalMillis, Log log )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.storeDir = storeDir;
+        this.profileIntervalMillis = profileIntervalMillis;
+        this.log = log;
+    }
+
+    @Override
+    public void start() throws Throwable
+    {
+        stopped = false;
+        reheatHandle = scheduler.schedule( pageCacheWarmup, this::reheatJob );
+        profileHandle = scheduler.scheduleRecurring(
+                pageCacheWarmup, this::profileJob, profileIntervalMillis, profileIntervalMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        stopped = true;
+        cancel( reheatHandle );
+        cancel( profileHandle );
+        // Take a last profile while the store files are still mapped, so the next start-up gets the freshest picture.
+        tryProfile();
+    }
+
+    private static void cancel( JobScheduler.JobHandle handle )
+    {
+        if ( handle != null )
+        {
+            handle.cancel( false );
+        }
+    }
+
+    private void reheatJob()
+    {
+        try
+        {
+            long startMillis = System.currentTimeMillis();
+            long pagesLoaded = reheat();
+            if ( pagesLoaded > 0 )
+            {
+                log.info( "Page cache warmup loaded %s pages in %s ms.",
+                        pagesLoaded, System.currentTimeMillis() - startMillis );
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            log.warn( "Page cache warmup failed.", e );
+        }
+    }
+
+    private void profileJob()
+    {
+        if ( !stopped )
+        {
+            tryProfile();
+        }
+    }
+
+    private void tryProfile()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Load the pages recorded in the profiles back into the page cache. Every profiled file is reheated by its own job
+     * on the scheduler, so the files are read sequentially but concurrently with each other. This stops early if the
+     * warmer is stopped, or once the page cache has been filled up, since loading more pages than that would only
+     * evict the pages we have just loaded.
+     *
+     * @return the number of pages loaded.
+     */
+    synchronized long reheat() throws IOException
+    {
+        AtomicLong pagesLoaded = new AtomicLong();
+        long pageBudget = pageCache.maxCachedPages();
+        List<JobScheduler.JobHandle> handles = new ArrayList<>();
+        List<IOException> failures = new CopyOnWriteArrayList<>();
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( isInStoreDir( pagedFile ) && fs.fileExists( profileFile( pagedFile.file() ) ) )
+            {
+                handles.add( scheduler.schedule( pageCacheWarmup, () ->
+                {
+                    try
+                    {
+                        reheat( pagedFile, pagesLoaded, pageBudget );
+                    }
+                    catch ( IOException e )
+                    {
+                        failures.add( e );
+                    }
+                } ) );
+            }
+        }
+        for ( JobScheduler.JobHandle handle : handles )
+        {
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException( "Interrupted while waiting for page cache warmup" );
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IOException( e.getCause() );
+            }
+        }
+        if ( !failures.isEmpty() )
+        {
+            IOException exception = failures.get( 0 );
+            failures.stream().skip( 1 ).forEach( exception::addSuppressed );
+            throw exception;
+        }
+        return pagesLoaded.get();
+    }
+
+    private void reheat( PagedFile pagedFile, AtomicLong pagesLoaded, long pageBudget ) throws IOException
+    {
+        try ( InputStream in = new GZIPInputStream( fs.openAsInputStream( profileFile( pagedFile.file() ) ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            long pageId = 0;
+            int bits;
+            while ( !stopped && pagesLoaded.get() < pageBudget && (bits = in.read()) != -1 )
+            {
+                for ( int i = 0; i < Byte.SIZE; i++, pageId++ )
+                {
+                    if ( (bits & (1 << i)) != 0 && cursor.next( pageId ) )
+                    {
+                        pagesLoaded.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Write a profile of the pages that are currently in memory, for every store file that is mapped.
+     */
+    synchronized void profile() throws IOException
+    {
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( isInStoreDir( pagedFile ) )
+            {
+                profile( pagedFile );
+            }
+        }
+    }
+
+    private void profile( PagedFile pagedFile ) throws IOException
+    {
+        File profileFile = profileFile( pagedFile.file() );
+        File tmpFile = new File( profileFile.getParentFile(), profileFile.getName() + SUFFIX_TMP );
+        try ( OutputStream out = new GZIPOutputStream( fs.openAsOutputStream( tmpFile, false ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            int bits = 0;
+            int i = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << i;
+                }
+                if ( ++i == Byte.SIZE )
+                {
+                    out.write( bits );
+                    bits = 0;
+                    i = 0;
+                }
+            }
+            if ( i > 0 )
+            {
+                out.write( bits );
+            }
+        }
+        fs.deleteFile( profileFile );
+        if ( !fs.renameFile( tmpFile, profileFile ) )
+        {
+            throw new IOException( "Couldn't rename " + tmpFile + " -> " + profileFile );
+        }
+    }
+
+    private boolean isInStoreDir( PagedFile pagedFile )
+    {
+        File file = pagedFile.file().getAbsoluteFile();
+        return storeDir.getAbsoluteFile().equals( file.getParentFile() );
+    }
+
+    static File profileFile( File storeFile )
+    {
+        return new File( storeFile.getParentFile(), storeFile.getName() + SUFFIX_CACHEPROF );
+    }
+}
@@ -1039,6 +1039,83 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         }
     }
 
+    @Override
+    public int getRecordBatch( long firstId, RECORD[] batch, RecordLoad mode )
+    {
+        int count = (int) Math.max( 0, Math.min( batch.length, getHighId() - firstId ) );
+        if ( count == 0 )
+        {
+            return 0;
+        }
+
+        int recordsPerPage = getRecordsPerPage();
+        try ( PageCursor cursor = storeFile.io( pageIdForRecord( firstId ), PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            int index = 0;
+            while ( index < count )
+            {
+                long id = firstId + index;
+                long pageId = pageIdForRecord( id );
+                int recordsInPage = (int) Math.min( count - index, recordsPerPage - id % recordsPerPage );
+                readIntoRecords( id, batch, index, recordsInPage, mode, pageId, cursor );
+                index += recordsInPage;
+            }
+            return count;
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( e );
+        }
+    }
+
+    /**
+     * Reads the given number of records, that all are in the same page, under one pin of that page.
+     */
+    private void readIntoRecords( long firstId, RECORD[] batch, int index, int count, RecordLoad mode, long pageId,
+            PageCursor cursor ) throws IOException
+    {
+        if ( cursor.next( pageId ) )
+        {
+            do
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    long id = firstId + i;
+                    RECORD record = batch[index + i];
+                    record.clear();
+                    record.setId( id );
+                    prepareForReading( cursor, offsetForId( id ), record );
+                    recordFormat.read( record, cursor, mode, recordSize );
+                }
+            }
+            while ( cursor.shouldRetry() );
+            checkForDecodingErrors( cursor, firstId, mode );
+            for ( int i = 0; i < count; i++ )
+            {
+                RECORD record = batch[index + i];
+                if ( record.hasSecondaryUnitId() )
+                {
+                    // The secondary unit was read through a linked cursor, which the next record in the batch
+                    // may have replaced before the page was checked for changes, so read this one on its own.
+                    getRecord( firstId + i, record, mode );
+                }
+                else
+                {
+                    verifyAfterReading( record, mode );
+                }
+            }
+        }
+        else
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                RECORD record = batch[index + i];
+                record.setId( firstId + i );
+                verifyAfterNotRead( record, mode );
+            }
+        }
+    }
+
     @Override
     public void updateRecord( RECORD record )
     {
@@ -1088,17 +1165,24 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
     @Override
     public <EXCEPTION extends Exception> void scanAllRecords( Visitor<RECORD,EXCEPTION> visitor ) throws EXCEPTION
     {
-        try ( RecordCursor<RECORD> cursor = newRecordCursor( newRecord() ) )
+        RECORD[] batch = newRecordBatch( getRecordsPerPage() );
+        long highId = getHighId();
+        long id = getNumberOfReservedLowIds();
+        while ( id < highId )
         {
-            long highId = getHighId();
-            cursor.acquire( getNumberOfReservedLowIds(), CHECK );
-            for ( long id = getNumberOfReservedLowIds(); id < highId; id++ )
+            int count = getRecordBatch( id, batch, CHECK );
+            if ( count == 0 )
             {
-                if ( cursor.next( id ) )
+                break;
+            }
+            for ( int i = 0; i < count && id + i < highId; i++ )
+            {
+                if ( batch[i].inUse() )
                 {
-                    visitor.visit( cursor.get() );
+                    visitor.visit( batch[i] );
                 }
             }
+            id += count;
         }
     }
 
@@ -1114,6 +1198,17 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
 
     @Override
     public RecordCursor<RECORD> newRecordCursor( final RECORD record )
+    {
+        return newRecordCursor( record, PF_SHARED_READ_LOCK );
+    }
+
+    @Override
+    public RecordCursor<RECORD> newScanRecordCursor( RECORD record )
+    {
+        return newRecordCursor( record, PF_SHARED_READ_LOCK | PF_READ_AHEAD );
+    }
+
+    private RecordCursor<RECORD> newRecordCursor( final RECORD record, int pf_flags )
     {
         return new RecordCursor<RECORD>()
         {
@@ -1199,7 +1294,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
                 this.mode = mode;
                 try
                 {
-                    this.pageCursor = storeFile.io( pageIdForRecord( id ), PF_SHARED_READ_LOCK );
+                    this.pageCursor = storeFile.io( pageIdForRecord( id ), pf_flags );
                 }
                 catch ( IOException e )
                 {
@@ -19,18 +19,34 @@
  */
 package org.neo4j.kernel.impl.store;
 
+import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.impl.api.CountsAccessor;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
 import org.neo4j.kernel.impl.store.kvstore.DataInitializer;
+import org.neo4j.logging.Log;
 import org.neo4j.unsafe.impl.batchimport.Configuration;
 import org.neo4j.unsafe.impl.batchimport.NodeCountsStage;
 import org.neo4j.unsafe.impl.batchimport.RelationshipCountsStage;
 import org.neo4j.unsafe.impl.batchimport.cache.NodeLabelsCache;
 import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
+import org.neo4j.unsafe.impl.batchimport.staging.StageExecution;
+import org.neo4j.unsafe.impl.batchimport.stats.Keys;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory.AUTO;
 import static org.neo4j.unsafe.impl.batchimport.staging.ExecutionSupervisors.superviseDynamicExecution;
 
+/**
+ * Computes all node and relationship counts from the store, first counting nodes per label and then
+ * relationships per start label, type and end label. Each of the two passes reads the store in batches
+ * and counts them on as many threads as {@link Configuration#maxNumberOfProcessors()} allows, where each
+ * thread keeps its own counts which are merged when the pass completes.
+ * <p>
+ * The store is only read, through the page cache, so counting can go on alongside other readers of the store.
+ */
 public class CountsComputer implements DataInitializer<CountsAccessor.Updater>
 {
     public static void recomputeCounts( NeoStores stores )
@@ -48,24 +64,38 @@ public class CountsComputer implements DataInitializer<CountsAccessor.Updater>
     private final int highLabelId;
     private final int highRelationshipTypeId;
     private final long lastCommittedTransactionId;
+    private final ExecutionMonitor progressMonitor;
 
     public CountsComputer( NeoStores stores )
+    {
+        this( stores, ExecutionMonitors.invisible() );
+    }
+
+    public CountsComputer( NeoStores stores, ExecutionMonitor progressMonitor )
     {
         this( stores.getMetaDataStore().getLastCommittedTransactionId(),
               stores.getNodeStore(), stores.getRelationshipStore(),
               (int) stores.getLabelTokenStore().getHighId(),
-              (int) stores.getRelationshipTypeTokenStore().getHighId() );
+              (int) stores.getRelationshipTypeTokenStore().getHighId(), progressMonitor );
     }
 
     public CountsComputer( long lastCommittedTransactionId, NodeStore nodes, RelationshipStore relationships,
             int highLabelId,
             int highRelationshipTypeId )
+    {
+        this( lastCommittedTransactionId, nodes, relationships, highLabelId, highRelationshipTypeId,
+                ExecutionMonitors.invisible() );
+    }
+
+    public CountsComputer( long lastCommittedTransactionId, NodeStore nodes, RelationshipStore relationships,
+            int highLabelId, int highRelationshipTypeId, ExecutionMonitor progressMonitor )
     {
         this.lastCommittedTransactionId = lastCommittedTransactionId;
         this.nodes = nodes;
         this.relationships = relationships;
         this.highLabelId = highLabelId;
         this.highRelationshipTypeId = highRelationshipTypeId;
+        this.progressMonitor = progressMonitor;
     }
 
     @Override
@@ -75,10 +105,10 @@ public class CountsComputer implements DataInitializer<CountsAccessor.Updater>
         try
         {
             // Count nodes
-            superviseDynamicExecution(
+            superviseDynamicExecution( progressMonitor,
                     new NodeCountsStage( Configuration.DEFAULT, cache, nodes, highLabelId, countsUpdater ) );
             // Count relationships
-            superviseDynamicExecution(
+            superviseDynamicExecution( progressMonitor,
                     new RelationshipCountsStage( Configuration.DEFAULT, cache, relationships, highLabelId,
                             highRelationshipTypeId, countsUpdater, AUTO ) );
         }
@@ -93,4 +123,57 @@ public class CountsComputer implements DataInitializer<CountsAccessor.Updater>
     {
         return lastCommittedTransactionId;
     }
+
+    /**
+     * Logs the progress of a {@link CountsComputer} in steps of ten percent. The node pass is expected to be
+     * executed first and the relationship pass second, which is the order {@link #initialize(CountsAccessor.Updater)}
+     * executes them in.
+     */
+    public static class ProgressLogger extends ExecutionMonitor.Adapter
+    {
+        private static final int STEPS = 10;
+
+        private final Log log;
+        private final long[] highIds;
+        private int pass = -1;
+        private int reportedSteps;
+
+        public ProgressLogger( Log log, long highNodeId, long highRelationshipId )
+        {
+            super( 1, SECONDS );
+            this.log = log;
+            this.highIds = new long[] {highNodeId, highRelationshipId};
+        }
+
+        @Override
+        public void start( StageExecution[] executions )
+        {
+            pass++;
+            reportedSteps = 0;
+        }
+
+        @Override
+        public void check( StageExecution[] executions )
+        {
+            if ( pass >= highIds.length || highIds[pass] == 0 )
+            {
+                return;
+            }
+            StageExecution execution = executions[0];
+            long doneBatches = Iterables.last( execution.steps() ).stats().stat( Keys.done_batches ).asLong();
+            long doneRecords = doneBatches * execution.getConfig().batchSize();
+            int steps = (int) Math.min( STEPS, doneRecords * STEPS / highIds[pass] );
+            if ( steps > reportedSteps )
+            {
+                reportedSteps = steps;
+                log.info( "%s: %d%%", execution.getStageName(), steps * 100 / STEPS );
+            }
+        }
+
+        @Override
+        public void end( StageExecution[] executions, long totalTimeMillis )
+        {
+            log.info( "%s: completed in %d ms", executions[0].getStageName(), totalTimeMillis );
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.store;
 import java.io.File;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -72,6 +73,13 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static void allocateFromNumbers( Collection<DynamicRecord> target, Object array,
             Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator )
+    {
+        allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator, DynamicValueCompression.NONE );
+    }
+
+    private static void allocateFromNumbers( Collection<DynamicRecord> target, Object array,
+            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator,
+            DynamicValueCompression compression )
     {
         Class<?> componentType = array.getClass().getComponentType();
         boolean isPrimitiveByteArray = componentType.equals( Byte.TYPE );
@@ -118,11 +126,12 @@ public class DynamicArrayStore extends AbstractDynamicStore
             type.writeAll(array, arrayLength,requiredBits,bits);
             bytes = bits.asBytes();
         }
-        allocateRecordsFromBytes( target, bytes, recordsToUseFirst, recordAllocator );
+        allocateRecordsFromBytes( target, compression.compress( bytes ), recordsToUseFirst, recordAllocator );
     }
 
     private static void allocateFromString( Collection<DynamicRecord> target, String[] array,
-            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator )
+            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator,
+            DynamicValueCompression compression )
     {
         byte[][] stringsAsBytes = new byte[array.length][];
         int totalBytesRequired = STRING_HEADER_SIZE; // 1b type + 4b array length
@@ -142,7 +151,7 @@ public class DynamicArrayStore extends AbstractDynamicStore
             buf.putInt( stringAsBytes.length );
             buf.put( stringAsBytes );
         }
-        allocateRecordsFromBytes( target, buf.array(), recordsToUseFirst, recordAllocator );
+        allocateRecordsFromBytes( target, compression.compress( buf.array() ), recordsToUseFirst, recordAllocator );
     }
 
     public void allocateRecords( Collection<DynamicRecord> target, Object array,
@@ -153,6 +162,13 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static void allocateRecords( Collection<DynamicRecord> target, Object array,
             Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator )
+    {
+        allocateRecords( target, array, recordsToUseFirst, recordAllocator, DynamicValueCompression.NONE );
+    }
+
+    public static void allocateRecords( Collection<DynamicRecord> target, Object array,
+            Iterator<DynamicRecord> recordsToUseFirst, DynamicRecordAllocator recordAllocator,
+            DynamicValueCompression compression )
     {
         if ( !array.getClass().isArray() )
         {
@@ -162,11 +178,11 @@ public class DynamicArrayStore extends AbstractDynamicStore
         Class<?> type = array.getClass().getComponentType();
         if ( type.equals( String.class ) )
         {
-            allocateFromString( target, (String[]) array, recordsToUseFirst, recordAllocator );
+            allocateFromString( target, (String[]) array, recordsToUseFirst, recordAllocator, compression );
         }
         else
         {
-            allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator );
+            allocateFromNumbers( target, array, recordsToUseFirst, recordAllocator, compression );
         }
     }
 
@@ -175,6 +191,13 @@ public class DynamicArrayStore extends AbstractDynamicStore
         byte[] header = data.first();
         byte[] bArray = data.other();
         byte typeId = header[0];
+        if ( typeId == DynamicValueCompression.MARKER )
+        {
+            byte[] bytes = DynamicValueCompression.decompress( header, bArray );
+            byte[] arrayHeader = PropertyType.ARRAY.readDynamicRecordHeader( bytes );
+            byte[] arrayData = Arrays.copyOfRange( bytes, arrayHeader.length, bytes.length );
+            return getRightArray( Pair.of( arrayHeader, arrayData ) );
+        }
         if ( typeId == PropertyType.STRING.intValue() )
         {
             ByteBuffer headerBuffer = ByteBuffer.wrap( header, 1/*skip the type*/, header.length-1 );
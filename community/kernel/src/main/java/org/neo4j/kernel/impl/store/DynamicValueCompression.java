@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import java.util.Arrays;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.impl.PageCompressor;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.format.Capability;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.logging.Log;
+
+/**
+ * Compression of the values that are stored in the dynamic string and array stores.
+ * <p>
+ * Whether or not a value is compressed is decided per value, when it is written: values of at least
+ * {@link GraphDatabaseSettings#dynamic_property_compression_threshold} bytes are compressed if that makes them
+ * smaller, and all other values are stored as they are. A compressed value starts with the {@link #MARKER} byte,
+ * which never starts a stored string, since it is not valid in UTF-8, nor a stored array, since it is not an array
+ * type, followed by the uncompressed length and the value compressed in the LZ4 block format. This means that
+ * compressed and uncompressed values can be mixed freely in a store, and that compressed values can be read
+ * regardless of how the store is configured.
+ * <p>
+ * Versions of Neo4j that don't know about compressed values would read them as garbage, which is why values are only
+ * compressed in stores of a {@link RecordFormats record format} with the
+ * {@link Capability#COMPRESSED_DYNAMIC_VALUES} capability. Such versions don't know that format either, and so refuse
+ * to open those stores.
+ */
+public final class DynamicValueCompression
+{
+    public static final DynamicValueCompression NONE = new DynamicValueCompression( 0 );
+
+    public static final byte MARKER = (byte) 0xFF;
+    /**
+     * The {@link #MARKER} and the uncompressed length.
+     */
+    public static final int HEADER_SIZE = 1 + Integer.BYTES;
+
+    private static final ThreadLocal<int[]> HASH_TABLES =
+            ThreadLocal.withInitial( () -> new int[PageCompressor.HASH_TABLE_SIZE] );
+
+    private final int threshold;
+
+    /**
+     * @param threshold the smallest value, in bytes, to try to compress, or zero to not compress any values.
+     */
+    public DynamicValueCompression( int threshold )
+    {
+        this.threshold = threshold;
+    }
+
+    public static DynamicValueCompression fromConfig( Config config )
+    {
+        return new DynamicValueCompression( config.get( GraphDatabaseSettings.dynamic_property_compression_threshold ) );
+    }
+
+    /**
+     * @return the compression configured in the given config, if stores of the given format may contain compressed
+     * values, otherwise {@link #NONE}. A warning is logged if compression is configured, but the format does not
+     * allow it.
+     */
+    public static DynamicValueCompression forFormat( Config config, RecordFormats formats, Log log )
+    {
+        DynamicValueCompression compression = fromConfig( config );
+        if ( formats.hasCapability( Capability.COMPRESSED_DYNAMIC_VALUES ) )
+        {
+            return compression;
+        }
+        if ( compression.isEnabled() )
+        {
+            log.warn( "%s is set, but strings and arrays will not be compressed, since the record format of the " +
+                      "store, %s, does not support compressed values.",
+                    GraphDatabaseSettings.dynamic_property_compression_threshold.name(), formats );
+        }
+        return NONE;
+    }
+
+    public boolean isEnabled()
+    {
+        return threshold > 0;
+    }
+
+    /**
+     * @return the compressed form of the given encoded value, or the given value itself if it is too small to be
+     * compressed, or does not get any smaller from it.
+     */
+    public byte[] compress( byte[] value )
+    {
+        if ( !isEnabled() || value.length < threshold || value.length <= HEADER_SIZE )
+        {
+            return value;
+        }
+
+        byte[] compressed = new byte[HEADER_SIZE + PageCompressor.maxCompressedLength( value.length )];
+        int compressedLength = HEADER_SIZE +
+                PageCompressor.compress( value, 0, value.length, compressed, HEADER_SIZE, HASH_TABLES.get() );
+        if ( compressedLength >= value.length )
+        {
+            return value;
+        }
+        compressed[0] = MARKER;
+        putInt( compressed, 1, value.length );
+        return Arrays.copyOf( compressed, compressedLength );
+    }
+
+    public static boolean isCompressed( byte[] bytes, int offset, int length )
+    {
+        return length >= HEADER_SIZE && bytes[offset] == MARKER;
+    }
+
+    /**
+     * @return the given value, decompressed if it is compressed.
+     */
+    public static byte[] decompressIfCompressed( byte[] value )
+    {
+        return isCompressed( value, 0, value.length ) ? decompress( value, 0, value.length ) : value;
+    }
+
+    /**
+     * Decompresses the compressed value of the given length at the given offset, header included.
+     */
+    public static byte[] decompress( byte[] bytes, int offset, int length )
+    {
+        byte[] value = new byte[uncompressedLength( bytes, offset )];
+        decompress( bytes, offset + HEADER_SIZE, length - HEADER_SIZE, value );
+        return value;
+    }
+
+    /**
+     * Decompresses a value that has been split into its header and the rest of its bytes, as done by
+     * {@link AbstractDynamicStore#readFullByteArray(Iterable, PropertyType)}.
+     */
+    public static byte[] decompress( byte[] header, byte[] compressed )
+    {
+        byte[] value = new byte[uncompressedLength( header, 0 )];
+        decompress( compressed, 0, compressed.length, value );
+        return value;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[threshold:" + threshold + "]";
+    }
+
+    private static int uncompressedLength( byte[] bytes, int offset )
+    {
+        int length = getInt( bytes, offset + 1 );
+        if ( length < 0 )
+        {
+            throw new InvalidRecordException( "Compressed value has a negative length " + length );
+        }
+        return length;
+    }
+
+    private static void decompress( byte[] src, int srcOffset, int compressedLength, byte[] value )
+    {
+        int decompressedLength;
+        try
+        {
+            decompressedLength = PageCompressor.decompress( src, srcOffset, compressedLength, value, 0, value.length );
+        }
+        catch ( IllegalArgumentException | ArrayIndexOutOfBoundsException e )
+        {
+            throw new InvalidRecordException( "Compressed value is corrupt", e );
+        }
+        if ( decompressedLength != value.length )
+        {
+            throw new InvalidRecordException( "Compressed value was expected to be " + value.length +
+                                              " bytes long, but was " + decompressedLength );
+        }
+    }
+
+    private static int getInt( byte[] bytes, int offset )
+    {
+        return (bytes[offset] & 0xFF) << 24 |
+               (bytes[offset + 1] & 0xFF) << 16 |
+               (bytes[offset + 2] & 0xFF) << 8 |
+               (bytes[offset + 3] & 0xFF);
+    }
+
+    private static void putInt( byte[] bytes, int offset, int value )
+    {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -40,6 +40,7 @@ import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.CountsAccessor;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
 import org.neo4j.kernel.impl.store.counts.ReadOnlyCountsTracker;
+import org.neo4j.kernel.impl.store.format.Capability;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdType;
@@ -136,6 +137,31 @@ public class NeoStores implements AutoCloseable
             getOrCreateStore( type );
         }
         initializedStores = storeTypes;
+        if ( recordFormats.hasCapability( Capability.INLINE_PROPERTIES ) )
+        {
+            installPropertyInliner();
+        }
+    }
+
+    private void installPropertyInliner()
+    {
+        PropertyStore propertyStore = (PropertyStore) stores[StoreType.PROPERTY.ordinal()];
+        if ( propertyStore == null )
+        {
+            return;
+        }
+        NodeStore nodeStore = (NodeStore) stores[StoreType.NODE.ordinal()];
+        RelationshipStore relationshipStore = (RelationshipStore) stores[StoreType.RELATIONSHIP.ordinal()];
+        PropertyInliner propertyInliner = new PropertyInliner( propertyStore, nodeStore, relationshipStore );
+        propertyStore.setPropertyInliner( propertyInliner );
+        if ( nodeStore != null )
+        {
+            nodeStore.setPropertyInliner( propertyInliner );
+        }
+        if ( relationshipStore != null )
+        {
+            relationshipStore.setPropertyInliner( propertyInliner );
+        }
     }
 
     public File getStoreDir()
@@ -591,7 +617,9 @@ public class NeoStores implements AutoCloseable
             public void initialize( CountsAccessor.Updater updater )
             {
                 log.warn( "Missing counts store, rebuilding it." );
-                new CountsComputer( neoStores ).initialize( updater );
+                CountsComputer.ProgressLogger progress = new CountsComputer.ProgressLogger( log,
+                        getNodeStore().getHighId(), getRelationshipStore().getHighId() );
+                new CountsComputer( neoStores, progress ).initialize( updater );
             }
 
             @Override
@@ -64,6 +64,7 @@ public class NodeStore extends CommonAbstractStore<NodeRecord,NoStoreHeader>
     public static final String TYPE_DESCRIPTOR = "NodeStore";
 
     private final DynamicArrayStore dynamicLabelStore;
+    private PropertyInliner propertyInliner;
 
     public NodeStore(
             File fileName,
@@ -113,9 +114,18 @@ public class NodeStore extends CommonAbstractStore<NodeRecord,NoStoreHeader>
         node.setLabelField( node.getLabelField(), dynamicLabelRecords );
     }
 
+    void setPropertyInliner( PropertyInliner propertyInliner )
+    {
+        this.propertyInliner = propertyInliner;
+    }
+
     @Override
     public void updateRecord( NodeRecord record )
     {
+        if ( propertyInliner != null )
+        {
+            propertyInliner.inline( record );
+        }
         super.updateRecord( record );
         updateDynamicLabelRecords( record.getDynamicLabelRecords() );
     }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.neo4j.kernel.impl.store.format.Capability;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+
+/**
+ * Keeps the inlined property copies of node and relationship records in sync with the property store, for record
+ * formats with the {@link Capability#INLINE_PROPERTIES} capability.
+ * <p>
+ * A node or relationship gets an inlined copy of its properties when its whole property chain is a single property
+ * record. The record format then decides if the copy fits in the record. The copy is derived data, and is never
+ * part of any command. Instead it is recomputed from the property store every time a node or relationship record is
+ * written, and the owning record is re-written every time the first property record of its chain is written.
+ * Since both sides are covered, the copies stay in sync regardless of the order in which the records are written,
+ * and regardless of whether they are written by transactions, recovery, the batch inserter or the batch importer.
+ * <p>
+ * The price is write amplification. Every write of the first property record of a chain also reads the owning node
+ * or relationship record, recomputes its copy, and writes it back, which in turn reads the first property record
+ * again. A transaction that changes a property of an entity therefore touches the page of the owner, even if the
+ * owner itself did not change, and an owner that is also changed in the same transaction is written twice. This
+ * happens regardless of whether the chain is small enough to be inlined, since that is only known after the chain
+ * has been read. Write heavy workloads that mostly update properties of existing entities should therefore stay
+ * with the standard format.
+ * <p>
+ * The copies are verified by the consistency checker, which reports an owner whose copy does not match its
+ * property chain.
+ */
+public class PropertyInliner
+{
+    private final PropertyStore propertyStore;
+    private final NodeStore nodeStore;
+    private final RelationshipStore relationshipStore;
+
+    /**
+     * @param propertyStore the property store to read property chains from.
+     * @param nodeStore the node store, or {@code null} if it is not open.
+     * @param relationshipStore the relationship store, or {@code null} if it is not open.
+     */
+    public PropertyInliner( PropertyStore propertyStore, NodeStore nodeStore, RelationshipStore relationshipStore )
+    {
+        this.propertyStore = propertyStore;
+        this.nodeStore = nodeStore;
+        this.relationshipStore = relationshipStore;
+    }
+
+    /**
+     * Recompute the inlined copy of the properties of the given node or relationship record, which is about to be
+     * written.
+     */
+    public void inline( PrimitiveRecord owner )
+    {
+        owner.clearInlinedProperties();
+        long firstPropertyId = owner.getNextProp();
+        if ( !owner.inUse() || Record.NO_NEXT_PROPERTY.is( firstPropertyId ) )
+        {
+            return;
+        }
+
+        PropertyRecord first = propertyStore.getRecord( firstPropertyId, propertyStore.newRecord(), RecordLoad.FORCE );
+        if ( first.inUse() && Record.NO_NEXT_PROPERTY.is( first.getNextProp() ) )
+        {
+            long[] blocks = first.getBlocks();
+            int numberOfBlocks = first.getNumberOfBlocks();
+            for ( int i = 0; i < numberOfBlocks; i++ )
+            {
+                owner.addInlinedPropertyBlock( blocks[i] );
+            }
+        }
+    }
+
+    /**
+     * Re-write the owner of the given property record, if it is the first record in the property chain of its owner,
+     * so that the inlined copy of the owner is brought up to date.
+     */
+    void propertyRecordUpdated( PropertyRecord record )
+    {
+        if ( !Record.NO_PREVIOUS_PROPERTY.is( record.getPrevProp() ) )
+        {
+            // Only the first record in a chain can be inlined
+            return;
+        }
+
+        if ( record.isNodeSet() && nodeStore != null )
+        {
+            refreshOwner( nodeStore, record.getNodeId(), record.getId() );
+        }
+        else if ( record.isRelSet() && relationshipStore != null )
+        {
+            refreshOwner( relationshipStore, record.getRelId(), record.getId() );
+        }
+    }
+
+    private static <RECORD extends PrimitiveRecord> void refreshOwner(
+            RecordStore<RECORD> store, long ownerId, long propertyId )
+    {
+        RECORD owner = store.getRecord( ownerId, store.newRecord(), RecordLoad.FORCE );
+        if ( owner.inUse() && owner.getNextProp() == propertyId )
+        {
+            // The store calls back into inline(), on the way to writing the record
+            store.updateRecord( owner );
+        }
+    }
+}
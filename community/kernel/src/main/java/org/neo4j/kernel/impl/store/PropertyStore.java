@@ -63,6 +63,8 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     private final DynamicStringStore stringStore;
     private final PropertyKeyTokenStore propertyKeyTokenStore;
     private final DynamicArrayStore arrayStore;
+    private final DynamicValueCompression valueCompression;
+    private PropertyInliner propertyInliner;
 
     public PropertyStore(
             File fileName,
@@ -80,6 +82,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         this.stringStore = stringPropertyStore;
         this.propertyKeyTokenStore = propertyKeyTokenStore;
         this.arrayStore = arrayPropertyStore;
+        this.valueCompression = DynamicValueCompression.forFormat( configuration, recordFormats, log );
     }
 
     @Override
@@ -89,6 +92,14 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         processor.processProperty( this, record );
     }
 
+    /**
+     * @return the compression of the values this store writes to its dynamic string and array stores.
+     */
+    public DynamicValueCompression getValueCompression()
+    {
+        return valueCompression;
+    }
+
     public DynamicStringStore getStringStore()
     {
         return stringStore;
@@ -104,11 +115,22 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return propertyKeyTokenStore;
     }
 
+    void setPropertyInliner( PropertyInliner propertyInliner )
+    {
+        this.propertyInliner = propertyInliner;
+    }
+
     @Override
     public void updateRecord( PropertyRecord record )
     {
         updatePropertyBlocks( record );
         super.updateRecord( record );
+        if ( propertyInliner != null )
+        {
+            // With inlined properties, writing the first property record of a chain also reads and re-writes its
+            // owner, see PropertyInliner
+            propertyInliner.propertyRecordUpdated( record );
+        }
     }
 
     private void updatePropertyBlocks( PropertyRecord record )
@@ -212,16 +234,29 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     public static void allocateArrayRecords( Collection<DynamicRecord> target, Object array,
             DynamicRecordAllocator allocator )
     {
-        DynamicArrayStore.allocateRecords( target, array, Iterators.emptyIterator(), allocator );
+        allocateArrayRecords( target, array, allocator, DynamicValueCompression.NONE );
+    }
+
+    public static void allocateArrayRecords( Collection<DynamicRecord> target, Object array,
+            DynamicRecordAllocator allocator, DynamicValueCompression compression )
+    {
+        DynamicArrayStore.allocateRecords( target, array, Iterators.emptyIterator(), allocator, compression );
     }
 
     public void encodeValue( PropertyBlock block, int keyId, Object value )
     {
-        encodeValue( block, keyId, value, stringStore, arrayStore );
+        encodeValue( block, keyId, value, stringStore, arrayStore, valueCompression );
     }
 
     public static void encodeValue( PropertyBlock block, int keyId, Object value,
             DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator )
+    {
+        encodeValue( block, keyId, value, stringAllocator, arrayAllocator, DynamicValueCompression.NONE );
+    }
+
+    public static void encodeValue( PropertyBlock block, int keyId, Object value,
+            DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
+            DynamicValueCompression compression )
     {
         if ( value instanceof String )
         {   // Try short string first, i.e. inlined in the property block
@@ -232,7 +267,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             }
 
             // Fall back to dynamic string store
-            byte[] encodedString = encodeString( string );
+            byte[] encodedString = compression.compress( encodeString( string ) );
             List<DynamicRecord> valueRecords = new ArrayList<>();
             allocateStringRecords( valueRecords, encodedString, stringAllocator );
             setSingleBlockValue( block, keyId, PropertyType.STRING, Iterables.first( valueRecords ).getId() );
@@ -295,7 +330,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
             // Fall back to dynamic array store
             List<DynamicRecord> arrayRecords = new ArrayList<>();
-            allocateArrayRecords( arrayRecords, value, arrayAllocator );
+            allocateArrayRecords( arrayRecords, value, arrayAllocator, compression );
             setSingleBlockValue( block, keyId, PropertyType.ARRAY, Iterables.first( arrayRecords ).getId() );
             for ( DynamicRecord valueRecord : arrayRecords )
             {
@@ -340,7 +375,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     {
         Pair<byte[], byte[]> source = stringStore.readFullByteArray( dynamicRecords, PropertyType.STRING );
         // A string doesn't have a header in the data array
-        return decodeString( source.other() );
+        return decodeString( DynamicValueCompression.decompressIfCompressed( source.other() ) );
     }
 
     public Object getArrayFor( PropertyBlock propertyBlock )
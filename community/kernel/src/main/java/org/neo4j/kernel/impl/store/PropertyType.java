@@ -234,6 +234,10 @@ public enum PropertyType
         public byte[] readDynamicRecordHeader( byte[] recordBytes )
         {
             byte itemType = recordBytes[0];
+            if ( itemType == DynamicValueCompression.MARKER )
+            {
+                return headOf( recordBytes, DynamicValueCompression.HEADER_SIZE );
+            }
             if ( itemType == STRING.byteValue() )
             {
                 return headOf( recordBytes, DynamicArrayStore.STRING_HEADER_SIZE );
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.store;
 
 import java.io.File;
+import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.function.Predicate;
 
@@ -133,6 +134,48 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     Collection<RECORD> getRecords( long firstId, RecordLoad mode ) throws InvalidRecordException;
 
+    /**
+     * Reads consecutive records, starting at {@code firstId}, into the records of the given {@code batch}, until
+     * either the batch is full or the {@link #getHighId() high id} is reached. Every record is read just like
+     * {@link #getRecord(long, AbstractBaseRecord, RecordLoad)} would read it, but this is meant for scans, where
+     * reading the records of a page together is cheaper than reading them one by one: implementations backed by
+     * a page cache pin each page once per batch, and check for concurrent changes to it once, rather than once per
+     * record.
+     *
+     * @param firstId the id of the first record to read.
+     * @param batch records to read the data into, as created by {@link #newRecordBatch(int)}.
+     * @param mode loading behaviour, same as for {@link #getRecord(long, AbstractBaseRecord, RecordLoad)}.
+     * @return the number of records that were read, into the first records of the batch. Less than the size of
+     * the batch only if the high id was reached, and zero if {@code firstId} is at, or above, the high id.
+     * @throws InvalidRecordException if some record not in use and the {@code mode} is allows for throwing.
+     */
+    default int getRecordBatch( long firstId, RECORD[] batch, RecordLoad mode ) throws InvalidRecordException
+    {
+        int count = (int) Math.max( 0, Math.min( batch.length, getHighId() - firstId ) );
+        for ( int i = 0; i < count; i++ )
+        {
+            getRecord( firstId + i, batch[i], mode );
+        }
+        return count;
+    }
+
+    /**
+     * @param size number of records in the batch.
+     * @return records for reading batches of records into, with {@link #getRecordBatch(long, AbstractBaseRecord[],
+     * RecordLoad)}.
+     */
+    @SuppressWarnings( "unchecked" )
+    default RECORD[] newRecordBatch( int size )
+    {
+        RECORD record = newRecord();
+        RECORD[] batch = (RECORD[]) Array.newInstance( record.getClass(), size );
+        for ( int i = 0; i < size; i++ )
+        {
+            batch[i] = i == 0 ? record : newRecord();
+        }
+        return batch;
+    }
+
     /**
      * Instantiates a new record cursor capable of iterating over records in this store. A {@link RecordCursor}
      * gets created with one record and will use every time it reads records.
@@ -146,6 +189,18 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
      */
     RecordCursor<RECORD> newRecordCursor( RECORD record );
 
+    /**
+     * Like {@link #newRecordCursor(AbstractBaseRecord)}, but for a cursor that is moved forward through the store in
+     * id order, as a scan does. Implementations backed by a page cache read the pages ahead of such a cursor.
+     *
+     * @param record instance to use when reading record data.
+     * @return a new {@link RecordCursor} instance for scanning the records in this store.
+     */
+    default RecordCursor<RECORD> newScanRecordCursor( RECORD record )
+    {
+        return newRecordCursor( record );
+    }
+
     /**
      * Returns another record id which the given {@code record} references and which a {@link RecordCursor}
      * would follow and read next.
@@ -272,12 +327,24 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.getRecords( firstId, mode );
         }
 
+        @Override
+        public int getRecordBatch( long firstId, R[] batch, RecordLoad mode ) throws InvalidRecordException
+        {
+            return actual.getRecordBatch( firstId, batch, mode );
+        }
+
         @Override
         public RecordCursor<R> newRecordCursor( R record )
         {
             return actual.newRecordCursor( record );
         }
 
+        @Override
+        public RecordCursor<R> newScanRecordCursor( R record )
+        {
+            return actual.newScanRecordCursor( record );
+        }
+
         @Override
         public long getNextRecordReference( R record )
         {
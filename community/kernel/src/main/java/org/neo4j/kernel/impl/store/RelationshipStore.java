@@ -38,6 +38,8 @@ public class RelationshipStore extends CommonAbstractStore<RelationshipRecord,No
 {
     public static final String TYPE_DESCRIPTOR = "RelationshipStore";
 
+    private PropertyInliner propertyInliner;
+
     public RelationshipStore(
             File fileName,
             Config configuration,
@@ -58,4 +60,19 @@ public class RelationshipStore extends CommonAbstractStore<RelationshipRecord,No
     {
         processor.processRelationship( this, record );
     }
+
+    void setPropertyInliner( PropertyInliner propertyInliner )
+    {
+        this.propertyInliner = propertyInliner;
+    }
+
+    @Override
+    public void updateRecord( RelationshipRecord record )
+    {
+        if ( propertyInliner != null )
+        {
+            propertyInliner.inline( record );
+        }
+        super.updateRecord( record );
+    }
 }
@@ -46,7 +46,7 @@ public class Scanner
     public static <R extends AbstractBaseRecord> ResourceIterable<R> scan( final RecordStore<R> store,
             final boolean forward, final Predicate<? super R>... filters )
     {
-        return () -> new Scan<>( store, forward, filters );
+        return () -> forward ? new BatchScan<>( store, filters ) : new Scan<>( store, false, filters );
     }
 
     private static class Scan<R extends AbstractBaseRecord> extends PrefetchingResourceIterator<R>
@@ -82,20 +82,75 @@ public class Scanner
 
         private boolean passesFilters( R record )
         {
-            for ( Predicate<? super R> filter : filters )
+            return Scanner.passesFilters( record, filters );
+        }
+
+        @Override
+        public void close()
+        {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Forward scan that reads the records a page at a time, with {@link RecordStore#getRecordBatch(long,
+     * AbstractBaseRecord[], RecordLoad)}. Records are reused between batches, rather than between records.
+     */
+    private static class BatchScan<R extends AbstractBaseRecord> extends PrefetchingResourceIterator<R>
+    {
+        private final RecordStore<R> store;
+        private final Predicate<? super R>[] filters;
+        private final R[] batch;
+        private long nextId;
+        private int index;
+        private int count;
+
+        BatchScan( RecordStore<R> store, Predicate<? super R>[] filters )
+        {
+            this.store = store;
+            this.filters = filters;
+            this.batch = store.newRecordBatch( store.getRecordsPerPage() );
+            this.nextId = store.getNumberOfReservedLowIds();
+        }
+
+        @Override
+        protected R fetchNextOrNull()
+        {
+            while ( true )
             {
-                if ( !filter.test( record ) )
+                while ( index < count )
+                {
+                    R record = batch[index++];
+                    if ( record.inUse() && passesFilters( record, filters ) )
+                    {
+                        return record;
+                    }
+                }
+                count = store.getRecordBatch( nextId, batch, RecordLoad.CHECK );
+                if ( count == 0 )
                 {
-                    return false;
+                    return null;
                 }
+                index = 0;
+                nextId += count;
             }
-            return true;
         }
 
         @Override
         public void close()
         {
-            cursor.close();
         }
     }
+
+    private static <R> boolean passesFilters( R record, Predicate<? super R>[] filters )
+    {
+        for ( Predicate<? super R> filter : filters )
+        {
+            if ( !filter.test( record ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
 }
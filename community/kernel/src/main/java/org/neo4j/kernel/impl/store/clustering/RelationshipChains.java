@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.clustering;
+
+import java.util.function.LongConsumer;
+
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+/**
+ * Follows the relationship chains of nodes through the relationship and relationship group stores.
+ */
+final class RelationshipChains
+{
+    private RelationshipChains()
+    {
+    }
+
+    /**
+     * Visit the ids of the relationships in a relationship chain, in chain order.
+     *
+     * @param relationshipStore the store to read the relationships from.
+     * @param firstRelationshipId the first relationship in the chain.
+     * @param nodeId the node that the chain belongs to.
+     * @param record scratch record to read the relationships into.
+     * @param maxLength the maximum number of relationships to visit.
+     * @param visitor receives the relationship ids.
+     * @return {@code false} if the chain is longer than {@code maxLength}, otherwise {@code true}.
+     */
+    static boolean visitChain( RecordStore<RelationshipRecord> relationshipStore, long firstRelationshipId,
+            long nodeId, RelationshipRecord record, long maxLength, LongConsumer visitor )
+    {
+        long relationshipId = firstRelationshipId;
+        long length = 0;
+        while ( relationshipId != NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            if ( length++ == maxLength )
+            {
+                return false;
+            }
+            relationshipStore.getRecord( relationshipId, record, NORMAL );
+            visitor.accept( relationshipId );
+            relationshipId = nextInChain( record, nodeId );
+        }
+        return true;
+    }
+
+    /**
+     * Visit the relationship groups of a dense node, in chain order.
+     */
+    static void visitGroups( RecordStore<RelationshipGroupRecord> groupStore, long firstGroupId,
+            RelationshipGroupRecord record, GroupVisitor visitor )
+    {
+        long groupId = firstGroupId;
+        while ( groupId != NO_NEXT_RELATIONSHIP.intValue() )
+        {
+            groupStore.getRecord( groupId, record, NORMAL );
+            visitor.visit( record );
+            groupId = record.getNext();
+        }
+    }
+
+    static long nextInChain( RelationshipRecord relationship, long nodeId )
+    {
+        return relationship.getFirstNode() == nodeId ? relationship.getFirstNextRel() : relationship.getSecondNextRel();
+    }
+
+    interface GroupVisitor
+    {
+        void visit( RelationshipGroupRecord group );
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.clustering;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.recovery.RecoveryRequiredChecker;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.RecordStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.validation.IdValidator;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.storemigration.ExistingTargetStrategy;
+import org.neo4j.kernel.impl.storemigration.FileOperation;
+import org.neo4j.kernel.impl.storemigration.StoreFile;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.store.StoreType.NODE;
+import static org.neo4j.kernel.impl.store.StoreType.NODE_LABEL;
+import static org.neo4j.kernel.impl.store.StoreType.RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.StoreType.RELATIONSHIP_GROUP;
+import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+import static org.neo4j.kernel.impl.storemigration.StoreFile.NODE_LABEL_STORE;
+import static org.neo4j.kernel.impl.storemigration.StoreFile.NODE_STORE;
+import static org.neo4j.kernel.impl.storemigration.StoreFile.RELATIONSHIP_GROUP_STORE;
+import static org.neo4j.kernel.impl.storemigration.StoreFile.RELATIONSHIP_STORE;
+
+/**
+ * Rewrites the relationship store of a database that is not running, so that the relationships of every node are
+ * stored next to each other.
+ * <p>
+ * Relationship records are normally stored in the order in which they were created, so the relationship chain of a
+ * node tends to be spread over many pages of the relationship store, and expanding a node costs a page fault for
+ * almost every relationship. The clusterer visits the nodes in id order, and gives new ids to the relationships in
+ * the order in which they appear in the relationship chains of the nodes. The relationship groups of dense nodes
+ * are renumbered the same way, and each group is followed by the relationships of its chains.
+ * <p>
+ * A relationship is part of the chains of both its start and end node, so it can only be stored next to the
+ * relationships of one of them. It ends up with the chain of the node that comes first.
+ * <p>
+ * Renumbering the relationships changes their ids, so stores with legacy relationship indexes are not supported.
+ * The store id is changed as well, so that backups and cluster members will not mix transactions of the old
+ * layout with the new one.
+ */
+public class RelationshipStoreClusterer
+{
+    static final String TEMP_DIRECTORY_NAME = "relationship-clustering";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final Config config;
+    private final LogProvider logProvider;
+    private final Log log;
+
+    public RelationshipStoreClusterer( FileSystemAbstraction fs, PageCache pageCache, Config config,
+            LogProvider logProvider )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.config = config;
+        this.logProvider = logProvider;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    /**
+     * Cluster the relationship store of the database in the given directory.
+     *
+     * @param storeDir the store directory of a database that has been shut down cleanly.
+     * @throws IOException if the store files could not be read or written.
+     * @throws IllegalStateException if the database cannot be clustered.
+     */
+    public void cluster( File storeDir ) throws IOException
+    {
+        if ( !NeoStores.isStorePresent( pageCache, storeDir ) )
+        {
+            throw new IllegalStateException( "No database found in " + storeDir );
+        }
+        if ( new RecoveryRequiredChecker( fs, pageCache ).isRecoveryRequiredAt( storeDir ) )
+        {
+            throw new IllegalStateException( "The database in " + storeDir + " was not shut down cleanly. " +
+                    "Start it, and shut it down again, before clustering its relationship store." );
+        }
+        assertNoLegacyRelationshipIndexes( storeDir );
+
+        RecordFormats recordFormats = RecordFormatSelector.selectForStoreOrConfig(
+                config, storeDir, fs, pageCache, logProvider );
+        File tempDir = new File( storeDir, TEMP_DIRECTORY_NAME );
+        fs.deleteRecursively( tempDir );
+        fs.mkdirs( tempDir );
+
+        // The node store is rewritten too, in a copy, so that a failure part way through leaves the store untouched
+        StoreFile.fileOperation( FileOperation.COPY, fs, storeDir, tempDir, NODE_STORE, NODE_LABEL_STORE );
+        try ( NeoStores source = new StoreFactory( storeDir, config, new DefaultIdGeneratorFactory( fs ), pageCache,
+                fs, recordFormats, logProvider ).openNeoStores( NODE, RELATIONSHIP, RELATIONSHIP_GROUP ) )
+        {
+            // The relationship group store header holds the dense node threshold that the store was created with
+            Config targetConfig = config.with( stringMap( GraphDatabaseSettings.dense_node_threshold.name(),
+                    String.valueOf( source.getRelationshipGroupStore().getStoreHeaderInt() ) ) );
+            try ( NeoStores target = new StoreFactory( tempDir, targetConfig, new DefaultIdGeneratorFactory( fs ),
+                    pageCache, fs, recordFormats, logProvider ).openNeoStores( true, NODE_LABEL, NODE, RELATIONSHIP,
+                    RELATIONSHIP_GROUP ) )
+            {
+                cluster( source, target );
+            }
+        }
+
+        StoreFile.fileOperation( FileOperation.MOVE, fs, tempDir, storeDir,
+                StoreFile.storeFiles( NODE_STORE, NODE_LABEL_STORE, RELATIONSHIP_STORE, RELATIONSHIP_GROUP_STORE ),
+                false, ExistingTargetStrategy.OVERWRITE );
+        fs.deleteRecursively( tempDir );
+        MetaDataStore.setRecord( pageCache, new File( storeDir, MetaDataStore.DEFAULT_NAME ),
+                MetaDataStore.Position.RANDOM_NUMBER, new SecureRandom().nextLong() );
+    }
+
+    private void assertNoLegacyRelationshipIndexes( File storeDir )
+    {
+        IndexConfigStore indexConfigStore = new IndexConfigStore( storeDir, fs );
+        indexConfigStore.init();
+        if ( indexConfigStore.getNames( Relationship.class ).length > 0 )
+        {
+            throw new IllegalStateException( "The relationship store of " + storeDir + " cannot be clustered, " +
+                    "because clustering changes the relationship ids, and the database has legacy relationship " +
+                    "indexes that refer to them." );
+        }
+    }
+
+    private void cluster( NeoStores source, NeoStores target )
+    {
+        NodeStore nodeStore = source.getNodeStore();
+        RelationshipStore relationshipStore = source.getRelationshipStore();
+        RecordStore<RelationshipGroupRecord> groupStore = source.getRelationshipGroupStore();
+
+        try ( LongArray relationshipIds = NumberArrayFactory.AUTO.newLongArray( relationshipStore.getHighId(), NO_ID );
+              LongArray groupIds = NumberArrayFactory.AUTO.newLongArray( groupStore.getHighId(), NO_ID ) )
+        {
+            long startTime = System.currentTimeMillis();
+            IdAssigner relationships = new IdAssigner( relationshipIds,
+                    target.getRelationshipStore().getNumberOfReservedLowIds() );
+            IdAssigner groups = new IdAssigner( groupIds,
+                    target.getRelationshipGroupStore().getNumberOfReservedLowIds() );
+            assignIds( nodeStore, relationshipStore, groupStore, relationships, groups );
+            log.info( "Assigned new ids to %d relationships and %d relationship groups in %d ms.",
+                    relationships.assigned, groups.assigned, System.currentTimeMillis() - startTime );
+
+            startTime = System.currentTimeMillis();
+            copyRelationships( relationshipStore, target.getRelationshipStore(), relationships );
+            copyGroups( groupStore, target.getRelationshipGroupStore(), relationships, groups );
+            updateNodes( nodeStore, target.getNodeStore(), relationships, groups );
+            log.info( "Rewrote the relationship store in %d ms.", System.currentTimeMillis() - startTime );
+        }
+    }
+
+    private void assignIds( NodeStore nodeStore, RelationshipStore relationshipStore,
+            RecordStore<RelationshipGroupRecord> groupStore, IdAssigner relationships, IdAssigner groups )
+    {
+        NodeRecord node = nodeStore.newRecord();
+        RelationshipRecord relationship = relationshipStore.newRecord();
+        RelationshipGroupRecord group = groupStore.newRecord();
+        long maxChainLength = relationshipStore.getHighId();
+        long highNodeId = nodeStore.getHighId();
+        for ( long nodeId = nodeStore.getNumberOfReservedLowIds(); nodeId < highNodeId; nodeId++ )
+        {
+            nodeStore.getRecord( nodeId, node, CHECK );
+            if ( !node.inUse() )
+            {
+                continue;
+            }
+            long id = nodeId;
+            if ( node.isDense() )
+            {
+                RelationshipChains.visitGroups( groupStore, node.getNextRel(), group, visitedGroup ->
+                {
+                    groups.assign( visitedGroup.getId() );
+                    assignChain( relationshipStore, visitedGroup.getFirstOut(), id, relationship, maxChainLength,
+                            relationships );
+                    assignChain( relationshipStore, visitedGroup.getFirstIn(), id, relationship, maxChainLength,
+                            relationships );
+                    assignChain( relationshipStore, visitedGroup.getFirstLoop(), id, relationship, maxChainLength,
+                            relationships );
+                } );
+            }
+            else
+            {
+                assignChain( relationshipStore, node.getNextRel(), id, relationship, maxChainLength, relationships );
+            }
+        }
+
+        // Records that no chain leads to would be lost otherwise, so keep them, after all the others
+        long stray = relationships.assignRemaining( relationshipStore );
+        stray += groups.assignRemaining( groupStore );
+        if ( stray > 0 )
+        {
+            log.warn( "Found %d relationship and relationship group records that are in use, but that are not " +
+                      "part of any relationship chain. They have been kept as they are.", stray );
+        }
+    }
+
+    private static void assignChain( RelationshipStore relationshipStore, long firstRelationshipId, long nodeId,
+            RelationshipRecord relationship, long maxChainLength, IdAssigner relationships )
+    {
+        if ( !RelationshipChains.visitChain( relationshipStore, firstRelationshipId, nodeId, relationship,
+                maxChainLength, relationships::assignIfNew ) )
+        {
+            throw new IllegalStateException( "The relationship chain of node " + nodeId + " has a cycle." );
+        }
+    }
+
+    private static void copyRelationships( RelationshipStore from, RelationshipStore to, IdAssigner relationships )
+    {
+        RelationshipRecord record = from.newRecord();
+        to.setHighestPossibleIdInUse( relationships.highestAssignedId() );
+        long highId = from.getHighId();
+        for ( long id = from.getNumberOfReservedLowIds(); id < highId; id++ )
+        {
+            from.getRecord( id, record, CHECK );
+            if ( !record.inUse() )
+            {
+                continue;
+            }
+            record.setId( relationships.get( id ) );
+            if ( !record.isFirstInFirstChain() )
+            {
+                record.setFirstPrevRel( relationships.map( record.getFirstPrevRel() ) );
+            }
+            record.setFirstNextRel( relationships.map( record.getFirstNextRel() ) );
+            if ( !record.isFirstInSecondChain() )
+            {
+                record.setSecondPrevRel( relationships.map( record.getSecondPrevRel() ) );
+            }
+            record.setSecondNextRel( relationships.map( record.getSecondNextRel() ) );
+            write( to, record );
+        }
+    }
+
+    private static void copyGroups( RecordStore<RelationshipGroupRecord> from, RecordStore<RelationshipGroupRecord> to,
+            IdAssigner relationships, IdAssigner groups )
+    {
+        RelationshipGroupRecord record = from.newRecord();
+        to.setHighestPossibleIdInUse( groups.highestAssignedId() );
+        long highId = from.getHighId();
+        for ( long id = from.getNumberOfReservedLowIds(); id < highId; id++ )
+        {
+            from.getRecord( id, record, CHECK );
+            if ( !record.inUse() )
+            {
+                continue;
+            }
+            record.setId( groups.get( id ) );
+            record.setNext( groups.map( record.getNext() ) );
+            record.setFirstOut( relationships.map( record.getFirstOut() ) );
+            record.setFirstIn( relationships.map( record.getFirstIn() ) );
+            record.setFirstLoop( relationships.map( record.getFirstLoop() ) );
+            write( to, record );
+        }
+    }
+
+    private static void updateNodes( NodeStore from, NodeStore to, IdAssigner relationships, IdAssigner groups )
+    {
+        NodeRecord record = from.newRecord();
+        long highId = from.getHighId();
+        for ( long id = from.getNumberOfReservedLowIds(); id < highId; id++ )
+        {
+            from.getRecord( id, record, CHECK );
+            if ( record.inUse() )
+            {
+                long nextRel = record.getNextRel();
+                record.setNextRel( record.isDense() ? groups.map( nextRel ) : relationships.map( nextRel ) );
+                if ( record.getNextRel() != nextRel )
+                {
+                    // The target is a copy of the node store, so the record keeps its secondary unit, if it has one
+                    to.prepareForCommit( record );
+                    to.updateRecord( record );
+                }
+            }
+        }
+    }
+
+    private static <R extends AbstractBaseRecord> void write( RecordStore<R> store, R record )
+    {
+        // Secondary record units are allocated anew in the target store, after the ids of the records themselves
+        record.setRequiresSecondaryUnit( false );
+        record.setSecondaryUnitId( NO_ID );
+        store.prepareForCommit( record );
+        store.updateRecord( record );
+    }
+
+    /**
+     * Hands out new ids in sequence, and remembers which old id each new id was given to.
+     */
+    private static class IdAssigner
+    {
+        private final LongArray newIds;
+        private final long firstId;
+        private long nextId;
+        private long assigned;
+
+        IdAssigner( LongArray newIds, long firstId )
+        {
+            this.newIds = newIds;
+            this.firstId = firstId;
+            this.nextId = firstId;
+        }
+
+        void assign( long oldId )
+        {
+            if ( IdValidator.isReservedId( nextId ) )
+            {
+                nextId++;
+            }
+            newIds.set( oldId, nextId++ );
+            assigned++;
+        }
+
+        void assignIfNew( long oldId )
+        {
+            if ( newIds.get( oldId ) == NO_ID )
+            {
+                assign( oldId );
+            }
+        }
+
+        <R extends AbstractBaseRecord> long assignRemaining( RecordStore<R> store )
+        {
+            long stray = 0;
+            R record = store.newRecord();
+            long highId = store.getHighId();
+            for ( long id = firstId; id < highId; id++ )
+            {
+                if ( newIds.get( id ) == NO_ID && store.getRecord( id, record, CHECK ).inUse() )
+                {
+                    assign( id );
+                    stray++;
+                }
+            }
+            return stray;
+        }
+
+        long get( long oldId )
+        {
+            return newIds.get( oldId );
+        }
+
+        long map( long oldId )
+        {
+            return oldId == NO_NEXT_RELATIONSHIP.intValue() ? oldId : newIds.get( oldId );
+        }
+
+        long highestAssignedId()
+        {
+            return nextId - 1;
+        }
+    }
+}
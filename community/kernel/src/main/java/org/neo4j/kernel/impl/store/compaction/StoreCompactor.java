@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveIntObjectMap;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.Service;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.extension.KernelExtensions;
+import org.neo4j.kernel.extension.UnsatisfiedDependencyStrategies;
+import org.neo4j.kernel.extension.dependency.HighestSelectionStrategy;
+import org.neo4j.kernel.impl.api.index.IndexStoreView;
+import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider;
+import org.neo4j.kernel.impl.api.store.StorePropertyCursor;
+import org.neo4j.kernel.impl.factory.DatabaseInfo;
+import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.logging.LogService;
+import org.neo4j.kernel.impl.recovery.RecoveryRequiredChecker;
+import org.neo4j.kernel.impl.spi.KernelContext;
+import org.neo4j.kernel.impl.spi.SimpleKernelContext;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeLabelsField;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.RecordCursors;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.TransactionId;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.ReadOnlyIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.storemigration.ExistingTargetStrategy;
+import org.neo4j.kernel.impl.storemigration.StoreFile;
+import org.neo4j.kernel.impl.storemigration.StoreFileType;
+import org.neo4j.kernel.impl.storemigration.participant.StoreScanAsInputIterable;
+import org.neo4j.kernel.impl.util.Dependencies;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.Log;
+import org.neo4j.storageengine.api.Token;
+import org.neo4j.unsafe.impl.batchimport.AdditionalInitialIds;
+import org.neo4j.unsafe.impl.batchimport.Configuration;
+import org.neo4j.unsafe.impl.batchimport.InputIterable;
+import org.neo4j.unsafe.impl.batchimport.ParallelBatchImporter;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdGenerators;
+import org.neo4j.unsafe.impl.batchimport.cache.idmapping.IdMappers;
+import org.neo4j.unsafe.impl.batchimport.input.Collectors;
+import org.neo4j.unsafe.impl.batchimport.input.InputEntity;
+import org.neo4j.unsafe.impl.batchimport.input.InputNode;
+import org.neo4j.unsafe.impl.batchimport.input.InputRelationship;
+import org.neo4j.unsafe.impl.batchimport.input.Inputs;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStores;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.storemigration.FileOperation.COPY;
+import static org.neo4j.kernel.impl.storemigration.FileOperation.DELETE;
+import static org.neo4j.kernel.impl.storemigration.FileOperation.MOVE;
+import static org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory.AUTO;
+import static org.neo4j.unsafe.impl.batchimport.staging.ExecutionSupervisors.withDynamicProcessorAssignment;
+
+/**
+ * Rewrites the stores of a database that is not running, without the holes that deleted records leave behind.
+ * <p>
+ * The nodes, relationships and properties of the database are read from the store in id order, and written to new
+ * stores by the {@link ParallelBatchImporter}, in the same way as the {@link
+ * org.neo4j.kernel.impl.storemigration.participant.StoreMigrator store migrator} does it, except that nodes and
+ * relationships get new ids, in the order of their old ids, with no gaps between them. Properties, and the dynamic
+ * records of strings, arrays and labels, are written densely as well. The importer also writes a new counts store
+ * and label scan store.
+ * <p>
+ * Tokens and schema rules keep their ids, and their stores are kept as they are. The schema indexes refer to node
+ * ids, so they are deleted, and rebuilt the next time the database starts. Databases with
+ * legacy indexes are not compacted, since they refer to node and relationship ids too. The store id changes, since
+ * the ids of the entities in the store are not the same as in copies of the store taken before the compaction.
+ */
+public class StoreCompactor
+{
+    static final String TEMP_DIRECTORY_NAME = "compaction";
+    private static final String SCHEMA_DIRECTORY_NAME = "schema";
+    private static final String INDEX_DIRECTORY_NAME = "index";
+
+    private static final StoreFile[] TOKEN_STORES = {
+            StoreFile.LABEL_TOKEN_STORE, StoreFile.LABEL_TOKEN_NAMES_STORE,
+            StoreFile.PROPERTY_KEY_TOKEN_STORE, StoreFile.PROPERTY_KEY_TOKEN_NAMES_STORE,
+            StoreFile.RELATIONSHIP_TYPE_TOKEN_STORE, StoreFile.RELATIONSHIP_TYPE_TOKEN_NAMES_STORE};
+
+    private static final StoreFile[] COMPACTED_STORES = {
+            StoreFile.NODE_STORE, StoreFile.NODE_LABEL_STORE,
+            StoreFile.RELATIONSHIP_STORE, StoreFile.RELATIONSHIP_GROUP_STORE,
+            StoreFile.PROPERTY_STORE, StoreFile.PROPERTY_STRING_STORE, StoreFile.PROPERTY_ARRAY_STORE,
+            StoreFile.COUNTS_STORE_LEFT, StoreFile.COUNTS_STORE_RIGHT};
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final Config config;
+    private final LogService logService;
+    private final ExecutionMonitor executionMonitor;
+    private final Log log;
+
+    public StoreCompactor( FileSystemAbstraction fs, PageCache pageCache, Config config, LogService logService,
+            ExecutionMonitor executionMonitor )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.config = config;
+        this.logService = logService;
+        this.executionMonitor = executionMonitor;
+        this.log = logService.getInternalLog( getClass() );
+    }
+
+    /**
+     * Compact the stores of the database in the given directory.
+     *
+     * @param storeDir the store directory of a database that has been shut down cleanly.
+     * @throws IOException if the store files could not be read or written.
+     * @throws IllegalStateException if the database cannot be compacted.
+     */
+    public void compact( File storeDir ) throws IOException
+    {
+        if ( !NeoStores.isStorePresent( pageCache, storeDir ) )
+        {
+            throw new IllegalStateException( "No database found in " + storeDir );
+        }
+        if ( new RecoveryRequiredChecker( fs, pageCache ).isRecoveryRequiredAt( storeDir ) )
+        {
+            throw new IllegalStateException( "The database in " + storeDir + " was not shut down cleanly. " +
+                    "Start it, and shut it down again, before compacting it." );
+        }
+        assertNoLegacyIndexes( storeDir );
+
+        RecordFormats recordFormats = RecordFormatSelector.selectForStoreOrConfig(
+                config, storeDir, fs, pageCache, logService.getInternalLogProvider() );
+        File tempDir = new File( storeDir, TEMP_DIRECTORY_NAME );
+        fs.deleteRecursively( tempDir );
+        fs.mkdirs( tempDir );
+
+        long startTime = System.currentTimeMillis();
+        long firstGraphProperty;
+        try ( NeoStores source = new StoreFactory( storeDir, config, new ReadOnlyIdGeneratorFactory(), pageCache, fs,
+                recordFormats, logService.getInternalLogProvider() ).openAllNeoStores() )
+        {
+            // The relationship group store header holds the dense node threshold that the store was created with
+            Config targetConfig = config.with( stringMap( GraphDatabaseSettings.dense_node_threshold.name(),
+                    String.valueOf( source.getRelationshipGroupStore().getStoreHeaderInt() ) ) );
+            BatchingNeoStores.createStore( fs, tempDir.getPath(), targetConfig, recordFormats );
+            // With the tokens in place the importer finds the existing ids of labels by their names
+            StoreFile.fileOperation( COPY, fs, storeDir, tempDir, StoreFile.storeFiles( TOKEN_STORES ), false,
+                    ExistingTargetStrategy.OVERWRITE, StoreFileType.values() );
+
+            importFrom( source, tempDir, targetConfig, recordFormats );
+            firstGraphProperty = copyGraphProperties( source, tempDir, recordFormats );
+        }
+        log.info( "Wrote the compacted stores in %d ms.", System.currentTimeMillis() - startTime );
+
+        // The id files of the old stores list the holes that are now gone
+        StoreFile.fileOperation( DELETE, fs, storeDir, null, StoreFile.storeFiles( COMPACTED_STORES ), true, null,
+                StoreFileType.ID );
+        StoreFile.fileOperation( MOVE, fs, tempDir, storeDir, StoreFile.storeFiles( COMPACTED_STORES ), true,
+                ExistingTargetStrategy.OVERWRITE, StoreFileType.values() );
+        // The importer writes a new label scan store, and the schema indexes are rebuilt when the database starts
+        // without them
+        fs.deleteRecursively( new File( new File( storeDir, SCHEMA_DIRECTORY_NAME ), INDEX_DIRECTORY_NAME ) );
+        replaceLabelScanStore( storeDir, tempDir );
+        fs.deleteRecursively( tempDir );
+
+        File neoStore = new File( storeDir, MetaDataStore.DEFAULT_NAME );
+        MetaDataStore.setRecord( pageCache, neoStore, MetaDataStore.Position.FIRST_GRAPH_PROPERTY, firstGraphProperty );
+        MetaDataStore.setRecord( pageCache, neoStore, MetaDataStore.Position.RANDOM_NUMBER,
+                new SecureRandom().nextLong() );
+    }
+
+    private void assertNoLegacyIndexes( File storeDir )
+    {
+        IndexConfigStore indexConfigStore = new IndexConfigStore( storeDir, fs );
+        indexConfigStore.init();
+        if ( indexConfigStore.getNames( Node.class ).length > 0 ||
+             indexConfigStore.getNames( Relationship.class ).length > 0 )
+        {
+            throw new IllegalStateException( "The database in " + storeDir + " cannot be compacted, because " +
+                    "compaction changes the ids of nodes and relationships, and the database has legacy indexes " +
+                    "that refer to them." );
+        }
+    }
+
+    /**
+     * Replaces the files of the label scan store in the store directory with those that the importer wrote. The
+     * files are listed by the label scan store itself, so this works for whichever label scan store is in use.
+     */
+    private void replaceLabelScanStore( File storeDir, File tempDir ) throws IOException
+    {
+        for ( String file : labelScanStoreFiles( storeDir ) )
+        {
+            fs.deleteFile( new File( storeDir, file ) );
+        }
+        for ( String file : labelScanStoreFiles( tempDir ) )
+        {
+            File target = new File( storeDir, file );
+            fs.mkdirs( target.getParentFile() );
+            fs.renameFile( new File( tempDir, file ), target );
+        }
+    }
+
+    /**
+     * @return the files of the label scan store, of the highest priority label scan store provider, in the given
+     * directory, relative to that directory.
+     */
+    @SuppressWarnings( "unchecked" )
+    private List<String> labelScanStoreFiles( File dir ) throws IOException
+    {
+        Dependencies dependencies = new Dependencies();
+        dependencies.satisfyDependencies( config, fs, logService, IndexStoreView.EMPTY );
+        KernelContext kernelContext = new SimpleKernelContext( fs, dir.getAbsoluteFile(), DatabaseInfo.UNKNOWN,
+                dependencies );
+        LifeSupport life = new LifeSupport();
+        KernelExtensions extensions = life.add( new KernelExtensions( kernelContext,
+                (Iterable) Service.load( KernelExtensionFactory.class ), dependencies,
+                UnsatisfiedDependencyStrategies.ignore() ) );
+        life.start();
+        try
+        {
+            // Only initialized, so that a label scan store that is missing is not rebuilt
+            LabelScanStore labelScanStore = extensions.resolveDependency( LabelScanStoreProvider.class,
+                    HighestSelectionStrategy.getInstance() ).getLabelScanStore();
+            labelScanStore.init();
+            try ( ResourceIterator<File> files = labelScanStore.snapshotStoreFiles() )
+            {
+                Path root = dir.getAbsoluteFile().toPath();
+                List<String> relativePaths = new ArrayList<>();
+                while ( files.hasNext() )
+                {
+                    relativePaths.add( root.relativize( files.next().getAbsoluteFile().toPath() ).toString() );
+                }
+                return relativePaths;
+            }
+            finally
+            {
+                labelScanStore.shutdown();
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    private void importFrom( NeoStores source, File tempDir, Config targetConfig, RecordFormats recordFormats )
+            throws IOException
+    {
+        Configuration importConfig = new Configuration.Overridden( config );
+        ParallelBatchImporter importer = new ParallelBatchImporter( tempDir.getAbsoluteFile(), fs, importConfig,
+                logService, withDynamicProcessorAssignment( executionMonitor, importConfig ),
+                lastTransactionOf( source.getMetaDataStore() ), targetConfig, recordFormats );
+        try ( RecordCursors nodeCursors = new RecordCursors( source );
+              RecordCursors relationshipCursors = new RecordCursors( source ) )
+        {
+            // Input ids are the old ids, which the id mapper maps to new ids given out in the order of the old ones
+            importer.doImport( Inputs.input( nodesOf( source, nodeCursors ),
+                    relationshipsOf( source, relationshipCursors ), IdMappers.longs( AUTO ),
+                    IdGenerators.startingFromTheBeginning(), Collectors.silentBadCollector( 0 ) ) );
+        }
+    }
+
+    private static AdditionalInitialIds lastTransactionOf( MetaDataStore metaDataStore )
+    {
+        TransactionId lastCommittedTransaction = metaDataStore.getLastCommittedTransaction();
+        long[] lastClosedTransaction = metaDataStore.getLastClosedTransaction();
+        return new AdditionalInitialIds()
+        {
+            @Override
+            public long lastCommittedTransactionId()
+            {
+                return lastCommittedTransaction.transactionId();
+            }
+
+            @Override
+            public long lastCommittedTransactionChecksum()
+            {
+                return lastCommittedTransaction.checksum();
+            }
+
+            @Override
+            public long lastCommittedTransactionLogVersion()
+            {
+                return lastClosedTransaction[1];
+            }
+
+            @Override
+            public long lastCommittedTransactionLogByteOffset()
+            {
+                return lastClosedTransaction[2];
+            }
+        };
+    }
+
+    private static InputIterable<InputNode> nodesOf( NeoStores source, RecordCursors cursors )
+    {
+        NodeStore store = source.getNodeStore();
+        PrimitiveIntObjectMap<String> labelNames = Primitive.intObjectMap();
+        for ( Token label : source.getLabelTokenStore().getTokens( Integer.MAX_VALUE ) )
+        {
+            labelNames.put( label.id(), label.name() );
+        }
+        PropertyReader properties = new PropertyReader( cursors );
+        return new StoreScanAsInputIterable<InputNode,NodeRecord>( store )
+        {
+            @Override
+            protected InputNode inputEntityOf( NodeRecord record )
+            {
+                // Labels are given by name, so that labels in dynamic records are written out again
+                long[] labelIds = NodeLabelsField.get( record, store );
+                String[] labels = new String[labelIds.length];
+                for ( int i = 0; i < labelIds.length; i++ )
+                {
+                    labels[i] = labelNames.get( (int) labelIds[i] );
+                }
+                return new InputNode( "store", record.getId(), record.getId() * store.getRecordSize(),
+                        record.getId(), properties.read( record ), null, labels, null );
+            }
+        };
+    }
+
+    private static InputIterable<InputRelationship> relationshipsOf( NeoStores source, RecordCursors cursors )
+    {
+        PropertyReader properties = new PropertyReader( cursors );
+        int recordSize = source.getRelationshipStore().getRecordSize();
+        return new StoreScanAsInputIterable<InputRelationship,RelationshipRecord>( source.getRelationshipStore() )
+        {
+            @Override
+            protected InputRelationship inputEntityOf( RelationshipRecord record )
+            {
+                return new InputRelationship( "store", record.getId(), record.getId() * recordSize,
+                        properties.read( record ), null, record.getFirstNode(), record.getSecondNode(), null,
+                        record.getType() );
+            }
+        };
+    }
+
+    /**
+     * Graph properties are not written by the importer, so they are copied over to the new property store here.
+     *
+     * @return the id of the first graph property record in the new property store.
+     */
+    private long copyGraphProperties( NeoStores source, File tempDir, RecordFormats recordFormats )
+    {
+        long firstGraphProperty = source.getMetaDataStore().getGraphNextProp();
+        if ( firstGraphProperty == NO_NEXT_PROPERTY.intValue() )
+        {
+            return firstGraphProperty;
+        }
+
+        Object[] keysAndValues;
+        try ( RecordCursors cursors = new RecordCursors( source ) )
+        {
+            keysAndValues = new PropertyReader( cursors ).read( firstGraphProperty );
+        }
+        try ( NeoStores target = new StoreFactory( tempDir, config, new DefaultIdGeneratorFactory( fs ), pageCache,
+                fs, recordFormats, logService.getInternalLogProvider() ).openNeoStores( StoreType.PROPERTY,
+                StoreType.PROPERTY_STRING, StoreType.PROPERTY_ARRAY, StoreType.PROPERTY_KEY_TOKEN,
+                StoreType.PROPERTY_KEY_TOKEN_NAME ) )
+        {
+            PropertyStore propertyStore = target.getPropertyStore();
+            List<PropertyRecord> records = new ArrayList<>();
+            PropertyRecord current = null;
+            for ( int i = 0; i < keysAndValues.length; i += 2 )
+            {
+                PropertyBlock block = new PropertyBlock();
+                propertyStore.encodeValue( block, (Integer) keysAndValues[i], keysAndValues[i + 1] );
+                if ( current == null || current.size() + block.getSize() > PropertyType.getPayloadSize() )
+                {
+                    current = new PropertyRecord( propertyStore.nextId() );
+                    current.setInUse( true );
+                    current.setCreated();
+                    records.add( current );
+                }
+                current.addPropertyBlock( block );
+            }
+            for ( int i = 0; i < records.size(); i++ )
+            {
+                PropertyRecord record = records.get( i );
+                record.setPrevProp( i == 0 ? NO_NEXT_PROPERTY.intValue() : records.get( i - 1 ).getId() );
+                record.setNextProp( i == records.size() - 1 ? NO_NEXT_PROPERTY.intValue()
+                                                            : records.get( i + 1 ).getId() );
+                propertyStore.prepareForCommit( record );
+                propertyStore.updateRecord( record );
+            }
+            return records.isEmpty() ? NO_NEXT_PROPERTY.intValue() : records.get( 0 ).getId();
+        }
+    }
+
+    /**
+     * Reads the properties of records in the source store, as alternating property key ids and values, which is how
+     * the importer takes properties whose keys already have ids.
+     */
+    private static class PropertyReader
+    {
+        private final StorePropertyCursor cursor;
+        private final List<Object> scratch = new ArrayList<>();
+
+        PropertyReader( RecordCursors cursors )
+        {
+            this.cursor = new StorePropertyCursor( cursors, ignored -> {} );
+        }
+
+        Object[] read( PrimitiveRecord record )
+        {
+            return read( record.getNextProp() );
+        }
+
+        Object[] read( long firstPropertyId )
+        {
+            cursor.init( firstPropertyId, LockService.NO_LOCK );
+            scratch.clear();
+            while ( cursor.next() )
+            {
+                scratch.add( cursor.propertyKeyId() );
+                scratch.add( cursor.value() );
+            }
+            cursor.close();
+            return scratch.isEmpty() ? InputEntity.NO_PROPERTIES : scratch.toArray();
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.store.counts;
 import java.io.File;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Clock;
@@ -42,6 +43,7 @@ import org.neo4j.kernel.impl.store.kvstore.ReadableBuffer;
 import org.neo4j.kernel.impl.store.kvstore.Rotation;
 import org.neo4j.kernel.impl.store.kvstore.RotationMonitor;
 import org.neo4j.kernel.impl.store.kvstore.RotationTimerFactory;
+import org.neo4j.kernel.impl.store.kvstore.State;
 import org.neo4j.kernel.impl.store.kvstore.UnknownKey;
 import org.neo4j.kernel.impl.store.kvstore.WritableBuffer;
 import org.neo4j.logging.Log;
@@ -60,7 +62,8 @@ import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relations
  *
  * The counts store is a key/value store, where key/value entries are stored sorted by the key in ascending unsigned
  * (big endian) order. These store files are immutable, and on store-flush the implementation swaps the read and write
- * file in a {@linkplain Rotation.Strategy#LEFT_RIGHT left/right pattern}.
+ * file in a {@linkplain Rotation.Strategy#LEFT_RIGHT left/right pattern}. The changes made since the last rotation
+ * are kept {@linkplain State.Strategy#OFF_HEAP_HASH_MAP off heap}, keyed by the serialized keys.
  *
  * This class defines {@linkplain KeyFormat the key serialisation format},
  * {@linkplain CountsUpdater the value serialisation format}, and
@@ -72,6 +75,7 @@ import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.relations
  * {@code kvstore}-package, see {@link org.neo4j.kernel.impl.store.kvstore.KeyValueStoreFile} for a good entry point.
  */
 @Rotation(value = Rotation.Strategy.LEFT_RIGHT, parameters = {CountsTracker.LEFT, CountsTracker.RIGHT})
+@State(State.Strategy.OFF_HEAP_HASH_MAP)
 public class CountsTracker extends AbstractKeyValueStore<CountsKey>
         implements CountsVisitor.Visitable, CountsAccessor
 {
@@ -83,41 +87,28 @@ public class CountsTracker extends AbstractKeyValueStore<CountsKey>
     public static final String LEFT = ".a", RIGHT = ".b";
     public static final String TYPE_DESCRIPTOR = "CountsStore";
 
+    private final RotationStatistics rotationStatistics;
+
     public CountsTracker( final LogProvider logProvider, FileSystemAbstraction fs, PageCache pages, Config config,
             File baseFile )
     {
-        super( fs, pages, baseFile, new RotationMonitor()
-        {
-            final Log log = logProvider.getLog( CountsTracker.class );
-
-            @Override
-            public void failedToOpenStoreFile( File path, Exception error )
-            {
-                log.error( "Failed to open counts store file: " + path, error );
-            }
-
-            @Override
-            public void beforeRotation( File source, File target, Headers headers )
-            {
-                log.info( format( "About to rotate counts store at transaction %d to [%s], from [%s].",
-                        headers.get( FileVersion.FILE_VERSION ).txId, target, source ) );
-            }
-
-            @Override
-            public void rotationSucceeded( File source, File target, Headers headers )
-            {
-                log.info( format( "Successfully rotated counts store at transaction %d to [%s], from [%s].",
-                        headers.get( FileVersion.FILE_VERSION ).txId, target, source ) );
-            }
+        this( fs, pages, config, baseFile, new RotationStatistics( logProvider.getLog( CountsTracker.class ) ) );
+    }
 
-            @Override
-            public void rotationFailed( File source, File target, Headers headers, Exception e )
-            {
-                log.error( format( "Failed to rotate counts store at transaction %d to [%s], from [%s].",
-                        headers.get( FileVersion.FILE_VERSION ).txId, target, source ), e );
-            }
-        }, new RotationTimerFactory( Clock.SYSTEM_CLOCK,
+    private CountsTracker( FileSystemAbstraction fs, PageCache pages, Config config, File baseFile,
+            RotationStatistics rotationStatistics )
+    {
+        super( fs, pages, baseFile, rotationStatistics, new RotationTimerFactory( Clock.SYSTEM_CLOCK,
                 config.get( GraphDatabaseSettings.counts_store_rotation_timeout ) ), 16, 16, HEADER_FIELDS );
+        this.rotationStatistics = rotationStatistics;
+    }
+
+    /**
+     * @return the number and duration of the rotations of this counts store.
+     */
+    public CountsRotationMonitor rotationMonitor()
+    {
+        return rotationStatistics;
     }
 
     public CountsTracker setInitializer( final DataInitializer<Updater> initializer )
@@ -326,4 +317,68 @@ public class CountsTracker extends AbstractKeyValueStore<CountsKey>
             }
         }
     }
+
+    private static class RotationStatistics implements RotationMonitor, CountsRotationMonitor
+    {
+        private final Log log;
+        private final AtomicLong rotations = new AtomicLong();
+        private final AtomicLong totalTimeMillis = new AtomicLong();
+        private volatile long lastTimeMillis;
+        private volatile long startTimeMillis;
+
+        RotationStatistics( Log log )
+        {
+            this.log = log;
+        }
+
+        @Override
+        public void failedToOpenStoreFile( File path, Exception error )
+        {
+            log.error( "Failed to open counts store file: " + path, error );
+        }
+
+        @Override
+        public void beforeRotation( File source, File target, Headers headers )
+        {
+            log.info( format( "About to rotate counts store at transaction %d to [%s], from [%s].",
+                    headers.get( FileVersion.FILE_VERSION ).txId, target, source ) );
+            startTimeMillis = System.currentTimeMillis();
+        }
+
+        @Override
+        public void rotationSucceeded( File source, File target, Headers headers )
+        {
+            long elapsedMillis = System.currentTimeMillis() - startTimeMillis;
+            lastTimeMillis = elapsedMillis;
+            totalTimeMillis.addAndGet( elapsedMillis );
+            rotations.incrementAndGet();
+            log.info( format( "Successfully rotated counts store at transaction %d to [%s], from [%s], in %d ms.",
+                    headers.get( FileVersion.FILE_VERSION ).txId, target, source, elapsedMillis ) );
+        }
+
+        @Override
+        public void rotationFailed( File source, File target, Headers headers, Exception e )
+        {
+            log.error( format( "Failed to rotate counts store at transaction %d to [%s], from [%s].",
+                    headers.get( FileVersion.FILE_VERSION ).txId, target, source ), e );
+        }
+
+        @Override
+        public long numberOfCountsRotationEvents()
+        {
+            return rotations.get();
+        }
+
+        @Override
+        public long countsRotationAccumulatedTotalTimeMillis()
+        {
+            return totalTimeMillis.get();
+        }
+
+        @Override
+        public long lastCountsRotationTimeMillis()
+        {
+            return lastTimeMillis;
+        }
+    }
 }
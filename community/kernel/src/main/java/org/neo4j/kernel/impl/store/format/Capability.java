@@ -42,6 +42,16 @@ public enum Capability
      */
     VERSION_TRAILERS( CapabilityType.STORE ),
 
+    /**
+     * Node and relationship records keep a copy of their property chain, if it is small enough
+     */
+    INLINE_PROPERTIES( CapabilityType.FORMAT ),
+
+    /**
+     * Values in the dynamic string and array stores may be compressed
+     */
+    COMPRESSED_DYNAMIC_VALUES( CapabilityType.FORMAT ),
+
     /**
      * Lucene version 3.x
      */
@@ -32,6 +32,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.format.compact.Compact;
 import org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat;
 import org.neo4j.kernel.impl.store.format.standard.StandardV2_0;
 import org.neo4j.kernel.impl.store.format.standard.StandardV2_1;
@@ -62,7 +63,8 @@ public class RecordFormatSelector
             StandardV2_1.RECORD_FORMATS,
             StandardV2_2.RECORD_FORMATS,
             StandardV2_3.RECORD_FORMATS,
-            StandardV3_0.RECORD_FORMATS
+            StandardV3_0.RECORD_FORMATS,
+            Compact.RECORD_FORMATS
     );
 
     private RecordFormatSelector()
@@ -287,6 +289,10 @@ public class RecordFormatSelector
             {
                 return StandardV3_0.RECORD_FORMATS;
             }
+            if ( Compact.NAME.equals( recordFormat ) )
+            {
+                return Compact.RECORD_FORMATS;
+            }
             RecordFormats.Factory formatFactory = Service.loadSilently( RecordFormats.Factory.class, recordFormat );
             if ( formatFactory != null )
             {
@@ -31,6 +31,7 @@ public enum StoreVersion
     STANDARD_V2_2( "v0.A.5", true ),
     STANDARD_V2_3( "v0.A.6", true ),
     STANDARD_V3_0( "v0.A.7", true ),
+    COMPACT_V3_1( "v0.C.0", true ),
 
     HIGH_LIMIT_V3_0( "vE.H.0", false );
 
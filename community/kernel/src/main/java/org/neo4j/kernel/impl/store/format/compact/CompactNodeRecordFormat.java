@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.format.standard.NodeRecordFormat;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+
+/**
+ * The standard node record, followed by the {@link InlinedPropertyBlocks inlined property blocks} of the node.
+ */
+public class CompactNodeRecordFormat extends NodeRecordFormat
+{
+    public static final int RECORD_SIZE = NodeRecordFormat.RECORD_SIZE + InlinedPropertyBlocks.SIZE;
+
+    public CompactNodeRecordFormat()
+    {
+        super( RECORD_SIZE );
+    }
+
+    @Override
+    public void read( NodeRecord record, PageCursor cursor, RecordLoad mode, int recordSize ) throws IOException
+    {
+        record.clearInlinedProperties();
+        super.read( record, cursor, mode, recordSize );
+        if ( mode.shouldLoad( record.inUse() ) )
+        {
+            InlinedPropertyBlocks.read( record, cursor );
+        }
+    }
+
+    @Override
+    public void write( NodeRecord record, PageCursor cursor, int recordSize ) throws IOException
+    {
+        super.write( record, cursor, recordSize );
+        if ( record.inUse() )
+        {
+            InlinedPropertyBlocks.write( record, cursor );
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+
+/**
+ * Reads and writes the inlined property blocks that trail the node and relationship records of the
+ * {@link Compact} format.
+ * <p>
+ * The layout is a count byte, followed by up to {@link #MAX_BLOCKS} property blocks. A count of zero means that
+ * there is no inlined copy, and that the properties must be read from the property chain.
+ */
+final class InlinedPropertyBlocks
+{
+    static final int MAX_BLOCKS = 3;
+    static final int SIZE = 1/*count*/ + MAX_BLOCKS * Long.BYTES;
+
+    private InlinedPropertyBlocks()
+    {
+    }
+
+    static void read( PrimitiveRecord record, PageCursor cursor )
+    {
+        int count = cursor.getByte() & 0xFF;
+        if ( count > MAX_BLOCKS )
+        {
+            cursor.setCursorException( "Record claims to have " + count + " inlined property blocks, but at most " +
+                                       MAX_BLOCKS + " can fit in a record" );
+            return;
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            record.addInlinedPropertyBlock( cursor.getLong() );
+        }
+    }
+
+    static void write( PrimitiveRecord record, PageCursor cursor )
+    {
+        int count = record.getNumberOfInlinedPropertyBlocks();
+        if ( count > MAX_BLOCKS )
+        {
+            // Does not fit, so readers will have to go to the property chain instead
+            count = 0;
+        }
+        cursor.putByte( (byte) count );
+        long[] blocks = record.getInlinedPropertyBlocks();
+        for ( int i = 0; i < count; i++ )
+        {
+            cursor.putLong( blocks[i] );
+        }
+    }
+}
@@ -22,7 +22,6 @@ package org.neo4j.kernel.impl.store.id;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
 
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
@@ -38,13 +37,18 @@ import org.neo4j.kernel.impl.store.UnderlyingStorageException;
  * is that the span of the file from the position it is at when passed at the constructor and forward is available for
  * reads and exclusive writes. Equivalently, instances of this class will never write in the portion of the channel
  * from the beginning until the position it is at when passed at the constructor.
+ * <p>
+ * Opening reads one batch of ids, and closing writes no more than two batches of ids plus as many ids as were read
+ * from the file, so neither depends on the number of free ids in the file. At most two batches of ids are kept in
+ * memory. The ids are still read and written in bulk through the channel; the id file is not paged through the page
+ * cache.
  */
 public class FreeIdKeeper implements Closeable
 {
     public static final long NO_RESULT = -1;
     public static final int ID_ENTRY_SIZE = Long.BYTES;
-    private final LinkedList<Long> freeIds = new LinkedList<>();
-    private final LinkedList<Long> readFromDisk = new LinkedList<>();
+    private final IdQueue freeIds;
+    private final IdQueue readFromDisk;
     private final StoreChannel channel;
     private final int threshold;
     /*
@@ -70,6 +74,8 @@ public class FreeIdKeeper implements Closeable
         this.channel = channel;
         this.threshold = threshold;
         this.aggressiveReuse = aggressiveReuse;
+        this.freeIds = new IdQueue( threshold );
+        this.readFromDisk = new IdQueue( threshold );
         this.lowWatermarkForChannelPosition = channel.position();
         readPosition = lowWatermarkForChannelPosition;
         restoreIdsOnStartup();
@@ -102,13 +108,13 @@ public class FreeIdKeeper implements Closeable
         }
         else if ( readFromDisk.size() > 0 )
         {
-            result = readFromDisk.removeFirst();
+            result = readFromDisk.poll();
             defraggedIdCount--;
         }
         else if ( defraggedIdCount > 0 && canReadMoreIdBatches() )
         {
             readIdBatch();
-            result = readFromDisk.removeFirst();
+            result = readFromDisk.poll();
             defraggedIdCount--;
         }
         else
@@ -184,9 +190,9 @@ public class FreeIdKeeper implements Closeable
     {
         ByteBuffer writeBuffer = ByteBuffer.allocate( threshold * ID_ENTRY_SIZE );
         writeIdBatch( writeBuffer );
-        while ( !readFromDisk.isEmpty() )
+        while ( readFromDisk.size() > 0 )
         {
-            freeIds.add( readFromDisk.removeFirst() );
+            freeIds.add( readFromDisk.poll() );
         }
         writeIdBatch( writeBuffer );
         defragReusableIdsInFile( writeBuffer );
@@ -204,9 +210,9 @@ public class FreeIdKeeper implements Closeable
             // position at end
             positionChannel( channel.size() );
             writeBuffer.clear();
-            while ( !freeIds.isEmpty() )
+            while ( freeIds.size() > 0 )
             {
-                long id = freeIds.removeFirst();
+                long id = freeIds.poll();
                 if ( id == NO_RESULT )
                 {
                     continue;
@@ -258,37 +264,132 @@ public class FreeIdKeeper implements Closeable
     // TODO make this a nice, cosy, reusable visitor instead?
     public synchronized void dumpFreeIds() throws IOException
     {
-        while ( canReadMoreIdBatches() )
+        freeIds.print();
+        readFromDisk.print();
+        ByteBuffer readBuffer = ByteBuffer.allocate( threshold * ID_ENTRY_SIZE );
+        for ( long position = readPosition; position < channel.size(); position += readBuffer.limit() )
         {
-            readIdBatch();
+            readBuffer.clear();
+            positionChannel( position );
+            readFully( readBuffer );
+            while ( readBuffer.hasRemaining() )
+            {
+                System.out.print( " " + readBuffer.getLong() );
+            }
         }
-        for ( Long id : freeIds )
+        close();
+    }
+
+    /*
+     * Removes the ids that have been read, from the front of the file, by moving ids from the end of the file into
+     * their place and truncating the file. This makes the cost of closing proportional to the number of ids that
+     * were read, rather than to the number of ids left in the file.
+     */
+    private void defragReusableIdsInFile( ByteBuffer buffer ) throws IOException
+    {
+        long readBytes = readPosition - lowWatermarkForChannelPosition;
+        if ( readBytes > 0 )
         {
-            System.out.print( " " + id );
+            long size = channel.size();
+            long remainingBytes = size - readPosition;
+            long bytesToMove = Math.min( readBytes, remainingBytes );
+            long from = size - bytesToMove;
+            long to = lowWatermarkForChannelPosition;
+            while ( from < size )
+            {
+                buffer.clear();
+                buffer.limit( (int) Math.min( buffer.capacity(), size - from ) );
+                positionChannel( from );
+                from += readFully( buffer );
+                positionChannel( to );
+                while ( buffer.hasRemaining() )
+                {
+                    to += channel.write( buffer );
+                }
+            }
+            channel.truncate( lowWatermarkForChannelPosition + remainingBytes );
         }
-        close();
     }
 
-    private void defragReusableIdsInFile( ByteBuffer writeBuffer ) throws IOException
+    /*
+     * Reads from the current position of the channel until the buffer is full, and flips it.
+     */
+    private int readFully( ByteBuffer buffer ) throws IOException
     {
-        if ( readPosition > lowWatermarkForChannelPosition )
+        int bytesRead = 0;
+        while ( buffer.hasRemaining() )
+        {
+            int read = channel.read( buffer );
+            if ( read == -1 )
+            {
+                break;
+            }
+            bytesRead += read;
+        }
+        buffer.flip();
+        return bytesRead;
+    }
+
+    /**
+     * First in, first out queue of ids, that holds up to a batch of ids without boxing them. It starts out small,
+     * and grows as needed.
+     */
+    private static class IdQueue
+    {
+        private final int maxSize;
+        private long[] ids;
+        private int head;
+        private int size;
+
+        IdQueue( int maxSize )
+        {
+            this.maxSize = maxSize;
+            this.ids = new long[Math.min( maxSize, 64 )];
+        }
+
+        void add( long id )
+        {
+            if ( size == ids.length )
+            {
+                grow();
+            }
+            ids[(head + size++) % ids.length] = id;
+        }
+
+        long poll()
+        {
+            long id = ids[head];
+            head = (head + 1) % ids.length;
+            size--;
+            return id;
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        private void grow()
+        {
+            if ( size >= maxSize )
+            {
+                throw new IllegalStateException( "Can't hold more than " + maxSize + " ids" );
+            }
+            long[] grown = new long[(int) Math.min( maxSize, ids.length * 2L )];
+            for ( int i = 0; i < size; i++ )
+            {
+                grown[i] = ids[(head + i) % ids.length];
+            }
+            ids = grown;
+            head = 0;
+        }
+
+        void print()
         {
-            long writePosition = lowWatermarkForChannelPosition;
-            long position = Math.min( readPosition, maxReadPosition );
-            int bytesRead;
-            do
+            for ( int i = 0; i < size; i++ )
             {
-                writeBuffer.clear();
-                channel.position( position );
-                bytesRead = channel.read( writeBuffer );
-                position += bytesRead;
-                writeBuffer.flip();
-                channel.position( writePosition );
-                writePosition += channel.write( writeBuffer );
+                System.out.print( " " + ids[(head + i) % ids.length] );
             }
-            while ( bytesRead > 0 );
-            // truncate
-            channel.truncate( writePosition );
         }
     }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import org.neo4j.kernel.impl.store.id.validation.IdValidator;
+
+/**
+ * Wraps an {@link IdGenerator}, which is synchronized, so that concurrent threads can allocate and free ids without
+ * contending on it.
+ * <p>
+ * Threads are spread over a number of stripes, each with a lock of its own. A stripe reserves a batch of ids at a
+ * time from the wrapped generator, with {@link IdGenerator#nextIdBatch(int)}, and hands them out one by one. Freed
+ * ids are gathered in the stripe too, and handed to the wrapped generator a batch at a time, which takes care of
+ * whether, and when, they are reused.
+ * <p>
+ * Ids that are reserved by a stripe but not handed out are freed when this generator is closed. Until then, the
+ * high id is up to one batch per stripe higher than it would otherwise be.
+ */
+class StripedIdGenerator extends IdGenerator.Delegate
+{
+    private final IdGenerator delegate;
+    private final int batchSize;
+    private final long maxId;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private volatile boolean closed;
+
+    StripedIdGenerator( IdGenerator delegate, int batchSize, long maxId, int numberOfStripes )
+    {
+        super( delegate );
+        if ( Integer.bitCount( numberOfStripes ) != 1 )
+        {
+            throw new IllegalArgumentException( "Number of stripes must be a power of two, was " + numberOfStripes );
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.maxId = maxId;
+        this.stripes = new Stripe[numberOfStripes];
+        for ( int i = 0; i < numberOfStripes; i++ )
+        {
+            stripes[i] = new Stripe( batchSize );
+        }
+        this.stripeMask = numberOfStripes - 1;
+    }
+
+    /**
+     * @return a suitable number of stripes for the number of processors on this machine.
+     */
+    static int defaultNumberOfStripes()
+    {
+        return Integer.highestOneBit( Runtime.getRuntime().availableProcessors() * 4 - 1 );
+    }
+
+    @Override
+    public long nextId()
+    {
+        Stripe stripe = stripe();
+        synchronized ( stripe )
+        {
+            long id = stripe.nextId();
+            if ( id == Stripe.NO_ID )
+            {
+                refill( stripe );
+                id = stripe.nextId();
+            }
+            // Close to the max id there's no room for a batch, so from there on ids are allocated one at a time
+            return id != Stripe.NO_ID ? id : delegate.nextId();
+        }
+    }
+
+    private void refill( Stripe stripe )
+    {
+        stripe.flushFreedIds( delegate );
+        if ( delegate.getHighId() + batchSize <= maxId )
+        {
+            stripe.assign( delegate.nextIdBatch( batchSize ) );
+        }
+    }
+
+    @Override
+    public void freeId( long id )
+    {
+        if ( IdValidator.isReservedId( id ) )
+        {
+            return;
+        }
+        if ( closed )
+        {
+            throw new IllegalStateException( "Generator closed " + this );
+        }
+        long highId = delegate.getHighId();
+        if ( id < 0 || id >= highId )
+        {
+            throw new IllegalArgumentException( "Illegal id[" + id + "], highId is " + highId );
+        }
+
+        Stripe stripe = stripe();
+        synchronized ( stripe )
+        {
+            if ( stripe.addFreedId( id ) )
+            {
+                stripe.flushFreedIds( delegate );
+            }
+        }
+    }
+
+    /**
+     * Sets the high id of the wrapped generator. The ids that the stripes have reserved, but not handed out, are
+     * forgotten rather than freed, since the new high id means that ids were allocated elsewhere.
+     */
+    @Override
+    public void setHighId( long id )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.flushFreedIds( delegate );
+            }
+        }
+        delegate.setHighId( id );
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.clear();
+            }
+        }
+    }
+
+    @Override
+    public long getNumberOfIdsInUse()
+    {
+        return delegate.getNumberOfIdsInUse() - unusedIdsInStripes();
+    }
+
+    @Override
+    public long getDefragCount()
+    {
+        return delegate.getDefragCount() + unusedIdsInStripes();
+    }
+
+    private long unusedIdsInStripes()
+    {
+        long count = 0;
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                count += stripe.unusedIds();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Frees the ids that the stripes have reserved but not handed out, and closes the wrapped generator.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.release( delegate );
+            }
+        }
+        delegate.close();
+    }
+
+    @Override
+    public void delete()
+    {
+        closed = true;
+        for ( Stripe stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                stripe.clear();
+            }
+        }
+        delegate.delete();
+    }
+
+    private Stripe stripe()
+    {
+        return stripes[(int) Thread.currentThread().getId() & stripeMask];
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StripedIdGenerator[" + delegate + ", batchSize=" + batchSize + ", stripes=" + stripes.length + "]";
+    }
+
+    /**
+     * Ids reserved by, and freed through, one stripe. Guarded by its own monitor.
+     */
+    private static final class Stripe
+    {
+        static final long NO_ID = -1;
+        private static final long[] NO_IDS = new long[0];
+
+        private long[] defragIds = NO_IDS;
+        private int defragIndex;
+        private long nextRangeId;
+        private long rangeEnd;
+        private final long[] freedIds;
+        private int freedCount;
+
+        Stripe( int batchSize )
+        {
+            this.freedIds = new long[batchSize];
+        }
+
+        long nextId()
+        {
+            if ( defragIndex < defragIds.length )
+            {
+                return defragIds[defragIndex++];
+            }
+            while ( nextRangeId < rangeEnd )
+            {
+                long id = nextRangeId++;
+                if ( !IdValidator.isReservedId( id ) )
+                {
+                    return id;
+                }
+            }
+            return NO_ID;
+        }
+
+        void assign( IdRange range )
+        {
+            defragIds = range.getDefragIds();
+            defragIndex = 0;
+            nextRangeId = range.getRangeStart();
+            rangeEnd = nextRangeId + range.getRangeLength();
+        }
+
+        /**
+         * @return {@code true} if there's no room for more freed ids, and they should be flushed.
+         */
+        boolean addFreedId( long id )
+        {
+            freedIds[freedCount++] = id;
+            return freedCount == freedIds.length;
+        }
+
+        void flushFreedIds( IdGenerator target )
+        {
+            for ( int i = 0; i < freedCount; i++ )
+            {
+                target.freeId( freedIds[i] );
+            }
+            freedCount = 0;
+        }
+
+        long unusedIds()
+        {
+            return (defragIds.length - defragIndex) + (rangeEnd - nextRangeId) + freedCount;
+        }
+
+        void release( IdGenerator target )
+        {
+            flushFreedIds( target );
+            long id;
+            while ( (id = nextId()) != NO_ID )
+            {
+                target.freeId( id );
+            }
+        }
+
+        void clear()
+        {
+            defragIds = NO_IDS;
+            defragIndex = 0;
+            nextRangeId = rangeEnd = 0;
+            freedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.io.File;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Wraps the {@link IdGenerator id generators} of the id types that are allocated at a high rate by concurrent
+ * transactions in {@link StripedIdGenerator striped id generators}, so that allocating those ids doesn't contend on
+ * one lock.
+ */
+public class StripedIdGeneratorFactory implements IdGeneratorFactory
+{
+    private static final Set<IdType> STRIPED_TYPES = EnumSet.of( IdType.NODE, IdType.RELATIONSHIP,
+            IdType.RELATIONSHIP_GROUP, IdType.PROPERTY, IdType.STRING_BLOCK, IdType.ARRAY_BLOCK, IdType.NODE_LABELS );
+
+    private final StripedIdGenerator[/*IdType#ordinal as key*/] stripedIdGenerators =
+            new StripedIdGenerator[IdType.values().length];
+    private final IdGeneratorFactory delegate;
+    private final int batchSize;
+    private final int numberOfStripes;
+
+    public StripedIdGeneratorFactory( IdGeneratorFactory delegate, int batchSize )
+    {
+        this( delegate, batchSize, StripedIdGenerator.defaultNumberOfStripes() );
+    }
+
+    public StripedIdGeneratorFactory( IdGeneratorFactory delegate, int batchSize, int numberOfStripes )
+    {
+        if ( batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Illegal batch size: " + batchSize );
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.numberOfStripes = numberOfStripes;
+    }
+
+    @Override
+    public IdGenerator open( File filename, IdType idType, long highId, long maxId )
+    {
+        return striped( delegate.open( filename, idType, highId, maxId ), idType, maxId );
+    }
+
+    @Override
+    public IdGenerator open( File filename, int grabSize, IdType idType, long highId, long maxId )
+    {
+        return striped( delegate.open( filename, grabSize, idType, highId, maxId ), idType, maxId );
+    }
+
+    private IdGenerator striped( IdGenerator generator, IdType idType, long maxId )
+    {
+        if ( !STRIPED_TYPES.contains( idType ) )
+        {
+            stripedIdGenerators[idType.ordinal()] = null;
+            return generator;
+        }
+        StripedIdGenerator stripedGenerator = new StripedIdGenerator( generator, batchSize, maxId, numberOfStripes );
+        stripedIdGenerators[idType.ordinal()] = stripedGenerator;
+        return stripedGenerator;
+    }
+
+    @Override
+    public void create( File filename, long highId, boolean throwIfFileExists )
+    {
+        delegate.create( filename, highId, throwIfFileExists );
+    }
+
+    @Override
+    public IdGenerator get( IdType idType )
+    {
+        IdGenerator generator = stripedIdGenerators[idType.ordinal()];
+        return generator != null ? generator : delegate.get( idType );
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * An open addressing hash table of fixed size keys and values, kept in native memory. Keys and values are stored
+ * as the raw bytes of their serialized form, so no objects are kept on the heap per entry.
+ * <p>
+ * Lookups and updates may be performed concurrently. Updates of the value of an entry are serialized by a lock
+ * striped on the hash of the key, new entries are inserted under a single insert lock, and growing the table
+ * excludes all other access. Entries are never removed.
+ */
+final class OffHeapEntryTable
+{
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int LOCK_STRIPES = 64;
+    private static final int USED = 1;
+    private static final int HEADER_SIZE = Long.BYTES;
+
+    private final int keySize;
+    private final int valueSize;
+    private final int entrySize;
+    private final StampedLock tableLock = new StampedLock();
+    private final Object insertLock = new Object();
+    private final Object[] stripes = new Object[LOCK_STRIPES];
+    private long address;
+    private int capacity;
+    private volatile int size;
+
+    OffHeapEntryTable( int keySize, int valueSize )
+    {
+        this.keySize = keySize;
+        this.valueSize = valueSize;
+        // Each entry is a used flag followed by the key and the value, aligned to whole longs
+        this.entrySize = (HEADER_SIZE + keySize + valueSize + Long.BYTES - 1) & ~(Long.BYTES - 1);
+        for ( int i = 0; i < stripes.length; i++ )
+        {
+            stripes[i] = new Object();
+        }
+        this.address = allocate( INITIAL_CAPACITY );
+        this.capacity = INITIAL_CAPACITY;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Copies the value of the given key into {@code value}.
+     *
+     * @return {@code true} if the table has an entry for the key, otherwise {@code false}.
+     */
+    boolean lookup( byte[] key, byte[] value )
+    {
+        long hash = hash( key );
+        long stamp = tableLock.readLock();
+        try
+        {
+            long entry = find( key, hash );
+            if ( entry == 0 )
+            {
+                return false;
+            }
+            synchronized ( stripe( hash ) )
+            {
+                read( entry + HEADER_SIZE + keySize, value, valueSize );
+            }
+            return true;
+        }
+        finally
+        {
+            tableLock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * Applies the update to the value of the given key, if the table has an entry for it.
+     *
+     * @return {@code true} if the update was applied, otherwise {@code false}.
+     */
+    boolean applyIfPresent( byte[] key, BigEndianByteArrayBuffer scratch, boolean reset, ValueUpdate update )
+    {
+        long hash = hash( key );
+        long stamp = tableLock.readLock();
+        try
+        {
+            long entry = find( key, hash );
+            if ( entry == 0 )
+            {
+                return false;
+            }
+            apply( entry, hash, scratch, reset, update );
+            return true;
+        }
+        finally
+        {
+            tableLock.unlockRead( stamp );
+        }
+    }
+
+    /**
+     * Inserts an entry for the given key with the given initial value, unless another thread has inserted one
+     * since the key was looked up, and then applies the update to the value of the entry.
+     */
+    void insertAndApply( byte[] key, byte[] initialValue, BigEndianByteArrayBuffer scratch, boolean reset,
+            ValueUpdate update )
+    {
+        long hash = hash( key );
+        while ( true )
+        {
+            long stamp = tableLock.readLock();
+            try
+            {
+                long entry = findOrInsert( key, hash, initialValue );
+                if ( entry != 0 )
+                {
+                    apply( entry, hash, scratch, reset, update );
+                    return;
+                }
+            }
+            finally
+            {
+                tableLock.unlockRead( stamp );
+            }
+            grow();
+        }
+    }
+
+    /**
+     * Visits all entries in ascending key order, as compared by {@link BigEndianByteArrayBuffer#compareTo(byte[])}.
+     * The entries are copied, in order, into native memory owned by the returned provider, which frees it when it is
+     * closed. The provider is thus a snapshot, which is not affected by the table growing or being closed.
+     */
+    DataProvider sortedEntries()
+    {
+        long stamp = tableLock.readLock();
+        try
+        {
+            ensureOpen();
+            int[] slots = new int[size];
+            int count = 0;
+            for ( int slot = 0; slot < capacity; slot++ )
+            {
+                if ( UnsafeUtil.getIntVolatile( entry( slot ) ) == USED )
+                {
+                    if ( count == slots.length )
+                    {
+                        slots = Arrays.copyOf( slots, count * 2 + 1 );
+                    }
+                    slots[count++] = slot;
+                }
+            }
+            sort( slots, 0, count - 1 );
+            int dataSize = keySize + valueSize;
+            long copy = UnsafeUtil.allocateMemory( Math.max( (long) count * dataSize, 1 ) );
+            for ( int i = 0; i < count; i++ )
+            {
+                long entry = entry( slots[i] );
+                long target = copy + (long) i * dataSize;
+                UnsafeUtil.copyMemory( entry + HEADER_SIZE, target, keySize );
+                // Values are updated under their lock stripe, so copy them under it as well to not see torn values
+                synchronized ( stripe( hash( entry + HEADER_SIZE ) ) )
+                {
+                    UnsafeUtil.copyMemory( entry + HEADER_SIZE + keySize, target + keySize, valueSize );
+                }
+            }
+            return new SortedEntries( copy, count );
+        }
+        finally
+        {
+            tableLock.unlockRead( stamp );
+        }
+    }
+
+    void close()
+    {
+        long stamp = tableLock.writeLock();
+        try
+        {
+            if ( address != 0 )
+            {
+                UnsafeUtil.free( address );
+                address = 0;
+                capacity = 0;
+            }
+        }
+        finally
+        {
+            tableLock.unlockWrite( stamp );
+        }
+    }
+
+    private void apply( long entry, long hash, BigEndianByteArrayBuffer scratch, boolean reset, ValueUpdate update )
+    {
+        long value = entry + HEADER_SIZE + keySize;
+        synchronized ( stripe( hash ) )
+        {
+            if ( reset )
+            {
+                scratch.clear();
+            }
+            else
+            {
+                read( value, scratch.buffer, valueSize );
+            }
+            update.update( scratch );
+            write( scratch.buffer, value, valueSize );
+        }
+    }
+
+    /**
+     * @return the address of the entry for the key, or {@code 0} if there is no entry for the key.
+     */
+    private long find( byte[] key, long hash )
+    {
+        ensureOpen();
+        int mask = capacity - 1;
+        for ( int slot = (int) hash & mask; ; slot = (slot + 1) & mask )
+        {
+            long entry = entry( slot );
+            if ( UnsafeUtil.getIntVolatile( entry ) != USED )
+            {
+                return 0;
+            }
+            if ( keyEquals( entry + HEADER_SIZE, key ) )
+            {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * @return the address of the entry for the key, or {@code 0} if the table needs to grow before the key can be
+     * inserted.
+     */
+    private long findOrInsert( byte[] key, long hash, byte[] initialValue )
+    {
+        synchronized ( insertLock )
+        {
+            long entry = find( key, hash );
+            if ( entry != 0 )
+            {
+                return entry;
+            }
+            if ( size + 1 > maxSize( capacity ) )
+            {
+                return 0;
+            }
+            int mask = capacity - 1;
+            int slot = (int) hash & mask;
+            while ( UnsafeUtil.getIntVolatile( entry( slot ) ) == USED )
+            {
+                slot = (slot + 1) & mask;
+            }
+            entry = entry( slot );
+            write( key, entry + HEADER_SIZE, keySize );
+            write( initialValue, entry + HEADER_SIZE + keySize, valueSize );
+            // Publish the entry to concurrent lookups only once its key and value are in place
+            UnsafeUtil.putIntVolatile( entry, USED );
+            size++;
+            return entry;
+        }
+    }
+
+    private void grow()
+    {
+        long stamp = tableLock.writeLock();
+        try
+        {
+            ensureOpen();
+            if ( size + 1 <= maxSize( capacity ) )
+            {
+                return; // someone else grew the table while we waited for the lock
+            }
+            int newCapacity = capacity << 1;
+            long newAddress = allocate( newCapacity );
+            int mask = newCapacity - 1;
+            byte[] key = new byte[keySize];
+            for ( int slot = 0; slot < capacity; slot++ )
+            {
+                long entry = entry( slot );
+                if ( UnsafeUtil.getInt( entry ) == USED )
+                {
+                    read( entry + HEADER_SIZE, key, keySize );
+                    int newSlot = (int) hash( key ) & mask;
+                    while ( UnsafeUtil.getInt( newAddress + (long) newSlot * entrySize ) == USED )
+                    {
+                        newSlot = (newSlot + 1) & mask;
+                    }
+                    UnsafeUtil.copyMemory( entry, newAddress + (long) newSlot * entrySize, entrySize );
+                }
+            }
+            UnsafeUtil.free( address );
+            address = newAddress;
+            capacity = newCapacity;
+        }
+        finally
+        {
+            tableLock.unlockWrite( stamp );
+        }
+    }
+
+    private long allocate( int capacity )
+    {
+        long bytes = (long) capacity * entrySize;
+        long pointer = UnsafeUtil.allocateMemory( bytes );
+        UnsafeUtil.setMemory( pointer, bytes, (byte) 0 );
+        return pointer;
+    }
+
+    private static int maxSize( int capacity )
+    {
+        return capacity - (capacity >>> 2);
+    }
+
+    private void ensureOpen()
+    {
+        if ( address == 0 )
+        {
+            throw new IllegalStateException( "This table has been closed" );
+        }
+    }
+
+    private long entry( int slot )
+    {
+        return address + (long) slot * entrySize;
+    }
+
+    private Object stripe( long hash )
+    {
+        return stripes[(int) (hash >>> 32) & (LOCK_STRIPES - 1)];
+    }
+
+    private boolean keyEquals( long address, byte[] key )
+    {
+        for ( int i = 0; i < keySize; i++ )
+        {
+            if ( UnsafeUtil.getByte( address + i ) != key[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int compareKeys( int slot, int otherSlot )
+    {
+        long key = entry( slot ) + HEADER_SIZE;
+        long otherKey = entry( otherSlot ) + HEADER_SIZE;
+        for ( int i = 0; i < keySize; i++ )
+        {
+            int cmp = (UnsafeUtil.getByte( key + i ) & 0xFF) - (UnsafeUtil.getByte( otherKey + i ) & 0xFF);
+            if ( cmp != 0 )
+            {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    private void sort( int[] slots, int low, int high )
+    {
+        while ( low < high )
+        {
+            int pivot = slots[(low + high) >>> 1];
+            int i = low, j = high;
+            while ( i <= j )
+            {
+                while ( compareKeys( slots[i], pivot ) < 0 )
+                {
+                    i++;
+                }
+                while ( compareKeys( slots[j], pivot ) > 0 )
+                {
+                    j--;
+                }
+                if ( i <= j )
+                {
+                    int tmp = slots[i];
+                    slots[i++] = slots[j];
+                    slots[j--] = tmp;
+                }
+            }
+            // Recurse into the smaller part, to keep the stack shallow
+            if ( j - low < high - i )
+            {
+                sort( slots, low, j );
+                low = i;
+            }
+            else
+            {
+                sort( slots, i, high );
+                high = j;
+            }
+        }
+    }
+
+    private static long hash( byte[] key )
+    {
+        long hash = 0;
+        for ( byte b : key )
+        {
+            hash = hash * 31 + (b & 0xFF);
+        }
+        return mix( hash );
+    }
+
+    private long hash( long keyAddress )
+    {
+        long hash = 0;
+        for ( int i = 0; i < keySize; i++ )
+        {
+            hash = hash * 31 + (UnsafeUtil.getByte( keyAddress + i ) & 0xFF);
+        }
+        return mix( hash );
+    }
+
+    private static long mix( long hash )
+    {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static void read( long address, byte[] target, int length )
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            target[i] = UnsafeUtil.getByte( address + i );
+        }
+    }
+
+    private static void write( byte[] source, long address, int length )
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            UnsafeUtil.putByte( address + i, source[i] );
+        }
+    }
+
+    private class SortedEntries implements DataProvider
+    {
+        private final int count;
+        private final byte[] scratch = new byte[Math.max( keySize, valueSize )];
+        private long address;
+        private int i;
+
+        SortedEntries( long address, int count )
+        {
+            this.address = address;
+            this.count = count;
+        }
+
+        @Override
+        public boolean visit( WritableBuffer key, WritableBuffer value ) throws IOException
+        {
+            if ( address != 0 && i < count )
+            {
+                long entry = address + (long) i++ * (keySize + valueSize);
+                key.put( 0, copy( entry, keySize ) );
+                value.put( 0, copy( entry + keySize, valueSize ) );
+                return true;
+            }
+            return false;
+        }
+
+        private byte[] copy( long address, int length )
+        {
+            byte[] bytes = length == scratch.length ? scratch : new byte[length];
+            read( address, bytes, length );
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( address != 0 )
+            {
+                UnsafeUtil.free( address );
+                address = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Same as {@link ConcurrentMapState}, but keeps the changes in an {@link OffHeapEntryTable}, keyed by the serialized
+ * form of the keys, rather than in a map of key objects to byte arrays on the heap. This keeps the size of the heap
+ * independent of the number of changed keys, and lets rotation sort the changes without copying them.
+ */
+class OffHeapMapState<Key> extends ActiveState<Key>
+{
+    private final OffHeapEntryTable changes;
+    private final File file;
+    private final AtomicLong highestAppliedVersion;
+    private final AtomicLong appliedChanges;
+    private final AtomicBoolean hasTrackedChanges;
+    private final long previousVersion;
+
+    OffHeapMapState( ReadableState<Key> store, File file )
+    {
+        super( store );
+        this.previousVersion = store.version();
+        this.file = file;
+        this.highestAppliedVersion = new AtomicLong( previousVersion );
+        this.changes = new OffHeapEntryTable( store.keyFormat().keySize(), store.keyFormat().valueSize() );
+        this.appliedChanges = new AtomicLong();
+        hasTrackedChanges = new AtomicBoolean();
+    }
+
+    private OffHeapMapState( Prototype<Key> prototype, ReadableState<Key> store, File file )
+    {
+        super( store );
+        this.previousVersion = store.version();
+        this.file = file;
+        this.hasTrackedChanges = prototype.hasTrackedChanges;
+        this.changes = prototype.changes;
+        this.highestAppliedVersion = prototype.highestAppliedVersion;
+        this.appliedChanges = prototype.appliedChanges;
+    }
+
+    @Override
+    public String toString()
+    {
+        return super.toString() + "[" + file + "]";
+    }
+
+    @Override
+    public EntryUpdater<Key> updater( long version, Lock lock )
+    {
+        if ( version <= previousVersion )
+        {
+            return EntryUpdater.noUpdates();
+        }
+        update( highestAppliedVersion, version );
+        hasTrackedChanges.set( true );
+        return new Updater<>( lock, store, changes, appliedChanges );
+    }
+
+    @Override
+    public EntryUpdater<Key> unsafeUpdater( Lock lock )
+    {
+        hasTrackedChanges.set( true );
+        return new Updater<>( lock, store, changes, null );
+    }
+
+    private static class Updater<Key> extends EntryUpdater<Key>
+    {
+        private AtomicLong changeCounter;
+        private final ReadableState<Key> store;
+        private final OffHeapEntryTable changes;
+        private final byte[] key;
+        private final BigEndianByteArrayBuffer value;
+
+        Updater( Lock lock, ReadableState<Key> store, OffHeapEntryTable changes, AtomicLong changeCounter )
+        {
+            super( lock );
+            this.changeCounter = changeCounter;
+            this.store = store;
+            this.changes = changes;
+            this.key = new byte[store.keyFormat().keySize()];
+            this.value = new BigEndianByteArrayBuffer( store.keyFormat().valueSize() );
+        }
+
+        @Override
+        public void apply( Key key, ValueUpdate update ) throws IOException
+        {
+            ensureOpenOnSameThread();
+            applyUpdate( store, changes, key, this.key, value, update, false );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( changeCounter != null )
+            {
+                changeCounter.incrementAndGet();
+                changeCounter = null;
+            }
+            super.close();
+        }
+    }
+
+    @Override
+    protected long storedVersion()
+    {
+        return previousVersion;
+    }
+
+    @Override
+    protected EntryUpdater<Key> resettingUpdater( Lock lock, final Runnable closeAction )
+    {
+        if ( hasChanges() )
+        {
+            throw new IllegalStateException( "Cannot reset when there are changes!" );
+        }
+        final byte[] keyScratch = new byte[keyFormat().keySize()];
+        final BigEndianByteArrayBuffer valueScratch = new BigEndianByteArrayBuffer( keyFormat().valueSize() );
+        return new EntryUpdater<Key>( lock )
+        {
+            @Override
+            public void apply( Key key, ValueUpdate update ) throws IOException
+            {
+                ensureOpen();
+                applyUpdate( store, changes, key, keyScratch, valueScratch, update, true );
+            }
+
+            @Override
+            public void close()
+            {
+                try
+                {
+                    closeAction.run();
+                }
+                finally
+                {
+                    super.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected PrototypeState<Key> prototype( long version )
+    {
+        return new Prototype<>( this, version );
+    }
+
+    static <Key> void applyUpdate( ReadableState<Key> store, OffHeapEntryTable changes, Key key, byte[] keyScratch,
+            BigEndianByteArrayBuffer valueScratch, ValueUpdate update, boolean reset ) throws IOException
+    {
+        store.keyFormat().writeKey( key, new BigEndianByteArrayBuffer( keyScratch ) );
+        if ( changes.applyIfPresent( keyScratch, valueScratch, reset, update ) )
+        {
+            return;
+        }
+        // The stored value is read before inserting, to not hold the insert lock of the table while reading it.
+        // Should some other thread insert the same key in the meantime, our initial value is simply not used.
+        byte[] initialValue = new byte[store.keyFormat().valueSize()];
+        if ( !reset )
+        {
+            store.lookup( key, new PreviousValue( initialValue ) );
+        }
+        changes.insertAndApply( keyScratch, initialValue, valueScratch, reset, update );
+    }
+
+    private static void update( AtomicLong highestAppliedVersion, long version )
+    {
+        for ( long high; ; )
+        {
+            high = highestAppliedVersion.get();
+            if ( version <= high )
+            {
+                return;
+            }
+            if ( highestAppliedVersion.compareAndSet( high, version ) )
+            {
+                return;
+            }
+        }
+    }
+
+    private static class Prototype<Key> extends PrototypeState<Key>
+    {
+        final OffHeapEntryTable changes;
+        final AtomicLong highestAppliedVersion, appliedChanges = new AtomicLong();
+        final AtomicBoolean hasTrackedChanges;
+        private final long threshold;
+
+        Prototype( OffHeapMapState<Key> state, long version )
+        {
+            super( state );
+            threshold = version;
+            hasTrackedChanges = new AtomicBoolean();
+            this.highestAppliedVersion = new AtomicLong( version );
+            this.changes = new OffHeapEntryTable( state.keyFormat().keySize(), state.keyFormat().valueSize() );
+        }
+
+        @Override
+        protected ActiveState<Key> create( ReadableState<Key> sub, File file )
+        {
+            return new OffHeapMapState<>( this, sub, file );
+        }
+
+        @Override
+        protected EntryUpdater<Key> updater( long version, Lock lock )
+        {
+            update( highestAppliedVersion, version );
+            if ( version > threshold )
+            {
+                hasTrackedChanges.set( true );
+                return new Updater<>( lock, store, changes, appliedChanges );
+            }
+            else
+            {
+                return new Updater<>( lock, store, changes, null );
+            }
+        }
+
+        @Override
+        protected EntryUpdater<Key> unsafeUpdater( Lock lock )
+        {
+            hasTrackedChanges.set( true );
+            return new Updater<>( lock, store, changes, null );
+        }
+
+        @Override
+        protected boolean hasChanges()
+        {
+            return hasTrackedChanges.get() && changes.size() > 0;
+        }
+
+        @Override
+        protected long version()
+        {
+            return highestAppliedVersion.get();
+        }
+
+        @Override
+        protected boolean lookup( Key key, ValueSink sink ) throws IOException
+        {
+            return performLookup( store, changes, key, sink );
+        }
+
+        @Override
+        protected DataProvider dataProvider() throws IOException
+        {
+            return OffHeapMapState.dataProvider( store, changes );
+        }
+    }
+
+    private static class PreviousValue extends ValueSink
+    {
+        private final byte[] proposal;
+
+        PreviousValue( byte[] proposal )
+        {
+            this.proposal = proposal;
+        }
+
+        @Override
+        protected void value( ReadableBuffer value )
+        {
+            value.get( 0, proposal );
+        }
+    }
+
+    @Override
+    protected long version()
+    {
+        return highestAppliedVersion.get();
+    }
+
+    @Override
+    protected long applied()
+    {
+        return appliedChanges.get();
+    }
+
+    @Override
+    protected boolean hasChanges()
+    {
+        return hasTrackedChanges.get() && changes.size() > 0;
+    }
+
+    @Override
+    protected void close() throws IOException
+    {
+        try
+        {
+            store.close();
+        }
+        finally
+        {
+            changes.close();
+        }
+    }
+
+    @Override
+    protected File file()
+    {
+        return file;
+    }
+
+    @Override
+    protected Factory factory()
+    {
+        return State.Strategy.OFF_HEAP_HASH_MAP;
+    }
+
+    @Override
+    protected boolean lookup( Key key, ValueSink sink ) throws IOException
+    {
+        return performLookup( store, changes, key, sink );
+    }
+
+    private static <Key> boolean performLookup( ReadableState<Key> store, OffHeapEntryTable changes,
+                                                Key key, ValueSink sink ) throws IOException
+    {
+        KeyFormat<Key> keys = store.keyFormat();
+        byte[] keyBytes = new byte[keys.keySize()];
+        keys.writeKey( key, new BigEndianByteArrayBuffer( keyBytes ) );
+        byte[] value = new byte[keys.valueSize()];
+        if ( changes.lookup( keyBytes, value ) )
+        {
+            sink.value( new BigEndianByteArrayBuffer( value ) );
+            return true;
+        }
+        return store.lookup( key, sink );
+    }
+
+    /**
+     * This method is expected to be called under a lock preventing modification to the state.
+     */
+    @Override
+    public DataProvider dataProvider() throws IOException
+    {
+        return dataProvider( store, changes );
+    }
+
+    private static <Key> DataProvider dataProvider( ReadableState<Key> store, OffHeapEntryTable changes )
+            throws IOException
+    {
+        if ( changes.size() == 0 )
+        {
+            return store.dataProvider();
+        }
+        else
+        {
+            KeyFormat<Key> keys = store.keyFormat();
+            return new KeyValueMerger( store.dataProvider(), changes.sortedEntries(), keys.keySize(),
+                    keys.valueSize() );
+        }
+    }
+}
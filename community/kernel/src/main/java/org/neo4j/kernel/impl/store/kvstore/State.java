@@ -43,6 +43,14 @@ public @interface State
                 return new ConcurrentMapState<>( store, file );
             }
         },
+        OFF_HEAP_HASH_MAP
+        {
+            @Override
+            public <Key> ActiveState<Key> open( ReadableState<Key> store, File file )
+            {
+                return new OffHeapMapState<>( store, file );
+            }
+        },
         READ_ONLY_CONCURRENT_HASH_MAP
         {
             @Override
@@ -19,9 +19,15 @@
  */
 package org.neo4j.kernel.impl.store.record;
 
+import org.neo4j.kernel.impl.store.PropertyType;
+
 public abstract class PrimitiveRecord extends AbstractBaseRecord
 {
     protected long nextProp;
+    // Copy of the property blocks of the first property record in the chain, for record formats that inline them.
+    // This is derived data, which is maintained by the stores and never written to the transaction log.
+    private long[] inlinedPropertyBlocks;
+    private int numberOfInlinedPropertyBlocks;
 
     PrimitiveRecord( long id )
     {
@@ -40,12 +46,14 @@ public abstract class PrimitiveRecord extends AbstractBaseRecord
     {
         super.clear();
         nextProp = Record.NO_NEXT_PROPERTY.intValue();
+        numberOfInlinedPropertyBlocks = 0;
     }
 
     protected PrimitiveRecord initialize( boolean inUse, long nextProp )
     {
         super.initialize( inUse );
         this.nextProp = nextProp;
+        this.numberOfInlinedPropertyBlocks = 0;
         return this;
     }
 
@@ -59,5 +67,50 @@ public abstract class PrimitiveRecord extends AbstractBaseRecord
         this.nextProp = nextProp;
     }
 
+    /**
+     * @return whether or not this record carries an inlined copy of its property chain. If it does, then
+     * {@link #getInlinedPropertyBlocks()} holds all the property blocks of this record, and the property chain
+     * starting at {@link #getNextProp()} does not need to be visited to read them.
+     */
+    public boolean hasInlinedProperties()
+    {
+        return numberOfInlinedPropertyBlocks > 0;
+    }
+
+    public long[] getInlinedPropertyBlocks()
+    {
+        return inlinedPropertyBlocks;
+    }
+
+    public int getNumberOfInlinedPropertyBlocks()
+    {
+        return numberOfInlinedPropertyBlocks;
+    }
+
+    public void addInlinedPropertyBlock( long block )
+    {
+        if ( inlinedPropertyBlocks == null )
+        {
+            inlinedPropertyBlocks = new long[PropertyType.getPayloadSizeLongs()];
+        }
+        assert numberOfInlinedPropertyBlocks < inlinedPropertyBlocks.length :
+                "Capacity of " + inlinedPropertyBlocks.length + " exceeded";
+        inlinedPropertyBlocks[numberOfInlinedPropertyBlocks++] = block;
+    }
+
+    public void clearInlinedProperties()
+    {
+        numberOfInlinedPropertyBlocks = 0;
+    }
+
+    protected void copyInlinedPropertiesTo( PrimitiveRecord other )
+    {
+        other.numberOfInlinedPropertyBlocks = 0;
+        for ( int i = 0; i < numberOfInlinedPropertyBlocks; i++ )
+        {
+            other.addInlinedPropertyBlock( inlinedPropertyBlocks[i] );
+        }
+    }
+
     public abstract void setIdTo( PropertyRecord property );
 }
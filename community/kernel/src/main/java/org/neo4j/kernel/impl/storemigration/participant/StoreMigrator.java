@@ -98,6 +98,8 @@ import org.neo4j.unsafe.impl.batchimport.store.BatchingNeoStores;
 
 import static java.util.Arrays.asList;
 import static org.neo4j.kernel.impl.store.MetaDataStore.DEFAULT_NAME;
+import static org.neo4j.kernel.impl.store.format.Capability.COMPRESSED_DYNAMIC_VALUES;
+import static org.neo4j.kernel.impl.store.format.Capability.INLINE_PROPERTIES;
 import static org.neo4j.kernel.impl.store.format.Capability.VERSION_TRAILERS;
 import static org.neo4j.kernel.impl.store.format.RecordFormatSelector.selectForVersion;
 import static org.neo4j.kernel.impl.store.format.standard.MetaDataRecordFormat.FIELD_NOT_PRESENT;
@@ -371,8 +373,16 @@ public class StoreMigrator extends AbstractStoreMigrationParticipant
         prepareBatchImportMigration( storeDir, migrationDir, oldFormat, newFormat );
 
         boolean requiresDynamicStoreMigration = !newFormat.dynamic().equals( oldFormat.dynamic() );
-        boolean requiresPropertyMigration =
-                !newFormat.property().equals( oldFormat.property() ) || requiresDynamicStoreMigration;
+        // Migrating to a format that inlines properties needs the property chains to be rewritten by the importer,
+        // which also fills in the inlined copies as it writes the first record of every chain
+        boolean requiresPropertyInlining = newFormat.hasCapability( INLINE_PROPERTIES ) &&
+                                           !oldFormat.hasCapability( INLINE_PROPERTIES );
+        // Compressed values must be decompressed when migrating to a format that cannot have them
+        boolean requiresValueDecompression = oldFormat.hasCapability( COMPRESSED_DYNAMIC_VALUES ) &&
+                                             !newFormat.hasCapability( COMPRESSED_DYNAMIC_VALUES );
+        boolean requiresPropertyMigration = !newFormat.property().equals( oldFormat.property() ) ||
+                                            requiresDynamicStoreMigration || requiresPropertyInlining ||
+                                            requiresValueDecompression;
         File badFile = new File( storeDir, Configuration.BAD_FILE_NAME );
         try ( NeoStores legacyStore = instantiateLegacyStore( oldFormat, storeDir );
                 RecordCursors nodeInputCursors = new RecordCursors( legacyStore );
@@ -34,7 +34,7 @@ import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
  * @param <INPUT> type of {@link InputEntity}
  * @param <RECORD> type of {@link AbstractBaseRecord}
  */
-abstract class StoreScanAsInputIterable<INPUT extends InputEntity,RECORD extends AbstractBaseRecord>
+public abstract class StoreScanAsInputIterable<INPUT extends InputEntity,RECORD extends AbstractBaseRecord>
         implements InputIterable<INPUT>
 {
     private final RecordStore<RECORD> store;
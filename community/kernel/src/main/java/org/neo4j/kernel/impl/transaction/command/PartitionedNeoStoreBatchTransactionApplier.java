@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIntMap;
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.CommandVisitor;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.helpers.Exceptions.launderedException;
+
+/**
+ * Updates the {@link NeoStores} like {@link NeoStoreBatchTransactionApplier} does, but writes node, relationship,
+ * relationship group and property records on a number of threads, one for each partition. Only meant for
+ * {@link TransactionApplicationMode#RECOVERY recovery}, where nothing reads the store while transactions are
+ * applied, and so records are written without taking any locks from the {@link LockService}.
+ * <p>
+ * Commands are assigned to partitions by the entity that they belong to. Node and relationship commands go by their
+ * own id, property commands by the id of the node or relationship owning them, and relationship group commands by
+ * their own id. Each partition writes its commands in the order they were given to it, i.e. in transaction order,
+ * which means that all changes to an entity are applied in order while changes to different entities are applied
+ * concurrently. All other commands are applied by the calling thread.
+ * <p>
+ * Record ids are reused, so a record, or one of its dynamic records, may move from one entity to another in the
+ * same batch of transactions. Therefore the partition that last wrote each record is kept during the batch, and a
+ * command that writes a record last written by another partition waits for all partitions to complete their
+ * commands before it is handed to its own partition.
+ * <p>
+ * All records have been written when this applier has been closed.
+ */
+public class PartitionedNeoStoreBatchTransactionApplier extends BatchTransactionApplier.Adapter
+{
+    private static final int CHUNK_SIZE = 256;
+    private static final int QUEUED_CHUNKS_PER_PARTITION = 64;
+
+    // The kind of record is kept in the high bits of the keys of writtenRecords, record ids in the low bits
+    private static final int KIND_SHIFT = 58;
+    private static final long NODE = 0, DYNAMIC_LABEL = 1, RELATIONSHIP = 2, RELATIONSHIP_GROUP = 3, PROPERTY = 4,
+            STRING = 5, ARRAY = 6;
+
+    private final NeoStores neoStores;
+    private final CacheAccessBackDoor cacheAccess;
+    private final LockService lockService;
+    private final Partition[] partitions;
+    private final PrimitiveLongIntMap writtenRecords = Primitive.longIntMap();
+
+    public PartitionedNeoStoreBatchTransactionApplier( NeoStores neoStores, CacheAccessBackDoor cacheAccess,
+            LockService lockService, int numberOfPartitions )
+    {
+        this.neoStores = neoStores;
+        this.cacheAccess = cacheAccess;
+        this.lockService = lockService;
+        this.partitions = new Partition[numberOfPartitions];
+        for ( int i = 0; i < numberOfPartitions; i++ )
+        {
+            partitions[i] = new Partition( neoStores, i );
+            partitions[i].start();
+        }
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction )
+    {
+        throw new RuntimeException( "NeoStoreTransactionApplier requires a LockGroup" );
+    }
+
+    @Override
+    public TransactionApplier startTx( CommandsToApply transaction, LockGroup lockGroup ) throws IOException
+    {
+        return new PartitioningTransactionApplier( transaction.transactionId(), lockGroup );
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        try
+        {
+            awaitPartitions();
+        }
+        finally
+        {
+            for ( Partition partition : partitions )
+            {
+                partition.stopWhenDone();
+            }
+            for ( Partition partition : partitions )
+            {
+                partition.join();
+            }
+            writtenRecords.close();
+        }
+    }
+
+    private void dispatch( Command command, long entityId ) throws IOException
+    {
+        int partition = (int) (entityId % partitions.length);
+        if ( !claimRecords( command, partition ) )
+        {
+            // Some record of this command was last written by another partition. Let that write complete first,
+            // and since we don't know which of the partitions it is, let all of them complete
+            awaitPartitions();
+            claimRecords( command, partition );
+        }
+        try
+        {
+            partitions[partition].add( command );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while applying " + command, e );
+        }
+    }
+
+    private void awaitPartitions() throws IOException
+    {
+        CountDownLatch done = new CountDownLatch( partitions.length );
+        try
+        {
+            for ( Partition partition : partitions )
+            {
+                partition.flush();
+                partition.enqueue( done );
+            }
+            done.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while waiting for records to be written", e );
+        }
+        writtenRecords.clear();
+
+        for ( Partition partition : partitions )
+        {
+            if ( partition.failure != null )
+            {
+                throw launderedException( IOException.class, "Failed to write records", partition.failure );
+            }
+        }
+    }
+
+    /**
+     * Remembers that the given partition is the last one to write the records of the given command.
+     *
+     * @return {@code false} if any of the records were last written by another partition, otherwise {@code true}.
+     */
+    private boolean claimRecords( Command command, int partition )
+    {
+        if ( command instanceof Command.NodeCommand )
+        {
+            Command.NodeCommand nodeCommand = (Command.NodeCommand) command;
+            return claim( NODE, nodeCommand.getAfter(), partition ) &&
+                    claim( DYNAMIC_LABEL, nodeCommand.getAfter().getDynamicLabelRecords(), partition );
+        }
+        if ( command instanceof Command.RelationshipCommand )
+        {
+            return claim( RELATIONSHIP, ((Command.RelationshipCommand) command).getAfter(), partition );
+        }
+        if ( command instanceof Command.RelationshipGroupCommand )
+        {
+            return claim( RELATIONSHIP_GROUP, ((Command.RelationshipGroupCommand) command).getAfter(), partition );
+        }
+        PropertyRecord property = ((Command.PropertyCommand) command).getAfter();
+        boolean claimed = claim( PROPERTY, property, partition );
+        for ( PropertyBlock block : property )
+        {
+            if ( !block.isLight() )
+            {
+                claimed &= claimValueRecords( block.getValueRecords(), partition );
+            }
+        }
+        return claimed && claimValueRecords( property.getDeletedRecords(), partition );
+    }
+
+    private boolean claimValueRecords( List<DynamicRecord> records, int partition )
+    {
+        boolean claimed = true;
+        for ( DynamicRecord record : records )
+        {
+            claimed &= claim( record.getType() == PropertyType.STRING.intValue() ? STRING : ARRAY, record, partition );
+        }
+        return claimed;
+    }
+
+    private boolean claim( long kind, Iterable<DynamicRecord> records, int partition )
+    {
+        boolean claimed = true;
+        for ( DynamicRecord record : records )
+        {
+            claimed &= claim( kind, record, partition );
+        }
+        return claimed;
+    }
+
+    private boolean claim( long kind, AbstractBaseRecord record, int partition )
+    {
+        boolean claimed = claim( kind, record.getId(), partition );
+        if ( record.hasSecondaryUnitId() )
+        {
+            claimed &= claim( kind, record.getSecondaryUnitId(), partition );
+        }
+        return claimed;
+    }
+
+    private boolean claim( long kind, long id, int partition )
+    {
+        int previous = writtenRecords.put( (kind << KIND_SHIFT) | id, partition );
+        return previous == -1 || previous == partition;
+    }
+
+    /**
+     * Hands node, relationship, relationship group and property commands to the partitions, and applies all other
+     * commands right away, like {@link NeoStoreTransactionApplier} does.
+     */
+    private class PartitioningTransactionApplier extends NeoStoreTransactionApplier
+    {
+        PartitioningTransactionApplier( long transactionId, LockGroup lockGroup )
+        {
+            super( neoStores, cacheAccess, lockService, transactionId, lockGroup );
+        }
+
+        @Override
+        public boolean visitNodeCommand( Command.NodeCommand command ) throws IOException
+        {
+            dispatch( command, command.getKey() );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipCommand( Command.RelationshipCommand command ) throws IOException
+        {
+            dispatch( command, command.getKey() );
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyCommand( Command.PropertyCommand command ) throws IOException
+        {
+            // Properties go with their owner, since writing the first property record of a chain may also
+            // re-write its owner, see PropertyInliner
+            long entityId = command.getNodeId() != -1 ? command.getNodeId()
+                    : command.getRelId() != -1 ? command.getRelId() : command.getKey();
+            dispatch( command, entityId );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command ) throws IOException
+        {
+            dispatch( command, command.getKey() );
+            return false;
+        }
+    }
+
+    /**
+     * A thread writing the records of the commands given to it, in the order they were given. Commands are handed
+     * over in chunks, to keep the cost of the hand-over low compared to that of writing a record.
+     */
+    private static class Partition extends Thread
+    {
+        private static final Object DONE = new Object();
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>( QUEUED_CHUNKS_PER_PARTITION );
+        private final CommandVisitor writer;
+        private List<Command> chunk = new ArrayList<>( CHUNK_SIZE );
+        private volatile Throwable failure;
+
+        Partition( NeoStores neoStores, int index )
+        {
+            super( "Recovery record writer " + index );
+            setDaemon( true );
+            this.writer = new RecordWriter( neoStores );
+        }
+
+        void add( Command command ) throws InterruptedException
+        {
+            chunk.add( command );
+            if ( chunk.size() == CHUNK_SIZE )
+            {
+                flush();
+            }
+        }
+
+        void flush() throws InterruptedException
+        {
+            if ( !chunk.isEmpty() )
+            {
+                queue.put( chunk );
+                chunk = new ArrayList<>( CHUNK_SIZE );
+            }
+        }
+
+        void enqueue( CountDownLatch latch ) throws InterruptedException
+        {
+            queue.put( latch );
+        }
+
+        void stopWhenDone()
+        {
+            chunk.clear();
+            try
+            {
+                queue.put( DONE );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                interrupt();
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        @Override
+        public void run()
+        {
+            try
+            {
+                for ( Object item; (item = queue.take()) != DONE; )
+                {
+                    if ( item instanceof CountDownLatch )
+                    {
+                        ((CountDownLatch) item).countDown();
+                    }
+                    else if ( failure == null )
+                    {
+                        write( (List<Command>) item );
+                    }
+                    // else keep draining the queue, the failure is reported when the partitions are awaited
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                failure = e;
+            }
+        }
+
+        private void write( List<Command> commands )
+        {
+            try
+            {
+                for ( Command command : commands )
+                {
+                    command.handle( writer );
+                }
+            }
+            catch ( Throwable e )
+            {
+                failure = e;
+            }
+        }
+    }
+
+    private static class RecordWriter extends CommandVisitor.Adapter
+    {
+        private final NeoStores neoStores;
+
+        RecordWriter( NeoStores neoStores )
+        {
+            this.neoStores = neoStores;
+        }
+
+        @Override
+        public boolean visitNodeCommand( Command.NodeCommand command )
+        {
+            neoStores.getNodeStore().updateRecord( command.getAfter() );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipCommand( Command.RelationshipCommand command )
+        {
+            neoStores.getRelationshipStore().updateRecord( command.getAfter() );
+            return false;
+        }
+
+        @Override
+        public boolean visitPropertyCommand( Command.PropertyCommand command )
+        {
+            neoStores.getPropertyStore().updateRecord( command.getAfter() );
+            return false;
+        }
+
+        @Override
+        public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
+        {
+            neoStores.getRelationshipGroupStore().updateRecord( command.getAfter() );
+            return false;
+        }
+    }
+}
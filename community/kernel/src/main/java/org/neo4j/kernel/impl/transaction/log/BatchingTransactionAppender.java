@@ -48,6 +48,20 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * By default the log is forced by one of the appending threads, on behalf of all threads waiting for a force at that
+ * time. Optionally the log is instead forced by a dedicated thread, which keeps forcing for as long as there are
+ * threads waiting, so that appending threads never do any forcing themselves and can go on to serialize the next
+ * transaction while the previous ones are being forced.
+ * <p>
+ * Optionally the commands of each transaction are serialized into a {@link ConcurrentLogBuffer} before the log file
+ * monitor is taken, so that appending threads serialize their commands concurrently, and only copy them into the log
+ * while holding the monitor.
+ * <p>
+ * Optionally the commands of each transaction are written as one compressed log entry, see
+ * {@link LogEntryWriter#LogEntryWriter(FlushableChannel, boolean)}. They are then always serialized, and compressed,
+ * into a {@link ConcurrentLogBuffer} before the log file monitor is taken, on the heap if no off-heap buffer is
+ * configured.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
@@ -65,6 +79,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean dedicatedForceThread;
+    private volatile Thread forceThread;
+    private final ConcurrentLogBuffer serializationBuffer;
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -73,6 +90,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public BatchingTransactionAppender( LogFile logFile, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue legacyIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFile, logRotation, transactionMetadataCache, transactionIdStore, legacyIndexTransactionOrdering,
+                databaseHealth, false, 0, false );
+    }
+
+    public BatchingTransactionAppender( LogFile logFile, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue legacyIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            boolean dedicatedForceThread, long serializationBufferSize, boolean compressCommands )
     {
         this.logFile = logFile;
         this.logRotation = logRotation;
@@ -80,6 +106,10 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.legacyIndexTransactionOrdering = legacyIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.dedicatedForceThread = dedicatedForceThread;
+        // Commands are compressed as they are serialized, which is done before taking the log file monitor
+        this.serializationBuffer = serializationBufferSize > 0 || compressCommands
+                                   ? new ConcurrentLogBuffer( serializationBufferSize, compressCommands ) : null;
     }
 
     @Override
@@ -88,6 +118,26 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.writer = logFile.getWriter();
         this.indexCommandDetector = new IndexCommandDetector();
         this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        if ( dedicatedForceThread )
+        {
+            Thread thread = new Thread( this::forceWhileRunning, "Transaction log forcer" );
+            thread.setDaemon( true );
+            forceThread = thread;
+            thread.start();
+        }
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        Thread thread = forceThread;
+        if ( thread != null )
+        {
+            // Threads that are waiting, or about to wait, for a force will see this and force the log themselves
+            forceThread = null;
+            LockSupport.unpark( thread );
+            thread.join();
+        }
     }
 
     @Override
@@ -100,32 +150,42 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        ConcurrentLogBuffer.Serialization[] serializedCommands = serializeCommands( batch );
+        try
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                // Assert that kernel is healthy before making any changes
+                databaseHealth.assertHealthy( IOException.class );
+                try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
-                    tx.commitment( commitment, transactionId );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                    // Append all transactions in this batch to the log under the same logFile monitor
+                    TransactionToApply tx = batch;
+                    int index = 0;
+                    while ( tx != null )
+                    {
+                        long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+                        // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                        // id have already been generated by another entity we simply check that our id
+                        // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                        // really recover from and would point to a bug somewhere.
+                        matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                        TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId,
+                                serializedCommands != null ? serializedCommands[index++] : null );
+                        tx.commitment( commitment, transactionId );
+                        tx = tx.next();
+                        lastTransactionId = transactionId;
+                    }
                 }
             }
         }
+        finally
+        {
+            release( serializedCommands );
+        }
 
         // At this point we've appended all transactions in this batch, but we can't mark any of them
         // as committed since they haven't been forced to disk yet. So here we force, or potentially
@@ -139,6 +199,56 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    /**
+     * Serializes the commands of all transactions in the batch into the {@link ConcurrentLogBuffer}, if there is one.
+     * This is done without holding the logFile monitor, since the commands don't depend on where in the log they end
+     * up, unlike the start and commit entries which are written under the monitor.
+     *
+     * @return the serialized commands of each transaction in the batch, or {@code null} if there's no buffer.
+     */
+    private ConcurrentLogBuffer.Serialization[] serializeCommands( TransactionToApply batch ) throws IOException
+    {
+        if ( serializationBuffer == null )
+        {
+            return null;
+        }
+
+        int count = 0;
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            count++;
+        }
+        ConcurrentLogBuffer.Serialization[] serializedCommands = new ConcurrentLogBuffer.Serialization[count];
+        try
+        {
+            int index = 0;
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                serializedCommands[index++] = serializationBuffer.serialize( tx.transactionRepresentation() );
+            }
+        }
+        catch ( Throwable e )
+        {
+            release( serializedCommands );
+            throw e;
+        }
+        return serializedCommands;
+    }
+
+    private static void release( ConcurrentLogBuffer.Serialization[] serializedCommands )
+    {
+        if ( serializedCommands != null )
+        {
+            for ( ConcurrentLogBuffer.Serialization commands : serializedCommands )
+            {
+                if ( commands != null )
+                {
+                    commands.close();
+                }
+            }
+        }
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -186,8 +296,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any legacy index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId,
+            ConcurrentLogBuffer.Serialization serializedCommands ) throws IOException
     {
         // Reset command writer so that we, after we've written the transaction, can ask it whether or
         // not any legacy index command was written. If so then there's additional ordering to care about below.
@@ -202,7 +312,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            transactionLogWriter.append( transaction, transactionId, serializedCommands );
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
 
             long transactionChecksum = checksum(
@@ -245,7 +355,13 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         {
             do
             {
-                if ( forceLock.tryLock() )
+                Thread forcer = forceThread;
+                if ( forcer != null )
+                {
+                    LockSupport.unpark( forcer );
+                    waitForLogForce();
+                }
+                else if ( forceLock.tryLock() )
                 {
                     try
                     {
@@ -270,6 +386,42 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             }
             while ( !threadLink.done );
         }
+
+        if ( dedicatedForceThread )
+        {
+            // The force may have been done by the dedicated thread, which has no other way of telling us that it failed
+            databaseHealth.assertHealthy( IOException.class );
+        }
+    }
+
+    /**
+     * Run by the dedicated force thread, if there is one. Forces the log for as long as there are threads waiting for
+     * it, and parks when there are none.
+     */
+    private void forceWhileRunning()
+    {
+        while ( forceThread == Thread.currentThread() )
+        {
+            if ( threadLinkHead.get() == ThreadLink.END )
+            {
+                LockSupport.park( this );
+                continue;
+            }
+
+            forceLock.lock();
+            try
+            {
+                forceLog( LogAppendEvent.NULL );
+            }
+            catch ( Throwable e )
+            {
+                // The database has been panicked by forceLog, which the waiting threads will notice
+            }
+            finally
+            {
+                forceLock.unlock();
+            }
+        }
     }
 
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
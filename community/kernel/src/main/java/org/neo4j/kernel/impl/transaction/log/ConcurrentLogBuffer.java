@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+
+import static java.lang.Math.floorMod;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Off-heap memory shared by committing threads for serializing the command entries of their transactions
+ * concurrently, before they take the log file monitor in {@link BatchingTransactionAppender}, which then only has to
+ * copy the serialized commands into the log, between the start and commit entries of each transaction. Transactions
+ * are still written to the log in transaction id order, which is the order in which they are forced.
+ * <p>
+ * The memory is divided into segments of {@link #SEGMENT_SIZE} bytes, which committing threads reserve with a
+ * compare-and-swap as they fill them up, and release once their transaction has been written to the log. The
+ * commands of a transaction may span several segments, which need not be adjacent. When all segments are reserved
+ * a committing thread gets its next segment from the heap instead, so serializing never waits for other transactions.
+ * A buffer of no segments serializes all transactions on the heap, which is still done before the log file monitor
+ * is taken.
+ * <p>
+ * Optionally the command entries of each transaction are serialized as one compressed entry, see
+ * {@link LogEntryWriter#LogEntryWriter(FlushableChannel, boolean)}, so that compressing them is done concurrently too.
+ */
+public class ConcurrentLogBuffer
+{
+    public static final int SEGMENT_SIZE = (int) ByteUnit.kibiBytes( 64 );
+
+    private static final int FREE = 0;
+    private static final int RESERVED = 1;
+    private static final int NOT_SHARED = -1;
+    private static final int MIN_HEAP_SEGMENT_SIZE = (int) ByteUnit.kibiBytes( 4 );
+
+    private final ByteBuffer[] segments;
+    private final AtomicIntegerArray states;
+    private final AtomicInteger nextSegment = new AtomicInteger();
+    private final boolean compressCommands;
+
+    public ConcurrentLogBuffer( long sizeInBytes )
+    {
+        this( sizeInBytes, false );
+    }
+
+    /**
+     * @param sizeInBytes size of the off-heap memory to share, which is rounded down to whole segments.
+     * @param compressCommands whether or not to serialize the command entries of each transaction as one compressed
+     * entry.
+     */
+    public ConcurrentLogBuffer( long sizeInBytes, boolean compressCommands )
+    {
+        this.compressCommands = compressCommands;
+        int count = (int) min( Integer.MAX_VALUE / SEGMENT_SIZE, sizeInBytes / SEGMENT_SIZE );
+        ByteBuffer memory = ByteBuffer.allocateDirect( count * SEGMENT_SIZE );
+        segments = new ByteBuffer[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            memory.limit( (i + 1) * SEGMENT_SIZE ).position( i * SEGMENT_SIZE );
+            segments[i] = memory.slice();
+        }
+        states = new AtomicIntegerArray( count );
+    }
+
+    /**
+     * Serializes the command entries of the given transaction into segments reserved from this buffer.
+     *
+     * @param transaction the transaction to serialize the commands of.
+     * @return the serialized commands, which must be {@link Serialization#close() closed} when no longer needed.
+     * @throws IOException if a command could not be serialized.
+     */
+    public Serialization serialize( TransactionRepresentation transaction ) throws IOException
+    {
+        Serialization serialization = new Serialization();
+        try
+        {
+            new LogEntryWriter( serialization, compressCommands ).serialize( transaction );
+        }
+        catch ( Throwable e )
+        {
+            serialization.close();
+            throw e;
+        }
+        return serialization;
+    }
+
+    private int reserveSegment()
+    {
+        int start = nextSegment.getAndIncrement();
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            int index = floorMod( start + i, segments.length );
+            if ( states.get( index ) == FREE && states.compareAndSet( index, FREE, RESERVED ) )
+            {
+                return index;
+            }
+        }
+        return NOT_SHARED;
+    }
+
+    /**
+     * The serialized command entries of one transaction, in the segments reserved for them.
+     */
+    public class Serialization implements FlushableChannel
+    {
+        private final List<ByteBuffer> buffers = new ArrayList<>( 1 );
+        private int[] reservedSegments = new int[1];
+        private ByteBuffer current;
+        private int heapSegmentSize = MIN_HEAP_SEGMENT_SIZE;
+
+        private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+        {
+            if ( current == null || current.remaining() < spaceInBytes )
+            {
+                int segment = reserveSegment();
+                current = segment == NOT_SHARED ? allocateHeapSegment( spaceInBytes ) : segments[segment];
+                current.clear();
+                if ( buffers.size() == reservedSegments.length )
+                {
+                    reservedSegments = Arrays.copyOf( reservedSegments, reservedSegments.length * 2 );
+                }
+                reservedSegments[buffers.size()] = segment;
+                buffers.add( current );
+            }
+            return current;
+        }
+
+        /**
+         * Heap segments start small and grow with each one allocated, so that small transactions don't allocate a
+         * whole segment each.
+         */
+        private ByteBuffer allocateHeapSegment( int spaceInBytes )
+        {
+            ByteBuffer segment = ByteBuffer.allocate( max( spaceInBytes, heapSegmentSize ) );
+            heapSegmentSize = min( SEGMENT_SIZE, heapSegmentSize * 2 );
+            return segment;
+        }
+
+        /**
+         * Writes the serialized command entries to the given channel.
+         *
+         * @param channel the channel to write to.
+         * @throws IOException if the channel could not be written to.
+         */
+        public void writeTo( FlushableChannel channel ) throws IOException
+        {
+            for ( ByteBuffer buffer : buffers )
+            {
+                ByteBuffer serialized = buffer.duplicate();
+                serialized.flip();
+                channel.put( serialized );
+            }
+        }
+
+        @Override
+        public Flushable prepareForFlush()
+        {
+            // Nothing to flush, the serialized commands stay in memory until written to the log by writeTo
+            return () -> {};
+        }
+
+        @Override
+        public FlushableChannel put( byte value )
+        {
+            bufferWithGuaranteedSpace( 1 ).put( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putShort( short value )
+        {
+            bufferWithGuaranteedSpace( 2 ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putInt( int value )
+        {
+            bufferWithGuaranteedSpace( 4 ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putLong( long value )
+        {
+            bufferWithGuaranteedSpace( 8 ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putFloat( float value )
+        {
+            bufferWithGuaranteedSpace( 4 ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putDouble( double value )
+        {
+            bufferWithGuaranteedSpace( 8 ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel put( byte[] value, int length )
+        {
+            int offset = 0;
+            while ( offset < length )
+            {
+                ByteBuffer buffer = bufferWithGuaranteedSpace( 1 );
+                int chunkSize = min( length - offset, buffer.remaining() );
+                buffer.put( value, offset, chunkSize );
+                offset += chunkSize;
+            }
+            return this;
+        }
+
+        /**
+         * Releases the segments reserved for this serialization, which may then be reserved by other threads.
+         */
+        @Override
+        public void close()
+        {
+            for ( int i = 0; i < buffers.size(); i++ )
+            {
+                if ( reservedSegments[i] != NOT_SHARED )
+                {
+                    states.set( reservedSegments[i], FREE );
+                }
+            }
+            buffers.clear();
+            current = null;
+        }
+    }
+}
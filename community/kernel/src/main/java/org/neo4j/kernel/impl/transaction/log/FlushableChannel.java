@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.neo4j.storageengine.api.WritableChannel;
 
@@ -60,4 +61,16 @@ public interface FlushableChannel extends WritableChannel, Closeable
 
     @Override
     FlushableChannel put( byte[] value, int length ) throws IOException;
+
+    /**
+     * Puts the remaining bytes of {@code source}, advancing its position to its limit.
+     */
+    default FlushableChannel put( ByteBuffer source ) throws IOException
+    {
+        while ( source.hasRemaining() )
+        {
+            put( source.get() );
+        }
+        return this;
+    }
 }
@@ -20,19 +20,26 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
 
 import org.neo4j.cursor.IOCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCompressedCommands;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
 /**
- * {@link IOCursor} abstraction on top of a {@link LogEntryReader}
+ * {@link IOCursor} abstraction on top of a {@link LogEntryReader}. The command entries of
+ * {@link LogEntryCompressedCommands compressed command entries} are returned one by one, in place of the compressed
+ * entry.
  */
 public class LogEntryCursor implements IOCursor<LogEntry>
 {
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
     private final ReadableClosablePositionAwareChannel channel;
     private LogEntry entry;
+    private Iterator<LogEntryCommand> compressedCommands = Collections.emptyIterator();
 
     public LogEntryCursor( LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
                            ReadableClosablePositionAwareChannel channel )
@@ -50,9 +57,18 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     @Override
     public boolean next() throws IOException
     {
-        entry = logEntryReader.readLogEntry( channel );
+        while ( !compressedCommands.hasNext() )
+        {
+            entry = logEntryReader.readLogEntry( channel );
+            if ( !(entry instanceof LogEntryCompressedCommands) )
+            {
+                return entry != null;
+            }
+            compressedCommands = entry.<LogEntryCompressedCommands>as().getCommands().iterator();
+        }
 
-        return entry != null;
+        entry = compressedCommands.next();
+        return true;
     }
 
     @Override
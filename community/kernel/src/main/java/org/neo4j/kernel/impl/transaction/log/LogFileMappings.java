@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Read-only memory mappings of rotated transaction log versions, shared between all readers of the log, see
+ * {@link MappedReadAheadLogChannel}. Rotated versions never change, so readers can read them straight from a
+ * mapping instead of copying them through a read-ahead buffer. Readers catching up with the log, like slaves
+ * pulling updates or backups, tend to re-read the same recent versions, which is why the mappings of the
+ * {@code maxUnusedMappings} most recently used versions are kept around after their last reader is done with them.
+ * <p>
+ * Mappings are never unmapped explicitly, that is left to the garbage collector once no reader references them,
+ * so a reader is never left with a buffer of unmapped memory. Log files are mapped straight from disk and so must
+ * reside in the default file system. For the same reason log files must not be mapped on Windows, where a mapped
+ * file cannot be deleted, and log pruning would fail to delete mapped versions until the garbage collector gets to
+ * unmap them. Elsewhere the mappings of pruned versions are dropped by {@link #dropPrunedVersions()}, so that they
+ * don't hold on to the disk space of deleted files.
+ */
+public class LogFileMappings
+{
+    public static class Mapping
+    {
+        private final long version;
+        private final ByteBuffer buffer;
+        private int references;
+
+        Mapping( long version, ByteBuffer buffer )
+        {
+            this.version = version;
+            this.buffer = buffer;
+        }
+
+        public long version()
+        {
+            return version;
+        }
+
+        /**
+         * @return a new view of the mapped log version, with its own position, starting at the beginning of the file.
+         */
+        public ByteBuffer newView()
+        {
+            return buffer.duplicate();
+        }
+    }
+
+    private final PhysicalLogFiles logFiles;
+    private final LogVersionRepository logVersionRepository;
+    private final int maxUnusedMappings;
+    // in order of least to most recently used
+    private final Map<Long,Mapping> mappings = new LinkedHashMap<>( 16, 0.75f, true );
+
+    public LogFileMappings( PhysicalLogFiles logFiles, LogVersionRepository logVersionRepository,
+            int maxUnusedMappings )
+    {
+        this.logFiles = logFiles;
+        this.logVersionRepository = logVersionRepository;
+        this.maxUnusedMappings = maxUnusedMappings;
+    }
+
+    /**
+     * Acquires the mapping of the given log version, mapping it if not already mapped. Must be paired with a call to
+     * {@link #release(Mapping)} when done reading from it.
+     *
+     * @param version log version to map.
+     * @return the mapping of the given version, or {@code null} if that version cannot be mapped, because it's
+     * still being written to, no longer exists or is too big to fit in one mapping.
+     * @throws IOException on error mapping the log file.
+     */
+    public synchronized Mapping acquire( long version ) throws IOException
+    {
+        if ( version >= logVersionRepository.getCurrentLogVersion() )
+        {
+            return null;
+        }
+
+        Mapping mapping = mappings.get( version );
+        if ( mapping == null )
+        {
+            mapping = map( version, logFiles.getLogFileForVersion( version ) );
+            if ( mapping == null )
+            {
+                return null;
+            }
+            mappings.put( version, mapping );
+        }
+        mapping.references++;
+        evictUnusedMappings();
+        return mapping;
+    }
+
+    public synchronized void release( Mapping mapping )
+    {
+        assert mapping.references > 0 : "Mapping of log version " + mapping.version + " released too many times";
+        mapping.references--;
+        evictUnusedMappings();
+    }
+
+    /**
+     * Drops all mappings, which makes them subject to garbage collection as soon as current readers are done.
+     */
+    public synchronized void clear()
+    {
+        mappings.clear();
+    }
+
+    /**
+     * Drops the mappings of log versions that no longer exist, because they have been pruned. Should be called after
+     * every log pruning. Current readers of a dropped mapping can keep reading from it.
+     */
+    public synchronized void dropPrunedVersions()
+    {
+        mappings.values().removeIf( mapping -> !logFiles.versionExists( mapping.version ) );
+    }
+
+    synchronized int numberOfMappings()
+    {
+        return mappings.size();
+    }
+
+    private static Mapping map( long version, File file ) throws IOException
+    {
+        try ( FileChannel channel = FileChannel.open( file.toPath(), READ ) )
+        {
+            long size = channel.size();
+            if ( size > Integer.MAX_VALUE )
+            {
+                return null;
+            }
+            return new Mapping( version, channel.map( READ_ONLY, 0, size ) );
+        }
+        catch ( NoSuchFileException e )
+        {
+            // Pruned since the reader opened it, let the reader go on reading from its already open channel
+            return null;
+        }
+    }
+
+    private void evictUnusedMappings()
+    {
+        int unused = 0;
+        for ( Mapping mapping : mappings.values() )
+        {
+            if ( mapping.references == 0 )
+            {
+                unused++;
+            }
+        }
+
+        Iterator<Mapping> iterator = mappings.values().iterator();
+        while ( unused > maxUnusedMappings && iterator.hasNext() )
+        {
+            if ( iterator.next().references == 0 )
+            {
+                iterator.remove();
+                unused--;
+            }
+        }
+    }
+}
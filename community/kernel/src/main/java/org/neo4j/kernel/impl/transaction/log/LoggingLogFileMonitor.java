@@ -20,7 +20,9 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 
+import org.neo4j.helpers.Clock;
 import org.neo4j.kernel.recovery.Recovery;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.state.RecoveryVisitor;
@@ -31,18 +33,29 @@ import static java.lang.String.format;
 public class LoggingLogFileMonitor implements PhysicalLogFile.Monitor, RecoveryVisitor.Monitor, LogRotation.Monitor,
         Recovery.Monitor
 {
+    private static final long RECOVERY_PROGRESS_INTERVAL = TimeUnit.SECONDS.toMillis( 10 );
+
     private int numberOfRecoveredTransactions;
     private long firstTransactionRecovered, lastTransactionRecovered;
+    private long recoveryStartTime, lastRecoveryProgressTime;
     private final Log log;
+    private final Clock clock;
 
     public LoggingLogFileMonitor( Log log )
+    {
+        this( log, Clock.SYSTEM_CLOCK );
+    }
+
+    public LoggingLogFileMonitor( Log log, Clock clock )
     {
         this.log = log;
+        this.clock = clock;
     }
 
     @Override
     public void recoveryRequired( LogPosition startPosition )
     {
+        recoveryStartTime = lastRecoveryProgressTime = clock.currentTimeMillis();
         log.info( "Recovery required from position " + startPosition );
     }
 
@@ -56,8 +69,10 @@ public class LoggingLogFileMonitor implements PhysicalLogFile.Monitor, RecoveryV
     {
         if ( numberOfRecoveredTransactions != 0 )
         {
-            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered",
-                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered ) );
+            long duration = clock.currentTimeMillis() - recoveryStartTime;
+            log.info( format( "Recovery completed. %d transactions, first:%d, last:%d recovered in %d ms (%d tx/s)",
+                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered, duration,
+                    transactionsPerSecond( numberOfRecoveredTransactions, duration ) ) );
         }
         else
         {
@@ -86,6 +101,21 @@ public class LoggingLogFileMonitor implements PhysicalLogFile.Monitor, RecoveryV
         }
         lastTransactionRecovered = txId;
         numberOfRecoveredTransactions++;
+
+        long now = clock.currentTimeMillis();
+        if ( now - lastRecoveryProgressTime >= RECOVERY_PROGRESS_INTERVAL )
+        {
+            lastRecoveryProgressTime = now;
+            long duration = now - recoveryStartTime;
+            log.info( format( "Recovery in progress. %d transactions, first:%d, last:%d recovered in %d ms (%d tx/s)",
+                    numberOfRecoveredTransactions, firstTransactionRecovered, lastTransactionRecovered, duration,
+                    transactionsPerSecond( numberOfRecoveredTransactions, duration ) ) );
+        }
+    }
+
+    private static long transactionsPerSecond( long transactions, long durationMillis )
+    {
+        return transactions * 1000 / Math.max( durationMillis, 1 );
     }
 
     @Override
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ReadAheadLogChannel} which reads rotated log versions straight from their memory mapping, shared with
+ * other readers through {@link LogFileMappings}, instead of copying them through its read-ahead buffer.
+ * Versions that cannot be mapped, like the one currently written to, are read like {@link ReadAheadLogChannel} does.
+ */
+public class MappedReadAheadLogChannel extends ReadAheadLogChannel
+{
+    private final LogFileMappings mappings;
+    private LogFileMappings.Mapping mapping;
+    private ByteBuffer mapped;
+    private boolean versionChanged;
+
+    public MappedReadAheadLogChannel( LogVersionedStoreChannel startingChannel, LogVersionBridge bridge,
+            LogFileMappings mappings ) throws IOException
+    {
+        super( startingChannel, bridge );
+        this.mappings = mappings;
+        map();
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        if ( isMapped( 1 ) )
+        {
+            return mapped.get();
+        }
+        byte value = super.get();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        if ( isMapped( 2 ) )
+        {
+            return mapped.getShort();
+        }
+        short value = super.getShort();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        if ( isMapped( 4 ) )
+        {
+            return mapped.getInt();
+        }
+        int value = super.getInt();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        if ( isMapped( 8 ) )
+        {
+            return mapped.getLong();
+        }
+        long value = super.getLong();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        if ( isMapped( 4 ) )
+        {
+            return mapped.getFloat();
+        }
+        float value = super.getFloat();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        if ( isMapped( 8 ) )
+        {
+            return mapped.getDouble();
+        }
+        double value = super.getDouble();
+        mapIfVersionChanged();
+        return value;
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        if ( isMapped( length ) )
+        {
+            mapped.get( bytes, 0, length );
+            return;
+        }
+        super.get( bytes, length );
+        mapIfVersionChanged();
+    }
+
+    @Override
+    public long position() throws IOException
+    {
+        return mapped != null ? mapped.position() : super.position();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if ( mapping != null )
+        {
+            releaseMapping();
+        }
+        super.close();
+    }
+
+    @Override
+    protected LogVersionedStoreChannel next( LogVersionedStoreChannel channel ) throws IOException
+    {
+        LogVersionedStoreChannel next = super.next( channel );
+        versionChanged |= next != channel;
+        return next;
+    }
+
+    /**
+     * @return whether or not the next {@code bytes} bytes can be read from the mapping. If not then the mapping is
+     * released and reading continues from the channel, which will move on to the next version.
+     */
+    private boolean isMapped( int bytes ) throws IOException
+    {
+        if ( mapped == null )
+        {
+            return false;
+        }
+        if ( mapped.remaining() >= bytes )
+        {
+            return true;
+        }
+
+        channel.position( mapped.position() );
+        releaseMapping();
+        return false;
+    }
+
+    private void mapIfVersionChanged() throws IOException
+    {
+        if ( versionChanged )
+        {
+            versionChanged = false;
+            map();
+        }
+    }
+
+    private void map() throws IOException
+    {
+        mapping = mappings.acquire( channel.getVersion() );
+        if ( mapping == null )
+        {
+            return;
+        }
+
+        long position = super.position();
+        ByteBuffer view = mapping.newView();
+        if ( position > view.limit() )
+        {
+            releaseMapping();
+            return;
+        }
+        view.position( (int) position );
+        mapped = view;
+        clearReadAhead();
+    }
+
+    private void releaseMapping()
+    {
+        mappings.release( mapping );
+        mapping = null;
+        mapped = null;
+    }
+}
@@ -148,6 +148,21 @@ public class PhysicalFlushableChannel implements FlushableChannel
         return this;
     }
 
+    @Override
+    public FlushableChannel put( ByteBuffer source ) throws IOException
+    {
+        int limit = source.limit();
+        while ( source.hasRemaining() )
+        {
+            int chunkSize = min( source.remaining(), buffer.capacity() >> 1 );
+            ByteBuffer target = bufferWithGuaranteedSpace( chunkSize );
+            source.limit( source.position() + chunkSize );
+            target.put( source );
+            source.limit( limit );
+        }
+        return this;
+    }
+
     private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes ) throws IOException
     {
         assert spaceInBytes < buffer.capacity();
@@ -68,6 +68,7 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     private PositionAwarePhysicalFlushableChannel writer;
     private final LogVersionRepository logVersionRepository;
     private final LogVersionBridge readerLogVersionBridge;
+    private final LogFileMappings logFileMappings;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
 
@@ -75,6 +76,18 @@ public class PhysicalLogFile implements LogFile, Lifecycle
                             Supplier<Long> lastCommittedId, LogVersionRepository logVersionRepository,
                             Monitor monitor, LogHeaderCache logHeaderCache
     )
+    {
+        this( fileSystem, logFiles, rotateAtSize, lastCommittedId, logVersionRepository, monitor, logHeaderCache,
+                null );
+    }
+
+    /**
+     * @param logFileMappings mappings of rotated log versions for readers to read from, or {@code null} for readers
+     * to read all versions through their read-ahead buffer.
+     */
+    public PhysicalLogFile( FileSystemAbstraction fileSystem, PhysicalLogFiles logFiles, long rotateAtSize,
+                            Supplier<Long> lastCommittedId, LogVersionRepository logVersionRepository,
+                            Monitor monitor, LogHeaderCache logHeaderCache, LogFileMappings logFileMappings )
     {
         this.fileSystem = fileSystem;
         this.rotateAtSize = rotateAtSize;
@@ -84,6 +97,7 @@ public class PhysicalLogFile implements LogFile, Lifecycle
         this.logHeaderCache = logHeaderCache;
         this.logFiles = logFiles;
         this.readerLogVersionBridge = new ReaderLogVersionBridge( fileSystem, logFiles );
+        this.logFileMappings = logFileMappings;
     }
 
     @Override
@@ -129,6 +143,10 @@ public class PhysicalLogFile implements LogFile, Lifecycle
         {
             channel.close();
         }
+        if ( logFileMappings != null )
+        {
+            logFileMappings.clear();
+        }
     }
 
     @Override
@@ -198,7 +216,9 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     {
         PhysicalLogVersionedStoreChannel logChannel = openForVersion( logFiles, fileSystem, position.getLogVersion() );
         logChannel.position( position.getByteOffset() );
-        return new ReadAheadLogChannel( logChannel, readerLogVersionBridge );
+        return logFileMappings != null
+               ? new MappedReadAheadLogChannel( logChannel, readerLogVersionBridge, logFileMappings )
+               : new ReadAheadLogChannel( logChannel, readerLogVersionBridge );
     }
 
     public static PhysicalLogVersionedStoreChannel openForVersion( PhysicalLogFiles logFiles,
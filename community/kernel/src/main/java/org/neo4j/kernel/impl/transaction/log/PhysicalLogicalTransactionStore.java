@@ -70,10 +70,19 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFile.accept( headerVisitor );
 
+            // skip ahead to the closest sampled transaction before it, if that one is in the same version
+            LogPosition scanFrom = headerVisitor.getLogPosition();
+            LogPosition sampledPosition =
+                    transactionMetadataCache.getSampledStartPositionAtOrBefore( transactionIdToStartFrom );
+            if ( sampledPosition != null && sampledPosition.getLogVersion() == scanFrom.getLogVersion() )
+            {
+                scanFrom = sampledPosition;
+            }
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator =
-                    new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+                    new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader, transactionMetadataCache );
+            logFile.accept( transactionPositionLocator, scanFrom );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
         }
@@ -131,14 +140,27 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     {
         private final long startTransactionId;
         private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+        private final TransactionMetadataCache startPositionSamples;
         private LogEntryStart startEntryForFoundTransaction;
         private long commitTimestamp;
 
         public TransactionPositionLocator( long startTransactionId,
                 LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader )
+        {
+            this( startTransactionId, logEntryReader, null );
+        }
+
+        /**
+         * @param startPositionSamples cache to sample the start positions of transactions passed on the way to the
+         * transaction to find in, or {@code null} for not sampling them.
+         */
+        public TransactionPositionLocator( long startTransactionId,
+                LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
+                TransactionMetadataCache startPositionSamples )
         {
             this.startTransactionId = startTransactionId;
             this.logEntryReader = logEntryReader;
+            this.startPositionSamples = startPositionSamples;
         }
 
         @Override
@@ -155,6 +177,10 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                     break;
                 case TX_1P_COMMIT:
                     LogEntryCommit commit = logEntry.as();
+                    if ( startPositionSamples != null && startEntry != null )
+                    {
+                        startPositionSamples.sampleStartPosition( commit.getTxId(), startEntry.getStartPosition() );
+                    }
                     if ( commit.getTxId() == startTransactionId )
                     {
                         startEntryForFoundTransaction = startEntry;
@@ -180,6 +180,16 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
         return channel;
     }
 
+    /**
+     * Drops any content read ahead, so that the next read reads from the current position of {@link #channel}.
+     * For subclasses that read from, or move, the channel by other means than through this class.
+     */
+    protected void clearReadAhead()
+    {
+        aheadBuffer.clear();
+        aheadBuffer.position( aheadBuffer.capacity() );
+    }
+
     /*
      * Moves bytes between aheadBuffer.position() and aheadBuffer.capacity() to the beginning of aheadBuffer. At the
      * end of this call the aheadBuffer is positioned in end of that moved content.
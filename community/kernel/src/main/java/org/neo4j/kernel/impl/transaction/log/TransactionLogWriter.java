@@ -34,13 +34,29 @@ public class TransactionLogWriter
     }
 
     public void append( TransactionRepresentation transaction, long transactionId ) throws IOException
+    {
+        append( transaction, transactionId, null );
+    }
+
+    /**
+     * Appends the transaction, with its commands already serialized into {@code commands}, unless that's {@code null}.
+     */
+    public void append( TransactionRepresentation transaction, long transactionId,
+            ConcurrentLogBuffer.Serialization commands ) throws IOException
     {
         writer.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
                 transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
                 transaction.additionalHeader() );
 
         // Write all the commands to the log channel
-        writer.serialize( transaction );
+        if ( commands != null )
+        {
+            writer.serialize( commands );
+        }
+        else
+        {
+            writer.serialize( transaction );
+        }
 
         // Write commit record
         writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
@@ -19,21 +19,51 @@
  */
 package org.neo4j.kernel.impl.transaction.log;
 
-import org.neo4j.helpers.collection.LruCache;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.helpers.collection.LruCache;
 
 public class TransactionMetadataCache
 {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+    public static final int DEFAULT_MAX_SAMPLES = 100_000;
+
     private final LruCache<Long /*tx id*/, TransactionMetadata> txStartPositionCache;
+    // Start positions of every sampleInterval:th transaction, kept long after their metadata has been evicted from
+    // the cache above, for finding a transaction in its log version without scanning that version from its start
+    private final ConcurrentSkipListMap<Long /*tx id*/, LogPosition> sampledStartPositions =
+            new ConcurrentSkipListMap<>();
+    private final AtomicInteger numberOfSamples = new AtomicInteger();
+    private final long sampleMask;
+    private final int maxSamples;
 
     public TransactionMetadataCache( int transactionCacheSize )
     {
+        this( transactionCacheSize, DEFAULT_SAMPLE_INTERVAL, DEFAULT_MAX_SAMPLES );
+    }
+
+    /**
+     * @param transactionCacheSize number of most recently used transactions to cache metadata for.
+     * @param sampleInterval interval, in transaction ids, between sampled start positions. Must be a power of two.
+     * @param maxSamples max number of start positions to keep, where the ones of the lowest transaction ids
+     * are dropped first.
+     */
+    public TransactionMetadataCache( int transactionCacheSize, int sampleInterval, int maxSamples )
+    {
+        assert Integer.bitCount( sampleInterval ) == 1 : "Sample interval " + sampleInterval + " not a power of two";
         this.txStartPositionCache = new LruCache<>( "Tx start position cache", transactionCacheSize );
+        this.sampleMask = sampleInterval - 1;
+        this.maxSamples = maxSamples;
     }
 
     public void clear()
     {
         txStartPositionCache.clear();
+        sampledStartPositions.clear();
+        numberOfSamples.set( 0 );
     }
 
     public TransactionMetadata getTransactionMetadata( long txId )
@@ -51,9 +81,40 @@ public class TransactionMetadataCache
 
         TransactionMetadata result = new TransactionMetadata( masterId, authorId, position, checksum, timeWritten );
         txStartPositionCache.put( txId, result );
+        sampleStartPosition( txId, position );
         return result;
     }
 
+    /**
+     * Remembers the start position of the given transaction if its id is one that is sampled.
+     *
+     * @param txId id of the transaction.
+     * @param position position of the start entry of the transaction.
+     */
+    public void sampleStartPosition( long txId, LogPosition position )
+    {
+        if ( (txId & sampleMask) == 0 && sampledStartPositions.put( txId, position ) == null &&
+             numberOfSamples.incrementAndGet() > maxSamples )
+        {
+            if ( sampledStartPositions.pollFirstEntry() != null )
+            {
+                numberOfSamples.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param txId id of the transaction to find.
+     * @return start position of the closest sampled transaction at or before the given one, or {@code null} if
+     * there is no such sample. That position may be in an earlier log version than the transaction itself, or in
+     * a log version that has since been pruned.
+     */
+    public LogPosition getSampledStartPositionAtOrBefore( long txId )
+    {
+        Map.Entry<Long,LogPosition> sample = sampledStartPositions.floorEntry( txId );
+        return sample != null ? sample.getValue() : null;
+    }
+
     public static class TransactionMetadata
     {
         private final int masterId;
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.PageCompressor;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.FlushableChannel;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V3_1;
+
+/**
+ * Writes the command entries of a transaction as one {@link LogEntryByteCodes#COMPRESSED_COMMANDS} entry, holding
+ * the command entries compressed in the LZ4 block format. Commands that are too few to be worth compressing, or that
+ * don't get any smaller from it, are written as plain command entries.
+ * <p>
+ * Commands are staged and compressed in buffers kept per thread, since committing threads compress their commands
+ * concurrently, see {@link org.neo4j.kernel.impl.transaction.log.ConcurrentLogBuffer}. Buffers that large
+ * transactions have grown beyond {@link #MAX_RETAINED_BUFFER_SIZE} are dropped after use, rather than kept for the
+ * life of the thread.
+ */
+class CompressedCommandsWriter
+{
+    static final int MIN_BYTES_TO_COMPRESS = 512;
+    static final int MAX_RETAINED_BUFFER_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private static final ThreadLocal<Staging> STAGING = ThreadLocal.withInitial( Staging::new );
+
+    private final FlushableChannel channel;
+
+    CompressedCommandsWriter( FlushableChannel channel )
+    {
+        this.channel = channel;
+    }
+
+    void write( TransactionRepresentation transaction ) throws IOException
+    {
+        Staging staging = STAGING.get();
+        try
+        {
+            staging.channel.clear();
+            staging.writer.serialize( transaction );
+            writeStaged( staging );
+        }
+        finally
+        {
+            staging.shrinkIfOversized();
+        }
+    }
+
+    private void writeStaged( Staging staging ) throws IOException
+    {
+        byte[] bytes = staging.channel.buffer.array();
+        int length = staging.channel.buffer.position();
+        int compressedLength = length >= MIN_BYTES_TO_COMPRESS ? staging.compress( bytes, length ) : length;
+        if ( compressedLength >= length )
+        {
+            channel.put( bytes, length );
+            return;
+        }
+
+        channel.put( V3_1.byteCode() ).put( COMPRESSED_COMMANDS );
+        channel.putInt( length ).putInt( compressedLength ).put( staging.compressed, compressedLength );
+    }
+
+    private static class Staging
+    {
+        private final StagingChannel channel = new StagingChannel();
+        private final LogEntryWriter writer = new LogEntryWriter( channel );
+        private final int[] hashTable = new int[PageCompressor.HASH_TABLE_SIZE];
+        private byte[] compressed = new byte[0];
+
+        int compress( byte[] bytes, int length )
+        {
+            int maxCompressedLength = PageCompressor.maxCompressedLength( length );
+            if ( compressed.length < maxCompressedLength )
+            {
+                compressed = new byte[maxCompressedLength];
+            }
+            return PageCompressor.compress( bytes, 0, length, compressed, 0, hashTable );
+        }
+
+        void shrinkIfOversized()
+        {
+            if ( channel.buffer.capacity() > MAX_RETAINED_BUFFER_SIZE )
+            {
+                channel.buffer = ByteBuffer.allocate( StagingChannel.INITIAL_SIZE );
+            }
+            if ( compressed.length > MAX_RETAINED_BUFFER_SIZE )
+            {
+                compressed = new byte[0];
+            }
+        }
+    }
+
+    private static class StagingChannel implements FlushableChannel
+    {
+        private static final int INITIAL_SIZE = MIN_BYTES_TO_COMPRESS * 4;
+
+        private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_SIZE );
+
+        void clear()
+        {
+            buffer.clear();
+        }
+
+        private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+        {
+            if ( buffer.remaining() < spaceInBytes )
+            {
+                ByteBuffer larger = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() +
+                        spaceInBytes ) );
+                buffer.flip();
+                larger.put( buffer );
+                buffer = larger;
+            }
+            return buffer;
+        }
+
+        @Override
+        public Flushable prepareForFlush()
+        {
+            return () -> {};
+        }
+
+        @Override
+        public FlushableChannel put( byte value )
+        {
+            bufferWithGuaranteedSpace( 1 ).put( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putShort( short value )
+        {
+            bufferWithGuaranteedSpace( 2 ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putInt( int value )
+        {
+            bufferWithGuaranteedSpace( 4 ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putLong( long value )
+        {
+            bufferWithGuaranteedSpace( 8 ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putFloat( float value )
+        {
+            bufferWithGuaranteedSpace( 4 ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel putDouble( double value )
+        {
+            bufferWithGuaranteedSpace( 8 ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel put( byte[] value, int length )
+        {
+            bufferWithGuaranteedSpace( length ).put( value, 0, length );
+            return this;
+        }
+
+        @Override
+        public FlushableChannel put( ByteBuffer source )
+        {
+            bufferWithGuaranteedSpace( source.remaining() ).put( source );
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.impl.PageCompressor;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+// 3.1
+public enum LogEntryParsersV3_1 implements LogEntryParser<LogEntry>
+{
+    EMPTY( LogEntryParsersV2_3.EMPTY ),
+    TX_START( LogEntryParsersV2_3.TX_START ),
+    COMMAND( LogEntryParsersV2_3.COMMAND ),
+    TX_1P_COMMIT( LogEntryParsersV2_3.TX_1P_COMMIT ),
+    CHECK_POINT( LogEntryParsersV2_3.CHECK_POINT ),
+    COMPRESSED_COMMANDS( null )
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int length = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    if ( length < 0 || compressedLength < 0 )
+                    {
+                        throw new IOException( "Invalid compressed commands lengths " + length + " and " +
+                                compressedLength );
+                    }
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+
+                    byte[] bytes = new byte[length];
+                    try
+                    {
+                        int decompressedLength =
+                                PageCompressor.decompress( compressed, 0, compressedLength, bytes, 0, length );
+                        if ( decompressedLength != length )
+                        {
+                            throw new IOException( "Compressed commands didn't decompress to the expected " + length +
+                                    " bytes, but " + decompressedLength );
+                        }
+                    }
+                    catch ( IllegalArgumentException e )
+                    {
+                        throw new IOException( "Compressed commands are corrupt", e );
+                    }
+
+                    InMemoryClosableChannel commandChannel = new InMemoryClosableChannel( bytes, true );
+                    LogEntryReader<InMemoryClosableChannel> reader = new VersionAwareLogEntryReader<>( commandReader );
+                    List<LogEntryCommand> commands = new ArrayList<>();
+                    LogEntry entry;
+                    while ( (entry = reader.readLogEntry( commandChannel )) != null )
+                    {
+                        commands.add( entry.as() );
+                    }
+                    return new LogEntryCompressedCommands( version, commands );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+
+                @Override
+                public boolean skip()
+                {
+                    return false;
+                }
+            };
+
+    private final LogEntryParser<LogEntry> delegate;
+
+    LogEntryParsersV3_1( LogEntryParser<LogEntry> delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                           CommandReaderFactory commandReader ) throws IOException
+    {
+        return delegate.parse( version, channel, marker, commandReader );
+    }
+
+    @Override
+    public byte byteCode()
+    {
+        return delegate.byteCode();
+    }
+
+    @Override
+    public boolean skip()
+    {
+        return delegate.skip();
+    }
+}
@@ -93,7 +93,10 @@ public enum LogEntryVersion
     // as of 2016-05-30: neo4j 3.0.2 legacy index IndexDefineCommand maps write size as short instead of byte
     // See comment for V2.2.10 for version number explanation
     // log entry layout hasn't changed since 2_3 so just use that one
-    V3_0_2( -9, LogEntryParsersV2_3.class );
+    V3_0_2( -9, LogEntryParsersV2_3.class ),
+    // neo4j 3.1: the command entries of a transaction may be written as one compressed entry.
+    // Only compressed entries are written with this version, so that logs without them are readable by 3.0
+    V3_1( -10, LogEntryParsersV3_1.class );
 
     public static final LogEntryVersion CURRENT = V3_0_2;
     private static final LogEntryVersion[] ALL = values();
@@ -24,6 +24,7 @@ import java.util.Collection;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.ConcurrentLogBuffer;
 import org.neo4j.kernel.impl.transaction.log.FlushableChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.storageengine.api.StorageCommand;
@@ -38,11 +39,23 @@ public class LogEntryWriter
 {
     private final FlushableChannel channel;
     private final Visitor<StorageCommand,IOException> serializer;
+    private final CompressedCommandsWriter compressedCommandsWriter;
 
     public LogEntryWriter( FlushableChannel channel )
+    {
+        this( channel, false );
+    }
+
+    /**
+     * @param channel the channel to write log entries to.
+     * @param compressCommands whether or not to write the command entries of each transaction as one compressed entry,
+     * which can only be read by {@link LogEntryVersion#V3_1} or later.
+     */
+    public LogEntryWriter( FlushableChannel channel, boolean compressCommands )
     {
         this.channel = channel;
         this.serializer = new StorageCommandSerializer( channel );
+        this.compressedCommandsWriter = compressCommands ? new CompressedCommandsWriter( channel ) : null;
     }
 
     private void writeLogEntryHeader( byte type ) throws IOException
@@ -66,7 +79,22 @@ public class LogEntryWriter
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        if ( compressedCommandsWriter != null )
+        {
+            compressedCommandsWriter.write( tx );
+        }
+        else
+        {
+            tx.accept( serializer );
+        }
+    }
+
+    /**
+     * Writes command entries already serialized, and possibly compressed, by a {@link ConcurrentLogBuffer}.
+     */
+    public void serialize( ConcurrentLogBuffer.Serialization commands ) throws IOException
+    {
+        commands.writeTo( channel );
     }
 
     public void serialize( Collection<StorageCommand> commands ) throws IOException
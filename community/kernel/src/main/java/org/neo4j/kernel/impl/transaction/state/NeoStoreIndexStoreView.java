@@ -41,6 +41,7 @@ import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordCursor;
 import org.neo4j.kernel.impl.store.StoreIdIterator;
 import org.neo4j.kernel.impl.store.counts.CountsTracker;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -206,15 +207,19 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         {
             PrimitiveLongIterator nodeIds = new StoreIdIterator( nodeStore );
             continueScanning = true;
-            while ( continueScanning && nodeIds.hasNext() )
+            try ( RecordCursor<NodeRecord> cursor = nodeStore.newScanRecordCursor( record ) )
             {
-                long id = nodeIds.next();
-                try ( Lock ignored = locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
+                cursor.acquire( 0, FORCE );
+                while ( continueScanning && nodeIds.hasNext() )
                 {
-                    count++;
-                    if ( nodeStore.getRecord( id, record, FORCE ).inUse() )
+                    long id = nodeIds.next();
+                    try ( Lock ignored = locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
                     {
-                        process( record );
+                        count++;
+                        if ( cursor.next( id ) )
+                        {
+                            process( record );
+                        }
                     }
                 }
             }
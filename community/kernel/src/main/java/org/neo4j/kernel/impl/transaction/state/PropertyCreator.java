@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.state;
 import java.util.Iterator;
 
 import org.neo4j.kernel.impl.store.DynamicRecordAllocator;
+import org.neo4j.kernel.impl.store.DynamicValueCompression;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.PropertyType;
 import org.neo4j.kernel.impl.store.id.IdSequence;
@@ -36,19 +37,30 @@ public class PropertyCreator
 {
     private final DynamicRecordAllocator stringRecordAllocator;
     private final DynamicRecordAllocator arrayRecordAllocator;
+    private final DynamicValueCompression valueCompression;
     private final IdSequence propertyRecordIdGenerator;
     private final PropertyTraverser traverser;
 
     public PropertyCreator( PropertyStore propertyStore, PropertyTraverser traverser )
     {
-        this( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyStore, traverser );
+        this( propertyStore.getStringStore(), propertyStore.getArrayStore(), propertyStore, traverser,
+                propertyStore.getValueCompression() );
     }
 
     public PropertyCreator( DynamicRecordAllocator stringRecordAllocator, DynamicRecordAllocator arrayRecordAllocator,
             IdSequence propertyRecordIdGenerator, PropertyTraverser traverser )
+    {
+        this( stringRecordAllocator, arrayRecordAllocator, propertyRecordIdGenerator, traverser,
+                DynamicValueCompression.NONE );
+    }
+
+    public PropertyCreator( DynamicRecordAllocator stringRecordAllocator, DynamicRecordAllocator arrayRecordAllocator,
+            IdSequence propertyRecordIdGenerator, PropertyTraverser traverser,
+            DynamicValueCompression valueCompression )
     {
         this.stringRecordAllocator = stringRecordAllocator;
         this.arrayRecordAllocator = arrayRecordAllocator;
+        this.valueCompression = valueCompression;
         this.propertyRecordIdGenerator = propertyRecordIdGenerator;
         this.traverser = traverser;
     }
@@ -109,7 +121,8 @@ public class PropertyCreator
 
     public PropertyBlock encodeValue( PropertyBlock block, int propertyKey, Object value )
     {
-        PropertyStore.encodeValue( block, propertyKey, value, stringRecordAllocator, arrayRecordAllocator );
+        PropertyStore.encodeValue( block, propertyKey, value, stringRecordAllocator, arrayRecordAllocator,
+                valueCompression );
         return block;
     }
 
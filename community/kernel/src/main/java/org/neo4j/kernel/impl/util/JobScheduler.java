@@ -166,6 +166,11 @@ public interface JobScheduler extends Lifecycle
          * Storage maintenance.
          */
         public static Group storageMaintenance = new Group( "StorageMaintenance", POOLED );
+
+        /**
+         * Profiling and warming up the page cache.
+         */
+        public static final Group pageCacheWarmup = new Group( "PageCacheWarmup", POOLED );
     }
 
     interface JobHandle
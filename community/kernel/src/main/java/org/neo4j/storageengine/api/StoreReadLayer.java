@@ -20,6 +20,7 @@
 package org.neo4j.storageengine.api;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.function.Predicate;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
@@ -291,6 +292,25 @@ public interface StoreReadLayer
      */
     RelationshipIterator relationshipsGetAll();
 
+    /**
+     * Partitions a scan of all stored nodes, so that it can be spread over several threads.
+     *
+     * @param numberOfPartitions number of partitions to split the scan into.
+     * @return ids of all stored nodes, split between the given number of partitions, so that every node is returned
+     * from exactly one of them. Each partition must only be used by one thread at a time, and the partitions don't
+     * correspond to any particular range of ids.
+     */
+    List<PrimitiveLongIterator> nodesGetAllPartitioned( int numberOfPartitions );
+
+    /**
+     * Partitions a scan of all stored relationships, so that it can be spread over several threads.
+     *
+     * @param numberOfPartitions number of partitions to split the scan into.
+     * @return ids of all stored relationships, split between the given number of partitions, like
+     * {@link #nodesGetAllPartitioned(int)}. Each partition can optionally visit data about each relationship returned.
+     */
+    List<RelationshipIterator> relationshipsGetAllPartitioned( int numberOfPartitions );
+
     /**
      * Reserves a node id for future use to store a node. The reason for it being exposed here is that
      * internal ids of nodes and relationships are publicly accessible all the way out to the user.
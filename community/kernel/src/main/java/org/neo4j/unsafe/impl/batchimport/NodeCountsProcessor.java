@@ -35,6 +35,7 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
     private final NodeStore nodeStore;
     private final long[] labelCounts;
     private final NodeLabelsCache cache;
+    private final NodeLabelsCache.Client client;
     private final CountsAccessor.Updater counts;
     private final int anyLabel;
 
@@ -43,6 +44,7 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
     {
         this.nodeStore = nodeStore;
         this.cache = cache;
+        this.client = cache.newClient();
         this.anyLabel = highLabelId;
         this.counts = counts;
         // Instantiate with high id + 1 since we need that extra slot for the ANY count
@@ -59,7 +61,7 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
             {
                 labelCounts[(int) labelId]++;
             }
-            cache.put( node.getId(), labels );
+            cache.put( client, node.getId(), labels );
         }
         labelCounts[anyLabel]++;
 
@@ -67,6 +69,14 @@ public class NodeCountsProcessor implements RecordProcessor<NodeRecord>
         return false;
     }
 
+    public void addCountsFrom( NodeCountsProcessor from )
+    {
+        for ( int i = 0; i < labelCounts.length; i++ )
+        {
+            labelCounts[i] += from.labelCounts[i];
+        }
+    }
+
     @Override
     public void done()
     {
@@ -26,8 +26,6 @@ import org.neo4j.unsafe.impl.batchimport.staging.ReadRecordsStep;
 import org.neo4j.unsafe.impl.batchimport.staging.Stage;
 import org.neo4j.unsafe.impl.batchimport.stats.StatsProvider;
 
-import static org.neo4j.unsafe.impl.batchimport.RecordIdIteration.allIn;
-
 /**
  * Reads all records from {@link NodeStore} and process the counts in them, populating {@link NodeLabelsCache}
  * for later use of {@link RelationshipCountsStage}.
@@ -38,8 +36,8 @@ public class NodeCountsStage extends Stage
             int highLabelId, CountsAccessor.Updater countsUpdater, StatsProvider... additionalStatsProviders )
     {
         super( "Node counts", config );
-        add( new ReadRecordsStep<>( control(), config, nodeStore, allIn( nodeStore ) ) );
-        add( new RecordProcessorStep<>( control(), "COUNT", config, new NodeCountsProcessor(
-                nodeStore, cache, highLabelId, countsUpdater ), true, additionalStatsProviders ) );
+        add( new ReadRecordsStep<>( control(), config, nodeStore ) );
+        add( new ProcessNodeCountsDataStep( control(), nodeStore, cache, config, highLabelId, countsUpdater,
+                additionalStatsProviders ) );
     }
 }
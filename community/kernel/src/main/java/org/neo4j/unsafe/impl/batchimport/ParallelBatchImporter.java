@@ -82,6 +82,7 @@ public class ParallelBatchImporter implements BatchImporter
     private final ExecutionMonitor executionMonitor;
     private final AdditionalInitialIds additionalInitialIds;
     private final Config dbConfig;
+    private final RecordFormats recordFormats;
 
     /**
      * Advanced usage of the parallel batch importer, for special and very specific cases. Please use
@@ -91,6 +92,19 @@ public class ParallelBatchImporter implements BatchImporter
             LogService logService, ExecutionMonitor executionMonitor,
             AdditionalInitialIds additionalInitialIds,
             Config dbConfig )
+    {
+        this( storeDir, fileSystem, config, logService, executionMonitor, additionalInitialIds, dbConfig,
+                RecordFormatSelector.selectForConfig( dbConfig, NullLogProvider.getInstance() ) );
+    }
+
+    /**
+     * Advanced usage of the parallel batch importer, for writing stores in a record format other than the configured
+     * one, like when rewriting an existing store in its own format.
+     */
+    public ParallelBatchImporter( File storeDir, FileSystemAbstraction fileSystem, Configuration config,
+            LogService logService, ExecutionMonitor executionMonitor,
+            AdditionalInitialIds additionalInitialIds,
+            Config dbConfig, RecordFormats recordFormats )
     {
         this.storeDir = storeDir;
         this.fileSystem = fileSystem;
@@ -100,6 +114,7 @@ public class ParallelBatchImporter implements BatchImporter
         this.log = logService.getInternalLogProvider().getLog( getClass() );
         this.executionMonitor = executionMonitor;
         this.additionalInitialIds = additionalInitialIds;
+        this.recordFormats = recordFormats;
     }
 
     /**
@@ -127,7 +142,6 @@ public class ParallelBatchImporter implements BatchImporter
         boolean hasBadEntries = false;
         File badFile = new File( storeDir, Configuration.BAD_FILE_NAME );
         CountingStoreUpdateMonitor storeUpdateMonitor = new CountingStoreUpdateMonitor();
-        RecordFormats recordFormats = RecordFormatSelector.selectForConfig( dbConfig, NullLogProvider.getInstance() );
         try ( BatchingNeoStores neoStore = new BatchingNeoStores( fileSystem, storeDir, recordFormats, config, logService,
                 additionalInitialIds, dbConfig );
               CountsAccessor.Updater countsUpdater = neoStore.getCountsStore().reset(
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.batchimport;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.unsafe.impl.batchimport.cache.NodeLabelsCache;
+import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
+import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
+import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
+import org.neo4j.unsafe.impl.batchimport.stats.StatsProvider;
+
+/**
+ * Processes node records received from {@link org.neo4j.unsafe.impl.batchimport.staging.ReadRecordsStep},
+ * populating {@link NodeLabelsCache} and keeping the accumulated label counts per thread.
+ * Aggregated when {@link #done()}.
+ */
+public class ProcessNodeCountsDataStep extends ProcessorStep<NodeRecord[]>
+{
+    private final NodeStore nodeStore;
+    private final NodeLabelsCache cache;
+    private final Map<Thread,NodeCountsProcessor> processors = new ConcurrentHashMap<>();
+    private final int highLabelId;
+    private final CountsAccessor.Updater countsUpdater;
+
+    public ProcessNodeCountsDataStep( StageControl control, NodeStore nodeStore, NodeLabelsCache cache,
+            Configuration config, int highLabelId, CountsAccessor.Updater countsUpdater,
+            StatsProvider... additionalStatsProviders )
+    {
+        super( control, "COUNT", config, 0, additionalStatsProviders );
+        this.nodeStore = nodeStore;
+        this.cache = cache;
+        this.highLabelId = highLabelId;
+        this.countsUpdater = countsUpdater;
+    }
+
+    @Override
+    protected void process( NodeRecord[] batch, BatchSender sender )
+    {
+        NodeCountsProcessor processor = processor();
+        for ( NodeRecord node : batch )
+        {
+            if ( node != null && node.inUse() )
+            {
+                processor.process( node );
+            }
+        }
+    }
+
+    private NodeCountsProcessor processor()
+    {
+        NodeCountsProcessor processor = processors.get( Thread.currentThread() );
+        if ( processor == null )
+        {   // This is OK since in this step implementation we use TaskExecutor which sticks to its threads.
+            // deterministically.
+            processors.put( Thread.currentThread(), processor = new NodeCountsProcessor(
+                    nodeStore, cache, highLabelId, countsUpdater ) );
+        }
+        return processor;
+    }
+
+    @Override
+    protected void done()
+    {
+        super.done();
+        NodeCountsProcessor all = null;
+        for ( NodeCountsProcessor processor : processors.values() )
+        {
+            if ( all == null )
+            {
+                all = processor;
+            }
+            else
+            {
+                all.addCountsFrom( processor );
+            }
+        }
+        if ( all != null )
+        {
+            all.done();
+        }
+    }
+}
@@ -23,30 +23,37 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.kernel.impl.api.CountsAccessor;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.unsafe.impl.batchimport.cache.NodeLabelsCache;
 import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
 import org.neo4j.unsafe.impl.batchimport.staging.BatchSender;
 import org.neo4j.unsafe.impl.batchimport.staging.ProcessorStep;
 import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
 
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
 /**
- * Processes relationship count data received from {@link ReadRelationshipCountsDataStep} and keeps
- * the accumulated counts per thread. Aggregated when {@link #done()}.
+ * Reads the relationship records in the batches of ids received from {@link ReadRelationshipCountsDataStep}, and
+ * counts them, keeping the accumulated counts per thread. Aggregated when {@link #done()}.
  */
 public class ProcessRelationshipCountsDataStep extends ProcessorStep<long[]>
 {
+    private final RelationshipStore store;
     private final NodeLabelsCache cache;
     private final Map<Thread,RelationshipCountsProcessor> processors = new ConcurrentHashMap<>();
+    private final Map<Thread,RelationshipRecord[]> recordBatches = new ConcurrentHashMap<>();
     private final int highLabelId;
     private final int highRelationshipTypeId;
     private final CountsAccessor.Updater countsUpdater;
     private final NumberArrayFactory cacheFactory;
 
-    public ProcessRelationshipCountsDataStep( StageControl control, NodeLabelsCache cache,
+    public ProcessRelationshipCountsDataStep( StageControl control, RelationshipStore store, NodeLabelsCache cache,
             Configuration config, int highLabelId, int highRelationshipTypeId,
             CountsAccessor.Updater countsUpdater, NumberArrayFactory cacheFactory )
     {
         super( control, "COUNT", config, 0 );
+        this.store = store;
         this.cache = cache;
         this.highLabelId = highLabelId;
         this.highRelationshipTypeId = highRelationshipTypeId;
@@ -58,10 +65,26 @@ public class ProcessRelationshipCountsDataStep extends ProcessorStep<long[]>
     protected void process( long[] batch, BatchSender sender )
     {
         RelationshipCountsProcessor processor = processor();
-        for ( int i = 0; i < batch.length; i++ )
+        RelationshipRecord[] records = recordBatch( (int) batch[1] );
+        int read = store.getRecordBatch( batch[0], records, CHECK );
+        for ( int i = 0; i < read; i++ )
         {
-            processor.process( batch[i++], (int)batch[i++], batch[i] );
+            RelationshipRecord record = records[i];
+            if ( record.inUse() )
+            {
+                processor.process( record.getFirstNode(), record.getType(), record.getSecondNode() );
+            }
+        }
+    }
+
+    private RelationshipRecord[] recordBatch( int size )
+    {
+        RelationshipRecord[] records = recordBatches.get( Thread.currentThread() );
+        if ( records == null || records.length != size )
+        {   // Same as for the processors, each thread gets its own records to read into.
+            recordBatches.put( Thread.currentThread(), records = store.newRecordBatch( size ) );
         }
+        return records;
     }
 
     private RelationshipCountsProcessor processor()
@@ -19,6 +19,7 @@
  */
 package org.neo4j.unsafe.impl.batchimport;
 
+import org.neo4j.kernel.impl.store.DynamicValueCompression;
 import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
@@ -45,6 +46,7 @@ public class PropertyEncoderStep<RECORD extends PrimitiveRecord,INPUT extends In
     private final BatchingPropertyKeyTokenRepository propertyKeyHolder;
     private final int arrayDataSize;
     private final int stringDataSize;
+    private final DynamicValueCompression valueCompression;
     private final MovingAverage averageBlocksPerBatch;
 
     protected PropertyEncoderStep( StageControl control, Configuration config,
@@ -54,6 +56,7 @@ public class PropertyEncoderStep<RECORD extends PrimitiveRecord,INPUT extends In
         this.propertyKeyHolder = propertyKeyHolder;
         this.arrayDataSize = propertyStore.getArrayStore().getRecordDataSize();
         this.stringDataSize = propertyStore.getStringStore().getRecordDataSize();
+        this.valueCompression = propertyStore.getValueCompression();
         this.averageBlocksPerBatch = new MovingAverage( config.movingAverageSize() );
     }
 
@@ -62,7 +65,8 @@ public class PropertyEncoderStep<RECORD extends PrimitiveRecord,INPUT extends In
     {
         RelativeIdRecordAllocator stringAllocator = new RelativeIdRecordAllocator( stringDataSize );
         RelativeIdRecordAllocator arrayAllocator = new RelativeIdRecordAllocator( arrayDataSize );
-        PropertyCreator propertyCreator = new PropertyCreator( stringAllocator, arrayAllocator, null, null );
+        PropertyCreator propertyCreator =
+                new PropertyCreator( stringAllocator, arrayAllocator, null, null, valueCompression );
 
         int blockCountGuess = (int) averageBlocksPerBatch.average();
         PropertyBlock[] propertyBlocks = new PropertyBlock[blockCountGuess == 0
@@ -19,51 +19,38 @@
  */
 package org.neo4j.unsafe.impl.batchimport;
 
-import java.util.Arrays;
-
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.unsafe.impl.batchimport.staging.ReadRecordsStep;
 import org.neo4j.unsafe.impl.batchimport.staging.StageControl;
 
-import static org.neo4j.unsafe.impl.batchimport.RecordIdIteration.allIn;
-
 /**
- * Reads from {@link RelationshipStore} and produces batches of startNode,type,endNode values for
- * others to process. The result is one long[] with all values in.
+ * Hands out the ids of the records in {@link RelationshipStore}, in batches of consecutive ids. Each batch is a
+ * {@code long[]} of the first id and the number of ids in the batch. The records themselves are read by
+ * {@link ProcessRelationshipCountsDataStep}, so that reading them is spread over the threads that count them,
+ * rather than being done by this one thread.
  */
 public class ReadRelationshipCountsDataStep extends ReadRecordsStep<RelationshipRecord>
 {
-    private long id = -1;
-    private final long highestId;
+    private long id;
 
     public ReadRelationshipCountsDataStep( StageControl control, Configuration config, RelationshipStore store )
     {
-        super( control, config, store, allIn( store ) );
-        this.highestId = highId - 1;
+        super( control, config, store );
+        this.id = store.getNumberOfReservedLowIds();
     }
 
     @Override
     protected long[] nextBatchOrNull( long ticket, int batchSize )
     {
-        if ( id >= highestId )
+        if ( id >= highId )
         {
             return null;
         }
-
-        long[] batch = new long[batchSize*3]; // start node, type, end node = 3
-        int i = 0;
-        for ( ; i < batchSize && ++id <= highestId; )
-        {
-            if ( cursor.next( id ) )
-            {
-                int index = i++ * 3;
-                batch[index++] = record.getFirstNode();
-                batch[index++] = record.getType();
-                batch[index++] = record.getSecondNode();
-            }
-        }
-        return i == batchSize ? batch : Arrays.copyOf( batch, i*3 );
+        long count = Math.min( batchSize, highId - id );
+        long[] batch = {id, count};
+        id += count;
+        return batch;
     }
 
     @Override
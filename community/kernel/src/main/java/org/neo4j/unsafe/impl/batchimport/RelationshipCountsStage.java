@@ -37,7 +37,7 @@ public class RelationshipCountsStage extends Stage
     {
         super( "Relationship counts", config );
         add( new ReadRelationshipCountsDataStep( control(), config, relationshipStore ) );
-        add( new ProcessRelationshipCountsDataStep( control(), cache, config,
+        add( new ProcessRelationshipCountsDataStep( control(), relationshipStore, cache, config,
                 highLabelId, highRelationshipTypeId, countsUpdater, cacheFactory ) );
     }
 }
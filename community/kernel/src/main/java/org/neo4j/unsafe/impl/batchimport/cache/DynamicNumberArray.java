@@ -32,7 +32,9 @@ abstract class DynamicNumberArray<N extends NumberArray<N>> implements NumberArr
 {
     protected final NumberArrayFactory factory;
     protected final long chunkSize;
-    protected N[] chunks;
+    // Volatile, since chunks are added under a lock by one thread, while other threads read through at() without it.
+    // Publishing the new array through a volatile write makes the chunks in it visible to those threads as well.
+    protected volatile N[] chunks;
 
     DynamicNumberArray( NumberArrayFactory factory, long chunkSize, N[] initialChunks )
     {
@@ -79,26 +81,28 @@ abstract class DynamicNumberArray<N extends NumberArray<N>> implements NumberArr
     @Override
     public N at( long index )
     {
-        if ( index >= length() )
+        int chunkIndex = chunkIndex( index );
+        N[] chunks = this.chunks;
+        if ( chunkIndex >= chunks.length )
         {
-            synchronizedAddChunk( index );
+            chunks = synchronizedAddChunk( index );
         }
-
-        int chunkIndex = chunkIndex( index );
         return chunks[chunkIndex];
     }
 
-    private synchronized void synchronizedAddChunk( long index )
+    private synchronized N[] synchronizedAddChunk( long index )
     {
-        if ( index >= length() )
+        N[] chunks = this.chunks;
+        if ( index >= chunks.length * chunkSize )
         {
             N[] newChunks = Arrays.copyOf( chunks, chunkIndex( index )+1 );
             for ( int i = chunks.length; i < newChunks.length; i++ )
             {
                 newChunks[i] = addChunk( chunkSize, chunkSize * i );
             }
-            chunks = newChunks;
+            this.chunks = chunks = newChunks;
         }
+        return chunks;
     }
 
     protected abstract N addChunk( long chunkSize, long base );
@@ -19,6 +19,8 @@
  */
 package org.neo4j.unsafe.impl.batchimport.cache;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.neo4j.kernel.impl.util.Bits;
 
 import static java.lang.Integer.numberOfLeadingZeros;
@@ -48,7 +50,7 @@ public class NodeLabelsCache implements MemoryStatsVisitor.Visitable
 
     private final LongArray cache;
     private final LongArray spillOver;
-    private long spillOverIndex;
+    private final AtomicLong spillOverIndex = new AtomicLong();
     private final int bitsPerLabel;
     private final int worstCaseLongsNeeded;
     private final Client putClient;
@@ -68,9 +70,9 @@ public class NodeLabelsCache implements MemoryStatsVisitor.Visitable
     }
 
     /**
-     * @return a new {@link Client} used in {@link #get(Client, long, int[])}. {@link Client} contains
-     * mutable state and so each thread calling {@link #get(Client, long, int[])} must create their own
-     * client instance once and (re)use it for every get-call they do.
+     * @return a new {@link Client} used in {@link #get(Client, long, int[])} and {@link #put(Client, long, long[])}.
+     * {@link Client} contains mutable state and so each thread calling those methods must create their own
+     * client instance once and (re)use it for every call they do.
      */
     public Client newClient()
     {
@@ -87,36 +89,46 @@ public class NodeLabelsCache implements MemoryStatsVisitor.Visitable
      * the spillOver array.
      *
      * This method may only be called by a single thread, putting from multiple threads may cause undeterministic
-     * behaviour.
+     * behaviour. Use {@link #put(Client, long, long[])} for putting from multiple threads.
      */
     public void put( long nodeId, long[] labelIds )
     {
-        putClient.labelBits.clear( true );
-        putClient.labelBits.put( labelIds.length, bitsPerLabel );
+        put( putClient, nodeId, labelIds );
+    }
+
+    /**
+     * Same as {@link #put(long, long[])}, but multiple threads may call this method simultaneously, given that
+     * they do so with each their own {@link Client} instance and for different node ids.
+     */
+    public void put( Client client, long nodeId, long[] labelIds )
+    {
+        client.labelBits.clear( true );
+        client.labelBits.put( labelIds.length, bitsPerLabel );
         for ( long labelId : labelIds )
         {
-            putClient.labelBits.put( (int) labelId, bitsPerLabel );
+            client.labelBits.put( (int) labelId, bitsPerLabel );
         }
 
-        int longsInUse = putClient.labelBits.longsInUse();
+        int longsInUse = client.labelBits.longsInUse();
         assert longsInUse > 0 : "Uhm";
         if ( longsInUse == 1 )
         {   // We only require one long, so put it right in there
-            cache.set( nodeId, putClient.labelScratch[0] );
+            cache.set( nodeId, client.labelScratch[0] );
         }
         else
         {   // Now it gets tricky, we have to spill over into another array
-            // So create the reference
-            putClient.fieldBits.clear( true );
-            putClient.fieldBits.put( labelIds.length, bitsPerLabel );
-            putClient.fieldBits.put( spillOverIndex, Long.SIZE - bitsPerLabel );
-            cache.set( nodeId, putClient.fieldBits.getLongs()[0] );
+            // So create the reference, reserving the spill over slots up front
+            long index = spillOverIndex.getAndAdd( longsInUse );
+            client.fieldBits.clear( true );
+            client.fieldBits.put( labelIds.length, bitsPerLabel );
+            client.fieldBits.put( index, Long.SIZE - bitsPerLabel );
+            cache.set( nodeId, client.fieldBits.getLongs()[0] );
 
             // And set the longs in the spill over array. For simplicity we put the encoded bits as they
             // are right into the spill over array, where the first slot will have the length "again".
             for ( int i = 0; i < longsInUse; i++ )
             {
-                spillOver.set( spillOverIndex++, putClient.labelScratch[i] );
+                spillOver.set( index + i, client.labelScratch[i] );
             }
         }
     }
@@ -29,12 +29,14 @@ import org.neo4j.kernel.impl.store.RecordCursor;
 import org.neo4j.kernel.impl.store.RecordStore;
 import org.neo4j.kernel.impl.store.id.validation.IdValidator;
 import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 
 /**
  * Reads records from a {@link RecordStore} and sends batches of those records downstream.
  * A {@link RecordCursor} is used during the life cycle of this {@link Step}, e.g. between
- * {@link #start(int)} and {@link #close()}.
+ * {@link #start(int)} and {@link #close()}. When reading all records in the store, the records of each batch
+ * are instead read together, with {@link RecordStore#getRecordBatch(long, AbstractBaseRecord[], RecordLoad)}.
  *
  * @param <RECORD> type of {@link AbstractBaseRecord}
  */
@@ -49,6 +51,16 @@ public class ReadRecordsStep<RECORD extends AbstractBaseRecord> extends IoProduc
     private final int recordSize;
     private final Predicate<RECORD> filter;
     private long count;
+    private long nextId;
+
+    /**
+     * Reads all records in the store, in order.
+     */
+    public ReadRecordsStep( StageControl control, Configuration config, RecordStore<RECORD> store )
+    {
+        this( control, config, store, null );
+        this.nextId = store.getNumberOfReservedLowIds();
+    }
 
     public ReadRecordsStep( StageControl control, Configuration config, RecordStore<RECORD> store,
             PrimitiveLongIterator ids )
@@ -81,6 +93,10 @@ public class ReadRecordsStep<RECORD extends AbstractBaseRecord> extends IoProduc
     @Override
     protected Object nextBatchOrNull( long ticket, int batchSize )
     {
+        if ( ids == null )
+        {
+            return nextScannedBatchOrNull( batchSize );
+        }
         if ( !ids.hasNext() )
         {
             return null;
@@ -111,6 +127,36 @@ public class ReadRecordsStep<RECORD extends AbstractBaseRecord> extends IoProduc
         return batch.length > 0 ? batch : null;
     }
 
+    private RECORD[] nextScannedBatchOrNull( int batchSize )
+    {
+        while ( nextId < highId )
+        {
+            RECORD[] batch = store.newRecordBatch( (int) Math.min( batchSize, highId - nextId ) );
+            int read = store.getRecordBatch( nextId, batch, CHECK );
+            if ( read == 0 )
+            {
+                return null;
+            }
+            nextId += read;
+
+            int i = 0;
+            for ( int j = 0; j < read; j++ )
+            {
+                RECORD record = batch[j];
+                if ( filter.test( record ) && !IdValidator.isReservedId( record.getId() ) )
+                {
+                    batch[i++] = record;
+                }
+            }
+            count += i;
+            if ( i > 0 )
+            {
+                return i == batch.length ? batch : Arrays.copyOf( batch, i );
+            }
+        }
+        return null;
+    }
+
     @Override
     public void close() throws Exception
     {
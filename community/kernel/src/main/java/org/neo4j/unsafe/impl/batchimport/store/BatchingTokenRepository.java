@@ -48,12 +48,19 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord, TOKEN
 {
     private final Map<String,Integer> tokens = new HashMap<>();
     private final TokenStore<RECORD, TOKEN> store;
+    private final int existingHighId;
     private int highId;
 
     public BatchingTokenRepository( TokenStore<RECORD,TOKEN> store )
     {
         this.store = store;
         this.highId = (int)store.getHighId();
+        this.existingHighId = highId;
+        // Tokens that are already in the store keep their ids when asked for by name
+        for ( TOKEN token : store.getTokens( Integer.MAX_VALUE ) )
+        {
+            tokens.put( token.name(), token.id() );
+        }
     }
 
     /**
@@ -196,7 +203,10 @@ public abstract class BatchingTokenRepository<RECORD extends TokenRecord, TOKEN
         Map<Integer,String> sorted = new TreeMap<>();
         for ( Map.Entry<String,Integer> entry : tokens.entrySet() )
         {
-            sorted.put( entry.getValue(), entry.getKey() );
+            if ( entry.getValue() >= existingHighId )
+            {
+                sorted.put( entry.getValue(), entry.getKey() );
+            }
         }
         return sorted.entrySet();
     }
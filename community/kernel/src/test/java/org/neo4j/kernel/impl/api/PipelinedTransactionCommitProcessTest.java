@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.Race;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.helpers.Exceptions.contains;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+public class PipelinedTransactionCommitProcessTest
+{
+    private final TransactionIdStore transactionIdStore = new DeadSimpleTransactionIdStore();
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private final PipelinedTransactionCommitProcess commitProcess =
+            new PipelinedTransactionCommitProcess( new TestableTransactionAppender( transactionIdStore ), storageEngine );
+
+    @After
+    public void stop() throws Exception
+    {
+        commitProcess.stop();
+    }
+
+    @Test
+    public void shouldApplyAndCloseAllConcurrentlyCommittedTransactions() throws Throwable
+    {
+        // GIVEN
+        Set<Long> applied = ConcurrentHashMap.newKeySet();
+        AtomicInteger batches = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            batches.incrementAndGet();
+            for ( TransactionToApply tx = invocation.getArgumentAt( 0, TransactionToApply.class ); tx != null;
+                    tx = tx.next() )
+            {
+                assertTrue( "Applied twice", applied.add( tx.transactionId() ) );
+            }
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        commitProcess.start();
+        int threads = 8;
+        int transactionsPerThread = 100;
+
+        // WHEN
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            race.addContestant( () ->
+            {
+                try
+                {
+                    for ( int j = 0; j < transactionsPerThread; j++ )
+                    {
+                        TransactionToApply tx = transaction();
+                        commitProcess.commit( tx, CommitEvent.NULL, INTERNAL );
+                        assertTrue( applied.contains( tx.transactionId() ) );
+                        assertNull( tx.next() );
+                    }
+                }
+                catch ( TransactionFailureException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            } );
+        }
+        race.go();
+
+        // THEN
+        int transactions = threads * transactionsPerThread;
+        assertEquals( transactions, applied.size() );
+        assertTrue( batches.get() <= transactions );
+        assertEquals( TransactionIdStore.BASE_TX_ID + transactions, transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    @Test
+    public void shouldPropagateApplyFailureAndStillCloseTransaction() throws Exception
+    {
+        // GIVEN
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( rootCause ).when( storageEngine ).apply(
+                any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        commitProcess.start();
+        TransactionToApply tx = transaction();
+
+        // WHEN
+        try
+        {
+            commitProcess.commit( tx, CommitEvent.NULL, INTERNAL );
+            fail( "Should have failed" );
+        }
+        catch ( TransactionFailureException e )
+        {
+            // THEN
+            assertThat( e.getMessage(), containsString( "Could not apply the transaction to the store" ) );
+            assertTrue( contains( e, rootCause.getMessage(), rootCause.getClass() ) );
+        }
+        assertEquals( tx.transactionId(), transactionIdStore.getLastClosedTransactionId() );
+    }
+
+    @Test
+    public void shouldApplyOnCommittingThreadWhenNotStarted() throws Exception
+    {
+        // GIVEN
+        Thread[] applier = new Thread[1];
+        doAnswer( invocation ->
+        {
+            applier[0] = Thread.currentThread();
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+
+        // WHEN
+        commitProcess.commit( transaction(), CommitEvent.NULL, INTERNAL );
+
+        // THEN
+        assertSame( Thread.currentThread(), applier[0] );
+
+        // and WHEN started
+        commitProcess.start();
+        commitProcess.commit( transaction(), CommitEvent.NULL, INTERNAL );
+
+        // THEN
+        assertNotSame( Thread.currentThread(), applier[0] );
+    }
+
+    private TransactionToApply transaction()
+    {
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        return new TransactionToApply( transaction );
+    }
+}
@@ -21,7 +21,18 @@ package org.neo4j.kernel.impl.api.store;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
 import org.neo4j.cursor.Cursor;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.storageengine.api.NodeItem;
 import org.neo4j.storageengine.api.RelationshipItem;
@@ -29,7 +40,9 @@ import org.neo4j.storageengine.api.StorageStatement;
 
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.asSet;
 import static org.neo4j.graphdb.RelationshipType.withName;
 import static org.neo4j.helpers.collection.MapUtil.map;
 
@@ -86,6 +99,109 @@ public class DiskLayerNodeAndRelTest extends DiskLayerTest
         assertFalse( relationshipExists( neverExisted ) );
     }
 
+    @Test
+    public void shouldReturnEachNodeFromExactlyOnePartition() throws Exception
+    {
+        // Given nodes spanning several partition chunks, with some of them deleted
+        List<Node> nodes = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 5_000; i++ )
+            {
+                nodes.add( db.createNode() );
+            }
+            tx.success();
+        }
+        PrimitiveLongSet expected = Primitive.longSet();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < nodes.size(); i++ )
+            {
+                if ( i % 7 == 0 )
+                {
+                    nodes.get( i ).delete();
+                }
+                else
+                {
+                    expected.add( nodes.get( i ).getId() );
+                }
+            }
+            tx.success();
+        }
+
+        // When
+        PrimitiveLongSet scanned = scanInParallel( disk.nodesGetAllPartitioned( 4 ) );
+
+        // Then
+        assertEquals( expected, scanned );
+    }
+
+    @Test
+    public void shouldReturnEachRelationshipFromExactlyOnePartition() throws Exception
+    {
+        // Given relationships spanning several partition chunks, with some of them deleted
+        List<Relationship> relationships = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            for ( int i = 0; i < 5_000; i++ )
+            {
+                relationships.add( node.createRelationshipTo( db.createNode(), relType1 ) );
+            }
+            tx.success();
+        }
+        PrimitiveLongSet expected = Primitive.longSet();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < relationships.size(); i++ )
+            {
+                if ( i % 7 == 0 )
+                {
+                    relationships.get( i ).delete();
+                }
+                else
+                {
+                    expected.add( relationships.get( i ).getId() );
+                }
+            }
+            tx.success();
+        }
+
+        // When
+        PrimitiveLongSet scanned = scanInParallel( disk.relationshipsGetAllPartitioned( 3 ) );
+
+        // Then
+        assertEquals( expected, scanned );
+    }
+
+    private static PrimitiveLongSet scanInParallel( List<? extends PrimitiveLongIterator> partitions )
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( partitions.size() );
+        try
+        {
+            List<Future<PrimitiveLongSet>> futures = new ArrayList<>();
+            for ( PrimitiveLongIterator partition : partitions )
+            {
+                futures.add( executor.submit( () -> asSet( partition ) ) );
+            }
+            PrimitiveLongSet all = Primitive.longSet();
+            for ( Future<PrimitiveLongSet> future : futures )
+            {
+                PrimitiveLongIterator ids = future.get().iterator();
+                while ( ids.hasNext() )
+                {
+                    assertTrue( "Returned from more than one partition", all.add( ids.next() ) );
+                }
+            }
+            return all;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     private boolean nodeExists( long id )
     {
         try ( StorageStatement statement = disk.newStatement() )
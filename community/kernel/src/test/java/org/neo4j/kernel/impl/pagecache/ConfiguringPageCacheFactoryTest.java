@@ -37,6 +37,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_preallocate;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
 import static org.neo4j.kernel.impl.pagecache.PageSwapperFactoryForTesting.TEST_PAGESWAPPER_NAME;
@@ -77,6 +78,34 @@ public class ConfiguringPageCacheFactoryTest
         }
     }
 
+    @Test
+    public void mustReportPreallocationOnlyWhenPreallocating() throws Exception
+    {
+        // Given
+        Config config = new Config( stringMap( pagecache_memory.name(), "8m" ) );
+        Config preallocatingConfig = new Config( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_preallocate.name(), "true" ) );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        Log log = logProvider.getLog( PageCache.class );
+
+        // When
+        ConfiguringPageCacheFactory factory = new ConfiguringPageCacheFactory(
+                fsRule.get(), config, PageCacheTracer.NULL, log );
+        ConfiguringPageCacheFactory preallocatingFactory = new ConfiguringPageCacheFactory(
+                fsRule.get(), preallocatingConfig, PageCacheTracer.NULL, log );
+
+        // Then
+        try ( PageCache cache = factory.getOrCreatePageCache() )
+        {
+            assertThat( factory.getPreallocationTimeMillis(), is( 0L ) );
+        }
+        try ( PageCache cache = preallocatingFactory.getOrCreatePageCache() )
+        {
+            logProvider.assertContainsMessageContaining( "Pre-allocated" );
+        }
+    }
+
     @Test
     public void mustUseAndLogConfiguredPageSwapper() throws Exception
     {
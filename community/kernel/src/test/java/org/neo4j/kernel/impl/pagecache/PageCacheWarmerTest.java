@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.StandardOpenOption;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+public class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    @Rule
+    public final PageCacheRule pageCacheRule = new PageCacheRule( false );
+
+    private final Neo4jJobScheduler scheduler = new Neo4jJobScheduler();
+    private FileSystemAbstraction fs;
+    private File storeDir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        scheduler.init();
+        fs = fsRule.get();
+        storeDir = new File( "store" ).getAbsoluteFile();
+        fs.mkdirs( storeDir );
+        file = new File( storeDir, "a" );
+        writePages( file );
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void mustReheatProfiledPagesAfterRestart() throws Throwable
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            touch( pagedFile, 2 );
+            touch( pagedFile, 5 );
+            touch( pagedFile, 9 );
+            PageCacheWarmer warmer = createWarmer( pageCache );
+            warmer.start();
+            warmer.stop();
+        }
+        assertTrue( fs.fileExists( PageCacheWarmer.profileFile( file ) ) );
+
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            assertFalse( isResident( pagedFile, 2 ) );
+            PageCacheWarmer warmer = createWarmer( pageCache );
+            assertThat( warmer.reheat(), is( 3L ) );
+            for ( int pageId = 0; pageId < 10; pageId++ )
+            {
+                assertThat( isResident( pagedFile, pageId ), is( pageId == 2 || pageId == 5 || pageId == 9 ) );
+            }
+        }
+    }
+
+    @Test
+    public void mustReheatAllProfiledFiles() throws Throwable
+    {
+        File otherFile = new File( storeDir, "b" );
+        writePages( otherFile );
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherFile, PAGE_SIZE ) )
+        {
+            touch( pagedFile, 1 );
+            touch( otherPagedFile, 3 );
+            touch( otherPagedFile, 4 );
+            createWarmer( pageCache ).profile();
+        }
+
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherFile, PAGE_SIZE ) )
+        {
+            assertThat( createWarmer( pageCache ).reheat(), is( 3L ) );
+            assertTrue( isResident( pagedFile, 1 ) );
+            assertTrue( isResident( otherPagedFile, 3 ) );
+            assertTrue( isResident( otherPagedFile, 4 ) );
+            assertFalse( isResident( otherPagedFile, 1 ) );
+        }
+    }
+
+    @Test
+    public void profilingMustNotCountAsPageHits() throws Throwable
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            touch( pagedFile, 2 );
+            touch( pagedFile, 2 );
+            long hitsBefore = pageCache.listPagedFileCounters().get( 0 ).hits();
+            assertThat( hitsBefore, is( 1L ) );
+
+            createWarmer( pageCache ).profile();
+
+            assertThat( pageCache.listPagedFileCounters().get( 0 ).hits(), is( hitsBefore ) );
+        }
+    }
+
+    @Test
+    public void mustNotProfileFilesOutsideOfStoreDir() throws Throwable
+    {
+        File otherFile = new File( "other" ).getAbsoluteFile();
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( otherFile, PAGE_SIZE, StandardOpenOption.CREATE ) )
+        {
+            createWarmer( pageCache ).profile();
+        }
+        assertFalse( fs.fileExists( PageCacheWarmer.profileFile( otherFile ) ) );
+    }
+
+    @Test
+    public void reheatMustDoNothingWithoutProfile() throws Throwable
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE ) )
+        {
+            assertThat( createWarmer( pageCache ).reheat(), is( 0L ) );
+            assertFalse( isResident( pagedFile, 0 ) );
+        }
+    }
+
+    private PageCacheWarmer createWarmer( PageCache pageCache )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, storeDir, 1000, NullLog.getInstance() );
+    }
+
+    private void writePages( File file ) throws IOException
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, StandardOpenOption.CREATE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    private static void touch( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+        }
+    }
+
+    private static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            assertTrue( cursor.next() );
+            return cursor.getCurrentPageId() == pageId;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.format.compact.Compact;
+import org.neo4j.kernel.impl.store.format.standard.StandardV3_0;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.store.AbstractDynamicStore.readFullByteArrayFromHeavyRecords;
+
+public class DynamicValueCompressionTest
+{
+    @Rule
+    public final RandomRule random = new RandomRule();
+
+    private final DynamicValueCompression compression = new DynamicValueCompression( 100 );
+
+    @Test
+    public void shouldCompressAndDecompressValues() throws Exception
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            // given
+            byte[] value = compressibleBytes( random.nextInt( 100, 10_000 ) );
+
+            // when
+            byte[] compressed = compression.compress( value );
+
+            // then
+            assertTrue( compressed.length < value.length );
+            assertTrue( DynamicValueCompression.isCompressed( compressed, 0, compressed.length ) );
+            assertArrayEquals( value, DynamicValueCompression.decompressIfCompressed( compressed ) );
+        }
+    }
+
+    @Test
+    public void shouldCompressLongRunsOfTheSameByte() throws Exception
+    {
+        // given
+        byte[] value = new byte[5_000];
+        Arrays.fill( value, (byte) 'a' );
+
+        // when
+        byte[] compressed = compression.compress( value );
+
+        // then
+        assertTrue( compressed.length < 100 );
+        assertArrayEquals( value, DynamicValueCompression.decompressIfCompressed( compressed ) );
+    }
+
+    @Test
+    public void shouldNotCompressValuesThatDoNotGetSmaller() throws Exception
+    {
+        // given
+        byte[] value = new byte[1_000];
+        random.nextBytes( value );
+        value[0] = 0;
+
+        // when
+        byte[] compressed = compression.compress( value );
+
+        // then
+        assertSame( value, compressed );
+        assertSame( value, DynamicValueCompression.decompressIfCompressed( value ) );
+    }
+
+    @Test
+    public void shouldNotCompressValuesSmallerThanTheThreshold() throws Exception
+    {
+        // given
+        byte[] value = compressibleBytes( 99 );
+
+        // then
+        assertSame( value, compression.compress( value ) );
+    }
+
+    @Test
+    public void shouldNotCompressAnythingByDefault() throws Exception
+    {
+        // given
+        DynamicValueCompression compression = DynamicValueCompression.fromConfig( Config.empty() );
+        byte[] value = compressibleBytes( 10_000 );
+
+        // then
+        assertFalse( compression.isEnabled() );
+        assertSame( value, compression.compress( value ) );
+    }
+
+    @Test
+    public void shouldOnlyCompressInFormatsThatSupportCompressedValues() throws Exception
+    {
+        // given
+        Config config = new Config( stringMap(
+                GraphDatabaseSettings.dynamic_property_compression_threshold.name(), "100" ) );
+
+        // then
+        Log log = NullLog.getInstance();
+        assertFalse( DynamicValueCompression.forFormat( config, StandardV3_0.RECORD_FORMATS, log ).isEnabled() );
+        assertTrue( DynamicValueCompression.forFormat( config, Compact.RECORD_FORMATS, log ).isEnabled() );
+    }
+
+    @Test
+    public void shouldWarnWhenCompressionIsConfiguredForFormatThatDoesNotSupportIt() throws Exception
+    {
+        // given
+        Config config = new Config( stringMap(
+                GraphDatabaseSettings.dynamic_property_compression_threshold.name(), "100" ) );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+
+        // when
+        DynamicValueCompression.forFormat( config, StandardV3_0.RECORD_FORMATS, logProvider.getLog( getClass() ) );
+
+        // then
+        logProvider.assertContainsLogCallContaining( "does not support compressed values" );
+    }
+
+    @Test
+    public void shouldNotWarnWhenCompressionIsNotConfigured() throws Exception
+    {
+        // given
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+
+        // when
+        DynamicValueCompression.forFormat( Config.empty(), StandardV3_0.RECORD_FORMATS,
+                logProvider.getLog( getClass() ) );
+        DynamicValueCompression.forFormat( Config.empty(), Compact.RECORD_FORMATS, logProvider.getLog( getClass() ) );
+
+        // then
+        logProvider.assertNoLoggingOccurred();
+    }
+
+    @Test
+    public void shouldFailOnCorruptCompressedValue() throws Exception
+    {
+        // given
+        byte[] compressed = compression.compress( compressibleBytes( 1_000 ) );
+        compressed[compressed.length / 2] ^= 0x5A;
+        compressed[compressed.length / 3] ^= 0x5A;
+
+        // when
+        try
+        {
+            byte[] value = DynamicValueCompression.decompressIfCompressed( compressed );
+            // then a corrupt value that happens to decompress must at least have the expected length
+            assertEquals( 1_000, value.length );
+        }
+        catch ( InvalidRecordException e )
+        {
+            // then good
+        }
+    }
+
+    @Test
+    public void shouldFailOnTruncatedCompressedValue() throws Exception
+    {
+        // given
+        byte[] compressed = compression.compress( compressibleBytes( 1_000 ) );
+
+        // when
+        try
+        {
+            DynamicValueCompression.decompress( compressed, 0, compressed.length / 2 );
+            fail( "Should have failed" );
+        }
+        catch ( InvalidRecordException e )
+        {
+            // then good
+        }
+    }
+
+    @Test
+    public void shouldStoreCompressedStringsInFewerRecords() throws Exception
+    {
+        // given
+        String string = new String( compressibleBytes( 5_000 ), "UTF-8" );
+
+        // when
+        List<DynamicRecord> compressedRecords = encode( string, compression );
+        List<DynamicRecord> uncompressedRecords = encode( string, DynamicValueCompression.NONE );
+
+        // then
+        assertTrue( compressedRecords.size() < uncompressedRecords.size() );
+        byte[] bytes = readFullByteArrayFromHeavyRecords( compressedRecords, PropertyType.STRING ).other();
+        assertEquals( string, PropertyStore.decodeString( DynamicValueCompression.decompressIfCompressed( bytes ) ) );
+    }
+
+    @Test
+    public void shouldStoreCompressedArraysInFewerRecords() throws Exception
+    {
+        // given
+        String[] strings = new String[200];
+        int[] ints = new int[2_000];
+        for ( int i = 0; i < strings.length; i++ )
+        {
+            strings[i] = "{\"name\":\"value " + i % 7 + "\"}";
+        }
+        for ( int i = 0; i < ints.length; i++ )
+        {
+            ints[i] = 100_000 + i % 10;
+        }
+
+        for ( Object array : new Object[]{strings, ints} )
+        {
+            // when
+            List<DynamicRecord> compressedRecords = encode( array, compression );
+            List<DynamicRecord> uncompressedRecords = encode( array, DynamicValueCompression.NONE );
+
+            // then
+            assertTrue( compressedRecords.size() < uncompressedRecords.size() );
+            Object read = DynamicArrayStore.getRightArray(
+                    readFullByteArrayFromHeavyRecords( compressedRecords, PropertyType.ARRAY ) );
+            assertTrue( Arrays.deepEquals( new Object[]{array}, new Object[]{read} ) );
+        }
+    }
+
+    private List<DynamicRecord> encode( Object value, DynamicValueCompression compression )
+    {
+        PropertyBlock block = new PropertyBlock();
+        StandaloneDynamicRecordAllocator allocator = new StandaloneDynamicRecordAllocator();
+        PropertyStore.encodeValue( block, 0, value, allocator, allocator, compression );
+        return new ArrayList<>( block.getValueRecords() );
+    }
+
+    private byte[] compressibleBytes( int length )
+    {
+        String[] words = {"{\"id\":", "\"name\":", "\"tags\":[", "],", "}", "\"neo4j\"", "\"graph\",", " "};
+        StringBuilder builder = new StringBuilder();
+        while ( builder.length() < length )
+        {
+            builder.append( words[random.nextInt( words.length )] );
+        }
+        byte[] bytes = new byte[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes[i] = (byte) builder.charAt( i );
+        }
+        return bytes;
+    }
+}
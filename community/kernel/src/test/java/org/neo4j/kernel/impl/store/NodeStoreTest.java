@@ -75,6 +75,7 @@ import static org.neo4j.kernel.impl.store.DynamicArrayStore.allocateFromNumbers;
 import static org.neo4j.kernel.impl.store.NodeStore.readOwnerFromDynamicLabelsRecord;
 import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
 import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
 
 public class NodeStoreTest
@@ -270,6 +271,39 @@ public class NodeStoreTest
         assertTrue( nextRelSet.isEmpty() );
     }
 
+    @Test
+    public void readingRecordBatchesShouldSeeSameRecordsAsReadingOneByOne() throws IOException
+    {
+        // GIVEN a NodeStore with records, some of them unused, that span several pages
+        EphemeralFileSystemAbstraction fs = efs.get();
+        nodeStore = newNodeStore( fs );
+        for ( int i = 0; i < 2_000; i++ )
+        {
+            long nodeId = nodeStore.nextId();
+            nodeStore.updateRecord( new NodeRecord( nodeId, false, i, 20, i % 3 != 0 ) );
+        }
+        long highId = nodeStore.getHighId();
+
+        // WHEN reading batches that do not line up with the page boundaries
+        NodeRecord[] batch = nodeStore.newRecordBatch( 97 );
+        long id = 0;
+        int count;
+        while ( (count = nodeStore.getRecordBatch( id, batch, CHECK )) > 0 )
+        {
+            // THEN every record is the same as when read on its own
+            for ( int i = 0; i < count; i++ )
+            {
+                NodeRecord expected = nodeStore.getRecord( id + i, nodeStore.newRecord(), CHECK );
+                assertEquals( expected.toString(), batch[i].toString() );
+            }
+            id += count;
+        }
+
+        // ...all the way up to, but not beyond, the high id
+        assertEquals( highId, id );
+        assertEquals( 0, nodeStore.getRecordBatch( highId + 10, batch, CHECK ) );
+    }
+
     @Test
     public void shouldCloseStoreFileOnFailureToOpen() throws Exception
     {
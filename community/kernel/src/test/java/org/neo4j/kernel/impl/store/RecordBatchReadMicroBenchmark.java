@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.logging.NullLogProvider;
+
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Compares the throughput of scanning the node store one record at a time, with
+ * {@link RecordStore#getRecord(long, org.neo4j.kernel.impl.store.record.AbstractBaseRecord,
+ * org.neo4j.kernel.impl.store.record.RecordLoad) getRecord}, against scanning it in batches, with
+ * {@link RecordStore#getRecordBatch(long, org.neo4j.kernel.impl.store.record.AbstractBaseRecord[],
+ * org.neo4j.kernel.impl.store.record.RecordLoad) getRecordBatch}, which pins each page once per batch.
+ */
+public class RecordBatchReadMicroBenchmark
+{
+    public static void main( String... args ) throws Exception
+    {
+        int nodeCount = Integer.getInteger( "nodeCount", 10_000_000 );
+        int batchSize = Integer.getInteger( "batchSize", 64 );
+        int iterations = Integer.getInteger( "iterations", 5 );
+
+        File directory = Files.createTempDirectory( "batch-read" ).toFile();
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        int maxPages = (int) (nodeCount * 15L / 8192) + 1000;
+        try ( MuninnPageCache pageCache = new MuninnPageCache(
+                      swapperFactory, maxPages, 8192, new DefaultPageCacheTracer() );
+              NeoStores neoStores = new StoreFactory( directory, pageCache, fs,
+                      NullLogProvider.getInstance() ).openAllNeoStores( true ) )
+        {
+            NodeStore nodeStore = neoStores.getNodeStore();
+            createNodes( nodeStore, nodeCount );
+            NodeRecord record = nodeStore.newRecord();
+            NodeRecord[] batch = nodeStore.newRecordBatch( batchSize );
+            for ( int i = 0; i < iterations; i++ )
+            {
+                long startNanos = System.nanoTime();
+                long checksum = scanOneByOne( nodeStore, record );
+                report( "getRecord", startNanos, nodeCount, checksum );
+
+                startNanos = System.nanoTime();
+                checksum = scanInBatches( nodeStore, batch );
+                report( "getRecordBatch(" + batchSize + ")", startNanos, nodeCount, checksum );
+            }
+        }
+        finally
+        {
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static void createNodes( NodeStore nodeStore, int nodeCount )
+    {
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            // Leave some holes, like a store with deleted nodes would have
+            boolean inUse = i % 10 != 0;
+            nodeStore.updateRecord( new NodeRecord( nodeStore.nextId() ).initialize( inUse, -1, false, i, 0 ) );
+        }
+    }
+
+    private static long scanOneByOne( NodeStore nodeStore, NodeRecord record )
+    {
+        long checksum = 0;
+        long highId = nodeStore.getHighId();
+        for ( long id = 0; id < highId; id++ )
+        {
+            if ( nodeStore.getRecord( id, record, CHECK ).inUse() )
+            {
+                checksum += record.getNextRel();
+            }
+        }
+        return checksum;
+    }
+
+    private static long scanInBatches( NodeStore nodeStore, NodeRecord[] batch )
+    {
+        long checksum = 0;
+        long id = 0;
+        int count;
+        while ( (count = nodeStore.getRecordBatch( id, batch, CHECK )) > 0 )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                if ( batch[i].inUse() )
+                {
+                    checksum += batch[i].getNextRel();
+                }
+            }
+            id += count;
+        }
+        return checksum;
+    }
+
+    private static void report( String name, long startNanos, int nodeCount, long checksum )
+    {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        System.out.printf( "%s: %.1f ns/record (checksum %s)%n", name, elapsedNanos / (double) nodeCount, checksum );
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.clustering;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.rule.DatabaseRule;
+import org.neo4j.test.rule.EmbeddedDatabaseRule;
+import org.neo4j.test.rule.PageCacheRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.index.IndexManager.PROVIDER;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.index.DummyIndexExtensionFactory.IDENTIFIER;
+
+public class RelationshipStoreClustererTest
+{
+    static final int NODES = 10;
+    static final int RELATIONSHIPS = 2000;
+
+    @Rule
+    public final DatabaseRule db = new EmbeddedDatabaseRule( getClass() );
+    @Rule
+    public final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Test
+    public void shouldStoreTheRelationshipsOfANodeNextToEachOther() throws Exception
+    {
+        // given
+        createRelationshipsBetweenAllNodes( db );
+
+        // when
+        db.restartDatabase( this::cluster );
+
+        // then the first node has the first relationship ids
+        try ( Transaction ignored = db.beginTx() )
+        {
+            assertRelationshipIdsAreConsecutive( db.getNodeById( 0 ) );
+        }
+    }
+
+    @Test
+    public void shouldKeepAllRelationshipsAndTheirProperties() throws Exception
+    {
+        // given
+        createRelationshipsBetweenAllNodes( db );
+        List<String> relationshipsBefore = describeRelationships( db );
+
+        // when
+        db.restartDatabase( this::cluster );
+
+        // then
+        assertEquals( relationshipsBefore, describeRelationships( db ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( 3 );
+            for ( Relationship relationship : node.getRelationships() )
+            {
+                relationship.delete();
+            }
+            node.createRelationshipTo( db.getNodeById( 4 ), RelationshipType.withName( "AFTER" ) );
+            tx.success();
+        }
+        try ( Transaction ignored = db.beginTx() )
+        {
+            assertEquals( 1, db.getNodeById( 3 ).getDegree() );
+        }
+    }
+
+    @Test
+    public void shouldRefuseToClusterDatabaseWithLegacyRelationshipIndexes() throws Exception
+    {
+        // given
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.index().forRelationships( "relationships", stringMap( PROVIDER, IDENTIFIER ) );
+            tx.success();
+        }
+
+        // when
+        try
+        {
+            db.restartDatabase( this::cluster );
+            fail( "Should have refused to cluster the relationship store" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // then good
+        }
+    }
+
+    private void cluster( FileSystemAbstraction fs, File storeDir ) throws IOException
+    {
+        new RelationshipStoreClusterer( fs, pageCacheRule.getPageCache( fs ), Config.empty(),
+                NullLogProvider.getInstance() ).cluster( storeDir );
+    }
+
+    /**
+     * Creates relationships between the nodes in an order that spreads the relationships of every node out over the
+     * whole relationship store.
+     */
+    static void createRelationshipsBetweenAllNodes( DatabaseRule db )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node[] nodes = new Node[NODES];
+            for ( int i = 0; i < NODES; i++ )
+            {
+                nodes[i] = db.createNode();
+            }
+            for ( int i = 0; i < RELATIONSHIPS; i++ )
+            {
+                Relationship relationship = nodes[i % NODES].createRelationshipTo( nodes[(i * 7 + 3) % NODES],
+                        RelationshipType.withName( "TYPE_" + i % 3 ) );
+                relationship.setProperty( "i", i );
+            }
+            tx.success();
+        }
+    }
+
+    static List<String> describeRelationships( DatabaseRule db )
+    {
+        List<String> relationships = new ArrayList<>();
+        try ( Transaction ignored = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                for ( Relationship relationship : db.getNodeById( i ).getRelationships() )
+                {
+                    relationships.add( i + ": " + relationship.getStartNode().getId() + "-[" + relationship.getType() +
+                                       " " + relationship.getProperty( "i" ) + "]->" +
+                                       relationship.getEndNode().getId() );
+                }
+            }
+        }
+        relationships.sort( String::compareTo );
+        return relationships;
+    }
+
+    static void assertRelationshipIdsAreConsecutive( Node node )
+    {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        int count = 0;
+        for ( Relationship relationship : node.getRelationships() )
+        {
+            min = Math.min( min, relationship.getId() );
+            max = Math.max( max, relationship.getId() );
+            count++;
+        }
+        assertEquals( count, max - min + 1 );
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.compaction;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.core.NodeManager;
+import org.neo4j.kernel.impl.logging.NullLogService;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.test.rule.DatabaseRule;
+import org.neo4j.test.rule.EmbeddedDatabaseRule;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.index.IndexManager.PROVIDER;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.index.DummyIndexExtensionFactory.IDENTIFIER;
+
+public class StoreCompactorTest
+{
+    private static final int NODES = 300;
+    private static final Label PERSON = Label.label( "Person" );
+    private static final RelationshipType KNOWS = RelationshipType.withName( "KNOWS" );
+
+    @Rule
+    public final DatabaseRule db = new EmbeddedDatabaseRule( getClass() );
+    @Rule
+    public final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Test
+    public void shouldReclaimTheIdsOfDeletedNodesRelationshipsAndProperties() throws Exception
+    {
+        // given
+        createGraphAndDeleteTwoThirdsOfIt();
+        long nodeHighIdBefore = neoStores().getNodeStore().getHighId();
+        long propertyHighIdBefore = neoStores().getPropertyStore().getHighId();
+
+        // when
+        db.restartDatabase( this::compact );
+
+        // then
+        assertEquals( NODES / 3, neoStores().getNodeStore().getHighId() );
+        assertTrue( neoStores().getPropertyStore().getHighId() < propertyHighIdBefore );
+        assertTrue( neoStores().getNodeStore().getHighId() < nodeHighIdBefore );
+    }
+
+    @Test
+    public void shouldKeepAllNodesRelationshipsLabelsAndProperties() throws Exception
+    {
+        // given
+        createGraphAndDeleteTwoThirdsOfIt();
+        try ( Transaction tx = db.beginTx() )
+        {
+            graphProperties().setProperty( "version", 42 );
+            tx.success();
+        }
+        List<String> graphBefore = describeGraph();
+
+        // when
+        db.restartDatabase( this::compact );
+
+        // then
+        assertEquals( graphBefore, describeGraph() );
+        try ( Transaction ignored = db.beginTx() )
+        {
+            assertEquals( NODES / 3, countNodesWithLabel( PERSON ) );
+            assertEquals( 42, graphProperties().getProperty( "version" ) );
+        }
+    }
+
+    @Test
+    public void shouldAcceptNewDataAfterCompaction() throws Exception
+    {
+        // given
+        createGraphAndDeleteTwoThirdsOfIt();
+        db.restartDatabase( this::compact );
+
+        // when
+        long nodeId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode( PERSON );
+            node.setProperty( "name", "after" );
+            node.createRelationshipTo( db.getNodeById( 0 ), KNOWS );
+            nodeId = node.getId();
+            tx.success();
+        }
+
+        // then
+        assertEquals( NODES / 3, nodeId );
+        try ( Transaction ignored = db.beginTx() )
+        {
+            assertEquals( "after", db.getNodeById( nodeId ).getProperty( "name" ) );
+            assertEquals( NODES / 3 + 1, countNodesWithLabel( PERSON ) );
+        }
+    }
+
+    @Test
+    public void shouldRefuseToCompactDatabaseWithLegacyIndexes() throws Exception
+    {
+        // given
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.index().forNodes( "nodes", stringMap( PROVIDER, IDENTIFIER ) );
+            tx.success();
+        }
+
+        // when
+        try
+        {
+            db.restartDatabase( this::compact );
+            fail( "Should have refused to compact the store" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // then good
+        }
+    }
+
+    private void compact( FileSystemAbstraction fs, File storeDir ) throws IOException
+    {
+        new StoreCompactor( fs, pageCacheRule.getPageCache( fs ), Config.empty(), NullLogService.getInstance(),
+                ExecutionMonitors.invisible() ).compact( storeDir );
+    }
+
+    private PropertyContainer graphProperties()
+    {
+        return db.getDependencyResolver().resolveDependency( NodeManager.class ).newGraphProperties();
+    }
+
+    private NeoStores neoStores()
+    {
+        return db.getDependencyResolver().resolveDependency( RecordStorageEngine.class ).testAccessNeoStores();
+    }
+
+    private void createGraphAndDeleteTwoThirdsOfIt()
+    {
+        List<Node> nodes = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                Node node = db.createNode( PERSON );
+                node.setProperty( "name", "person " + i );
+                node.setProperty( "tags", new String[]{"a" + i, "b" + i} );
+                nodes.add( node );
+            }
+            for ( int i = 0; i < NODES; i++ )
+            {
+                Relationship relationship = nodes.get( i ).createRelationshipTo( nodes.get( (i * 7) % NODES ), KNOWS );
+                relationship.setProperty( "since", i );
+            }
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODES; i++ )
+            {
+                if ( i % 3 != 0 )
+                {
+                    Node node = nodes.get( i );
+                    for ( Relationship relationship : node.getRelationships() )
+                    {
+                        relationship.delete();
+                    }
+                    node.delete();
+                }
+            }
+            tx.success();
+        }
+    }
+
+    /**
+     * Counts through the node records, not the label scan store, since the label scan store of this test database
+     * lives in memory and is empty after a restart.
+     */
+    private long countNodesWithLabel( Label label )
+    {
+        long count = 0;
+        try ( Transaction ignored = db.beginTx() )
+        {
+            for ( Node node : db.getAllNodes() )
+            {
+                if ( node.hasLabel( label ) )
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private List<String> describeGraph()
+    {
+        List<String> graph = new ArrayList<>();
+        try ( Transaction ignored = db.beginTx() )
+        {
+            for ( Node node : db.getAllNodes() )
+            {
+                graph.add( node.getProperty( "name" ) + " " + node.hasLabel( PERSON ) + " " +
+                           String.join( ",", (String[]) node.getProperty( "tags" ) ) );
+                for ( Relationship relationship : node.getRelationships() )
+                {
+                    graph.add( relationship.getStartNode().getProperty( "name" ) + "-[" +
+                               relationship.getType().name() + " " + relationship.getProperty( "since" ) + "]->" +
+                               relationship.getEndNode().getProperty( "name" ) );
+                }
+            }
+        }
+        graph.sort( String::compareTo );
+        return graph;
+    }
+}
@@ -43,7 +43,8 @@ public class StoreVersionTest
                 StoreVersion.STANDARD_V2_1.versionString(),
                 StoreVersion.STANDARD_V2_2.versionString(),
                 StoreVersion.STANDARD_V2_3.versionString(),
-                StoreVersion.STANDARD_V3_0.versionString() );
+                StoreVersion.STANDARD_V3_0.versionString(),
+                StoreVersion.COMPACT_V3_1.versionString() );
     }
 
     @Test
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.helpers.collection.Iterables;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.record.PrimitiveRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.test.rule.DatabaseRule;
+import org.neo4j.test.rule.ImpermanentDatabaseRule;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.MyRelTypes.TEST;
+
+public class CompactRecordFormatTest
+{
+    @Rule
+    public final DatabaseRule db = new ImpermanentDatabaseRule()
+    {
+        @Override
+        protected void configure( GraphDatabaseBuilder builder )
+        {
+            builder.setConfig( GraphDatabaseSettings.record_format, Compact.NAME );
+        }
+    };
+
+    @Test
+    public void smallNodePropertiesMustBeInlinedInTheNodeRecord() throws Exception
+    {
+        long nodeId = createNode( "name", "Bob", "age", 42 );
+
+        assertInlinedCopyMatchesPropertyStore( nodeRecord( nodeId ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( nodeId );
+            assertEquals( "Bob", node.getProperty( "name" ) );
+            assertEquals( 42, node.getProperty( "age" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void inlinedCopyMustFollowPropertyChanges() throws Exception
+    {
+        long nodeId = createNode( "name", "Bob", "age", 42 );
+
+        // Only the property record changes in this transaction, not the node record
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getNodeById( nodeId ).setProperty( "age", 43 );
+            tx.success();
+        }
+
+        assertInlinedCopyMatchesPropertyStore( nodeRecord( nodeId ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 43, db.getNodeById( nodeId ).getProperty( "age" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void propertyChainsThatDoNotFitMustNotBeInlined() throws Exception
+    {
+        long nodeId = createNode( "a", 1L, "b", 2L, "c", 3L, "d", 4L, "e", 5L );
+
+        assertFalse( nodeRecord( nodeId ).hasInlinedProperties() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( nodeId );
+            assertEquals( 5, Iterables.count( node.getPropertyKeys() ) );
+            assertEquals( 5L, node.getProperty( "e" ) );
+            tx.success();
+        }
+
+        // Shrinking the chain down to a single record makes it eligible for inlining again
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.getNodeById( nodeId );
+            for ( String key : new String[]{"b", "c", "d", "e"} )
+            {
+                node.removeProperty( key );
+            }
+            tx.success();
+        }
+        assertInlinedCopyMatchesPropertyStore( nodeRecord( nodeId ) );
+    }
+
+    @Test
+    public void removingAllPropertiesMustRemoveTheInlinedCopy() throws Exception
+    {
+        long nodeId = createNode( "name", "Bob" );
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getNodeById( nodeId ).removeProperty( "name" );
+            tx.success();
+        }
+
+        assertFalse( nodeRecord( nodeId ).hasInlinedProperties() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertFalse( db.getNodeById( nodeId ).hasProperty( "name" ) );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void smallRelationshipPropertiesMustBeInlinedInTheRelationshipRecord() throws Exception
+    {
+        long relationshipId;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Relationship relationship = db.createNode().createRelationshipTo( db.createNode(), TEST );
+            relationship.setProperty( "since", 2016 );
+            relationshipId = relationship.getId();
+            tx.success();
+        }
+
+        RelationshipStore relationshipStore = neoStores().getRelationshipStore();
+        assertInlinedCopyMatchesPropertyStore(
+                relationshipStore.getRecord( relationshipId, relationshipStore.newRecord(), RecordLoad.NORMAL ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 2016, db.getRelationshipById( relationshipId ).getProperty( "since" ) );
+            tx.success();
+        }
+    }
+
+    private long createNode( Object... keysAndValues )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            for ( int i = 0; i < keysAndValues.length; i += 2 )
+            {
+                node.setProperty( (String) keysAndValues[i], keysAndValues[i + 1] );
+            }
+            tx.success();
+            return node.getId();
+        }
+    }
+
+    private PrimitiveRecord nodeRecord( long nodeId )
+    {
+        NodeStore nodeStore = neoStores().getNodeStore();
+        return nodeStore.getRecord( nodeId, nodeStore.newRecord(), RecordLoad.NORMAL );
+    }
+
+    private void assertInlinedCopyMatchesPropertyStore( PrimitiveRecord owner )
+    {
+        assertTrue( owner.hasInlinedProperties() );
+        PropertyStore propertyStore = neoStores().getPropertyStore();
+        PropertyRecord first = propertyStore.getRecord( owner.getNextProp(), propertyStore.newRecord(),
+                RecordLoad.NORMAL );
+        assertArrayEquals(
+                Arrays.copyOf( first.getBlocks(), first.getNumberOfBlocks() ),
+                Arrays.copyOf( owner.getInlinedPropertyBlocks(), owner.getNumberOfInlinedPropertyBlocks() ) );
+    }
+
+    private NeoStores neoStores()
+    {
+        return db.getDependencyResolver().resolveDependency( RecordStorageEngine.class ).testAccessNeoStores();
+    }
+}
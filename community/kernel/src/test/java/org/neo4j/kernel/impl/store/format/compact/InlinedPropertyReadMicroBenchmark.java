@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.format.compact;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.kernel.impl.api.store.StorePropertyCursor;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RecordCursors;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.standard.StandardV3_0;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.logging.NullLogProvider;
+
+/**
+ * Compares the latency of reading all the properties of randomly chosen nodes, in the {@link StandardV3_0 standard}
+ * and the {@link Compact compact} record formats. Every node has three small properties, which the compact format
+ * inlines in the node record.
+ * <p>
+ * The page cache is deliberately smaller than the store, so the difference in the number of page faults per read
+ * shows up in the latency.
+ */
+public class InlinedPropertyReadMicroBenchmark
+{
+    public static void main( String... args ) throws Exception
+    {
+        int nodeCount = Integer.getInteger( "nodeCount", 2_000_000 );
+        int cacheSizeMiB = Integer.getInteger( "cacheSizeMiB", 32 );
+        int reads = Integer.getInteger( "reads", 1_000_000 );
+        int iterations = Integer.getInteger( "iterations", 3 );
+
+        for ( RecordFormats format : new RecordFormats[]{StandardV3_0.RECORD_FORMATS, Compact.RECORD_FORMATS} )
+        {
+            File directory = Files.createTempDirectory( "inlined-properties" ).toFile();
+            DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+            SingleFilePageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+            swapperFactory.setFileSystemAbstraction( fs );
+            DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+            int maxPages = (int) (cacheSizeMiB * 1024L * 1024L / 8192);
+            try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, maxPages, 8192, tracer );
+                  NeoStores neoStores = new StoreFactory( directory, pageCache, fs, format,
+                          NullLogProvider.getInstance() ).openAllNeoStores( true ) )
+            {
+                createNodes( neoStores, nodeCount );
+                try ( RecordCursors cursors = new RecordCursors( neoStores ) )
+                {
+                    StorePropertyCursor propertyCursor = new StorePropertyCursor( cursors, cursor -> {} );
+                    NodeRecord node = neoStores.getNodeStore().newRecord();
+                    for ( int i = 0; i < iterations; i++ )
+                    {
+                        long faultsBefore = tracer.faults();
+                        long startNanos = System.nanoTime();
+                        long checksum = readProperties( cursors, propertyCursor, node, nodeCount, reads );
+                        long elapsedNanos = System.nanoTime() - startNanos;
+                        System.out.printf( "%s: %.1f ns/read, %.2f faults/read (checksum %s)%n",
+                                format, elapsedNanos / (double) reads,
+                                (tracer.faults() - faultsBefore) / (double) reads, checksum );
+                    }
+                }
+            }
+            finally
+            {
+                FileUtils.deleteRecursively( directory );
+            }
+        }
+    }
+
+    private static void createNodes( NeoStores neoStores, int nodeCount )
+    {
+        NodeStore nodeStore = neoStores.getNodeStore();
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            NodeRecord node = new NodeRecord( nodeStore.nextId() ).initialize(
+                    true, propertyStore.nextId(), false, -1, 0 );
+            nodeStore.updateRecord( node );
+
+            PropertyRecord property = new PropertyRecord( node.getNextProp(), node );
+            property.setInUse( true );
+            property.addPropertyBlock( block( propertyStore, 0, i ) );
+            property.addPropertyBlock( block( propertyStore, 1, "n" + (i % 1000) ) );
+            property.addPropertyBlock( block( propertyStore, 2, (i & 1) == 0 ) );
+            propertyStore.updateRecord( property );
+        }
+    }
+
+    private static PropertyBlock block( PropertyStore propertyStore, int key, Object value )
+    {
+        PropertyBlock block = new PropertyBlock();
+        propertyStore.encodeValue( block, key, value );
+        return block;
+    }
+
+    private static long readProperties( RecordCursors cursors, StorePropertyCursor propertyCursor, NodeRecord node,
+            int nodeCount, int reads )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long checksum = 0;
+        for ( int i = 0; i < reads; i++ )
+        {
+            cursors.node().next( random.nextInt( nodeCount ), node, RecordLoad.NORMAL );
+            propertyCursor.init( node, LockService.NO_LOCK );
+            while ( propertyCursor.next() )
+            {
+                checksum += propertyCursor.propertyKeyId() + propertyCursor.value().hashCode();
+            }
+        }
+        return checksum;
+    }
+}
@@ -286,6 +286,51 @@ public class FreeIdKeeperTest
         }
     }
 
+    @Test
+    public void shouldKeepUnreadIdsWhenClosingAfterReadingSome() throws Exception
+    {
+        // given
+        FileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        StoreChannel channel = fs.open( new File( "id.file" ), "rw" );
+        int threshold = 10;
+        FreeIdKeeper keeper = new FreeIdKeeper( channel, threshold, false );
+        for ( long i = 0; i < 100; i++ )
+        {
+            keeper.freeId( i );
+        }
+        keeper.close();
+        channel.close();
+
+        // when
+        // we read some of the ids, more than fit in one batch, and close
+        channel = fs.open( new File( "id.file" ), "rw" );
+        keeper = new FreeIdKeeper( channel, threshold, false );
+        for ( long i = 0; i < 15; i++ )
+        {
+            assertEquals( i, keeper.getId() );
+        }
+        keeper.close();
+
+        // then
+        // the file only has the ids that weren't read
+        assertEquals( 85 * FreeIdKeeper.ID_ENTRY_SIZE, channel.size() );
+        channel.close();
+        channel = fs.open( new File( "id.file" ), "rw" );
+        keeper = new FreeIdKeeper( channel, threshold, false );
+        assertEquals( 85, keeper.getCount() );
+        Set<Long> freeIds = new HashSet<>();
+        long id;
+        while ( (id = keeper.getId()) != NO_RESULT )
+        {
+            assertTrue( freeIds.add( id ) );
+        }
+        assertEquals( 85, freeIds.size() );
+        for ( long i = 15; i < 100; i++ )
+        {
+            assertTrue( freeIds.contains( i ) );
+        }
+    }
+
     @Test
     public void shouldNotReturnNewlyReleasedIdsIfAggressiveIsFalse() throws Exception
     {
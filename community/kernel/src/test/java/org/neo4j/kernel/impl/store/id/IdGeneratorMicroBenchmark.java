@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+
+/**
+ * Measures the throughput of {@link IdGenerator#nextId()} from an increasing number of threads, with the
+ * synchronized {@link IdGeneratorImpl} on its own, and wrapped in a {@link StripedIdGenerator}.
+ */
+public class IdGeneratorMicroBenchmark
+{
+    public static void main( String... args ) throws Exception
+    {
+        int maxThreads = Integer.getInteger( "maxThreads", 64 );
+        int idsPerThread = Integer.getInteger( "idsPerThread", 2_000_000 );
+        int batchSize = Integer.getInteger( "batchSize", 128 );
+        int iterations = Integer.getInteger( "iterations", 3 );
+
+        File directory = Files.createTempDirectory( "id-generator" ).toFile();
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        try
+        {
+            for ( int threads = 1; threads <= maxThreads; threads *= 2 )
+            {
+                for ( int i = 0; i < iterations; i++ )
+                {
+                    File file = new File( directory, "ids" );
+                    IdGeneratorImpl.createGenerator( fs, file, 0, false );
+                    IdGenerator plain = new IdGeneratorImpl( fs, file, 1024, Long.MAX_VALUE, false, 0 );
+                    run( "synchronized", plain, threads, idsPerThread );
+
+                    IdGeneratorImpl.createGenerator( fs, file, 0, false );
+                    IdGenerator striped = new StripedIdGenerator(
+                            new IdGeneratorImpl( fs, file, 1024, Long.MAX_VALUE, false, 0 ), batchSize, Long.MAX_VALUE,
+                            StripedIdGenerator.defaultNumberOfStripes() );
+                    run( "striped(" + batchSize + ")", striped, threads, idsPerThread );
+                }
+            }
+        }
+        finally
+        {
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static void run( String name, IdGenerator idGenerator, int threads, int idsPerThread )
+            throws InterruptedException
+    {
+        CountDownLatch start = new CountDownLatch( 1 );
+        LongAdder checksum = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        for ( int i = 0; i < threads; i++ )
+        {
+            workers[i] = new Thread( () ->
+            {
+                long sum = 0;
+                try
+                {
+                    start.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+                for ( int j = 0; j < idsPerThread; j++ )
+                {
+                    sum += idGenerator.nextId();
+                }
+                checksum.add( sum );
+            } );
+            workers[i].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        idGenerator.delete();
+        double idsPerMicro = threads * (double) idsPerThread / elapsedNanos * 1_000;
+        System.out.printf( "%s, %d threads: %.1f M ids/s (checksum %s)%n", name, threads, idsPerMicro, checksum.sum() );
+    }
+}
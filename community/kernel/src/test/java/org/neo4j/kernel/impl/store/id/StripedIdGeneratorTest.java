@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.impl.store.id.validation.IdCapacityExceededException;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StripedIdGeneratorTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fsr = new EphemeralFileSystemRule();
+    private final File file = new File( "ids" );
+
+    @Test
+    public void shouldHandOutUniqueIdsToConcurrentThreads() throws Exception
+    {
+        // GIVEN
+        IdGenerator idGenerator = newStripedIdGenerator( Long.MAX_VALUE, false, 100, 4 );
+        int threads = 8;
+        int idsPerThread = 10_000;
+
+        // WHEN
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        List<Future<long[]>> futures = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            futures.add( executor.submit( () ->
+            {
+                long[] ids = new long[idsPerThread];
+                for ( int j = 0; j < idsPerThread; j++ )
+                {
+                    ids[j] = idGenerator.nextId();
+                }
+                return ids;
+            } ) );
+        }
+
+        // THEN
+        PrimitiveLongSet allIds = Primitive.longSet();
+        for ( Future<long[]> future : futures )
+        {
+            for ( long id : future.get() )
+            {
+                assertTrue( "Id " + id + " handed out twice", allIds.add( id ) );
+                assertTrue( id < idGenerator.getHighId() );
+            }
+        }
+        executor.shutdown();
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldFreeReservedButUnusedIdsOnClose() throws Exception
+    {
+        // GIVEN
+        IdGenerator idGenerator = newStripedIdGenerator( Long.MAX_VALUE, false, 100, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertEquals( i, idGenerator.nextId() );
+        }
+        assertEquals( 100, idGenerator.getHighId() );
+        assertEquals( 10, idGenerator.getNumberOfIdsInUse() );
+
+        // WHEN
+        idGenerator.close();
+
+        // THEN the unused ids are handed out again, before any new id
+        IdGenerator reopened = new IdGeneratorImpl( fsr.get(), file, 1000, Long.MAX_VALUE, false, 0 );
+        assertEquals( 90, reopened.getDefragCount() );
+        PrimitiveLongSet ids = Primitive.longSet();
+        for ( int i = 0; i < 90; i++ )
+        {
+            ids.add( reopened.nextId() );
+        }
+        for ( long id = 10; id < 100; id++ )
+        {
+            assertTrue( ids.contains( id ) );
+        }
+        assertEquals( 100, reopened.nextId() );
+        reopened.close();
+    }
+
+    @Test
+    public void shouldHandFreedIdsToWrappedGenerator() throws Exception
+    {
+        // GIVEN an aggressively reusing generator
+        IdGenerator idGenerator = newStripedIdGenerator( Long.MAX_VALUE, true, 10, 1 );
+        for ( int i = 0; i < 10; i++ )
+        {
+            idGenerator.nextId();
+        }
+
+        // WHEN
+        idGenerator.freeId( 3 );
+        idGenerator.freeId( 5 );
+
+        // THEN the freed ids are reused
+        assertEquals( 2, idGenerator.getDefragCount() );
+        assertEquals( 8, idGenerator.getNumberOfIdsInUse() );
+        PrimitiveLongSet ids = Primitive.longSet();
+        ids.add( idGenerator.nextId() );
+        ids.add( idGenerator.nextId() );
+        assertTrue( ids.contains( 3 ) );
+        assertTrue( ids.contains( 5 ) );
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldAllocateOneAtATimeCloseToMaxId() throws Exception
+    {
+        // GIVEN
+        long maxId = 10;
+        IdGenerator idGenerator = newStripedIdGenerator( maxId, false, 4, 1 );
+
+        // WHEN
+        for ( long id = 0; id <= maxId; id++ )
+        {
+            assertEquals( id, idGenerator.nextId() );
+        }
+
+        // THEN
+        try
+        {
+            idGenerator.nextId();
+            fail( "Should have failed" );
+        }
+        catch ( IdCapacityExceededException e )
+        {
+            // good
+        }
+        idGenerator.close();
+    }
+
+    @Test
+    public void shouldForgetReservedIdsWhenHighIdIsSet() throws Exception
+    {
+        // GIVEN
+        IdGenerator idGenerator = newStripedIdGenerator( Long.MAX_VALUE, false, 100, 1 );
+        idGenerator.nextId();
+
+        // WHEN
+        idGenerator.setHighId( 500 );
+
+        // THEN
+        assertEquals( 500, idGenerator.nextId() );
+        idGenerator.close();
+    }
+
+    private IdGenerator newStripedIdGenerator( long maxId, boolean aggressiveReuse, int batchSize, int stripes )
+    {
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGenerator idGenerator = new IdGeneratorImpl( fsr.get(), file, 1000, maxId, aggressiveReuse, 0 );
+        return new StripedIdGenerator( idGenerator, batchSize, maxId, stripes );
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.kvstore;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.test.Race;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapEntryTableTest
+{
+    private final OffHeapEntryTable table = new OffHeapEntryTable( 8, 8 );
+    private final BigEndianByteArrayBuffer scratch = new BigEndianByteArrayBuffer( new byte[8] );
+
+    @After
+    public void closeTable()
+    {
+        table.close();
+    }
+
+    @Test
+    public void shouldNotFindKeysThatHaveNotBeenInserted() throws Exception
+    {
+        // when
+        boolean found = table.lookup( key( 17 ), new byte[8] );
+
+        // then
+        assertFalse( found );
+        assertFalse( table.applyIfPresent( key( 17 ), scratch, false, add( 1 ) ) );
+        assertEquals( 0, table.size() );
+    }
+
+    @Test
+    public void shouldApplyUpdatesOnTopOfTheInitialValue() throws Exception
+    {
+        // when
+        table.insertAndApply( key( 17 ), value( 10 ), scratch, false, add( 5 ) );
+        assertTrue( table.applyIfPresent( key( 17 ), scratch, false, add( 2 ) ) );
+
+        // then
+        assertEquals( 17, lookup( 17 ) );
+        assertEquals( 1, table.size() );
+    }
+
+    @Test
+    public void shouldIgnoreInitialValueWhenKeyIsAlreadyPresent() throws Exception
+    {
+        // given
+        table.insertAndApply( key( 17 ), value( 10 ), scratch, false, add( 5 ) );
+
+        // when
+        table.insertAndApply( key( 17 ), value( 100 ), scratch, false, add( 5 ) );
+
+        // then
+        assertEquals( 20, lookup( 17 ) );
+        assertEquals( 1, table.size() );
+    }
+
+    @Test
+    public void shouldClearValueWhenResetting() throws Exception
+    {
+        // given
+        table.insertAndApply( key( 17 ), value( 10 ), scratch, false, add( 5 ) );
+
+        // when
+        table.applyIfPresent( key( 17 ), scratch, true, add( 3 ) );
+
+        // then
+        assertEquals( 3, lookup( 17 ) );
+    }
+
+    @Test
+    public void shouldKeepAllEntriesWhenGrowing() throws Exception
+    {
+        // when
+        int count = 100_000;
+        for ( int i = 0; i < count; i++ )
+        {
+            table.insertAndApply( key( i ), value( i ), scratch, false, add( 1 ) );
+        }
+
+        // then
+        assertEquals( count, table.size() );
+        for ( int i = 0; i < count; i++ )
+        {
+            assertEquals( i + 1, lookup( i ) );
+        }
+    }
+
+    @Test
+    public void shouldProvideEntriesInKeyOrder() throws Exception
+    {
+        // given keys in an order different from their sort order, including keys with the sign bit set
+        long[] keys = {5, -1, 300, 0, Long.MIN_VALUE, 42, 1L << 40};
+        for ( long key : keys )
+        {
+            table.insertAndApply( key( key ), value( key ), scratch, false, add( 0 ) );
+        }
+
+        // when
+        List<Long> visited = new ArrayList<>();
+        DataProvider entries = table.sortedEntries();
+        BigEndianByteArrayBuffer key = new BigEndianByteArrayBuffer( new byte[8] );
+        BigEndianByteArrayBuffer value = new BigEndianByteArrayBuffer( new byte[8] );
+        while ( entries.visit( key, value ) )
+        {
+            assertEquals( key.getLong( 0 ), value.getLong( 0 ) );
+            visited.add( key.getLong( 0 ) );
+        }
+        entries.close();
+
+        // then keys are in unsigned order, like the entries of a key value store file
+        List<Long> expected = new ArrayList<>();
+        for ( long k : new long[]{0, 5, 42, 300, 1L << 40, Long.MIN_VALUE, -1} )
+        {
+            expected.add( k );
+        }
+        assertEquals( expected, visited );
+    }
+
+    @Test
+    public void shouldKeepProvidingEntriesAfterTheTableHasGrownOrBeenClosed() throws Exception
+    {
+        // given
+        for ( int i = 0; i < 10; i++ )
+        {
+            table.insertAndApply( key( i ), value( i ), scratch, false, add( 0 ) );
+        }
+        DataProvider entries = table.sortedEntries();
+
+        // when
+        for ( int i = 10; i < 10_000; i++ )
+        {
+            table.insertAndApply( key( i ), value( i ), scratch, false, add( 0 ) );
+        }
+        table.applyIfPresent( key( 3 ), scratch, false, add( 100 ) );
+        table.close();
+
+        // then
+        BigEndianByteArrayBuffer key = new BigEndianByteArrayBuffer( new byte[8] );
+        BigEndianByteArrayBuffer value = new BigEndianByteArrayBuffer( new byte[8] );
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertTrue( entries.visit( key, value ) );
+            assertEquals( i, key.getLong( 0 ) );
+            assertEquals( i, value.getLong( 0 ) );
+        }
+        assertFalse( entries.visit( key, value ) );
+        entries.close();
+    }
+
+    @Test
+    public void shouldApplyConcurrentUpdatesExactlyOnce() throws Throwable
+    {
+        // given
+        int threads = 4, keys = 5_000, rounds = 4;
+
+        // when every thread adds one to every key, a few times over
+        Race race = new Race();
+        for ( int t = 0; t < threads; t++ )
+        {
+            race.addContestant( () ->
+            {
+                BigEndianByteArrayBuffer threadScratch = new BigEndianByteArrayBuffer( new byte[8] );
+                for ( int round = 0; round < rounds; round++ )
+                {
+                    for ( int i = 0; i < keys; i++ )
+                    {
+                        if ( !table.applyIfPresent( key( i ), threadScratch, false, add( 1 ) ) )
+                        {
+                            table.insertAndApply( key( i ), value( 0 ), threadScratch, false, add( 1 ) );
+                        }
+                    }
+                }
+            } );
+        }
+        race.go();
+
+        // then
+        assertEquals( keys, table.size() );
+        for ( int i = 0; i < keys; i++ )
+        {
+            assertEquals( threads * rounds, lookup( i ) );
+        }
+    }
+
+    private long lookup( long key )
+    {
+        byte[] value = new byte[8];
+        assertTrue( table.lookup( key( key ), value ) );
+        return new BigEndianByteArrayBuffer( value ).getLong( 0 );
+    }
+
+    private static byte[] key( long key )
+    {
+        return value( key );
+    }
+
+    private static byte[] value( long value )
+    {
+        byte[] bytes = new byte[8];
+        new BigEndianByteArrayBuffer( bytes ).putLong( 0, value );
+        return bytes;
+    }
+
+    private static ValueUpdate add( long delta )
+    {
+        return target -> target.putLong( 0, target.getLong( 0 ) + delta );
+    }
+}
@@ -107,4 +107,42 @@ public class TransactionMetadataCacheTest
         // then
         assertNull( metadata );
     }
+
+    @Test
+    public void shouldFindClosestSampledStartPositionLongAfterEviction()
+    {
+        // given
+        final TransactionMetadataCache cache = new TransactionMetadataCache( 2, 4, 100 );
+        for ( int txId = 1; txId <= 20; txId++ )
+        {
+            cache.cacheTransactionMetadata( txId, new LogPosition( 0, txId * 10 ), 0, 1, 2, txId );
+        }
+
+        // when
+        final LogPosition position = cache.getSampledStartPositionAtOrBefore( 11 );
+
+        // then
+        assertNull( cache.getTransactionMetadata( 11 ) );
+        assertEquals( new LogPosition( 0, 80 ), position );
+        assertEquals( new LogPosition( 0, 120 ), cache.getSampledStartPositionAtOrBefore( 12 ) );
+        assertNull( cache.getSampledStartPositionAtOrBefore( 3 ) );
+    }
+
+    @Test
+    public void shouldDropSamplesOfLowestTransactionIdsFirst()
+    {
+        // given
+        final TransactionMetadataCache cache = new TransactionMetadataCache( 2, 4, 2 );
+
+        // when
+        for ( int txId = 1; txId <= 20; txId++ )
+        {
+            cache.sampleStartPosition( txId, new LogPosition( 0, txId * 10 ) );
+        }
+
+        // then
+        assertNull( cache.getSampledStartPositionAtOrBefore( 15 ) );
+        assertEquals( new LogPosition( 0, 160 ), cache.getSampledStartPositionAtOrBefore( 17 ) );
+        assertEquals( new LogPosition( 0, 200 ), cache.getSampledStartPositionAtOrBefore( 20 ) );
+    }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.CacheAccessBackDoor;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.Record;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.rule.NeoStoresRule;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.command.Commands.transactionRepresentation;
+
+public class PartitionedNeoStoreBatchTransactionApplierTest
+{
+    private static final int PARTITIONS = 4;
+
+    @Rule
+    public final NeoStoresRule neoStoresRule = new NeoStoresRule( getClass() );
+
+    @Test
+    public void shouldApplyChangesToEachEntityInTransactionOrder() throws Exception
+    {
+        // GIVEN
+        NeoStores neoStores = openForRecovery();
+        int nodes = 100, transactions = 50;
+        List<TransactionToApply> batch = new ArrayList<>();
+        for ( int tx = 1; tx <= transactions; tx++ )
+        {
+            List<StorageCommand> commands = new ArrayList<>();
+            for ( int node = 0; node < nodes; node++ )
+            {
+                NodeRecord after = new NodeRecord( node ).initialize( true, Record.NO_NEXT_PROPERTY.intValue(),
+                        false, tx, Record.NO_LABELS_FIELD.intValue() );
+                commands.add( new NodeCommand( new NodeRecord( node ), after ) );
+            }
+            batch.add( new TransactionToApply( transactionRepresentation( commands ), tx ) );
+        }
+
+        // WHEN
+        apply( neoStores, batch );
+
+        // THEN
+        NodeStore nodeStore = neoStores.getNodeStore();
+        for ( int node = 0; node < nodes; node++ )
+        {
+            NodeRecord record = nodeStore.getRecord( node, nodeStore.newRecord(), RecordLoad.NORMAL );
+            assertEquals( transactions, record.getNextRel() );
+        }
+    }
+
+    @Test
+    public void shouldApplyChangesInTransactionOrderWhenRecordsMoveBetweenEntities() throws Exception
+    {
+        // GIVEN property records and their string records that are created for one node, deleted, and then reused
+        // for another node, which is in another partition
+        NeoStores neoStores = openForRecovery();
+        int properties = 200;
+        List<StorageCommand> created = new ArrayList<>();
+        List<StorageCommand> deleted = new ArrayList<>();
+        List<StorageCommand> reused = new ArrayList<>();
+        for ( int id = 0; id < properties; id++ )
+        {
+            created.add( propertyCommand( id, id, 0, true ) );
+            deleted.add( propertyCommand( id, id, 0, false ) );
+            reused.add( propertyCommand( id, id + 1, 1, true ) );
+        }
+
+        // WHEN
+        List<TransactionToApply> batch = new ArrayList<>();
+        batch.add( new TransactionToApply( transactionRepresentation( created ), 2 ) );
+        batch.add( new TransactionToApply( transactionRepresentation( deleted ), 3 ) );
+        batch.add( new TransactionToApply( transactionRepresentation( reused ), 4 ) );
+        apply( neoStores, batch );
+
+        // THEN
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        for ( int id = 0; id < properties; id++ )
+        {
+            PropertyRecord property = propertyStore.getRecord( id, propertyStore.newRecord(), RecordLoad.NORMAL );
+            assertTrue( property.inUse() );
+            assertEquals( 1, property.iterator().next().getKeyIndexId() );
+            DynamicRecord string = propertyStore.getStringStore().getRecord( id,
+                    propertyStore.getStringStore().newRecord(), RecordLoad.NORMAL );
+            assertTrue( string.inUse() );
+        }
+    }
+
+    @Test
+    public void shouldApplyDeletionsAfterCreations() throws Exception
+    {
+        // GIVEN
+        NeoStores neoStores = openForRecovery();
+        int properties = 200;
+        List<StorageCommand> created = new ArrayList<>();
+        List<StorageCommand> deleted = new ArrayList<>();
+        for ( int id = 0; id < properties; id++ )
+        {
+            created.add( propertyCommand( id, id, 0, true ) );
+            deleted.add( propertyCommand( id, id, 0, false ) );
+        }
+
+        // WHEN
+        List<TransactionToApply> batch = new ArrayList<>();
+        batch.add( new TransactionToApply( transactionRepresentation( created ), 2 ) );
+        batch.add( new TransactionToApply( transactionRepresentation( deleted ), 3 ) );
+        apply( neoStores, batch );
+
+        // THEN
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        for ( int id = 0; id < properties; id++ )
+        {
+            assertFalse( propertyStore.getRecord( id, propertyStore.newRecord(), RecordLoad.FORCE ).inUse() );
+            assertFalse( propertyStore.getStringStore().getRecord( id, propertyStore.getStringStore().newRecord(),
+                    RecordLoad.FORCE ).inUse() );
+        }
+    }
+
+    private NeoStores openForRecovery()
+    {
+        NeoStores neoStores = neoStoresRule.open();
+        // Like recovery does, so that deleted records are not freed in the id generators
+        neoStores.deleteIdGenerators();
+        return neoStores;
+    }
+
+    private void apply( NeoStores neoStores, List<TransactionToApply> batch ) throws Exception
+    {
+        PartitionedNeoStoreBatchTransactionApplier applier = new PartitionedNeoStoreBatchTransactionApplier(
+                neoStores, mock( CacheAccessBackDoor.class ), LockService.NO_LOCK_SERVICE, PARTITIONS );
+        CommandHandlerContract.apply( applier, batch.toArray( new TransactionToApply[batch.size()] ) );
+    }
+
+    /**
+     * A property record with a string value in a string record of the same id, or a deleted such property record
+     * along with its deleted string record.
+     */
+    private static PropertyCommand propertyCommand( long id, long nodeId, int key, boolean inUse )
+    {
+        DynamicRecord string = new DynamicRecord( id );
+        string.setType( PropertyType.STRING.intValue() );
+        PropertyRecord record = new PropertyRecord( id );
+        record.setNodeId( nodeId );
+        if ( inUse )
+        {
+            string.setInUse( true );
+            string.setCreated();
+            string.setStartRecord( true );
+            string.setData( new byte[] {1, 2, 3} );
+            PropertyBlock block = new PropertyBlock();
+            PropertyStore.setSingleBlockValue( block, key, PropertyType.STRING, id );
+            block.setValueRecords( new ArrayList<>( singletonList( string ) ) );
+            record.setInUse( true );
+            record.addPropertyBlock( block );
+        }
+        else
+        {
+            record.setInUse( false );
+            record.addDeletedRecord( string );
+        }
+        return new PropertyCommand( new PropertyRecord( id ), record );
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.Race;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class ConcurrentLogBufferTest
+{
+    @Test
+    public void shouldAppendSameBytesAsSerializingDirectlyIntoTheLog() throws Exception
+    {
+        // GIVEN
+        ConcurrentLogBuffer buffer = new ConcurrentLogBuffer( ConcurrentLogBuffer.SEGMENT_SIZE * 4 );
+        TransactionRepresentation transaction = transaction( 10 );
+
+        // WHEN
+        byte[] appended;
+        try ( ConcurrentLogBuffer.Serialization commands = buffer.serialize( transaction ) )
+        {
+            appended = append( transaction, commands );
+        }
+
+        // THEN
+        assertArrayEquals( append( transaction, null ), appended );
+    }
+
+    @Test
+    public void shouldSerializeTransactionsLargerThanASegment() throws Exception
+    {
+        // GIVEN
+        ConcurrentLogBuffer buffer = new ConcurrentLogBuffer( ConcurrentLogBuffer.SEGMENT_SIZE * 4 );
+        TransactionRepresentation transaction = transaction( 5_000 );
+
+        // WHEN
+        byte[] appended;
+        try ( ConcurrentLogBuffer.Serialization commands = buffer.serialize( transaction ) )
+        {
+            appended = append( transaction, commands );
+        }
+
+        // THEN
+        assertArrayEquals( append( transaction, null ), appended );
+    }
+
+    @Test
+    public void shouldSerializeOnHeapWhenAllSegmentsAreReserved() throws Exception
+    {
+        // GIVEN a buffer with a single segment, which is reserved
+        ConcurrentLogBuffer buffer = new ConcurrentLogBuffer( ConcurrentLogBuffer.SEGMENT_SIZE );
+        TransactionRepresentation first = transaction( 10 );
+        TransactionRepresentation second = transaction( 10 );
+        try ( ConcurrentLogBuffer.Serialization firstCommands = buffer.serialize( first ) )
+        {
+            // WHEN
+            byte[] appended;
+            try ( ConcurrentLogBuffer.Serialization secondCommands = buffer.serialize( second ) )
+            {
+                appended = append( second, secondCommands );
+            }
+
+            // THEN both are intact
+            assertArrayEquals( append( second, null ), appended );
+            assertArrayEquals( append( first, null ), append( first, firstCommands ) );
+        }
+    }
+
+    @Test
+    public void shouldSerializeConcurrently() throws Throwable
+    {
+        // GIVEN
+        ConcurrentLogBuffer buffer = new ConcurrentLogBuffer( ConcurrentLogBuffer.SEGMENT_SIZE * 2 );
+
+        // WHEN
+        Race race = new Race();
+        for ( int i = 0; i < 4; i++ )
+        {
+            race.addContestant( () ->
+            {
+                try
+                {
+                    for ( int j = 0; j < 100; j++ )
+                    {
+                        TransactionRepresentation transaction =
+                                transaction( ThreadLocalRandom.current().nextInt( 1, 2_000 ) );
+                        try ( ConcurrentLogBuffer.Serialization commands = buffer.serialize( transaction ) )
+                        {
+                            // THEN
+                            assertArrayEquals( append( transaction, null ), append( transaction, commands ) );
+                        }
+                    }
+                }
+                catch ( IOException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            } );
+        }
+        race.go();
+    }
+
+    private static byte[] append( TransactionRepresentation transaction, ConcurrentLogBuffer.Serialization commands )
+            throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 1_000_000 );
+        new TransactionLogWriter( new LogEntryWriter( channel ) ).append( transaction, 42, commands );
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private static TransactionRepresentation transaction( int numberOfCommands )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<StorageCommand> commands = new ArrayList<>( numberOfCommands );
+        for ( int i = 0; i < numberOfCommands; i++ )
+        {
+            commands.add( new Command.NodeCommand( node( random ), node( random ) ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[]{1, 2, 3}, 1, 2, random.nextLong(), random.nextLong(), random.nextLong(),
+                -1 );
+        return transaction;
+    }
+
+    private static NodeRecord node( ThreadLocalRandom random )
+    {
+        return new NodeRecord( random.nextInt( 1_000_000 ), random.nextBoolean(), random.nextBoolean(),
+                random.nextLong(), random.nextLong(), random.nextLong() );
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.Monitor;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.test.rule.TargetDirectory;
+import org.neo4j.test.rule.TargetDirectory.TestDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedReadAheadLogChannelTest
+{
+    private static final int VALUES_PER_VERSION = 1_000;
+
+    @Rule
+    public final TestDirectory directory = TargetDirectory.testDirForTest( getClass() );
+    private final FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+    private final LogVersionRepository logVersionRepository = new DeadSimpleLogVersionRepository( 0L );
+    private final LifeSupport life = new LifeSupport();
+    private PhysicalLogFiles logFiles;
+    private LogFileMappings mappings;
+    private PhysicalLogFile logFile;
+
+    @Before
+    public void writeThreeLogVersions() throws IOException
+    {
+        logFiles = new PhysicalLogFiles( directory.directory(), "log", fs );
+        mappings = new LogFileMappings( logFiles, logVersionRepository, 1 );
+        logFile = life.add( new PhysicalLogFile( fs, logFiles, Long.MAX_VALUE, () -> 1L, logVersionRepository,
+                new Monitor.Adapter(), new LogHeaderCache( 10 ), mappings ) );
+        life.start();
+
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        for ( int version = 0; version < 3; version++ )
+        {
+            if ( version > 0 )
+            {
+                logFile.rotate();
+            }
+            for ( int i = 0; i < VALUES_PER_VERSION; i++ )
+            {
+                writer.putLong( value( version, i ) );
+                writer.put( (byte) i );
+            }
+            writer.prepareForFlush().flush();
+        }
+    }
+
+    @After
+    public void shutdown()
+    {
+        life.shutdown();
+    }
+
+    @Test
+    public void shouldReadFromMappedRotatedVersionsOnToTheCurrentVersion() throws Exception
+    {
+        try ( ReadableLogChannel reader = logFile.getReader( LogPosition.start( 0 ) ) )
+        {
+            // WHEN/THEN
+            assertTrue( reader instanceof MappedReadAheadLogChannel );
+            for ( int version = 0; version < 3; version++ )
+            {
+                for ( int i = 0; i < VALUES_PER_VERSION; i++ )
+                {
+                    assertEquals( value( version, i ), reader.getLong() );
+                    assertEquals( (byte) i, reader.get() );
+                    assertEquals( version, reader.getVersion() );
+                }
+            }
+            LogPositionMarker marker = reader.getCurrentPosition( new LogPositionMarker() );
+            assertEquals( logFile.getWriter().getCurrentPosition( new LogPositionMarker() ).newPosition(),
+                    marker.newPosition() );
+        }
+    }
+
+    @Test
+    public void shouldStartReadingInTheMiddleOfAMappedVersion() throws Exception
+    {
+        // GIVEN
+        LogPosition position;
+        try ( ReadableLogChannel reader = logFile.getReader( LogPosition.start( 1 ) ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                reader.getLong();
+                reader.get();
+            }
+            position = reader.getCurrentPosition( new LogPositionMarker() ).newPosition();
+        }
+
+        // WHEN
+        try ( ReadableLogChannel reader = logFile.getReader( position ) )
+        {
+            // THEN
+            assertEquals( value( 1, 10 ), reader.getLong() );
+            assertEquals( (byte) 10, reader.get() );
+        }
+    }
+
+    @Test
+    public void shouldShareMappingsBetweenReadersAndKeepOnlyTheMostRecentlyUsedOnes() throws Exception
+    {
+        // WHEN
+        ReadableLogChannel first = logFile.getReader( LogPosition.start( 0 ) );
+        ReadableLogChannel second = logFile.getReader( LogPosition.start( 0 ) );
+        ReadableLogChannel third = logFile.getReader( LogPosition.start( 1 ) );
+        ReadableLogChannel current = logFile.getReader( LogPosition.start( 2 ) );
+
+        // THEN
+        assertEquals( 2, mappings.numberOfMappings() );
+        first.close();
+        second.close();
+        third.close();
+        current.close();
+        assertEquals( 1, mappings.numberOfMappings() );
+    }
+
+    @Test
+    public void shouldDropMappingsOfPrunedVersions() throws Exception
+    {
+        // GIVEN
+        logFile.getReader( LogPosition.start( 1 ) ).close();
+        assertEquals( 1, mappings.numberOfMappings() );
+
+        // WHEN
+        fs.deleteFile( logFiles.getLogFileForVersion( 0 ) );
+        mappings.dropPrunedVersions();
+
+        // THEN
+        assertEquals( 1, mappings.numberOfMappings() );
+        fs.deleteFile( logFiles.getLogFileForVersion( 1 ) );
+        mappings.dropPrunedVersions();
+        assertEquals( 0, mappings.numberOfMappings() );
+        assertNull( mappings.acquire( 1 ) );
+    }
+
+    private static long value( int version, int i )
+    {
+        return version * 1_000_000L + i;
+    }
+}
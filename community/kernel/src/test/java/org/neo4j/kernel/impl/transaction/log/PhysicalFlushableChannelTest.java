@@ -114,6 +114,34 @@ public class PhysicalFlushableChannelTest
         assertArrayEquals( bytes, writtenBytes );
     }
 
+    @Test
+    public void shouldBeAbleToWriteByteBufferGreaterThanTheBufferSize() throws IOException
+    {
+        final File firstFile = new File( directory.directory(), "file1" );
+        StoreChannel storeChannel = fs.open( firstFile, "rw" );
+        PhysicalLogVersionedStoreChannel versionedStoreChannel =
+                new PhysicalLogVersionedStoreChannel( storeChannel, 1, (byte) -1 /* ignored */ );
+        PhysicalFlushableChannel channel = new PhysicalFlushableChannel( versionedStoreChannel );
+
+        int length = 1_000_000;
+        byte[] bytes = generateBytes( length );
+        ByteBuffer source = ByteBuffer.allocateDirect( length + 10 );
+        source.put( bytes ).flip();
+
+        channel.put( source );
+        channel.close();
+
+        byte[] writtenBytes = new byte[length];
+        try ( InputStream in = new FileInputStream( firstFile ) )
+        {
+            in.read( writtenBytes );
+        }
+
+        assertArrayEquals( bytes, writtenBytes );
+        assertEquals( length, source.position() );
+        assertEquals( length, source.limit() );
+    }
+
     private byte[] generateBytes( int length )
     {
         Random random = new Random();
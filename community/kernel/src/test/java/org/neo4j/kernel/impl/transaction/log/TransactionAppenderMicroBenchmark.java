@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.core.DatabasePanicEventGenerator;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.DeadSimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.DeadSimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
+import org.neo4j.kernel.impl.transaction.log.rotation.LogRotationImpl;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.util.IdOrderingQueue;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.internal.KernelEventHandlers;
+import org.neo4j.kernel.lifecycle.Lifespan;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * Measures the commit throughput of {@link BatchingTransactionAppender} from an increasing number of threads, with
+ * commands serialized directly into the log under the log file monitor, and serialized concurrently into a
+ * {@link ConcurrentLogBuffer} beforehand.
+ */
+public class TransactionAppenderMicroBenchmark
+{
+    public static void main( String... args ) throws Exception
+    {
+        int maxThreads = Integer.getInteger( "maxThreads", 32 );
+        int transactionsPerThread = Integer.getInteger( "transactionsPerThread", 5_000 );
+        int commandsPerTransaction = Integer.getInteger( "commandsPerTransaction", 100 );
+        long bufferSize = Long.getLong( "bufferSize", 16 * 1024 * 1024 );
+        int iterations = Integer.getInteger( "iterations", 3 );
+
+        File directory = Files.createTempDirectory( "transaction-appender" ).toFile();
+        try
+        {
+            for ( int threads = 1; threads <= maxThreads; threads *= 2 )
+            {
+                for ( int i = 0; i < iterations; i++ )
+                {
+                    run( "direct", directory, 0, threads, transactionsPerThread, commandsPerTransaction );
+                    run( "buffered", directory, bufferSize, threads, transactionsPerThread, commandsPerTransaction );
+                }
+            }
+        }
+        finally
+        {
+            FileUtils.deleteRecursively( directory );
+        }
+    }
+
+    private static void run( String name, File directory, long bufferSize, int threads, int transactionsPerThread,
+            int commandsPerTransaction ) throws Exception
+    {
+        FileUtils.deleteRecursively( directory );
+        directory.mkdirs();
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        TransactionIdStore transactionIdStore = new DeadSimpleTransactionIdStore();
+        long elapsedNanos;
+        try ( Lifespan life = new Lifespan() )
+        {
+            LogFile logFile = life.add( new PhysicalLogFile( fs, new PhysicalLogFiles( directory, fs ),
+                    Settings.BYTES.apply( GraphDatabaseSettings.logical_log_rotation_threshold.getDefaultValue() ),
+                    transactionIdStore::getLastCommittedTransactionId, new DeadSimpleLogVersionRepository( 0 ),
+                    new PhysicalLogFile.Monitor.Adapter(), new LogHeaderCache( 1000 ) ) );
+            DatabaseHealth databaseHealth = new DatabaseHealth(
+                    new DatabasePanicEventGenerator( new KernelEventHandlers( NullLog.getInstance() ) ),
+                    NullLog.getInstance() );
+            LogRotation logRotation = new LogRotationImpl( NO_LOG_ROTATION_MONITOR, logFile, databaseHealth );
+            TransactionAppender appender = life.add( new BatchingTransactionAppender( logFile, logRotation,
+                    new TransactionMetadataCache( 100_000 ), transactionIdStore, IdOrderingQueue.BYPASS,
+                    databaseHealth, false, bufferSize, false ) );
+
+            CountDownLatch start = new CountDownLatch( 1 );
+            List<Thread> workers = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                Thread worker = new Thread( () ->
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int j = 0; j < transactionsPerThread; j++ )
+                        {
+                            appender.append( transaction( commandsPerTransaction ), LogAppendEvent.NULL );
+                        }
+                    }
+                    catch ( InterruptedException | IOException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                } );
+                worker.start();
+                workers.add( worker );
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for ( Thread worker : workers )
+            {
+                worker.join();
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        double transactionsPerSecond = threads * (double) transactionsPerThread / elapsedNanos * 1_000_000_000;
+        System.out.printf( "%s, %d threads: %.0f tx/s (last tx %d)%n",
+                name, threads, transactionsPerSecond, transactionIdStore.getLastCommittedTransactionId() );
+    }
+
+    private static final LogRotation.Monitor NO_LOG_ROTATION_MONITOR = new LogRotation.Monitor()
+    {
+        @Override
+        public void startedRotating( long currentVersion )
+        {
+        }
+
+        @Override
+        public void finishedRotating( long currentVersion )
+        {
+        }
+    };
+
+    private static TransactionToApply transaction( int numberOfCommands )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<StorageCommand> commands = new ArrayList<>( numberOfCommands );
+        for ( int i = 0; i < numberOfCommands; i++ )
+        {
+            long id = random.nextInt( 1_000_000 );
+            commands.add( new Command.NodeCommand( new NodeRecord( id, false, false, -1, -1, 0 ),
+                    new NodeRecord( id, true, false, random.nextInt(), random.nextInt(), 0 ) ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[0], -1, -1, 0, 0, 0, -1 );
+        return new TransactionToApply( transaction );
+    }
+}
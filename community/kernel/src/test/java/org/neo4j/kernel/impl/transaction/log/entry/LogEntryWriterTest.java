@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.ConcurrentLogBuffer;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogEntryWriterTest
+{
+    @Test
+    public void shouldWriteCompressedCommandsWhichAreReadAsPlainCommandEntries() throws Exception
+    {
+        // GIVEN
+        TransactionRepresentation transaction = transaction( 200 );
+
+        // WHEN
+        InMemoryClosableChannel compressed = append( transaction, true );
+        InMemoryClosableChannel plain = append( transaction, false );
+
+        // THEN
+        assertTrue( compressed.writerPosition() < plain.writerPosition() );
+        List<String> entries = readEntries( compressed );
+        assertEquals( 1 + 200 + 1, entries.size() );
+        assertEquals( readEntries( plain ), entries );
+    }
+
+    @Test
+    public void shouldWriteCommandsCompressedByConcurrentLogBuffer() throws Exception
+    {
+        for ( long bufferSize : new long[]{ConcurrentLogBuffer.SEGMENT_SIZE, 0} )
+        {
+            // GIVEN
+            TransactionRepresentation transaction = transaction( 200 );
+            ConcurrentLogBuffer buffer = new ConcurrentLogBuffer( bufferSize, true );
+
+            // WHEN
+            InMemoryClosableChannel compressed = new InMemoryClosableChannel( 100_000 );
+            try ( ConcurrentLogBuffer.Serialization commands = buffer.serialize( transaction ) )
+            {
+                new TransactionLogWriter( new LogEntryWriter( compressed ) ).append( transaction, 42, commands );
+            }
+            InMemoryClosableChannel plain = append( transaction, false );
+
+            // THEN
+            assertTrue( compressed.writerPosition() < plain.writerPosition() );
+            assertEquals( readEntries( plain ), readEntries( compressed ) );
+        }
+    }
+
+    @Test
+    public void shouldCompressTransactionsLargerThanTheRetainedStagingBuffers() throws Exception
+    {
+        // GIVEN
+        TransactionRepresentation large = transaction( 30_000 );
+        TransactionRepresentation small = transaction( 200 );
+
+        InMemoryClosableChannel plainLarge = append( large, false, 10_000_000 );
+        assertTrue( plainLarge.writerPosition() > CompressedCommandsWriter.MAX_RETAINED_BUFFER_SIZE );
+
+        // WHEN
+        InMemoryClosableChannel compressedLarge = append( large, true, 10_000_000 );
+        InMemoryClosableChannel compressedSmall = append( small, true, 100_000 );
+
+        // THEN
+        assertEquals( readEntries( plainLarge ), readEntries( compressedLarge ) );
+        assertEquals( readEntries( append( small, false ) ), readEntries( compressedSmall ) );
+    }
+
+    @Test
+    public void shouldWritePlainCommandEntriesWhenTooFewToCompress() throws Exception
+    {
+        // GIVEN
+        TransactionRepresentation transaction = transaction( 1 );
+
+        // WHEN
+        InMemoryClosableChannel compressed = append( transaction, true );
+        InMemoryClosableChannel plain = append( transaction, false );
+
+        // THEN
+        assertArrayEquals( bytes( plain ), bytes( compressed ) );
+    }
+
+    private static InMemoryClosableChannel append( TransactionRepresentation transaction, boolean compress )
+            throws IOException
+    {
+        return append( transaction, compress, 100_000 );
+    }
+
+    private static InMemoryClosableChannel append( TransactionRepresentation transaction, boolean compress,
+            int channelSize ) throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( channelSize );
+        new TransactionLogWriter( new LogEntryWriter( channel, compress ) ).append( transaction, 42 );
+        return channel;
+    }
+
+    private static List<String> readEntries( InMemoryClosableChannel channel ) throws IOException
+    {
+        List<String> entries = new ArrayList<>();
+        LogEntryCursor cursor = new LogEntryCursor( new VersionAwareLogEntryReader<>(), channel );
+        while ( cursor.next() )
+        {
+            // The position of a start entry is where the channel was read from, which differs between the channels
+            LogEntry entry = cursor.get();
+            entries.add( entry instanceof LogEntryStart ? "Start" : entry.toString() );
+        }
+        return entries;
+    }
+
+    private static byte[] bytes( InMemoryClosableChannel channel ) throws IOException
+    {
+        byte[] bytes = new byte[channel.writerPosition()];
+        channel.get( bytes, bytes.length );
+        return bytes;
+    }
+
+    private static TransactionRepresentation transaction( int numberOfCommands )
+    {
+        List<StorageCommand> commands = new ArrayList<>( numberOfCommands );
+        for ( int i = 0; i < numberOfCommands; i++ )
+        {
+            commands.add( new Command.NodeCommand( new NodeRecord( i, false, false, -1, -1, 0 ),
+                    new NodeRecord( i, true, false, i * 2, i * 3, 0 ) ) );
+        }
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation( commands );
+        transaction.setHeader( new byte[]{1, 2, 3}, 1, 2, 3, 4, 5, -1 );
+        return transaction;
+    }
+}
@@ -26,8 +26,8 @@ import java.util.function.Supplier;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.RecordCursor;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
-import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
 import static org.junit.Assert.assertEquals;
@@ -43,17 +43,16 @@ public class NodeStoreScanTest
     private final LockService locks = mock( LockService.class, RETURNS_MOCKS );
     private final NodeStore nodeStore = mock( NodeStore.class );
 
+    @SuppressWarnings( "unchecked" )
     @Test
     public void shouldGiveBackCompletionPercentage() throws Throwable
     {
         // given
         final int total = 10;
         when( nodeStore.getHighId() ).thenReturn( (long) total );
-        NodeRecord inUseRecord = new NodeRecord( 42 );
-        inUseRecord.setInUse( true );
-        when( nodeStore.getRecord( anyLong(), any( NodeRecord.class ), any( RecordLoad.class ) ) ).thenReturn(
-                inUseRecord, inUseRecord, inUseRecord, inUseRecord,
-                inUseRecord, inUseRecord, inUseRecord, inUseRecord, inUseRecord, inUseRecord );
+        RecordCursor<NodeRecord> cursor = mock( RecordCursor.class );
+        when( nodeStore.newScanRecordCursor( any( NodeRecord.class ) ) ).thenReturn( cursor );
+        when( cursor.next( anyLong() ) ).thenReturn( true );
 
         final PercentageSupplier percentageSupplier = new PercentageSupplier();
 
@@ -151,6 +151,43 @@ public class NodeLabelsCacheTest
         getRace.go();
     }
 
+    @Test
+    public void shouldSupportConcurrentPutWithSeparateClients() throws Throwable
+    {
+        // GIVEN labels large enough to spill over for some of the nodes
+        int highLabelId = 1_000, numberOfNodes = 10_000, threads = 4;
+        int[][] expectedLabels = new int[numberOfNodes][];
+        for ( int i = 0; i < numberOfNodes; i++ )
+        {
+            expectedLabels[i] = randomLabels( random.nextInt( 10 ) + 1, highLabelId );
+        }
+        NodeLabelsCache cache = new NodeLabelsCache( NumberArrayFactory.AUTO, highLabelId, 1_000 );
+
+        // WHEN each thread puts every n:th node
+        Race putRace = new Race();
+        for ( int t = 0; t < threads; t++ )
+        {
+            int offset = t;
+            putRace.addContestant( () ->
+            {
+                NodeLabelsCache.Client client = cache.newClient();
+                for ( int i = offset; i < numberOfNodes; i += threads )
+                {
+                    cache.put( client, i, asLongArray( expectedLabels[i] ) );
+                }
+            } );
+        }
+        putRace.go();
+
+        // THEN
+        NodeLabelsCache.Client client = cache.newClient();
+        for ( int i = 0; i < numberOfNodes; i++ )
+        {
+            int[] labels = cache.get( client, i, new int[0] );
+            assertArrayEquals( "For node " + i, expectedLabels[i], labels );
+        }
+    }
+
     private static class LabelGetter implements Runnable
     {
         private final NodeLabelsCache cache;
@@ -34,11 +34,18 @@ public final class MemoryManager
      */
     private static final long GRAB_SIZE = FeatureToggles.getInteger( MemoryManager.class, "GRAB_SIZE", 512 * 1024 ); // 512 KiB
 
+    /**
+     * Slabs that are at least this big are aligned to this size, so the operating system can back them with
+     * transparent huge pages.
+     */
+    private static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024; // 2 MiB
+
     /**
      * The amount of memory that this memory manager can still allocate.
      */
     private long memoryReserve;
     private final long alignment;
+    private final long grabSize;
 
     private Slab slabs;
 
@@ -50,9 +57,25 @@ public final class MemoryManager
      * @param alignment The byte multiple that the allocated pointers have to be aligned at.
      */
     public MemoryManager( long expectedMaxMemory, long alignment )
+    {
+        this( expectedMaxMemory, alignment, GRAB_SIZE );
+    }
+
+    /**
+     * Create a new MemoryManager that will allocate the given amount of memory, to pointers that are aligned to the
+     * given alignment size, by grabbing memory from the operating system in slabs of the given size.
+     * <p>
+     * Slabs that are as big as a huge page, or bigger, will start at a huge page boundary.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param alignment The byte multiple that the allocated pointers have to be aligned at.
+     * @param grabSize The amount of memory, in bytes, to grab in each slab.
+     */
+    public MemoryManager( long expectedMaxMemory, long alignment, long grabSize )
     {
         this.memoryReserve = expectedMaxMemory;
         this.alignment = alignment;
+        this.grabSize = grabSize;
     }
 
     /**
@@ -64,7 +87,7 @@ public final class MemoryManager
     {
         if ( slabs == null || !slabs.canAllocate( bytes ) )
         {
-            long slabGrab = Math.min( GRAB_SIZE, memoryReserve );
+            long slabGrab = Math.min( grabSize, memoryReserve );
             if ( slabGrab < bytes )
             {
                 slabGrab = bytes;
@@ -108,11 +131,14 @@ public final class MemoryManager
         public Slab( Slab next, long size, long alignment )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size );
-            this.limit = address + size;
+            boolean hugePageAligned = size >= HUGE_PAGE_SIZE;
+            long allocationSize = hugePageAligned ? size + HUGE_PAGE_SIZE : size;
+            this.address = UnsafeUtil.allocateMemory( allocationSize );
+            this.limit = address + allocationSize;
             this.alignMask = alignment - 1;
 
-            nextAlignedPointer = nextAligned( address );
+            long start = hugePageAligned ? (address + HUGE_PAGE_SIZE - 1) & ~(HUGE_PAGE_SIZE - 1) : address;
+            nextAlignedPointer = nextAligned( start );
         }
 
         private long nextAligned( long pointer )
@@ -689,6 +689,15 @@ public final class UnsafeUtil
         unsafe.copyMemory( srcAddress, destAddress, bytes );
     }
 
+    /**
+     * Copy the given number of bytes from the source object and offset, to the destination object and offset. The
+     * objects may be {@code null}, in which case the offsets are absolute addresses.
+     */
+    public static void copyMemory( Object srcBase, long srcOffset, Object destBase, long destOffset, long bytes )
+    {
+        unsafe.copyMemory( srcBase, srcOffset, destBase, destOffset, bytes );
+    }
+
     /**
      * Create a new DirectByteBuffer that wraps the given address and has the given capacity.
      * <p>
@@ -707,6 +716,14 @@ public final class UnsafeUtil
         return (ByteBuffer) directByteBufferCtor.newInstance( addr, cap );
     }
 
+    /**
+     * Get the native address of the memory that backs the given DirectByteBuffer.
+     */
+    public static long getDirectByteBufferAddress( ByteBuffer dbb )
+    {
+        return unsafe.getLong( dbb, directByteBufferAddressOffset );
+    }
+
     /**
      * Initialize (simulate calling the constructor of) the given DirectByteBuffer.
      */
@@ -53,4 +53,17 @@ public class MemoryManagerTest
         }
         // Also asserts that no OutOfMemoryError is thrown.
     }
+
+    @Test
+    public void largeSlabsMustBeHugePageAligned() throws Exception
+    {
+        long hugePageSize = 2 * 1024 * 1024;
+        MemoryManager mman = new MemoryManager( 4 * hugePageSize, 8, 2 * hugePageSize );
+        long address = mman.allocateAligned( 8192 );
+        assertThat( address % hugePageSize, is( 0L ) );
+        for ( int i = 1; i < (2 * hugePageSize) / 8192; i++ )
+        {
+            assertThat( mman.allocateAligned( 8192 ), is( address + i * 8192L ) );
+        }
+    }
 }
@@ -22,6 +22,7 @@ package org.neo4j.com.storecopy;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.OpenOption;
+import java.util.List;
 import java.util.Map;
 
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -30,6 +31,8 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.CompressedPageTierCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
 import org.neo4j.kernel.impl.enterprise.EnterpriseEditionModule;
 import org.neo4j.kernel.impl.factory.DatabaseInfo;
@@ -91,6 +94,18 @@ public class ExternallyManagedPageCache implements PageCache
         return delegate.maxCachedPages();
     }
 
+    @Override
+    public List<PagedFile> listExistingMappings()
+    {
+        return delegate.listExistingMappings();
+    }
+
+    @Override
+    public List<PagedFileCounters> listPagedFileCounters()
+    {
+        return delegate.listPagedFileCounters();
+    }
+
     /**
      * Create a GraphDatabaseFactory that will build EmbeddedGraphDatabase instances that all use the given page cache.
      */
@@ -123,6 +138,7 @@ public class ExternallyManagedPageCache implements PageCache
                         @Override
                         protected PageCache createPageCache( FileSystemAbstraction fileSystem, Config config, LogService logging, Tracers tracers )
                         {
+                            this.dependencies.satisfyDependency( CompressedPageTierCounters.NULL );
                             return new ExternallyManagedPageCache( delegatePageCache );
                         }
                     };
@@ -57,4 +57,8 @@ public interface PageCache
                   "This number should be zero, or at least not growing, in a healthy database. " +
                   "Otherwise it could indicate drive failure, storage space, or permission problems." )
     public long getEvictionExceptions();
+
+    @Description( "Statistics about each of the files that are currently mapped into the page cache. " +
+                  "This can tell which store files are causing the most page faults and evictions." )
+    PagedFileInfo[] getMappedFiles();
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.management;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+public final class PagedFileInfo implements Serializable
+{
+    private static final long serialVersionUID = -3263924712468357318L;
+
+    private String fileName;
+    private long faults;
+    private long hits;
+    private long evictions;
+    private long bytesRead;
+    private long bytesWritten;
+    private long flushes;
+    private long[] flushLatencyHistogram;
+
+    @ConstructorProperties( { "fileName", "faults", "hits", "evictions", "bytesRead", "bytesWritten", "flushes",
+            "flushLatencyHistogram" } )
+    public PagedFileInfo( String fileName, long faults, long hits, long evictions, long bytesRead, long bytesWritten,
+            long flushes, long[] flushLatencyHistogram )
+    {
+        this.fileName = fileName;
+        this.faults = faults;
+        this.hits = hits;
+        this.evictions = evictions;
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.flushes = flushes;
+        this.flushLatencyHistogram = flushLatencyHistogram;
+    }
+
+    public String getFileName()
+    {
+        return fileName;
+    }
+
+    public long getFaults()
+    {
+        return faults;
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getEvictions()
+    {
+        return evictions;
+    }
+
+    public long getBytesRead()
+    {
+        return bytesRead;
+    }
+
+    public long getBytesWritten()
+    {
+        return bytesWritten;
+    }
+
+    public long getFlushes()
+    {
+        return flushes;
+    }
+
+    /**
+     * The first bucket counts the flushes that took less than a microsecond, and bucket {@code i} counts the flushes
+     * that took less than 2<sup>i</sup> microseconds. The last bucket counts all the slower flushes.
+     */
+    public long[] getFlushLatencyHistogram()
+    {
+        return flushLatencyHistogram;
+    }
+}
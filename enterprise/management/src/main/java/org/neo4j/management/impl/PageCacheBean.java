@@ -19,14 +19,17 @@
  */
 package org.neo4j.management.impl;
 
+import java.util.List;
 import javax.management.NotCompliantMBeanException;
 
 import org.neo4j.helpers.Service;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.jmx.impl.ManagementBeanProvider;
 import org.neo4j.jmx.impl.ManagementData;
 import org.neo4j.jmx.impl.Neo4jMBean;
 import org.neo4j.management.PageCache;
+import org.neo4j.management.PagedFileInfo;
 
 @Service.Implementation(ManagementBeanProvider.class)
 public final class PageCacheBean extends ManagementBeanProvider
@@ -45,11 +48,13 @@ public final class PageCacheBean extends ManagementBeanProvider
     private static class PageCacheImpl extends Neo4jMBean implements PageCache
     {
         private final PageCacheCounters pageCacheCounters;
+        private final org.neo4j.io.pagecache.PageCache pageCache;
 
         PageCacheImpl( ManagementData management ) throws NotCompliantMBeanException
         {
             super( management );
             this.pageCacheCounters = management.resolveDependency( PageCacheCounters.class );
+            this.pageCache = management.resolveDependency( org.neo4j.io.pagecache.PageCache.class );
         }
 
         @Override
@@ -105,5 +110,20 @@ public final class PageCacheBean extends ManagementBeanProvider
         {
             return pageCacheCounters.evictionExceptions();
         }
+
+        @Override
+        public PagedFileInfo[] getMappedFiles()
+        {
+            List<PagedFileCounters> filesCounters = pageCache.listPagedFileCounters();
+            PagedFileInfo[] infos = new PagedFileInfo[filesCounters.size()];
+            for ( int i = 0; i < infos.length; i++ )
+            {
+                PagedFileCounters counters = filesCounters.get( i );
+                infos[i] = new PagedFileInfo( counters.file().getName(), counters.faults(), counters.hits(),
+                        counters.evictions(), counters.bytesRead(), counters.bytesWritten(), counters.flushes(),
+                        counters.flushLatencyHistogram() );
+            }
+            return infos;
+        }
     }
 }
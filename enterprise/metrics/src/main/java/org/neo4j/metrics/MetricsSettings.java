@@ -75,6 +75,15 @@ public class MetricsSettings
                   + "complete." )
     public static Setting<Boolean> neoLogRotationEnabled = setting(
             "metrics.neo4j.logrotation.enabled", Settings.BOOLEAN, neoEnabled );
+    @Description( "Enable reporting metrics about the Neo4j counts store rotation; when it occurs and how much time " +
+                  "it takes to complete." )
+    public static Setting<Boolean> neoCountsRotationEnabled = setting(
+            "metrics.neo4j.counts_rotation.enabled", Settings.BOOLEAN, neoEnabled );
+    @Description( "Enable reporting metrics about the recovery done when the database was last started; how many " +
+                  "transactions were recovered and how much time it took, as well as how much time it took to " +
+                  "pre-allocate the page cache memory." )
+    public static Setting<Boolean> neoRecoveryEnabled = setting(
+            "metrics.neo4j.recovery.enabled", Settings.BOOLEAN, neoEnabled );
     @Description( "Enable reporting metrics about HA cluster info." )
     public static Setting<Boolean> neoClusterEnabled = setting(
             "metrics.neo4j.cluster.enabled", Settings.BOOLEAN, neoEnabled );
@@ -24,13 +24,17 @@ import com.codahale.metrics.MetricRegistry;
 import java.util.function.Supplier;
 
 import org.neo4j.coreedge.raft.CoreMetaData;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.monitoring.CompressedPageTierCounters;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.cluster.member.ClusterMembers;
 import org.neo4j.kernel.impl.api.LogRotationMonitor;
+import org.neo4j.kernel.impl.core.StartupStatistics;
 import org.neo4j.kernel.impl.factory.OperationalMode;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.spi.KernelContext;
+import org.neo4j.kernel.impl.store.counts.CountsRotationMonitor;
 import org.neo4j.kernel.impl.store.stats.StoreEntityCounters;
 import org.neo4j.kernel.impl.transaction.TransactionCounters;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
@@ -45,10 +49,12 @@ import org.neo4j.metrics.source.coreedge.CoreMetrics;
 import org.neo4j.metrics.source.coreedge.EdgeMetrics;
 import org.neo4j.metrics.source.db.BoltMetrics;
 import org.neo4j.metrics.source.db.CheckPointingMetrics;
+import org.neo4j.metrics.source.db.CountsRotationMetrics;
 import org.neo4j.metrics.source.db.CypherMetrics;
 import org.neo4j.metrics.source.db.EntityCountMetrics;
 import org.neo4j.metrics.source.db.LogRotationMetrics;
 import org.neo4j.metrics.source.db.PageCacheMetrics;
+import org.neo4j.metrics.source.db.RecoveryMetrics;
 import org.neo4j.metrics.source.db.TransactionMetrics;
 import org.neo4j.metrics.source.jvm.GCMetrics;
 import org.neo4j.metrics.source.jvm.MemoryBuffersMetrics;
@@ -74,10 +80,18 @@ public class Neo4jMetricsBuilder
 
         PageCacheCounters pageCacheCounters();
 
+        PageCache pageCache();
+
+        CompressedPageTierCounters compressedPageTierCounters();
+
         CheckPointerMonitor checkPointerMonitor();
 
         LogRotationMonitor logRotationMonitor();
 
+        CountsRotationMonitor countsRotationMonitor();
+
+        StartupStatistics startupStatistics();
+
         StoreEntityCounters entityCountStats();
 
         Supplier<ClusterMembers> clusterMembers();
@@ -111,7 +125,8 @@ public class Neo4jMetricsBuilder
 
         if ( config.get( MetricsSettings.neoPageCacheEnabled ) )
         {
-            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters() ) );
+            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters(), dependencies.pageCache(),
+                    dependencies.compressedPageTierCounters() ) );
             result = true;
         }
 
@@ -129,6 +144,18 @@ public class Neo4jMetricsBuilder
             result = true;
         }
 
+        if ( config.get( MetricsSettings.neoCountsRotationEnabled ) )
+        {
+            life.add( new CountsRotationMetrics( registry, dependencies.countsRotationMonitor() ) );
+            result = true;
+        }
+
+        if ( config.get( MetricsSettings.neoRecoveryEnabled ) )
+        {
+            life.add( new RecoveryMetrics( registry, dependencies.startupStatistics() ) );
+            result = true;
+        }
+
         if ( config.get( MetricsSettings.neoCountsEnabled ) )
         {
             life.add( new EntityCountMetrics( registry, dependencies.entityCountStats() ) );
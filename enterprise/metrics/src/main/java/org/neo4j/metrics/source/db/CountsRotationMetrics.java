@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.store.counts.CountsRotationMonitor;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Counts Store Rotation Metrics" )
+public class CountsRotationMetrics extends LifecycleAdapter
+{
+    private static final String COUNTS_ROTATION_PREFIX = "neo4j.counts_rotation";
+
+    @Documented( "The total number of counts store rotations executed so far" )
+    public static final String COUNTS_ROTATION_EVENTS = name( COUNTS_ROTATION_PREFIX, "events" );
+    @Documented( "The total time spent in rotating the counts store so far" )
+    public static final String COUNTS_ROTATION_TOTAL_TIME = name( COUNTS_ROTATION_PREFIX, "total_time" );
+    @Documented( "The duration of the last counts store rotation" )
+    public static final String COUNTS_ROTATION_DURATION = name( COUNTS_ROTATION_PREFIX, "counts_rotation_duration" );
+
+    private final MetricRegistry registry;
+    private final CountsRotationMonitor countsRotationMonitor;
+
+    public CountsRotationMetrics( MetricRegistry registry, CountsRotationMonitor countsRotationMonitor )
+    {
+        this.registry = registry;
+        this.countsRotationMonitor = countsRotationMonitor;
+    }
+
+    @Override
+    public void start()
+    {
+        registry.register( COUNTS_ROTATION_EVENTS,
+                (Gauge<Long>) countsRotationMonitor::numberOfCountsRotationEvents );
+        registry.register( COUNTS_ROTATION_TOTAL_TIME,
+                (Gauge<Long>) countsRotationMonitor::countsRotationAccumulatedTotalTimeMillis );
+        registry.register( COUNTS_ROTATION_DURATION,
+                (Gauge<Long>) countsRotationMonitor::lastCountsRotationTimeMillis );
+    }
+
+    @Override
+    public void stop()
+    {
+        registry.remove( COUNTS_ROTATION_EVENTS );
+        registry.remove( COUNTS_ROTATION_TOTAL_TIME );
+        registry.remove( COUNTS_ROTATION_DURATION );
+    }
+}
@@ -22,8 +22,17 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.monitoring.CompressedPageTierCounters;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PagedFileCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.storemigration.StoreFile;
+import org.neo4j.kernel.impl.storemigration.StoreFileType;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static com.codahale.metrics.MetricRegistry.name;
@@ -45,14 +54,39 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_EVICTIONS = name( PAGE_CACHE_PREFIX, "evictions" );
     @Documented( "The total number of page faults happened in the page cache" )
     public static final String PC_PAGE_FAULTS = name( PAGE_CACHE_PREFIX, "page_faults" );
+    @Documented( "The ratio of page pins that found their page in the page cache, without a page fault" )
+    public static final String PC_HIT_RATIO = name( PAGE_CACHE_PREFIX, "hit_ratio" );
+    @Documented( "The ratio of page faults that were served from the compressed page tier, without reading the file" )
+    public static final String PC_COMPRESSED_TIER_HIT_RATIO = name( PAGE_CACHE_PREFIX, "compressed_tier", "hit_ratio" );
+    @Documented( "The total number of page faults that were served from the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_HITS = name( PAGE_CACHE_PREFIX, "compressed_tier", "hits" );
+    @Documented( "The number of pages currently kept in the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_PAGES = name( PAGE_CACHE_PREFIX, "compressed_tier", "pages" );
+    @Documented( "The number of bytes of memory currently used by the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_USED_MEMORY =
+            name( PAGE_CACHE_PREFIX, "compressed_tier", "used_memory" );
+
+    // The per-file metrics are named after the store file they are for, e.g. neo4j.page_cache.node_store.page_faults
+    private static final String FILE_PAGE_FAULTS = "page_faults";
+    private static final String FILE_HITS = "hits";
+    private static final String FILE_EVICTIONS = "evictions";
+    private static final String FILE_FLUSHES = "flushes";
+    private static final String FILE_BYTES_READ = "bytes_read";
+    private static final String FILE_BYTES_WRITTEN = "bytes_written";
 
     private final MetricRegistry registry;
     private final PageCacheCounters pageCacheCounters;
+    private final PageCache pageCache;
+    private final CompressedPageTierCounters compressedPageTierCounters;
+    private final List<String> fileMetricNames = new ArrayList<>();
 
-    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
+    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters, PageCache pageCache,
+            CompressedPageTierCounters compressedPageTierCounters )
     {
         this.registry = registry;
         this.pageCacheCounters = pageCacheCounters;
+        this.pageCache = pageCache;
+        this.compressedPageTierCounters = compressedPageTierCounters;
     }
 
     @Override
@@ -64,6 +98,56 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_UNPINS, (Gauge<Long>) pageCacheCounters::unpins );
         registry.register( PC_FLUSHES, (Gauge<Long>) pageCacheCounters::flushes );
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
+        registry.register( PC_HIT_RATIO, (Gauge<Double>) () ->
+                ratio( pageCacheCounters.pins() - pageCacheCounters.faults(), pageCacheCounters.pins() ) );
+        registry.register( PC_COMPRESSED_TIER_HIT_RATIO, (Gauge<Double>) () -> ratio(
+                compressedPageTierCounters.hits(),
+                compressedPageTierCounters.hits() + compressedPageTierCounters.misses() ) );
+        registry.register( PC_COMPRESSED_TIER_HITS, (Gauge<Long>) compressedPageTierCounters::hits );
+        registry.register( PC_COMPRESSED_TIER_PAGES, (Gauge<Long>) compressedPageTierCounters::pages );
+        registry.register( PC_COMPRESSED_TIER_USED_MEMORY, (Gauge<Long>) compressedPageTierCounters::usedMemory );
+
+        for ( StoreFile storeFile : StoreFile.currentStoreFiles() )
+        {
+            if ( storeFile.isRecordStore() )
+            {
+                String fileName = storeFile.fileName( StoreFileType.STORE );
+                String prefix = name( PAGE_CACHE_PREFIX, storeFile.name().toLowerCase() );
+                registerFileGauge( prefix, FILE_PAGE_FAULTS, fileName, PagedFileCounters::faults );
+                registerFileGauge( prefix, FILE_HITS, fileName, PagedFileCounters::hits );
+                registerFileGauge( prefix, FILE_EVICTIONS, fileName, PagedFileCounters::evictions );
+                registerFileGauge( prefix, FILE_FLUSHES, fileName, PagedFileCounters::flushes );
+                registerFileGauge( prefix, FILE_BYTES_READ, fileName, PagedFileCounters::bytesRead );
+                registerFileGauge( prefix, FILE_BYTES_WRITTEN, fileName, PagedFileCounters::bytesWritten );
+            }
+        }
+    }
+
+    private static double ratio( long part, long total )
+    {
+        return total <= 0 ? 0.0 : ((double) part) / total;
+    }
+
+    private void registerFileGauge( String prefix, String metric, String fileName,
+            ToLongFunction<PagedFileCounters> counter )
+    {
+        String metricName = name( prefix, metric );
+        registry.register( metricName, (Gauge<Long>) () -> sumOfFileCounter( fileName, counter ) );
+        fileMetricNames.add( metricName );
+    }
+
+    private long sumOfFileCounter( String fileName, ToLongFunction<PagedFileCounters> counter )
+    {
+        // The file is looked up every time, because it might be unmapped and mapped again while we are running.
+        long sum = 0;
+        for ( PagedFileCounters fileCounters : pageCache.listPagedFileCounters() )
+        {
+            if ( fileCounters.file().getName().equals( fileName ) )
+            {
+                sum += counter.applyAsLong( fileCounters );
+            }
+        }
+        return sum;
     }
 
     @Override
@@ -75,5 +159,12 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_UNPINS );
         registry.remove( PC_FLUSHES );
         registry.remove( PC_EVICTION_EXCEPTIONS );
+        registry.remove( PC_HIT_RATIO );
+        registry.remove( PC_COMPRESSED_TIER_HIT_RATIO );
+        registry.remove( PC_COMPRESSED_TIER_HITS );
+        registry.remove( PC_COMPRESSED_TIER_PAGES );
+        registry.remove( PC_COMPRESSED_TIER_USED_MEMORY );
+        fileMetricNames.forEach( registry::remove );
+        fileMetricNames.clear();
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.core.StartupStatistics;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Recovery Metrics" )
+public class RecoveryMetrics extends LifecycleAdapter
+{
+    private static final String RECOVERY_PREFIX = "neo4j.recovery";
+
+    @Documented( "The number of transactions recovered when the database was last started" )
+    public static final String RECOVERED_TRANSACTIONS = name( RECOVERY_PREFIX, "recovered_transactions" );
+    @Documented( "The time spent in recovery when the database was last started" )
+    public static final String RECOVERY_TIME = name( RECOVERY_PREFIX, "recovery_time" );
+    @Documented( "The time spent pre-allocating the page cache memory when the database was last started" )
+    public static final String PAGE_CACHE_PREALLOCATION_TIME = name( RECOVERY_PREFIX, "page_cache_preallocation_time" );
+
+    private final MetricRegistry registry;
+    private final StartupStatistics startupStatistics;
+
+    public RecoveryMetrics( MetricRegistry registry, StartupStatistics startupStatistics )
+    {
+        this.registry = registry;
+        this.startupStatistics = startupStatistics;
+    }
+
+    @Override
+    public void start()
+    {
+        registry.register( RECOVERED_TRANSACTIONS, (Gauge<Integer>) startupStatistics::numberOfRecoveredTransactions );
+        registry.register( RECOVERY_TIME, (Gauge<Long>) startupStatistics::recoveryTimeMillis );
+        registry.register( PAGE_CACHE_PREALLOCATION_TIME,
+                (Gauge<Long>) startupStatistics::pageCachePreallocationTimeMillis );
+    }
+
+    @Override
+    public void stop()
+    {
+        registry.remove( RECOVERED_TRANSACTIONS );
+        registry.remove( RECOVERY_TIME );
+        registry.remove( PAGE_CACHE_PREALLOCATION_TIME );
+    }
+}
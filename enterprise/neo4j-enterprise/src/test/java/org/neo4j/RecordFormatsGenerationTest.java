@@ -27,6 +27,7 @@ import java.util.List;
 import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.format.RecordFormats;
 import org.neo4j.kernel.impl.store.format.StoreVersion;
+import org.neo4j.kernel.impl.store.format.compact.Compact;
 import org.neo4j.kernel.impl.store.format.highlimit.HighLimit;
 import org.neo4j.kernel.impl.store.format.standard.StandardV2_0;
 import org.neo4j.kernel.impl.store.format.standard.StandardV2_1;
@@ -48,6 +49,7 @@ public class RecordFormatsGenerationTest
                 StandardV2_2.RECORD_FORMATS.generation(),
                 StandardV2_3.RECORD_FORMATS.generation(),
                 StandardV3_0.RECORD_FORMATS.generation(),
+                Compact.RECORD_FORMATS.generation(),
                 HighLimit.RECORD_FORMATS.generation()
         );
 
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2016 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.tools.compaction;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.helpers.Args;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.logging.SimpleLogService;
+import org.neo4j.kernel.impl.store.compaction.StoreCompactor;
+import org.neo4j.logging.FormattedLogProvider;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitor;
+import org.neo4j.unsafe.impl.batchimport.staging.ExecutionMonitors;
+
+import static java.lang.String.format;
+import static org.neo4j.kernel.impl.pagecache.StandalonePageCacheFactory.createPageCache;
+
+/**
+ * Stand alone tool for rewriting the stores of a database that is not running, without the space left behind by
+ * deleted nodes, relationships and properties.
+ *
+ * @see StoreCompactor
+ */
+public class CompactStore
+{
+    private static final String HELP_FLAG = "help";
+
+    public static void main( String[] args ) throws IOException
+    {
+        Args arguments = Args.withFlags( HELP_FLAG ).parse( args );
+        if ( arguments.getBoolean( HELP_FLAG, false ) || args.length == 0 )
+        {
+            printUsageAndExit();
+        }
+        File storeDir = parseDir( arguments );
+
+        FormattedLogProvider userLogProvider = FormattedLogProvider.toOutputStream( System.out );
+        new CompactStore().run( new DefaultFileSystemAbstraction(), storeDir, Config.empty(), userLogProvider,
+                ExecutionMonitors.defaultVisible() );
+    }
+
+    public void run( FileSystemAbstraction fs, File storeDirectory, Config config, LogProvider userLogProvider,
+            ExecutionMonitor executionMonitor ) throws IOException
+    {
+        Log log = userLogProvider.getLog( CompactStore.class );
+        try ( PageCache pageCache = createPageCache( fs, config ) )
+        {
+            long startTime = System.currentTimeMillis();
+            new StoreCompactor( fs, pageCache, config, new SimpleLogService( userLogProvider, userLogProvider ),
+                    executionMonitor ).compact( storeDirectory );
+            long duration = System.currentTimeMillis() - startTime;
+            log.info( format( "Compaction completed in %d s%n", duration / 1000 ) );
+        }
+    }
+
+    private static File parseDir( Args args )
+    {
+        if ( args.orphans().size() != 1 )
+        {
+            System.out.println( "Error: too much arguments provided." );
+            printUsageAndExit();
+        }
+        File dir = new File( args.orphans().get( 0 ) );
+        if ( !dir.isDirectory() )
+        {
+            System.out.println( "Invalid directory: '" + dir + "'" );
+            printUsageAndExit();
+        }
+        return dir;
+    }
+
+    private static void printUsageAndExit()
+    {
+        System.out.println( "Store compaction tool rewrites the stores of a database, that is not running, without " +
+                            "the space left behind by deleted nodes, relationships and properties. The ids of nodes " +
+                            "and relationships change, schema indexes are rebuilt the next time the database " +
+                            "starts, and databases with legacy indexes are not supported." );
+        System.out.println();
+        System.out.println( "Options:" );
+        System.out.println( "-help    print this help message" );
+        System.out.println();
+        System.out.println( "Usage:" );
+        System.out.println( "./compactStore [option] <store directory>" );
+        System.exit( 1 );
+    }
+}